@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package org.openrefine.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.refine.clustering.binning.FingerprintKeyer;
+import com.google.refine.clustering.binning.Keyer;
+import com.google.refine.clustering.binning.NGramFingerprintKeyer;
+
+/**
+ * Compares the single-pass computation of fingerprint keys with the regular
+ * normalization, which the keyers fall back on for non-ASCII strings and
+ * which subclasses always use.
+ */
+public class FingerprintKeyerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ExecutionPlan {
+
+        @Param({ "ascii", "latin" })
+        public String alphabet;
+
+        public Keyer fingerprint = new FingerprintKeyer();
+        public Keyer regularFingerprint = new FingerprintKeyer() {
+        };
+        public Keyer ngram = new NGramFingerprintKeyer();
+        public Keyer regularNgram = new NGramFingerprintKeyer() {
+        };
+        String[] values = new String[1024];
+        int index = 0;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            String letters = "ascii".equals(alphabet) ? "abcdeABCDE" : "abcdeÀÉçøß";
+            Random rnd = new Random(1234);
+            for (int i = 0; i < values.length; i++) {
+                StringBuilder sb = new StringBuilder();
+                int words = 1 + rnd.nextInt(4);
+                for (int w = 0; w < words; w++) {
+                    if (w > 0) {
+                        sb.append(rnd.nextBoolean() ? " " : ", ");
+                    }
+                    int length = 3 + rnd.nextInt(8);
+                    for (int c = 0; c < length; c++) {
+                        sb.append(letters.charAt(rnd.nextInt(letters.length())));
+                    }
+                }
+                values[i] = sb.toString();
+            }
+        }
+
+        String next() {
+            index = (index + 1) & (values.length - 1);
+            return values[index];
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Fork(1)
+    public void fingerprint(ExecutionPlan plan, Blackhole blackhole) {
+        blackhole.consume(plan.fingerprint.key(plan.next()));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Fork(1)
+    public void fingerprintRegular(ExecutionPlan plan, Blackhole blackhole) {
+        blackhole.consume(plan.regularFingerprint.key(plan.next()));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Fork(1)
+    public void ngramFingerprint(ExecutionPlan plan, Blackhole blackhole) {
+        blackhole.consume(plan.ngram.key(plan.next(), 2));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Fork(1)
+    public void ngramFingerprintRegular(ExecutionPlan plan, Blackhole blackhole) {
+        blackhole.consume(plan.regularNgram.key(plan.next(), 2));
+    }
+}
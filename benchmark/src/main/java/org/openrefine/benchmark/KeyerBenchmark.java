@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package org.openrefine.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.refine.clustering.binning.ColognePhoneticKeyer;
+import com.google.refine.clustering.binning.DoubleMetaphoneKeyer;
+import com.google.refine.clustering.binning.FingerprintKeyer;
+import com.google.refine.clustering.binning.Keyer;
+import com.google.refine.clustering.binning.KeyerFactory;
+import com.google.refine.clustering.binning.Metaphone3Keyer;
+import com.google.refine.clustering.binning.MetaphoneKeyer;
+import com.google.refine.clustering.binning.NGramFingerprintKeyer;
+import com.google.refine.clustering.binning.SoundexKeyer;
+
+/**
+ * Measures every keyer, registered or not, on person names as found in messy
+ * data: common names repeated many times, with variations in case, accents and
+ * punctuation. Each keyer is measured as is and memoized.
+ */
+public class KeyerBenchmark {
+
+    static final String[] FIRST_NAMES = { "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael",
+            "Linda", "William", "Elizabeth", "José", "María", "François", "Zoë", "Jürgen", "Søren", "Łukasz",
+            "Mohammed", "Wei", "Aoife", "Siobhán", "Dmitri", "Ingrid", "Chloé", "Renée" };
+    static final String[] LAST_NAMES = { "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Rodriguez", "Martinez", "Müller", "Schmidt", "Schneider", "Fischer", "Dubois", "O'Brien",
+            "McDonald", "van der Berg", "Nguyen", "Kowalski", "Østergaard", "Þórsson", "Papadopoulos",
+            "Gonçalves", "Smyth" };
+
+    @State(Scope.Benchmark)
+    public static class ExecutionPlan {
+
+        @Param({ "fingerprint", "ngram-fingerprint", "metaphone", "double-metaphone", "metaphone3", "soundex",
+                "cologne-phonetic" })
+        public String keyerName;
+
+        @Param({ "false", "true" })
+        public boolean memoized;
+
+        public Keyer keyer;
+        String[] values = new String[4096];
+        int index = 0;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Map<String, Keyer> keyers = new HashMap<>();
+            keyers.put("fingerprint", new FingerprintKeyer());
+            keyers.put("ngram-fingerprint", new NGramFingerprintKeyer());
+            keyers.put("metaphone", new MetaphoneKeyer());
+            keyers.put("double-metaphone", new DoubleMetaphoneKeyer());
+            keyers.put("metaphone3", new Metaphone3Keyer());
+            keyers.put("soundex", new SoundexKeyer());
+            keyers.put("cologne-phonetic", new ColognePhoneticKeyer());
+            keyer = keyers.get(keyerName);
+            if (memoized) {
+                keyer = KeyerFactory.memoize(keyer);
+            }
+
+            Random rnd = new Random(1234);
+            for (int i = 0; i < values.length; i++) {
+                // skewed towards the first names of each list, like real name frequencies
+                String first = FIRST_NAMES[(int) (FIRST_NAMES.length * Math.pow(rnd.nextDouble(), 2))];
+                String last = LAST_NAMES[(int) (LAST_NAMES.length * Math.pow(rnd.nextDouble(), 2))];
+                String name;
+                switch (rnd.nextInt(5)) {
+                    case 0:
+                        name = last + ", " + first;
+                        break;
+                    case 1:
+                        name = (first + " " + last).toUpperCase();
+                        break;
+                    case 2:
+                        name = first.charAt(0) + ". " + last;
+                        break;
+                    default:
+                        name = first + " " + last;
+                }
+                values[i] = name;
+            }
+        }
+
+        String next() {
+            index = (index + 1) & (values.length - 1);
+            return values[index];
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Fork(1)
+    public void key(ExecutionPlan plan, Blackhole blackhole) {
+        blackhole.consume(plan.keyer.key(plan.next()));
+    }
+}
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package org.openrefine.benchmark;
+
+import java.io.Serializable;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.refine.importers.ImporterUtilities;
+
+/**
+ * Compares the guessing of cell value types at import time with the former
+ * approach, which tried to parse each value as a long and then as a double,
+ * relying on exceptions.
+ */
+public class ParseCellValueBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ExecutionPlan {
+
+        @Param({ "text", "long", "double" })
+        public String kind;
+
+        String[] values = new String[1024];
+        int index = 0;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random rnd = new Random(1234);
+            for (int i = 0; i < values.length; i++) {
+                if ("long".equals(kind)) {
+                    values[i] = Long.toString(rnd.nextInt());
+                } else if ("double".equals(kind)) {
+                    values[i] = Double.toString(rnd.nextDouble() * 10000);
+                } else {
+                    StringBuilder sb = new StringBuilder();
+                    int length = 3 + rnd.nextInt(12);
+                    for (int c = 0; c < length; c++) {
+                        sb.append((char) ('a' + rnd.nextInt(26)));
+                    }
+                    values[i] = sb.toString();
+                }
+            }
+        }
+
+        String next() {
+            index = (index + 1) & (values.length - 1);
+            return values[index];
+        }
+    }
+
+    static Serializable parseWithExceptions(String text) {
+        if (text.length() > 0) {
+            String text2 = text.trim();
+            if (text2.length() > 0) {
+                try {
+                    return Long.parseLong(text2);
+                } catch (NumberFormatException e) {
+                }
+                try {
+                    double d = Double.parseDouble(text2);
+                    if (!Double.isInfinite(d) && !Double.isNaN(d)) {
+                        return d;
+                    }
+                } catch (NumberFormatException e) {
+                }
+            }
+        }
+        return text;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Fork(1)
+    public void parseCellValue(ExecutionPlan plan, Blackhole blackhole) {
+        blackhole.consume(ImporterUtilities.parseCellValue(plan.next()));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Fork(1)
+    public void parseWithExceptions(ExecutionPlan plan, Blackhole blackhole) {
+        blackhole.consume(parseWithExceptions(plan.next()));
+    }
+}
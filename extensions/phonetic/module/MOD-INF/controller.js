@@ -39,9 +39,10 @@ var ClientSideResourceManager = Packages.com.google.refine.ClientSideResourceMan
  * Function invoked to initialize the extension.
  */
 function init() {
-  // Register new keyers
-  Packages.com.google.refine.clustering.binning.KeyerFactory.put("daitch-mokotoff", new Packages.org.openrefine.phonetic.keyers.DaitchMokotoffKeyer());
-  Packages.com.google.refine.clustering.binning.KeyerFactory.put("beider-morse", new Packages.org.openrefine.phonetic.keyers.BeiderMorseKeyer());
+  // Register new keyers, memoized as they are expensive to compute
+  var KeyerFactory = Packages.com.google.refine.clustering.binning.KeyerFactory;
+  KeyerFactory.put("daitch-mokotoff", KeyerFactory.memoize(new Packages.org.openrefine.phonetic.keyers.DaitchMokotoffKeyer()));
+  KeyerFactory.put("beider-morse", KeyerFactory.memoize(new Packages.org.openrefine.phonetic.keyers.BeiderMorseKeyer()));
 
   // Similarly, we could register new distances like this:
   // Packages.com.google.refine.clustering.knn.DistanceFactory.put("my-distance", new Packages.org.openrefine.mydistances.MyDistance());
@@ -57,6 +57,7 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.refine.commands.Command;
+import com.google.refine.importers.XlsxWorkbookReader;
 import com.google.refine.importing.ImportingManager;
 import com.google.refine.io.FileProjectManager;
 
@@ -138,6 +139,7 @@ public class RefineServlet extends Butterfly {
         s_dataDir = new File(data);
         FileProjectManager.initialize(s_dataDir);
         ImportingManager.initialize(this);
+        XlsxWorkbookReader.initialize();
 
 	long AUTOSAVE_PERIOD = Long.parseLong(getInitParameter("refine.autosave"));
 
@@ -39,10 +39,15 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.refine.browsing.facets.Facet;
+import com.google.refine.browsing.facets.SamplingFacet;
+import com.google.refine.browsing.filters.SamplingRowFilter;
 import com.google.refine.browsing.util.ConjunctiveFilteredRecords;
 import com.google.refine.browsing.util.ConjunctiveFilteredRows;
+import com.google.refine.browsing.util.EvaluationMemo;
 import com.google.refine.browsing.util.FilteredRecordsAsFilteredRows;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
@@ -70,6 +75,14 @@ public class Engine  {
     protected List<Facet> _facets = new LinkedList<Facet>();
     @JsonIgnore
     protected EngineConfig _config = new EngineConfig(Collections.emptyList(), Mode.RowBased);
+    @JsonIgnore
+    protected CancellationToken _cancellationToken;
+    @JsonIgnore
+    protected boolean _truncated = false;
+    @JsonIgnore
+    protected boolean _sampled = false;
+    @JsonIgnore
+    protected EvaluationMemo _evaluationMemo;
 
     static public String modeToString(Mode mode) {
         return mode == Mode.RowBased ? MODE_ROW_BASED : MODE_RECORD_BASED;
@@ -87,7 +100,45 @@ public class Engine  {
         return _config.getMode();
     }
     public void setMode(Mode mode) {
-        _config = new EngineConfig(_config.getFacetConfigs(), mode);
+        _config = new EngineConfig(_config.getFacetConfigs(), mode, _config.getSampleSize());
+    }
+
+    /**
+     * Makes row and record visits stop early once the given token fires.
+     * Facets computed after that point only reflect the rows visited so far.
+     */
+    @JsonIgnore
+    public void setCancellationToken(CancellationToken token) {
+        _cancellationToken = token;
+    }
+
+    @JsonIgnore
+    public CancellationToken getCancellationToken() {
+        return _cancellationToken;
+    }
+
+    /**
+     * @return true if the last call to {@link #computeFacets()} was cancelled
+     *      before it could visit all rows, in which case facet counts are partial.
+     */
+    @JsonProperty("truncated")
+    @JsonInclude(Include.NON_DEFAULT)
+    public boolean isTruncated() {
+        return _truncated;
+    }
+
+    /**
+     * @return true if some facets were computed over a sample of the rows,
+     *      in which case their counts are estimates.
+     */
+    @JsonProperty("sampled")
+    @JsonInclude(Include.NON_DEFAULT)
+    public boolean isSampled() {
+        return _sampled;
+    }
+
+    protected boolean isCancelled() {
+        return _cancellationToken != null && _cancellationToken.isCancelled();
     }
 
     @JsonIgnore
@@ -100,6 +151,9 @@ public class Engine  {
 
                     int c = project.rows.size();
                     for (int rowIndex = 0; rowIndex < c; rowIndex++) {
+                        if (isCancelled()) {
+                            break;
+                        }
                         Row row = project.rows.get(rowIndex);
                         if (visitor.visit(project, rowIndex, row)) {
                             break;
@@ -121,18 +175,23 @@ public class Engine  {
         if (_config.getMode().equals(Mode.RecordBased)) {
             return new FilteredRecordsAsFilteredRows(getFilteredRecords(except));
         } else if (_config.getMode().equals(Mode.RowBased)) {
-            ConjunctiveFilteredRows cfr = new ConjunctiveFilteredRows();
-            for (Facet facet : _facets) {
-                if (facet != except) {
-                    RowFilter rowFilter = facet.getRowFilter(_project);
-                    if (rowFilter != null) {
-                        cfr.add(rowFilter);
-                    }
+            return getConjunctiveFilteredRows(except);
+        }
+        throw new InternalError("Unknown mode.");
+    }
+
+    protected ConjunctiveFilteredRows getConjunctiveFilteredRows(Facet except) {
+        ConjunctiveFilteredRows cfr = new ConjunctiveFilteredRows();
+        cfr.setCancellationToken(_cancellationToken);
+        for (Facet facet : _facets) {
+            if (facet != except) {
+                RowFilter rowFilter = facet.getRowFilter(_project);
+                if (rowFilter != null) {
+                    cfr.add(rowFilter);
                 }
             }
-            return cfr;
         }
-        throw new InternalError("Unknown mode.");
+        return cfr;
     }
 
     @JsonIgnore
@@ -145,6 +204,9 @@ public class Engine  {
 
                     int c = project.recordModel.getRecordCount();
                     for (int r = 0; r < c; r++) {
+                        if (isCancelled()) {
+                            break;
+                        }
                         visitor.visit(project, project.recordModel.getRecord(r));
                     }
                 } finally {
@@ -161,18 +223,23 @@ public class Engine  {
 
     public FilteredRecords getFilteredRecords(Facet except) {
         if (_config.getMode().equals(Mode.RecordBased)) {
-            ConjunctiveFilteredRecords cfr = new ConjunctiveFilteredRecords();
-            for (Facet facet : _facets) {
-                if (facet != except) {
-                    RecordFilter recordFilter = facet.getRecordFilter(_project);
-                    if (recordFilter != null) {
-                        cfr.add(recordFilter);
-                    }
+            return getConjunctiveFilteredRecords(except);
+        }
+        throw new InternalError("This method should not be called when the engine is not in record mode.");
+    }
+
+    protected ConjunctiveFilteredRecords getConjunctiveFilteredRecords(Facet except) {
+        ConjunctiveFilteredRecords cfr = new ConjunctiveFilteredRecords();
+        cfr.setCancellationToken(_cancellationToken);
+        for (Facet facet : _facets) {
+            if (facet != except) {
+                RecordFilter recordFilter = facet.getRecordFilter(_project);
+                if (recordFilter != null) {
+                    cfr.add(recordFilter);
                 }
             }
-            return cfr;
         }
-        throw new InternalError("This method should not be called when the engine is not in record mode.");
+        return cfr;
     }
     
     public void initializeFromConfig(EngineConfig config) {
@@ -180,23 +247,77 @@ public class Engine  {
         _facets = config.getFacetConfigs().stream()
                 .map(c -> c.apply(_project))
                 .collect(Collectors.toList());
+        if (_evaluationMemo != null) {
+            _facets.forEach(f -> f.setEvaluationMemo(_evaluationMemo));
+        }
+    }
+
+    /**
+     * Makes facets evaluate each distinct (column, expression) pair at most once
+     * per row for the lifetime of this engine, sharing the results between facet
+     * choices and row filters. This trades memory for time and is only worth it
+     * for engines visiting the rows several times, such as when computing facets.
+     * The engine must not outlive the current state of the project.
+     */
+    public void enableEvaluationMemo() {
+        if (_evaluationMemo == null) {
+            _evaluationMemo = new EvaluationMemo();
+            _facets.forEach(f -> f.setEvaluationMemo(_evaluationMemo));
+        }
     }
 
+    /**
+     * Computes the choices of all facets. If a cancellation token is set and
+     * fires during the computation, the remaining facets are left uncomputed
+     * and the engine is flagged as truncated.
+     * 
+     * If the configuration has a sample size, facets implementing {@link SamplingFacet}
+     * only visit a deterministic sample of the rows (or records) and report estimates.
+     */
     public void computeFacets() {
+        _truncated = false;
+        _sampled = false;
         if (_config.getMode().equals(Mode.RowBased)) {
+            SamplingRowFilter sampling = SamplingRowFilter.forSampleSize(
+                    _config.getSampleSize(), _project.rows.size());
             for (Facet facet : _facets) {
-                FilteredRows filteredRows = getFilteredRows(facet);
+                if (isCancelled()) {
+                    break;
+                }
+                ConjunctiveFilteredRows filteredRows = getConjunctiveFilteredRows(facet);
+                if (sampling != null && facet instanceof SamplingFacet) {
+                    filteredRows.add(sampling);
+                    _sampled = true;
+                }
+                setSampling(facet, sampling);
 
                 facet.computeChoices(_project, filteredRows);
             }
         } else if (_config.getMode().equals(Mode.RecordBased)) {
+            SamplingRowFilter sampling = SamplingRowFilter.forSampleSize(
+                    _config.getSampleSize(), _project.recordModel.getRecordCount());
             for (Facet facet : _facets) {
-                FilteredRecords filteredRecords = getFilteredRecords(facet);
+                if (isCancelled()) {
+                    break;
+                }
+                ConjunctiveFilteredRecords filteredRecords = getConjunctiveFilteredRecords(facet);
+                if (sampling != null && facet instanceof SamplingFacet) {
+                    filteredRecords.add(sampling);
+                    _sampled = true;
+                }
+                setSampling(facet, sampling);
 
                 facet.computeChoices(_project, filteredRecords);
             }
         } else {
             throw new InternalError("Unknown mode.");
         }
+        _truncated = isCancelled();
+    }
+
+    protected void setSampling(Facet facet, SamplingRowFilter sampling) {
+        if (facet instanceof SamplingFacet) {
+            ((SamplingFacet) facet).setSampling(sampling);
+        }
     }
 }
@@ -31,6 +31,8 @@ import java.util.Collections;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.refine.browsing.Engine.Mode;
 import com.google.refine.browsing.facets.FacetConfig;
@@ -41,15 +43,23 @@ public class EngineConfig  {
     
     protected final List<FacetConfig> _facets;
     protected final Mode _mode;
+    protected final int _sampleSize;
+    
+    public EngineConfig(List<FacetConfig> facets, Mode mode) {
+        this(facets, mode, null);
+    }
     
     @JsonCreator
     public EngineConfig(
             @JsonProperty("facets")
             List<FacetConfig> facets,
             @JsonProperty("mode")
-            Mode mode) {
+            Mode mode,
+            @JsonProperty("sampleSize")
+            Integer sampleSize) {
         _facets = facets == null ? Collections.emptyList() : facets;
         _mode = mode == null ? Mode.RowBased : mode;
+        _sampleSize = sampleSize == null ? 0 : sampleSize;
     }
     
     @JsonProperty("mode")
@@ -62,6 +72,16 @@ public class EngineConfig  {
         return _facets;
     }
     
+    /**
+     * Approximate number of rows (or records) over which facets supporting
+     * sampling compute their choices. 0 means all rows are visited.
+     */
+    @JsonProperty("sampleSize")
+    @JsonInclude(Include.NON_DEFAULT)
+    public int getSampleSize() {
+        return _sampleSize;
+    }
+    
     public static EngineConfig reconstruct(String json) {
         if(json == null) {
             return new EngineConfig(Collections.emptyList(), Mode.RowBased);
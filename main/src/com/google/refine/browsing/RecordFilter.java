@@ -33,6 +33,8 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing;
 
+import java.util.BitSet;
+
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
 
@@ -42,4 +44,16 @@ import com.google.refine.model.Record;
  */
 public interface RecordFilter {
     public boolean filterRecord(Project project, Record record);
+
+    /**
+     * Clears from the given set of record indices the records which do not
+     * match this filter. Records outside the set are not evaluated.
+     */
+    default public void filterRecords(Project project, BitSet records) {
+        for (int r = records.nextSetBit(0); r >= 0; r = records.nextSetBit(r + 1)) {
+            if (!filterRecord(project, project.recordModel.getRecord(r))) {
+                records.clear(r);
+            }
+        }
+    }
 }
@@ -37,6 +37,7 @@ import com.google.refine.browsing.FilteredRecords;
 import com.google.refine.browsing.FilteredRows;
 import com.google.refine.browsing.RecordFilter;
 import com.google.refine.browsing.RowFilter;
+import com.google.refine.browsing.util.EvaluationMemo;
 import com.google.refine.model.Project;
 
 /**
@@ -50,4 +51,11 @@ public interface Facet  {
     public void computeChoices(Project project, FilteredRows filteredRows);
     
     public void computeChoices(Project project, FilteredRecords filteredRecords);
+    
+    /**
+     * Lets the facet share the per-row results of its expressions with the other
+     * facets of the engine. Called before any filter or choice is computed.
+     */
+    public default void setEvaluationMemo(EvaluationMemo memo) {
+    }
 }
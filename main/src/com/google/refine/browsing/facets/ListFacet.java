@@ -51,14 +51,18 @@ import com.google.refine.browsing.RowFilter;
 import com.google.refine.browsing.filters.AllRowsRecordFilter;
 import com.google.refine.browsing.filters.AnyRowRecordFilter;
 import com.google.refine.browsing.filters.ExpressionEqualRowFilter;
+import com.google.refine.browsing.filters.SamplingRowFilter;
+import com.google.refine.browsing.util.ConjunctiveFilteredRows;
+import com.google.refine.browsing.util.EvaluationMemo;
 import com.google.refine.browsing.util.ExpressionNominalValueGrouper;
 import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.ParsingException;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
 
-public class ListFacet implements Facet {
+public class ListFacet implements SamplingFacet {
     public static final String ERR_TOO_MANY_CHOICES = "Too many choices";
     
     /**
@@ -135,6 +139,9 @@ public class ListFacet implements Facet {
         boolean selected;
         @JsonProperty("c")
         int count;
+        @JsonProperty("e")
+        @JsonInclude(Include.NON_NULL)
+        Integer errorBound;
         public OtherChoice(
                 @JsonProperty("s") boolean selected,
                 @JsonProperty("c") int count) {
@@ -151,6 +158,7 @@ public class ListFacet implements Facet {
     protected int        _cellIndex;
     protected Evaluable  _eval;
     protected String     _errorMessage;
+    protected SamplingRowFilter _sampling;
     
     /*
      * Computed results
@@ -158,6 +166,8 @@ public class ListFacet implements Facet {
     protected List<NominalFacetChoice> _choices = new LinkedList<NominalFacetChoice>();
     protected int _blankCount;
     protected int _errorCount;
+    protected int _sampledBlankCount;
+    protected int _sampledErrorCount;
     
     public ListFacet() {
     }
@@ -213,7 +223,11 @@ public class ListFacet implements Facet {
     @JsonInclude(Include.NON_NULL)
     public OtherChoice getBlankChoice() {
         if (getError() == null && !_config.omitBlank && (_config.selectBlank || _blankCount > 0)) {
-            return new OtherChoice(_config.selectBlank, _blankCount);
+            OtherChoice choice = new OtherChoice(_config.selectBlank, _blankCount);
+            if (_sampling != null) {
+                choice.errorBound = _sampling.errorBound(_sampledBlankCount);
+            }
+            return choice;
         }
         return null;
     }
@@ -222,11 +236,24 @@ public class ListFacet implements Facet {
     @JsonInclude(Include.NON_NULL)
     public OtherChoice getErrorChoice() {
         if (getError() == null && !_config.omitError && (_config.selectError || _errorCount > 0)) {
-            return new OtherChoice(_config.selectError, _errorCount);
+            OtherChoice choice = new OtherChoice(_config.selectError, _errorCount);
+            if (_sampling != null) {
+                choice.errorBound = _sampling.errorBound(_sampledErrorCount);
+            }
+            return choice;
         }
         return null;
     }
     
+    /**
+     * @return true if the counts are estimated from a sample of the rows
+     */
+    @JsonProperty("sampled")
+    @JsonInclude(Include.NON_DEFAULT)
+    public boolean isSampled() {
+        return _sampling != null;
+    }
+    
     protected int getLimit() {
         Object v = ProjectManager.singleton.getPreferenceStore().get("ui.browsing.listFacet.limit");
         if (v != null) {
@@ -264,6 +291,16 @@ public class ListFacet implements Facet {
         }
     }
 
+    @Override
+    public void setEvaluationMemo(EvaluationMemo memo) {
+        _eval = memo.memoize(_config.columnName, _config.expression, _eval);
+    }
+
+    @Override
+    public void setSampling(SamplingRowFilter sampling) {
+        _sampling = sampling;
+    }
+
     @Override
     public RowFilter getRowFilter(Project project) {
         return 
@@ -293,13 +330,45 @@ public class ListFacet implements Facet {
     @Override
     public void computeChoices(Project project, FilteredRows filteredRows) {
         if (_eval != null && _errorMessage == null) {
-            ExpressionNominalValueGrouper grouper = 
-                new ExpressionNominalValueGrouper(_eval, _config.columnName, _cellIndex);
+            ExpressionNominalValueGrouper grouper = getWholeProjectGrouper(project, filteredRows);
+            if (grouper == null) {
+                grouper = new ExpressionNominalValueGrouper(_eval, _config.columnName, _cellIndex);
+                
+                filteredRows.accept(project, grouper);
+            }
+            
+            postProcessGrouper(grouper);
+        }
+    }
+    
+    /**
+     * When no other facet filters the rows, the choices over the whole project are
+     * cached on the column, which keeps them up to date as its cells change.
+     * 
+     * @return a copy of the cached choices, or null if they cannot be used
+     */
+    protected ExpressionNominalValueGrouper getWholeProjectGrouper(Project project, FilteredRows filteredRows) {
+        if (!(filteredRows instanceof ConjunctiveFilteredRows) || !((ConjunctiveFilteredRows) filteredRows).matchesAllRows()
+                || _cellIndex < 0 || !ExpressionUtils.dependsOnlyOnCell(_config.expression)) {
+            return null;
+        }
+        
+        Column column = project.columnModel.getColumnByCellIndex(_cellIndex);
+        String key = "nominal:row-based:" + _config.expression;
+        ExpressionNominalValueGrouper grouper = (ExpressionNominalValueGrouper) column.getPrecompute(key);
+        if (grouper == null) {
+            // the cached grouper outlives this request so it must not use a memoized evaluable
+            grouper = new ExpressionNominalValueGrouper(
+                    EvaluationMemo.unwrap(_eval), _config.columnName, _cellIndex);
             
             filteredRows.accept(project, grouper);
             
-            postProcessGrouper(grouper);
+            if (((ConjunctiveFilteredRows) filteredRows).isCancelled()) {
+                return grouper;
+            }
+            column.setPrecompute(key, grouper);
         }
+        return grouper.copy();
     }
     
     @Override
@@ -317,6 +386,12 @@ public class ListFacet implements Facet {
     protected void postProcessGrouper(ExpressionNominalValueGrouper grouper) {
         _choices.clear();
         _choices.addAll(grouper.choices.values());
+        if (_sampling != null) {
+            for (NominalFacetChoice choice : _choices) {
+                choice.errorBound = _sampling.errorBound(choice.count);
+                choice.count = _sampling.scale(choice.count);
+            }
+        }
         
         for (DecoratedValue decoratedValue : _config.selection) {
             String valueString = decoratedValue.value.toString();
@@ -337,12 +412,17 @@ public class ListFacet implements Facet {
                 NominalFacetChoice choice = new NominalFacetChoice(decoratedValue);
                 choice.count = 0;
                 choice.selected = true;
+                if (_sampling != null) {
+                    choice.errorBound = _sampling.errorBound(0);
+                }
                 _choices.add(choice);
             }
         }
         
-        _blankCount = grouper.blankCount;
-        _errorCount = grouper.errorCount;
+        _sampledBlankCount = grouper.blankCount;
+        _sampledErrorCount = grouper.errorCount;
+        _blankCount = _sampling == null ? grouper.blankCount : _sampling.scale(grouper.blankCount);
+        _errorCount = _sampling == null ? grouper.errorCount : _sampling.scale(grouper.errorCount);
     }
     
     protected Object[] createMatches() {
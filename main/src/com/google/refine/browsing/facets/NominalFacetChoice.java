@@ -33,6 +33,8 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.facets;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.refine.browsing.DecoratedValue;
 
@@ -47,6 +49,9 @@ public class NominalFacetChoice  {
     public int                    count;
     @JsonProperty("s")
     public boolean                selected;
+    @JsonProperty("e")
+    @JsonInclude(Include.NON_NULL)
+    public Integer                errorBound; // only set when the count is estimated from a sample
     
     public NominalFacetChoice(DecoratedValue decoratedValue) {
         this.decoratedValue = decoratedValue;
@@ -44,6 +44,9 @@ import com.google.refine.browsing.RecordFilter;
 import com.google.refine.browsing.RowFilter;
 import com.google.refine.browsing.filters.AnyRowRecordFilter;
 import com.google.refine.browsing.filters.ExpressionNumberComparisonRowFilter;
+import com.google.refine.browsing.filters.SamplingRowFilter;
+import com.google.refine.browsing.util.ConjunctiveFilteredRows;
+import com.google.refine.browsing.util.EvaluationMemo;
 import com.google.refine.browsing.util.ExpressionBasedRowEvaluable;
 import com.google.refine.browsing.util.ExpressionNumericValueBinner;
 import com.google.refine.browsing.util.NumericBinIndex;
@@ -51,12 +54,13 @@ import com.google.refine.browsing.util.NumericBinRecordIndex;
 import com.google.refine.browsing.util.NumericBinRowIndex;
 import com.google.refine.browsing.util.RowEvaluable;
 import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.ParsingException;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
 
-public class RangeFacet implements Facet {
+public class RangeFacet implements SamplingFacet {
     
     public static final String ERR_NO_NUMERIC_VALUE_PRESENT = "No numeric value present.";
     
@@ -141,6 +145,7 @@ public class RangeFacet implements Facet {
     protected int        _cellIndex;
     protected Evaluable  _eval;
     protected String     _errorMessage;
+    protected SamplingRowFilter _sampling;
     
     /*
      * Computed data, to return to the client side
@@ -150,6 +155,7 @@ public class RangeFacet implements Facet {
     protected double    _step;
     protected int[]     _baseBins;
     protected int[]     _bins;
+    protected int[]     _binErrors;
     
     @JsonProperty("baseNumericCount")
     protected int       _baseNumericCount;
@@ -244,6 +250,25 @@ public class RangeFacet implements Facet {
         return null;
     }
     
+    /**
+     * Half-widths of the 95% confidence intervals of the bins, when they are
+     * estimated from a sample of the rows.
+     */
+    @JsonProperty("binErrors")
+    @JsonInclude(Include.NON_NULL)
+    public int[] getBinErrors() {
+        if (getError() == null) {
+            return _binErrors;
+        }
+        return null;
+    }
+    
+    @JsonProperty("sampled")
+    @JsonInclude(Include.NON_DEFAULT)
+    public boolean isSampled() {
+        return _sampling != null;
+    }
+    
     @JsonProperty("baseBins")
     @JsonInclude(Include.NON_NULL)
     public int[] getBaseBins() {
@@ -292,6 +317,16 @@ public class RangeFacet implements Facet {
         }
     }
 
+    @Override
+    public void setEvaluationMemo(EvaluationMemo memo) {
+        _eval = memo.memoize(_config._columnName, _config._expression, _eval);
+    }
+
+    @Override
+    public void setSampling(SamplingRowFilter sampling) {
+        _sampling = sampling;
+    }
+
     @Override
     public RowFilter getRowFilter(Project project) {
         if (_eval != null && _errorMessage == null && _config._selected) {
@@ -323,12 +358,24 @@ public class RangeFacet implements Facet {
             String key = "numeric-bin:row-based:" + _config._expression;
             NumericBinIndex index = (NumericBinIndex) column.getPrecompute(key);
             if (index == null) {
-                index = new NumericBinRowIndex(project, rowEvaluable);
+                if (ExpressionUtils.dependsOnlyOnCell(_config._expression)) {
+                    // kept up to date as cells change, so it must not use a memoized evaluable
+                    index = new NumericBinRowIndex(project, rowEvaluable,
+                            new ExpressionBasedRowEvaluable(_config._columnName, _cellIndex, EvaluationMemo.unwrap(_eval)));
+                } else {
+                    index = new NumericBinRowIndex(project, rowEvaluable);
+                }
                 column.setPrecompute(key, index);
             }
             
             retrieveDataFromBaseBinIndex(index);
             
+            if (filteredRows instanceof ConjunctiveFilteredRows && ((ConjunctiveFilteredRows) filteredRows).matchesAllRows()) {
+                // no other facet filters the rows: the bins are the base bins
+                retrieveDataFromBaseBins();
+                return;
+            }
+            
             ExpressionNumericValueBinner binner = 
                 new ExpressionNumericValueBinner(rowEvaluable, index);
             
@@ -385,11 +432,33 @@ public class RangeFacet implements Facet {
         }
     }
     
+    protected void retrieveDataFromBaseBins() {
+        _bins = _baseBins.clone();
+        _numericCount = _baseNumericCount;
+        _nonNumericCount = _baseNonNumericCount;
+        _blankCount = _baseBlankCount;
+        _errorCount = _baseErrorCount;
+        _binErrors = null;
+    }
+    
     protected void retrieveDataFromBinner(ExpressionNumericValueBinner binner) {
         _bins = binner.bins;
         _numericCount = binner.numericCount;
         _nonNumericCount = binner.nonNumericCount;
         _blankCount = binner.blankCount;
         _errorCount = binner.errorCount;
+        _binErrors = null;
+        
+        if (_sampling != null) {
+            _binErrors = new int[_bins.length];
+            for (int i = 0; i < _bins.length; i++) {
+                _binErrors[i] = _sampling.errorBound(_bins[i]);
+                _bins[i] = _sampling.scale(_bins[i]);
+            }
+            _numericCount = _sampling.scale(_numericCount);
+            _nonNumericCount = _sampling.scale(_nonNumericCount);
+            _blankCount = _sampling.scale(_blankCount);
+            _errorCount = _sampling.scale(_errorCount);
+        }
     }
 }
@@ -57,6 +57,7 @@ import com.google.refine.browsing.RecordFilter;
 import com.google.refine.browsing.RowFilter;
 import com.google.refine.browsing.filters.AnyRowRecordFilter;
 import com.google.refine.browsing.filters.DualExpressionsNumberComparisonRowFilter;
+import com.google.refine.browsing.util.EvaluationMemo;
 import com.google.refine.browsing.util.ExpressionBasedRowEvaluable;
 import com.google.refine.browsing.util.NumericBinIndex;
 import com.google.refine.browsing.util.NumericBinRecordIndex;
@@ -385,6 +386,12 @@ public class ScatterplotFacet implements Facet {
         
     }
 
+    @Override
+    public void setEvaluationMemo(EvaluationMemo memo) {
+        eval_x = memo.memoize(config.columnName_x, config.expression_x, eval_x);
+        eval_y = memo.memoize(config.columnName_y, config.expression_y, eval_y);
+    }
+
     @Override
     public RowFilter getRowFilter(Project project) {
         if (config.isSelected() && 
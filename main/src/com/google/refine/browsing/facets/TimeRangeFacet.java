@@ -43,6 +43,7 @@ import com.google.refine.browsing.RecordFilter;
 import com.google.refine.browsing.RowFilter;
 import com.google.refine.browsing.filters.AnyRowRecordFilter;
 import com.google.refine.browsing.filters.ExpressionTimeComparisonRowFilter;
+import com.google.refine.browsing.util.EvaluationMemo;
 import com.google.refine.browsing.util.ExpressionBasedRowEvaluable;
 import com.google.refine.browsing.util.ExpressionTimeValueBinner;
 import com.google.refine.browsing.util.RowEvaluable;
@@ -242,6 +243,11 @@ public class TimeRangeFacet implements Facet {
         }
     }
 
+    @Override
+    public void setEvaluationMemo(EvaluationMemo memo) {
+        _eval = memo.memoize(_config._columnName, _config._expression, _eval);
+    }
+
     @Override
     public RowFilter getRowFilter(Project project) {
         if (_eval != null && _errorMessage == null && _config.isSelected()) {
@@ -33,10 +33,14 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.filters;
 
+import java.util.BitSet;
+import java.util.List;
+
 import com.google.refine.browsing.RecordFilter;
 import com.google.refine.browsing.RowFilter;
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
+import com.google.refine.model.Row;
 
 public class AllRowsRecordFilter implements RecordFilter {
     final protected RowFilter _rowFilter;
@@ -54,4 +58,22 @@ public class AllRowsRecordFilter implements RecordFilter {
         }
         return true;
     }
+
+    @Override
+    public void filterRecords(Project project, BitSet records) {
+        int[] starts = project.recordModel.getRecordStarts();
+        List<Row> rows = project.rows;
+        for (int r = records.nextSetBit(0); r >= 0; r = records.nextSetBit(r + 1)) {
+            boolean matches = true;
+            for (int i = starts[r]; i < starts[r + 1]; i++) {
+                if (!_rowFilter.filterRow(project, i, rows.get(i))) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (!matches) {
+                records.clear(r);
+            }
+        }
+    }
 }
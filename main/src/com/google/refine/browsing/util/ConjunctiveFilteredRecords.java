@@ -33,9 +33,11 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.util;
 
+import java.util.BitSet;
 import java.util.LinkedList;
 import java.util.List;
 
+import com.google.refine.browsing.CancellationToken;
 import com.google.refine.browsing.FilteredRecords;
 import com.google.refine.browsing.RecordFilter;
 import com.google.refine.browsing.RecordVisitor;
@@ -47,30 +49,62 @@ import com.google.refine.model.Record;
  */
 public class ConjunctiveFilteredRecords implements FilteredRecords {
     final protected List<RecordFilter> _recordFilters = new LinkedList<RecordFilter>();
+    protected CancellationToken _cancellationToken;
     
     public void add(RecordFilter recordFilter) {
         _recordFilters.add(recordFilter);
     }
     
+    /**
+     * Stops the visit early, without error, once the given token fires.
+     */
+    public void setCancellationToken(CancellationToken token) {
+        _cancellationToken = token;
+    }
+    
     @Override
     public void accept(Project project, RecordVisitor visitor) {
         try {
             visitor.start(project);
 
-            int c = project.recordModel.getRecordCount();
-            for (int r = 0; r < c; r++) {
-                Record record = project.recordModel.getRecord(r);
-                if (matchRecord(project, record)) {
-                    if (visitor.visit(project, record)) {
-                        return;
-                    }
+            BitSet matching = computeMatchingRecords(project);
+            for (int r = matching.nextSetBit(0); r >= 0; r = matching.nextSetBit(r + 1)) {
+                if (isCancelled()) {
+                    return;
+                }
+                if (visitor.visit(project, project.recordModel.getRecord(r))) {
+                    return;
                 }
             }
         } finally {
             visitor.end(project);
         }
     }
-    
+
+    /**
+     * Computes the indices of the records matching all filters, applying
+     * each filter in turn to the records left by the previous ones. If the
+     * visit is cancelled, the result is empty.
+     */
+    public BitSet computeMatchingRecords(Project project) {
+        BitSet matching = new BitSet();
+        matching.set(0, project.recordModel.getRecordCount());
+        for (RecordFilter recordFilter : _recordFilters) {
+            if (isCancelled() || matching.isEmpty()) {
+                break;
+            }
+            recordFilter.filterRecords(project, matching);
+        }
+        if (isCancelled()) {
+            matching.clear();
+        }
+        return matching;
+    }
+
+    protected boolean isCancelled() {
+        return _cancellationToken != null && _cancellationToken.isCancelled();
+    }
+
     protected boolean matchRecord(Project project, Record record) {
         for (RecordFilter recordFilter : _recordFilters) {
             if (!recordFilter.filterRecord(project, record)) {
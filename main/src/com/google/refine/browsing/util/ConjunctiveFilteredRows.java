@@ -36,6 +36,7 @@ package com.google.refine.browsing.util;
 import java.util.LinkedList;
 import java.util.List;
 
+import com.google.refine.browsing.CancellationToken;
 import com.google.refine.browsing.FilteredRows;
 import com.google.refine.browsing.RowFilter;
 import com.google.refine.browsing.RowVisitor;
@@ -48,11 +49,33 @@ import com.google.refine.model.Row;
  */
 public class ConjunctiveFilteredRows implements FilteredRows {
     final protected List<RowFilter> _rowFilters = new LinkedList<RowFilter>();
+    protected CancellationToken _cancellationToken;
     
     public void add(RowFilter rowFilter) {
         _rowFilters.add(rowFilter);
     }
     
+    /**
+     * Stops the visit early, without error, once the given token fires.
+     */
+    public void setCancellationToken(CancellationToken token) {
+        _cancellationToken = token;
+    }
+    
+    /**
+     * @return true if no filter is set, so that all rows of the project are visited
+     */
+    public boolean matchesAllRows() {
+        return _rowFilters.isEmpty();
+    }
+    
+    /**
+     * @return true if the last visit may have been stopped early by the cancellation token
+     */
+    public boolean isCancelled() {
+        return _cancellationToken != null && _cancellationToken.isCancelled();
+    }
+    
     @Override
     public void accept(Project project, RowVisitor visitor) {
         try {
@@ -60,6 +83,34 @@ public class ConjunctiveFilteredRows implements FilteredRows {
 
             int c = project.rows.size();
             for (int rowIndex = 0; rowIndex < c; rowIndex++) {
+                if (_cancellationToken != null && _cancellationToken.isCancelled()) {
+                    break;
+                }
+                Row row = project.rows.get(rowIndex);
+                if (matchRow(project, rowIndex, row)) {
+                    if (visitRow(project, visitor, rowIndex, row)) {
+                        break;
+                    }
+                }
+            }
+        } finally {
+            visitor.end(project);
+        }
+    }
+    
+    /**
+     * Visits the rows matching all filters among the given ones, which must be
+     * in increasing order. This saves scanning the whole project when an index
+     * tells which rows can be of interest to the visitor.
+     */
+    public void accept(Project project, RowVisitor visitor, List<Integer> rowIndices) {
+        try {
+            visitor.start(project);
+
+            for (int rowIndex : rowIndices) {
+                if (_cancellationToken != null && _cancellationToken.isCancelled()) {
+                    break;
+                }
                 Row row = project.rows.get(rowIndex);
                 if (matchRow(project, rowIndex, row)) {
                     if (visitRow(project, visitor, rowIndex, row)) {
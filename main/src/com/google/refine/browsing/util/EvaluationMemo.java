@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.browsing.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import com.google.refine.expr.Evaluable;
+
+/**
+ * Shares the results of facet expressions between the facets and filters of
+ * one engine, so that within a request each distinct (column, expression) pair
+ * is evaluated at most once per row, however many facets and row filters use it.
+ * 
+ * The memo is meant to live as long as the request: it does not track changes
+ * to the project.
+ */
+public class EvaluationMemo {
+
+    protected final Map<List<String>, MemoizedEvaluable> _evaluables = new HashMap<>();
+
+    /**
+     * Returns an evaluable caching the results of the given one per row, shared with
+     * any other caller passing the same column name and expression.
+     * 
+     * @param columnName
+     *      the column the expression is evaluated against (bound to "value" and "cell")
+     * @param expression
+     *      the source of the expression, including any language prefix
+     * @param evaluable
+     *      the parsed expression
+     */
+    public Evaluable memoize(String columnName, String expression, Evaluable evaluable) {
+        if (evaluable == null || expression == null) {
+            return evaluable;
+        }
+        return _evaluables.computeIfAbsent(
+                Arrays.asList(columnName, expression), k -> new MemoizedEvaluable(evaluable));
+    }
+
+    /**
+     * @return the evaluable wrapped by {@link #memoize(String, String, Evaluable)},
+     *      or the given one if it is not memoized. Evaluables outliving the request,
+     *      such as those stored in column precomputes, must be unwrapped.
+     */
+    static public Evaluable unwrap(Evaluable evaluable) {
+        if (evaluable instanceof MemoizedEvaluable) {
+            return ((MemoizedEvaluable) evaluable)._evaluable;
+        }
+        return evaluable;
+    }
+
+    /**
+     * @return the number of distinct expressions memoized so far
+     */
+    public int size() {
+        return _evaluables.size();
+    }
+
+    static protected class MemoizedEvaluable implements Evaluable {
+
+        final protected Evaluable _evaluable;
+        protected Object[] _values = new Object[0];
+        final protected BitSet _computed = new BitSet();
+
+        protected MemoizedEvaluable(Evaluable evaluable) {
+            _evaluable = evaluable;
+        }
+
+        @Override
+        public Object evaluate(Properties bindings) {
+            Object rowIndex = bindings.get("rowIndex");
+            if (!(rowIndex instanceof Integer)) {
+                return _evaluable.evaluate(bindings);
+            }
+
+            int index = (Integer) rowIndex;
+            if (_computed.get(index)) {
+                return _values[index];
+            }
+
+            Object value = _evaluable.evaluate(bindings);
+            if (index >= _values.length) {
+                _values = Arrays.copyOf(_values, Math.max(index + 1, _values.length * 2));
+            }
+            _values[index] = value;
+            _computed.set(index);
+            return value;
+        }
+    }
+}
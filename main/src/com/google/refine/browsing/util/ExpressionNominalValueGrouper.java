@@ -35,6 +35,8 @@ package com.google.refine.browsing.util;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,6 +49,7 @@ import com.google.refine.browsing.facets.NominalFacetChoice;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.model.Cell;
+import com.google.refine.model.IncrementalPrecompute;
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
 import com.google.refine.model.Row;
@@ -56,7 +59,7 @@ import com.google.refine.util.StringUtils;
  * Visit matched rows or records and group them into facet choices based on the values computed
  * from a given expression.
  */
-public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor {
+public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor, IncrementalPrecompute {
     static public class IndexedNominalFacetChoice extends NominalFacetChoice {
         int _latestIndex;
 
@@ -197,6 +200,108 @@ public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor
         }
     }
 
+    /**
+     * @return a grouper with the same configuration and a copy of the choices
+     *      computed so far, which can be modified independently.
+     */
+    public synchronized ExpressionNominalValueGrouper copy() {
+        ExpressionNominalValueGrouper copy = new ExpressionNominalValueGrouper(_evaluable, _columnName, _cellIndex);
+        for (Map.Entry<Object, IndexedNominalFacetChoice> entry : choices.entrySet()) {
+            IndexedNominalFacetChoice choice = entry.getValue();
+            IndexedNominalFacetChoice choiceCopy = new IndexedNominalFacetChoice(choice.decoratedValue, choice._latestIndex);
+            choiceCopy.count = choice.count;
+            copy.choices.put(entry.getKey(), choiceCopy);
+        }
+        copy.blankCount = blankCount;
+        copy.errorCount = errorCount;
+        return copy;
+    }
+
+    /**
+     * Uncounts the given rows, for a grouper which has visited all rows of the project
+     * and whose expression only depends on the row it is evaluated on.
+     */
+    @Override
+    public synchronized boolean removeRows(Project project, int[] rowIndices) {
+        Properties bindings = ExpressionUtils.createBindings(project);
+        for (int rowIndex : rowIndices) {
+            for (Object value : evalDistinctValues(project, rowIndex, bindings).values()) {
+                String valueString = StringUtils.toString(value);
+                IndexedNominalFacetChoice choice = choices.get(valueString);
+                if (choice == null) {
+                    return false;
+                } else if (--choice.count == 0) {
+                    choices.remove(valueString);
+                }
+            }
+            if (hasError) {
+                errorCount--;
+            }
+            if (hasBlank) {
+                blankCount--;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the given rows, for a grouper which has visited all other rows of the project
+     * and whose expression only depends on the row it is evaluated on.
+     */
+    @Override
+    public synchronized boolean addRows(Project project, int[] rowIndices) {
+        Properties bindings = ExpressionUtils.createBindings(project);
+        for (int rowIndex : rowIndices) {
+            Map<String, Object> values = evalDistinctValues(project, rowIndex, bindings);
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                IndexedNominalFacetChoice choice = choices.get(entry.getKey());
+                if (choice == null) {
+                    choice = new IndexedNominalFacetChoice(new DecoratedValue(entry.getValue(), entry.getKey()), rowIndex);
+                    choices.put(entry.getKey(), choice);
+                }
+                choice.count++;
+            }
+            if (hasError) {
+                errorCount++;
+            }
+            if (hasBlank) {
+                blankCount++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Evaluates one row, setting the blank and error flags.
+     * 
+     * @return the non-blank values of the row, indexed by their string representation
+     */
+    protected Map<String, Object> evalDistinctValues(Project project, int rowIndex, Properties bindings) {
+        hasError = false;
+        hasBlank = false;
+
+        Map<String, Object> values = new HashMap<>();
+        Object value = evalRow(project, rowIndex, project.rows.get(rowIndex), bindings);
+        Collection<Object> all;
+        if (value != null && value.getClass().isArray()) {
+            all = Arrays.asList((Object[]) value);
+        } else if (value instanceof Collection<?>) {
+            all = ExpressionUtils.toObjectCollection(value);
+        } else {
+            all = Collections.singletonList(value);
+        }
+        for (Object v : all) {
+            if (ExpressionUtils.isError(v)) {
+                hasError = true;
+            } else if (ExpressionUtils.isNonBlankData(v)) {
+                values.putIfAbsent(StringUtils.toString(v), v);
+            } else {
+                hasBlank = true;
+            }
+        }
+        return values;
+    }
+
     public RowEvaluable getChoiceCountRowEvaluable() {
         return new RowEvaluable() {
             @Override
@@ -33,10 +33,14 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.util;
 
+import java.util.BitSet;
+import java.util.List;
+
 import com.google.refine.browsing.FilteredRecords;
 import com.google.refine.browsing.FilteredRows;
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.model.Project;
+import com.google.refine.model.Row;
 
 public class FilteredRecordsAsFilteredRows implements FilteredRows {
     final protected FilteredRecords _filteredRecords;
@@ -47,7 +51,25 @@ public class FilteredRecordsAsFilteredRows implements FilteredRows {
 
     @Override
     public void accept(Project project, RowVisitor visitor) {
-        _filteredRecords.accept(project, new RowVisitorAsRecordVisitor(visitor));
+        if (_filteredRecords instanceof ConjunctiveFilteredRecords) {
+            try {
+                visitor.start(project);
+
+                // visit the rows of the matching records straight from a row bitmap
+                BitSet matching = ((ConjunctiveFilteredRecords) _filteredRecords).computeMatchingRecords(project);
+                BitSet matchingRows = project.recordModel.expandToRows(matching);
+                List<Row> rows = project.rows;
+                for (int r = matchingRows.nextSetBit(0); r >= 0; r = matchingRows.nextSetBit(r + 1)) {
+                    if (visitor.visit(project, r, rows.get(r))) {
+                        return;
+                    }
+                }
+            } finally {
+                visitor.end(project);
+            }
+        } else {
+            _filteredRecords.accept(project, new RowVisitorAsRecordVisitor(visitor));
+        }
     }
 
 }
@@ -71,6 +71,15 @@ abstract public class NumericBinIndex {
     protected boolean _hasNumeric = false;
     protected boolean _hasBlank = false;
     
+    /*
+     * Extreme values before rounding, and how many times each occurs. The bins stay
+     * valid under incremental updates as long as these do not change.
+     */
+    protected double _rawMin;
+    protected double _rawMax;
+    protected int _rawMinCount;
+    protected int _rawMaxCount;
+    
     abstract protected void iterate(Project project, RowEvaluable rowEvaluable, List<Double> allValues);
     
     public NumericBinIndex(Project project, RowEvaluable rowEvaluable) {
@@ -84,6 +93,17 @@ abstract public class NumericBinIndex {
         
         _numbericValueCount = allValues.size();
         
+        _rawMin = _min;
+        _rawMax = _max;
+        for (double d : allValues) {
+            if (d == _rawMin) {
+                _rawMinCount++;
+            }
+            if (d == _rawMax) {
+                _rawMaxCount++;
+            }
+        }
+        
         if (_min >= _max) {
             _step = 1;
             _min = Math.min(_min, _max);
@@ -244,17 +264,25 @@ abstract public class NumericBinIndex {
     }
     
     protected void postprocessing() {
+        postprocessing(1);
+    }
+    
+    /**
+     * @param sign
+     *      1 to count the row just processed, -1 to uncount it
+     */
+    protected void postprocessing(int sign) {
         if (_hasError) {
-            _errorRowCount++;
+            _errorRowCount += sign;
         }
         if (_hasBlank) {
-            _blankRowCount++;
+            _blankRowCount += sign;
         }
         if (_hasNumeric) {
-            _numericRowCount++;
+            _numericRowCount += sign;
         }
         if (_hasNonNumeric) {
-            _nonNumericRowCount++;
+            _nonNumericRowCount += sign;
         }
     }
 
@@ -33,9 +33,21 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.clustering;
 
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.google.refine.browsing.Engine;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
+import com.google.refine.util.ParsingUtilities;
 
 public abstract class Clusterer  {
 
@@ -43,6 +55,69 @@ public abstract class Clusterer  {
     protected int _colindex;
 
     public abstract void computeClusters(Engine engine);
+
+    /**
+     * @return the number of clusters found by the last call to
+     *      {@link #computeClusters(Engine)}. Clusterers which do not override
+     *      this serialize all their clusters to count them.
+     */
+    public int getClusterCount() {
+        return getJsonClusters().size();
+    }
+
+    /**
+     * Returns a page of the clusters, largest first. Cluster entries are only
+     * built as the stream is consumed.
+     * 
+     * Clusterers which do not override this are serialized to JSON, as they
+     * used to be returned: an array of clusters, sorted by the clusterer, each
+     * holding entries with a value "v" and a count "c".
+     * 
+     * @param offset
+     *      the number of clusters to skip
+     * @param limit
+     *      the maximum number of clusters to return, or a negative number
+     *      to return all remaining clusters
+     */
+    public Stream<List<ClusteredEntry>> getClusters(int offset, int limit) {
+        Stream<JsonNode> clusters = StreamSupport.stream(getJsonClusters().spliterator(), false)
+                .skip(Math.max(offset, 0));
+        if (limit >= 0) {
+            clusters = clusters.limit(limit);
+        }
+        return clusters.map(cluster -> StreamSupport.stream(cluster.spliterator(), false)
+                .map(entry -> new ClusteredEntry(
+                        (Serializable) ParsingUtilities.mapper.convertValue(entry.get("v"), Object.class),
+                        entry.get("c").asInt()))
+                .collect(Collectors.toList()));
+    }
+
+    private ArrayNode getJsonClusters() {
+        return ParsingUtilities.mapper.valueToTree(this);
+    }
+
+    /**
+     * Writes a page of the clusters as a JSON array, one cluster at a time.
+     */
+    public void writeClusters(JsonGenerator generator, int offset, int limit) throws IOException {
+        generator.writeStartArray();
+        Iterator<List<ClusteredEntry>> clusters = getClusters(offset, limit).iterator();
+        while (clusters.hasNext()) {
+            generator.writeObject(clusters.next());
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Returns a page of clusters which the clusterer sorted once, when
+     * computing them, so that each page is only a slice of that order.
+     */
+    protected static <T> List<T> sliceClusters(List<T> sorted, int offset, int limit) {
+        int n = sorted.size();
+        int from = Math.min(Math.max(offset, 0), n);
+        int to = limit < 0 ? n : (int) Math.min((long) from + limit, n);
+        return sorted.subList(from, to);
+    }
     
     protected void initializeFromConfig(Project project, ClustererConfig c) {
         _project = project;
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.clustering;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.EngineConfig;
+import com.google.refine.clustering.binning.BinningClusterer;
+import com.google.refine.clustering.binning.BinningClusterer.BinningClustererConfig;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Project;
+import com.google.refine.util.ParsingUtilities;
+
+/**
+ * Keeps the most recently computed clusters, so that going back to a previous
+ * clustering method in the clustering dialog does not recompute it.
+ * 
+ * Results are only reused for the same project state, column, clusterer
+ * configuration and facets. The keys computed by binning clusterers do not
+ * depend on the project state, so they are kept across changes: after merging
+ * some clusters, only the new values need to be keyed again.
+ */
+public class ClusteringCache {
+
+    static public final ClusteringCache singleton = new ClusteringCache(
+            Integer.getInteger("refine.clustering.cache.results", 16),
+            Integer.getInteger("refine.clustering.cache.keyings", 8),
+            Integer.getInteger("refine.clustering.cache.keyedValues", 1000000));
+
+    protected final Map<String, Clusterer> _results;
+    protected final Map<String, Map<String, String>> _keyings;
+    protected final int _maxKeyedValues;
+
+    /**
+     * @param maxResults
+     *      the number of cluster results to keep
+     * @param maxKeyings
+     *      the number of (column, keyer) pairs to keep keys for
+     * @param maxKeyedValues
+     *      the number of values to keep the keys of, for each (column, keyer) pair
+     */
+    public ClusteringCache(int maxResults, int maxKeyings, int maxKeyedValues) {
+        _results = new LruMap<>(maxResults);
+        _keyings = new LruMap<>(maxKeyings);
+        _maxKeyedValues = maxKeyedValues;
+    }
+
+    /**
+     * Returns the clusters for the given configuration, computing them
+     * unless they are cached for the current state of the project.
+     */
+    public Clusterer computeClusters(Project project, Engine engine, EngineConfig engineConfig,
+            ClustererConfig clustererConfig) throws JsonProcessingException {
+        String prefix = project.id + ";" + clustererConfig.getColumnName() + ";";
+        String key = prefix + getVersion(project) + ";"
+                + ParsingUtilities.mapper.writeValueAsString(clustererConfig) + ";"
+                + ParsingUtilities.mapper.writeValueAsString(engineConfig);
+        synchronized (_results) {
+            Clusterer cached = _results.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        Clusterer clusterer = clustererConfig.apply(project);
+        Map<String, String> keyCache = null;
+        if (clusterer instanceof BinningClusterer) {
+            BinningClustererConfig config = (BinningClustererConfig) clustererConfig;
+            String keyingKey = prefix + config.getKeyerName() + ";"
+                    + ParsingUtilities.mapper.writeValueAsString(config.getParameters());
+            synchronized (_keyings) {
+                keyCache = _keyings.computeIfAbsent(keyingKey, k -> new KeyCache(_maxKeyedValues));
+            }
+            ((BinningClusterer) clusterer).setKeyCache(keyCache);
+        }
+
+        clusterer.computeClusters(engine);
+
+        synchronized (_results) {
+            _results.put(key, clusterer);
+        }
+        return clusterer;
+    }
+
+    /**
+     * Discards everything cached about a project.
+     */
+    public void flushProject(long projectID) {
+        String prefix = projectID + ";";
+        synchronized (_results) {
+            _results.keySet().removeIf(k -> k.startsWith(prefix));
+        }
+        synchronized (_keyings) {
+            _keyings.keySet().removeIf(k -> k.startsWith(prefix));
+        }
+    }
+
+    /**
+     * @return the id of the last history entry applied to the project, which
+     *      identifies its current state.
+     */
+    static protected long getVersion(Project project) {
+        List<HistoryEntry> entries = project.history.getLastPastEntries(1);
+        return entries.isEmpty() ? 0 : entries.get(0).id;
+    }
+
+    /**
+     * Map of values to their keys which stops remembering new keys once it
+     * holds the given number of values, so that keying a huge column does not
+     * fill the memory before the cache gets a chance to be trimmed. Concurrent
+     * insertions may exceed the capacity by the number of keying threads.
+     */
+    static protected class KeyCache extends ConcurrentHashMap<String, String> {
+
+        private static final long serialVersionUID = -2470271873476306237L;
+        private final int _capacity;
+
+        KeyCache(int capacity) {
+            _capacity = capacity;
+        }
+
+        @Override
+        public String computeIfAbsent(String key, Function<? super String, ? extends String> mappingFunction) {
+            String value = get(key);
+            if (value != null) {
+                return value;
+            } else if (size() >= _capacity) {
+                return mappingFunction.apply(key);
+            } else {
+                return super.computeIfAbsent(key, mappingFunction);
+            }
+        }
+    }
+
+    static protected class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+        private static final long serialVersionUID = 4102640315637052581L;
+        private final int _capacity;
+
+        LruMap(int capacity) {
+            super(16, 0.75f, true);
+            _capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > _capacity;
+        }
+    }
+}
@@ -35,14 +35,16 @@ package com.google.refine.clustering.binning;
 
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -126,25 +128,23 @@ public class BinningClusterer extends Clusterer {
     final static Logger logger = LoggerFactory.getLogger("binning_clusterer");
     
     List<Map<String,Integer>> _clusters;
+    
+    protected Map<String,String> _keyCache = null;
+
+    /**
+     * Number of distinct values above which they are keyed in parallel
+     * on the common fork/join pool, if the keyer is thread-safe.
+     */
+    static final int PARALLEL_KEYING_THRESHOLD = 1024;
 
+    /**
+     * Counts the occurrences of each distinct value of the column, remembering
+     * the order in which they are first encountered, so that each distinct
+     * value only needs to be keyed once.
+     */
     class BinningRowVisitor implements RowVisitor {
 
-        Keyer _keyer;
-        Object[] _params;
-        BinningParameters _parameters;
-        
-        Map<String,Map<String,Integer>> _map = new HashMap<String,Map<String,Integer>>();
-        
-        public BinningRowVisitor(Keyer k, BinningParameters parameters) {
-            _keyer = k;
-            _parameters = parameters;
-            if (k instanceof NGramFingerprintKeyer) {
-                if(_parameters != null) {
-                    _params = new Object[1];
-                    _params[0] = _parameters.ngramSize;
-                }
-            }
-        }
+        Map<String,Integer> _counts = new LinkedHashMap<String,Integer>();
         
         @Override
         public void start(Project project) {
@@ -162,27 +162,54 @@ public class BinningClusterer extends Clusterer {
             if (cell != null && cell.value != null) {
                 Object v = cell.value;
                 String s = (v instanceof String) ? ((String) v) : v.toString();
-                String key = _keyer.key(s,_params);
-                if (_map.containsKey(key)) {
-                    Map<String,Integer> m = _map.get(key);
-                    if (m.containsKey(s)) {
-                        m.put(s, m.get(s) + 1);
-                    } else {
-                        m.put(s,1);
-                    }
-                } else {
-                    Map<String,Integer> m = new TreeMap<String,Integer>();
-                    m.put(s,1);
-                    _map.put(key, m);
-                }
+                _counts.merge(s, 1, Integer::sum);
             }
             return false;
         }
         
-        public Map<String,Map<String,Integer>> getMap() {
-            return _map;
+        public Map<String,Integer> getCounts() {
+            return _counts;
         }
     }
+
+    /**
+     * Groups distinct values by key. Keys are inserted in the order of the
+     * first value producing them, as if the values were keyed row by row.
+     */
+    protected static Map<String,Map<String,Integer>> groupByKey(
+            Map<String,Integer> counts, Keyer keyer, Object[] params) {
+        return groupByKey(counts, keyer, params, null);
+    }
+
+    /**
+     * Same as {@link #groupByKey(Map, Keyer, Object[])}, looking keys up in
+     * the given cache first and storing the missing ones in it.
+     * 
+     * @param keyCache
+     *      a thread-safe map from values to keys, or null
+     */
+    protected static Map<String,Map<String,Integer>> groupByKey(
+            Map<String,Integer> counts, Keyer keyer, Object[] params, Map<String,String> keyCache) {
+        List<String> values = new ArrayList<String>(counts.keySet());
+        String[] keys = new String[values.size()];
+        IntStream indices = IntStream.range(0, keys.length);
+        if (keys.length > PARALLEL_KEYING_THRESHOLD && keyer.isThreadSafe()) {
+            indices = indices.parallel();
+        }
+        if (keyCache == null) {
+            indices.forEach(i -> keys[i] = keyer.key(values.get(i), params));
+        } else {
+            indices.forEach(i -> keys[i] = keyCache.computeIfAbsent(values.get(i), v -> keyer.key(v, params)));
+        }
+
+        Map<String,Map<String,Integer>> map = new HashMap<String,Map<String,Integer>>();
+        for (int i = 0; i < keys.length; i++) {
+            String value = values.get(i);
+            map.computeIfAbsent(keys[i], k -> new TreeMap<String,Integer>())
+                .put(value, counts.get(value));
+        }
+        return map;
+    }
             
     public static class SizeComparator implements Comparator<Map<String,Integer>>, Serializable {
         private static final long serialVersionUID = -1390696157208674054L;
@@ -220,15 +247,45 @@ public class BinningClusterer extends Clusterer {
         _parameters = config.getParameters();
     }
 
+    /**
+     * Makes {@link #computeClusters(Engine)} reuse the keys of values already
+     * keyed with the same keyer and parameters. The cache must be thread-safe.
+     */
+    public void setKeyCache(Map<String,String> keyCache) {
+        _keyCache = keyCache;
+    }
+
     @Override
     public void computeClusters(Engine engine) {
-        BinningRowVisitor visitor = new BinningRowVisitor(_keyer,_parameters);
+        BinningRowVisitor visitor = new BinningRowVisitor();
         FilteredRows filteredRows = engine.getAllFilteredRows();
         filteredRows.accept(_project, visitor);
-     
-        Map<String,Map<String,Integer>> map = visitor.getMap();
-        _clusters = new ArrayList<Map<String,Integer>>(map.values());
-        Collections.sort(_clusters, new SizeComparator());
+
+        Object[] params = null;
+        if (_keyer instanceof NGramFingerprintKeyer && _parameters != null) {
+            params = new Object[] { _parameters.ngramSize };
+        }
+        Map<String,Map<String,Integer>> map = groupByKey(visitor.getCounts(), _keyer, params, _keyCache);
+        // sorted once, so that pages of clusters are slices of this list
+        _clusters = map.values().stream()
+                .filter(m -> m.size() > 1)
+                .sorted(new SizeComparator())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public int getClusterCount() {
+        return _clusters.size();
+    }
+
+    @Override
+    public Stream<List<ClusteredEntry>> getClusters(int offset, int limit) {
+        EntriesComparator c = new EntriesComparator();
+        return sliceClusters(_clusters, offset, limit).stream()
+                .map(m -> m.entrySet().stream()
+                        .sorted(c)
+                        .map(e -> new ClusteredEntry(e.getKey(), e.getValue()))
+                        .collect(Collectors.toList()));
     }
     
     protected static Map<String,Object> entryToMap(Entry<String,Integer> entry) {
@@ -240,13 +297,6 @@ public class BinningClusterer extends Clusterer {
     
     @JsonValue
     public List<List<ClusteredEntry>> getJsonRepresentation() {
-        EntriesComparator c = new EntriesComparator();
-        return _clusters.stream()
-        		.filter(m -> m.size() > 1)
-                .map(m -> m.entrySet().stream()
-                        .sorted(c)
-                        .map(e -> new ClusteredEntry(e.getKey(), e.getValue()))
-                        .collect(Collectors.toList()))
-                .collect(Collectors.toList());
+        return getClusters(0, -1).collect(Collectors.toList());
     }
 }
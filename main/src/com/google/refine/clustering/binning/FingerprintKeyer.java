@@ -58,7 +58,7 @@ public class FingerprintKeyer extends Keyer {
             // Lm = modifier letter, Sk = modifier symbol
             .compile("[\\p{InCombiningDiacriticalMarks}\\p{IsLm}\\p{IsSk}]+");
 
-    private static final Pattern WHITESPACE = Pattern.compile("\\s+",
+    static final Pattern WHITESPACE = Pattern.compile("\\s+",
             Pattern.UNICODE_CHARACTER_CLASS);
     // First part of table based on https://stackoverflow.com/a/1453284/167425 by Andreas Petersson
     private static final ImmutableMap<String, String> NONDIACRITICS = ImmutableMap.<String, String>builder()
@@ -88,12 +88,20 @@ public class FingerprintKeyer extends Keyer {
             .put("ẝ", "s")
             .build();
 
+    // subclasses may override the normalization, which the scanner does not call
+    private final boolean _scannable = getClass() == FingerprintKeyer.class;
 
     @Override
     public String key(String s, Object... o) {
         if (s == null || o !=null && o.length > 0) {
             throw new IllegalArgumentException("Fingerprint keyer accepts a single string parameter");
         }
+        if (_scannable) {
+            String key = FingerprintScanner.fingerprint(s);
+            if (key != null) {
+                return key;
+            }
+        }
         return WHITESPACE.splitAsStream(normalize(s, true)).sorted().distinct().collect(Collectors.joining(" "));
     }
 
@@ -142,4 +150,9 @@ public class FingerprintKeyer extends Keyer {
         return result.toString();
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        // subclasses may keep state in their normalization, so they have to opt in
+        return _scannable;
+    }
 }
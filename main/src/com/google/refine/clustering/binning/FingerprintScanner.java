@@ -0,0 +1,289 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.clustering.binning;
+
+import java.util.Arrays;
+
+/**
+ * Single-pass computation of fingerprint and n-gram fingerprint keys for ASCII
+ * strings, which make up most of the values clustered in practice. It works from
+ * per-character tables derived from the patterns of {@link FingerprintKeyer} and
+ * {@link NGramFingerprintKeyer}, so that it produces the same keys, and reuses
+ * per-thread buffers across calls. Other strings are left to the keyers' regular
+ * normalization.
+ */
+final class FingerprintScanner {
+
+    /**
+     * Longest n-grams that can be sorted as packed longs, with seven bits per character.
+     */
+    static final int MAX_PACKED_NGRAM_SIZE = 9;
+
+    /**
+     * Above this number of tokens, they are sorted as strings rather than in place.
+     */
+    static final int MAX_IN_PLACE_TOKENS = 32;
+
+    // folded form of each ASCII character, or 0 if it is removed from keys
+    private static final char[] FOLD = new char[128];
+    // characters separating the tokens of fingerprints
+    private static final boolean[] SPACE = new boolean[128];
+    // characters kept in n-gram fingerprints
+    private static final boolean[] NGRAM = new boolean[128];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            // ASCII characters are left unchanged by NFKD and by the non-diacritics table.
+            // The only locale-specific lower case of an ASCII character, the dotless i,
+            // is mapped back to i by the non-diacritics table.
+            char lower = Character.toLowerCase(c);
+            String s = String.valueOf(lower);
+            boolean removed = FingerprintKeyer.DIACRITICS_AND_FRIENDS.matcher(s).matches()
+                    || FingerprintKeyer.punctctrl.matcher(s).matches();
+            FOLD[c] = removed ? 0 : lower;
+            SPACE[c] = FingerprintKeyer.WHITESPACE.matcher(s).matches();
+            NGRAM[c] = !removed && !NGramFingerprintKeyer.ctrlspace.matcher(s).matches();
+        }
+    }
+
+    private static final class Buffers {
+
+        char[] chars = new char[64];
+        char[] out = new char[64];
+        int[] tokens = new int[64];
+        long[] grams = new long[64];
+
+        char[] chars(int length) {
+            if (chars.length < length) {
+                chars = new char[length];
+            }
+            return chars;
+        }
+
+        char[] out(int length) {
+            if (out.length < length) {
+                out = new char[length];
+            }
+            return out;
+        }
+
+        int[] tokens(int length) {
+            if (tokens.length < length) {
+                tokens = new int[length];
+            }
+            return tokens;
+        }
+
+        long[] grams(int length) {
+            if (grams.length < length) {
+                grams = new long[length];
+            }
+            return grams;
+        }
+    }
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private FingerprintScanner() {
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 128) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the key of {@link FingerprintKeyer}.
+     * 
+     * @return the key, or null if the string is not ASCII
+     */
+    static String fingerprint(String s) {
+        if (!isAscii(s)) {
+            return null;
+        }
+        int start = 0;
+        int end = s.length();
+        while (start < end && s.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && s.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        Buffers buffers = BUFFERS.get();
+        char[] chars = buffers.chars(end - start);
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char c = FOLD[s.charAt(i)];
+            if (c != 0) {
+                chars[length++] = c;
+            }
+        }
+
+        // split like Pattern.splitAsStream: separators at the start give an
+        // empty first token, separators at the end give no token
+        int[] tokens = buffers.tokens(length + 4);
+        int count = 0;
+        int i = 0;
+        while (i < length) {
+            while (i < length && SPACE[chars[i]]) {
+                i++;
+            }
+            if (i == length) {
+                break;
+            }
+            tokens[2 * count] = i;
+            while (i < length && !SPACE[chars[i]]) {
+                i++;
+            }
+            tokens[2 * count + 1] = i;
+            count++;
+        }
+        if (count > 0 && SPACE[chars[0]]) {
+            tokens[2 * count] = 0;
+            tokens[2 * count + 1] = 0;
+            count++;
+        }
+
+        if (count > MAX_IN_PLACE_TOKENS) {
+            String[] strings = new String[count];
+            for (int t = 0; t < count; t++) {
+                strings[t] = new String(chars, tokens[2 * t], tokens[2 * t + 1] - tokens[2 * t]);
+            }
+            Arrays.sort(strings);
+            StringBuilder sb = new StringBuilder(length + 1);
+            for (int t = 0; t < count; t++) {
+                if (t == 0 || !strings[t].equals(strings[t - 1])) {
+                    if (t > 0) {
+                        sb.append(' ');
+                    }
+                    sb.append(strings[t]);
+                }
+            }
+            return sb.toString();
+        }
+
+        // insertion sort of the (start, end) pairs
+        for (int t = 1; t < count; t++) {
+            int tokenStart = tokens[2 * t];
+            int tokenEnd = tokens[2 * t + 1];
+            int u = t - 1;
+            while (u >= 0 && compare(chars, tokens[2 * u], tokens[2 * u + 1], tokenStart, tokenEnd) > 0) {
+                tokens[2 * u + 2] = tokens[2 * u];
+                tokens[2 * u + 3] = tokens[2 * u + 1];
+                u--;
+            }
+            tokens[2 * u + 2] = tokenStart;
+            tokens[2 * u + 3] = tokenEnd;
+        }
+
+        char[] out = buffers.out(length + 1);
+        int outLength = 0;
+        for (int t = 0; t < count; t++) {
+            int tokenStart = tokens[2 * t];
+            int tokenEnd = tokens[2 * t + 1];
+            if (t > 0) {
+                if (compare(chars, tokens[2 * t - 2], tokens[2 * t - 1], tokenStart, tokenEnd) == 0) {
+                    continue;
+                }
+                out[outLength++] = ' ';
+            }
+            System.arraycopy(chars, tokenStart, out, outLength, tokenEnd - tokenStart);
+            outLength += tokenEnd - tokenStart;
+        }
+        return new String(out, 0, outLength);
+    }
+
+    /**
+     * Computes the key of {@link NGramFingerprintKeyer}.
+     * 
+     * @return the key, or null if the string is not ASCII or the n-gram size is not supported
+     */
+    static String ngramFingerprint(String s, int size) {
+        if (size < 1 || size > MAX_PACKED_NGRAM_SIZE || !isAscii(s)) {
+            return null;
+        }
+        Buffers buffers = BUFFERS.get();
+        char[] chars = buffers.chars(s.length());
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (NGRAM[c]) {
+                chars[length++] = FOLD[c];
+            }
+        }
+        int count = length - size + 1;
+        if (count <= 0) {
+            return "";
+        }
+
+        // n-grams of equal length sort like their base-128 encodings
+        long[] grams = buffers.grams(count);
+        long mask = (1L << (7 * size)) - 1;
+        long gram = 0;
+        for (int i = 0; i < length; i++) {
+            gram = ((gram << 7) | chars[i]) & mask;
+            if (i >= size - 1) {
+                grams[i - size + 1] = gram;
+            }
+        }
+        Arrays.sort(grams, 0, count);
+
+        char[] out = buffers.out(count * size);
+        int outLength = 0;
+        for (int g = 0; g < count; g++) {
+            if (g > 0 && grams[g] == grams[g - 1]) {
+                continue;
+            }
+            long packed = grams[g];
+            for (int j = size - 1; j >= 0; j--) {
+                out[outLength + j] = (char) (packed & 127);
+                packed >>>= 7;
+            }
+            outLength += size;
+        }
+        return new String(out, 0, outLength);
+    }
+
+    private static int compare(char[] chars, int start1, int end1, int start2, int end2) {
+        int length1 = end1 - start1;
+        int length2 = end2 - start2;
+        int min = Math.min(length1, length2);
+        for (int i = 0; i < min; i++) {
+            int diff = chars[start1 + i] - chars[start2 + i];
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length1 - length2;
+    }
+}
@@ -34,6 +34,11 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.clustering.binning;
 
 
+/**
+ * Computes the keys by which values are grouped in a {@link BinningClusterer}.
+ * Keyers are shared between requests, so they should not keep any state
+ * between calls to {@link #key(String, Object...)}.
+ */
 public abstract class Keyer {
 
     public String key(String s) {
@@ -42,4 +47,14 @@ public abstract class Keyer {
     
     public abstract String key(String string, Object... params);
     
+    /**
+     * Whether {@link #key(String, Object...)} may be called from several
+     * threads at once. Large columns are only keyed in parallel by keyers
+     * returning true here. Defaults to false, so keyers provided by
+     * extensions are keyed sequentially unless they opt in.
+     */
+    public boolean isThreadSafe() {
+        return false;
+    }
+
 }
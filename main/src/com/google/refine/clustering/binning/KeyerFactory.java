@@ -45,6 +45,11 @@ public class KeyerFactory {
 	// We cannot derive this from the hashmap as the order matters
 	static final private List<String> _keyerNames = new LinkedList<>();
 
+    /**
+     * Number of keys remembered by each keyer returned by {@link #memoize(Keyer)}.
+     */
+    static final int MEMO_CAPACITY = Integer.getInteger("refine.keyer.memoCapacity", 100000);
+
     static {
     	// Some keyers are disabled as they are super-seeded by others
     	// See https://github.com/OpenRefine/OpenRefine/pull/1906
@@ -53,9 +58,9 @@ public class KeyerFactory {
         put("ngram-fingerprint", new NGramFingerprintKeyer());
         // put("metaphone", new MetaphoneKeyer());
         // put("double-metaphone", new DoubleMetaphoneKeyer());
-        put("metaphone3", new Metaphone3Keyer());
+        put("metaphone3", memoize(new Metaphone3Keyer()));
         // put("soundex", new SoundexKeyer());
-        put("cologne-phonetic", new ColognePhoneticKeyer());
+        put("cologne-phonetic", memoize(new ColognePhoneticKeyer()));
     }
     
     /**
@@ -73,6 +78,19 @@ public class KeyerFactory {
     	_keyerNames.add(name);
     }
     
+    /**
+     * Wraps a keyer so that it remembers the keys of the strings it recently
+     * saw. This is worth it for expensive keyers (phonetic ones, for instance)
+     * which are often applied to the same values, by successive clustering
+     * operations or expression evaluations. Cheap keyers are better left as is.
+     */
+    public static Keyer memoize(Keyer keyer) {
+        if (keyer instanceof MemoizingKeyer) {
+            return keyer;
+        }
+        return new MemoizingKeyer(keyer, MEMO_CAPACITY);
+    }
+
     /**
      * Set of available keyer, by names.
      * The first keyer is considered the default one.
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.clustering.binning;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keyer remembering the keys of the strings it has recently seen, for keyers
+ * expensive enough for a lookup to pay off, such as phonetic ones. The cache
+ * is shared by all callers of the keyer and is cleared when it grows beyond
+ * its capacity. The wrapped keyer must be deterministic and thread-safe.
+ */
+public class MemoizingKeyer extends Keyer {
+
+    protected final Keyer _keyer;
+    protected final int _capacity;
+    protected final Map<Object, String> _cache = new ConcurrentHashMap<>();
+
+    public MemoizingKeyer(Keyer keyer, int capacity) {
+        _keyer = keyer;
+        _capacity = capacity;
+    }
+
+    public Keyer getKeyer() {
+        return _keyer;
+    }
+
+    @Override
+    public String key(String string, Object... params) {
+        if (string == null) {
+            return _keyer.key(string, params);
+        }
+        Object cacheKey = (params == null || params.length == 0) ? string : new ParameterizedString(string, params);
+        String key = _cache.get(cacheKey);
+        if (key == null) {
+            key = _keyer.key(string, params);
+            if (key == null) {
+                return null;
+            }
+            if (_cache.size() >= _capacity) {
+                _cache.clear();
+            }
+            _cache.put(cacheKey, key);
+        }
+        return key;
+    }
+
+    protected static class ParameterizedString {
+
+        final String string;
+        final List<Object> params;
+
+        ParameterizedString(String string, Object[] params) {
+            this.string = string;
+            this.params = Arrays.asList(params.clone());
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof ParameterizedString)) {
+                return false;
+            }
+            ParameterizedString o = (ParameterizedString) other;
+            return string.equals(o.string) && params.equals(o.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * string.hashCode() + params.hashCode();
+        }
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return _keyer.isThreadSafe();
+    }
+}
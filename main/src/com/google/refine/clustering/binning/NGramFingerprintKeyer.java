@@ -49,13 +49,22 @@ import java.util.stream.Stream;
 public class NGramFingerprintKeyer extends FingerprintKeyer {
 
     static final Pattern ctrlspace = Pattern.compile("\\p{Cntrl}|\\p{Space}", Pattern.UNICODE_CHARACTER_CLASS);
-    
+
+    // subclasses may override the normalization, which the scanner does not call
+    private final boolean _scannable = getClass() == NGramFingerprintKeyer.class;
+
     @Override
     public String key(String s, Object... o) {
         int ngram_size = 2;
         if (o != null && o.length > 0 && o[0] instanceof Number) {
             ngram_size = (Integer) o[0];
         }
+        if (_scannable && s != null) {
+            String key = FingerprintScanner.ngramFingerprint(s, ngram_size);
+            if (key != null) {
+                return key;
+            }
+        }
         s = normalize(s, true);
         s = ctrlspace.matcher(s).replaceAll(""); // then remove all control chars & whitespace
         return sorted_ngrams(s, ngram_size).collect(Collectors.joining());
@@ -88,4 +97,8 @@ public class NGramFingerprintKeyer extends FingerprintKeyer {
         return set;
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        return _scannable;
+    }
 }
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.clustering.knn;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Base class for normalized compression distances, computing the same values
+ * as the Simile Vicino implementations: for strings a and b and a compressed
+ * size C,
+ * 
+ * <pre>
+ * d(a, b) = 10 * ((C(ab) + C(ba)) / (C(aa) + C(bb)) - 1)
+ * </pre>
+ * 
+ * The encoded bytes and C(ss) are cached for the most recently seen strings,
+ * since kNN clustering compares each string with many others. Subclasses
+ * reuse their compressors per thread where the compression library allows it.
+ */
+public abstract class CompressionDistance implements SimilarityDistance {
+
+    /**
+     * Number of strings above which the cache is cleared.
+     */
+    static final int MAX_CACHED_STRINGS = 100000;
+
+    protected final Map<String, Encoded> _cache = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<byte[]> _buffers = ThreadLocal.withInitial(() -> new byte[256]);
+
+    protected static class Encoded {
+
+        final byte[] bytes;
+        final long selfSize;
+
+        Encoded(byte[] bytes, long selfSize) {
+            this.bytes = bytes;
+            this.selfSize = selfSize;
+        }
+    }
+
+    /**
+     * Counts the bytes written to it without storing them.
+     */
+    protected static class CountingOutputStream extends OutputStream {
+
+        long count = 0;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    /**
+     * Computes the compressed size of the first bytes of a buffer.
+     */
+    protected abstract long compressedSize(byte[] bytes, int length) throws IOException;
+
+    @Override
+    public double compute(String a, String b) {
+        Encoded ea = encode(a);
+        Encoded eb = encode(b);
+        long ab = concatenatedSize(ea.bytes, eb.bytes);
+        long ba = concatenatedSize(eb.bytes, ea.bytes);
+        return 10.0 * ((double) (ab + ba) / (double) (ea.selfSize + eb.selfSize) - 1);
+    }
+
+    /**
+     * The distance is symmetric, so it is only computed once.
+     */
+    @Override
+    public boolean isWithin(String a, String b, double radius) {
+        return radius < 0 || compute(a, b) <= radius;
+    }
+
+    protected Encoded encode(String s) {
+        Encoded encoded = _cache.get(s);
+        if (encoded == null) {
+            // encoded like Vicino does, for identical distances
+            byte[] bytes = s.getBytes();
+            encoded = new Encoded(bytes, concatenatedSize(bytes, bytes));
+            if (_cache.size() >= MAX_CACHED_STRINGS) {
+                _cache.clear();
+            }
+            _cache.put(s, encoded);
+        }
+        return encoded;
+    }
+
+    protected long concatenatedSize(byte[] a, byte[] b) {
+        int length = a.length + b.length;
+        byte[] buffer = _buffers.get();
+        if (buffer.length < length) {
+            buffer = new byte[Math.max(length, 2 * buffer.length)];
+            _buffers.set(buffer);
+        }
+        System.arraycopy(a, 0, buffer, 0, a.length);
+        System.arraycopy(b, 0, buffer, a.length, b.length);
+        try {
+            return compressedSize(buffer, length);
+        } catch (IOException e) {
+            // only in-memory streams are involved
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.clustering.knn;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.wcohen.ss.api.Token;
+
+import edu.mit.simile.vicino.NGramTokenizer;
+
+/**
+ * Locality-sensitive blocking of strings for kNN clustering. Each string gets a
+ * MinHash signature over its character n-grams, made of a number of bands of a
+ * few rows each. Strings whose signatures agree on all rows of some band end up
+ * in the same block. Strings with similar sets of n-grams are very likely to share
+ * a block, while the number of candidate pairs stays close to linear in the
+ * number of strings, unlike with blocks of all strings sharing a given n-gram.
+ */
+public class MinHashBlocker {
+
+    final protected int _ngramSize;
+    final protected int _bands;
+    final protected int _rows;
+    final protected long[] _seeds;
+
+    public MinHashBlocker(int ngramSize, int bands, int rows) {
+        _ngramSize = ngramSize;
+        _bands = bands;
+        _rows = rows;
+        _seeds = new long[bands * rows];
+        for (int i = 0; i < _seeds.length; i++) {
+            _seeds[i] = mix(i + 1);
+        }
+    }
+
+    /**
+     * Groups the indices of the given strings into blocks. Strings shorter than the
+     * n-gram size, once normalized, are left out. Only blocks of at least two strings
+     * are returned.
+     */
+    public List<List<Integer>> getBlocks(List<String> values) {
+        NGramTokenizer tokenizer = new NGramTokenizer(_ngramSize);
+        List<Map<Long, List<Integer>>> bands = new ArrayList<>(_bands);
+        for (int b = 0; b < _bands; b++) {
+            bands.add(new HashMap<Long, List<Integer>>());
+        }
+        long[] signature = new long[_seeds.length];
+        for (int i = 0; i < values.size(); i++) {
+            Token[] tokens = tokenizer.tokenize(values.get(i));
+            if (tokens.length == 0) {
+                continue;
+            }
+            computeSignature(tokens, signature);
+            for (int b = 0; b < _bands; b++) {
+                long key = 1;
+                for (int r = 0; r < _rows; r++) {
+                    key = 31 * key + signature[b * _rows + r];
+                }
+                bands.get(b).computeIfAbsent(mix(key), k -> new ArrayList<Integer>()).add(i);
+            }
+        }
+
+        List<List<Integer>> blocks = new ArrayList<>();
+        for (Map<Long, List<Integer>> band : bands) {
+            for (List<Integer> block : band.values()) {
+                if (block.size() > 1) {
+                    blocks.add(block);
+                }
+            }
+        }
+        return blocks;
+    }
+
+    protected void computeSignature(Token[] tokens, long[] signature) {
+        for (int h = 0; h < signature.length; h++) {
+            signature[h] = Long.MAX_VALUE;
+        }
+        for (Token token : tokens) {
+            long base = token.getValue().hashCode();
+            for (int h = 0; h < signature.length; h++) {
+                long hash = mix(base ^ _seeds[h]);
+                if (hash < signature[h]) {
+                    signature[h] = hash;
+                }
+            }
+        }
+    }
+
+    /**
+     * SplitMix64 finalizer, spreading the bits of the input across the output.
+     */
+    protected static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
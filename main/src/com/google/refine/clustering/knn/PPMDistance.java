@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.clustering.knn;
+
+import java.io.IOException;
+
+import com.colloquial.arithcode.ppm.ArithCodeOutputStream;
+
+/**
+ * Compression distance based on prediction by partial matching, with contexts
+ * of up to 8 bytes. Each thread reuses its own model, reset before each
+ * compression, and compressed bytes are counted, not stored.
+ */
+public class PPMDistance extends CompressionDistance {
+
+    static final int MAX_CONTEXT_LENGTH = 8;
+
+    private final ThreadLocal<ResettablePPMModel> _models = ThreadLocal
+            .withInitial(() -> new ResettablePPMModel(MAX_CONTEXT_LENGTH));
+
+    @Override
+    protected long compressedSize(byte[] bytes, int length) throws IOException {
+        ResettablePPMModel model = _models.get();
+        model.reset();
+        CountingOutputStream counter = new CountingOutputStream();
+        try (ArithCodeOutputStream out = new ArithCodeOutputStream(counter, model)) {
+            out.write(bytes, 0, length);
+        }
+        return counter.count;
+    }
+}
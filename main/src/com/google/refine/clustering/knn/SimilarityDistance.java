@@ -41,4 +41,15 @@ public interface SimilarityDistance {
 	 * two arguments are equal, and rise as their differences increase.
 	 */
 	public double compute(String a, String b);
+
+	/**
+	 * Tells whether two strings are within a given radius of each other,
+	 * with the distance computed in either order. This is how kNN clustering
+	 * decides to put two strings in the same cluster. A negative radius
+	 * accepts all pairs. Implementations may stop computing the distance as
+	 * soon as it is known to exceed the radius.
+	 */
+	public default boolean isWithin(String a, String b, double radius) {
+		return radius < 0 || compute(a, b) <= radius || compute(b, a) <= radius;
+	}
 }
@@ -34,19 +34,27 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.clustering.knn;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonValue;
 import com.google.refine.browsing.Engine;
@@ -59,7 +67,9 @@ import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 
-import edu.mit.simile.vicino.clustering.NGramClusterer;
+import com.wcohen.ss.api.Token;
+
+import edu.mit.simile.vicino.NGramTokenizer;
 import edu.mit.simile.vicino.clustering.VPTreeClusterer;
 import edu.mit.simile.vicino.distances.Distance;
 
@@ -116,10 +126,29 @@ public class kNNClusterer extends Clusterer {
     public static class kNNClustererConfigParameters  {
         public static final double defaultRadius = 1.0d;
         public static final int defaultBlockingNgramSize = 6;
+        public static final String NGRAM_BLOCKING = "ngram";
+        public static final String MINHASH_BLOCKING = "minhash";
+        public static final int defaultMinHashBands = 20;
+        public static final int defaultMinHashRows = 4;
         @JsonProperty("radius")
         public double radius = defaultRadius;
         @JsonProperty("blocking-ngram-size")
         public int blockingNgramSize = defaultBlockingNgramSize;
+        /**
+         * How values are grouped before being compared: all values sharing an n-gram
+         * ("ngram", the default) or values with similar MinHash signatures over their
+         * n-grams ("minhash").
+         */
+        @JsonProperty("blocking")
+        @JsonInclude(Include.NON_NULL)
+        public String blocking = null;
+        // 0 stands for the default number of bands and rows
+        @JsonProperty("minhash-bands")
+        @JsonInclude(Include.NON_DEFAULT)
+        public int minHashBands = 0;
+        @JsonProperty("minhash-rows")
+        @JsonInclude(Include.NON_DEFAULT)
+        public int minHashRows = 0;
     }
 
     private SimilarityDistance _distance;
@@ -170,33 +199,33 @@ public class kNNClusterer extends Clusterer {
         }
     }
 
+    /**
+     * Collects the distinct values of the column, then compares the values
+     * within each block: values sharing an n-gram, or with similar MinHash
+     * signatures. Each distinct value is only tokenized once, chunks of
+     * blocks are compared in parallel and pairs already known to be within
+     * the radius are not compared again.
+     */
     class BlockingClusteringRowVisitor implements RowVisitor {
 
         SimilarityDistance _distance;
         double _radius = 1.0d;
         int _blockingNgramSize = 6;
-        HashSet<String> _data;
-        NGramClusterer _clusterer;
-        
-        private class DistanceWrapper extends Distance {
-        	private final SimilarityDistance _d;
-        	
-        	protected DistanceWrapper(SimilarityDistance d) {
-        		_d = d;
-        	}
-
-			@Override
-			public double d(String arg0, String arg1) {
-				return _d.compute(arg0, arg1);
-			}
-        }
+        MinHashBlocker _minHashBlocker = null;
+        Map<String, Integer> _indices = new HashMap<String, Integer>();
+        List<String> _values = new ArrayList<String>();
         
         public BlockingClusteringRowVisitor(SimilarityDistance _distance2, kNNClustererConfigParameters params) {
             _distance = _distance2;
-            _data = new HashSet<String>();
             _blockingNgramSize = params.blockingNgramSize;
             _radius = params.radius;
-            _clusterer = new NGramClusterer(new DistanceWrapper(_distance), _blockingNgramSize);
+            if (kNNClustererConfigParameters.MINHASH_BLOCKING.equals(params.blocking)) {
+                _minHashBlocker = new MinHashBlocker(_blockingNgramSize,
+                        params.minHashBands > 0 ? params.minHashBands : kNNClustererConfigParameters.defaultMinHashBands,
+                        params.minHashRows > 0 ? params.minHashRows : kNNClustererConfigParameters.defaultMinHashRows);
+            } else if (params.blocking != null && !kNNClustererConfigParameters.NGRAM_BLOCKING.equals(params.blocking)) {
+                throw new IllegalArgumentException("Unknown blocking strategy: " + params.blocking);
+            }
         }
         
         @Override
@@ -215,14 +244,78 @@ public class kNNClusterer extends Clusterer {
             if (cell != null && cell.value != null) {
                 Object v = cell.value;
                 String s = (v instanceof String) ? ((String) v) : v.toString().intern();
-                _clusterer.populate(s);
+                if (!_indices.containsKey(s)) {
+                    _indices.put(s, _values.size());
+                    _values.add(s);
+                }
                 count(s);
             }
             return false;
         }
         
+        protected Collection<List<Integer>> getBlocks() {
+            if (_minHashBlocker != null) {
+                return _minHashBlocker.getBlocks(_values);
+            }
+            NGramTokenizer tokenizer = new NGramTokenizer(_blockingNgramSize);
+            Map<String, List<Integer>> blocks = new HashMap<String, List<Integer>>();
+            for (int i = 0; i < _values.size(); i++) {
+                for (Token token : tokenizer.tokenize(_values.get(i))) {
+                    // blocks are added with put() as Vicino does: computeIfAbsent() grows
+                    // the map at other times, which would change the order of the blocks
+                    List<Integer> block = blocks.get(token.getValue());
+                    if (block == null) {
+                        block = new ArrayList<Integer>();
+                        blocks.put(token.getValue(), block);
+                    }
+                    if (block.isEmpty() || block.get(block.size() - 1) != i) {
+                        block.add(i);
+                    }
+                }
+            }
+            return blocks.values();
+        }
+
+        /**
+         * Splits the blocks in as many consecutive chunks as there are processors,
+         * as Vicino's NGramClusterer does, and forms a cluster of each value with
+         * the values it is linked to within the same chunk. This keeps the clusters
+         * it used to return: a chain of values a ~ b ~ c only gives a cluster
+         * {a, b, c} when both links are found in the same chunk. Links found in one
+         * chunk are not computed again in the others.
+         */
         public List<Set<Serializable>> getClusters() {
-            return _clusterer.getClusters(_radius);
+            List<List<Integer>> blocks = new ArrayList<List<Integer>>(getBlocks());
+            int chunks = Runtime.getRuntime().availableProcessors();
+            int chunkSize = blocks.size() / chunks + 1;
+            long n = _values.size();
+            Set<Long> linked = ConcurrentHashMap.newKeySet();
+            Set<Set<Serializable>> clusters = ConcurrentHashMap.newKeySet();
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                Map<Integer, Set<Serializable>> neighbours = new HashMap<Integer, Set<Serializable>>();
+                int end = Math.min(chunkSize * (chunk + 1), blocks.size());
+                for (int i = chunkSize * chunk; i < end; i++) {
+                    List<Integer> block = blocks.get(i);
+                    for (int x = 0; x < block.size(); x++) {
+                        int a = block.get(x);
+                        for (int y = x + 1; y < block.size(); y++) {
+                            int b = block.get(y);
+                            Long pair = a < b ? a * n + b : b * n + a;
+                            if (linked.contains(pair)
+                                    || _distance.isWithin(_values.get(a), _values.get(b), _radius)) {
+                                linked.add(pair);
+                                neighbours.computeIfAbsent(a, k -> new TreeSet<Serializable>(Collections.singleton(_values.get(a))))
+                                        .add(_values.get(b));
+                                neighbours.computeIfAbsent(b, k -> new TreeSet<Serializable>(Collections.singleton(_values.get(b))))
+                                        .add(_values.get(a));
+                            }
+                        }
+                    }
+                }
+                clusters.addAll(neighbours.values());
+            });
+            // clusters are sorted by size when they are listed
+            return new ArrayList<Set<Serializable>>(clusters);
         }
     }
     
@@ -239,7 +332,12 @@ public class kNNClusterer extends Clusterer {
         FilteredRows filteredRows = engine.getAllFilteredRows();
         filteredRows.accept(_project, visitor);
      
-        _clusters = visitor.getClusters();
+        // sorted once, so that pages of clusters are slices of this list
+        Comparator<Set<Serializable>> bySize = (c1, c2) -> c2.size() - c1.size();
+        _clusters = visitor.getClusters().stream()
+                .filter(m -> m.size() > 1)
+                .sorted(bySize)
+                .collect(Collectors.toList());
     }
 
     public static class ValuesComparator implements Comparator<Entry<Serializable,Integer>>, Serializable {
@@ -257,12 +355,20 @@ public class kNNClusterer extends Clusterer {
                 .collect(Collectors.toList());
     }
     
+    @Override
+    public int getClusterCount() {
+        return _clusters.size();
+    }
+
+    @Override
+    public Stream<List<ClusteredEntry>> getClusters(int offset, int limit) {
+        return sliceClusters(_clusters, offset, limit).stream()
+                .map(m -> getClusteredEntries(m));
+    }
+
     @JsonValue
     public List<List<ClusteredEntry>> getJsonRepresentation() {
-        return _clusters.stream()
-                        .filter(m -> m.size() > 1)
-                        .map(m -> getClusteredEntries(m))
-                .collect(Collectors.toList());
+        return getClusters(0, -1).collect(Collectors.toList());
     }
     
     private void count(Serializable s) {
@@ -34,6 +34,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.commands.browsing;
 
 import java.io.IOException;
+import java.io.Writer;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -42,9 +43,11 @@ import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.refine.browsing.Engine;
 import com.google.refine.clustering.Clusterer;
 import com.google.refine.clustering.ClustererConfig;
+import com.google.refine.clustering.ClusteringCache;
 import com.google.refine.commands.Command;
 import com.google.refine.model.Project;
 import com.google.refine.util.ParsingUtilities;
@@ -68,14 +71,46 @@ public class ComputeClustersCommand extends Command {
             String clusterer_conf = request.getParameter("clusterer");
             ClustererConfig clustererConfig = ParsingUtilities.mapper.readValue(clusterer_conf, ClustererConfig.class);
 
-            Clusterer clusterer = clustererConfig.apply(project);
-            
-            clusterer.computeClusters(engine);
-            
-            respondJSON(response, clusterer);
+            Clusterer clusterer = ClusteringCache.singleton.computeClusters(
+                    project, engine, getEngineConfig(request), clustererConfig);
+
+            respondClusters(response, clusterer,
+                    Math.max(0, getIntegerParameter(request, "start", 0)),
+                    getIntegerParameter(request, "limit", -1));
             logger.info("computed clusters [{}] in {}ms", new Object[] { clustererConfig.getType(), Long.toString(System.currentTimeMillis() - start) });
         } catch (Exception e) {
             respondException(response, e);
         }
     }
+
+    /**
+     * Streams the clusters to the response. Without a limit, all clusters are
+     * written as a plain array. With a limit, the requested page is wrapped
+     * in an object also holding the total number of clusters, so that the
+     * client can request the next pages.
+     */
+    protected void respondClusters(HttpServletResponse response, Clusterer clusterer, int start, int limit)
+            throws IOException {
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Type", "application/json");
+        response.setHeader("Cache-Control", "no-cache");
+
+        Writer w = response.getWriter();
+        JsonGenerator writer = ParsingUtilities.mapper.getFactory().createGenerator(w);
+        if (limit < 0) {
+            clusterer.writeClusters(writer, start, limit);
+        } else {
+            writer.writeStartObject();
+            writer.writeNumberField("start", start);
+            writer.writeNumberField("limit", limit);
+            writer.writeNumberField("total", clusterer.getClusterCount());
+            writer.writeFieldName("clusters");
+            clusterer.writeClusters(writer, start, limit);
+            writer.writeEndObject();
+        }
+        writer.flush();
+        writer.close();
+        w.flush();
+        w.close();
+    }
 }
@@ -34,17 +34,37 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.commands.browsing;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import com.google.refine.ProjectManager;
+import com.google.refine.browsing.CancellationToken;
 import com.google.refine.browsing.Engine;
 import com.google.refine.commands.Command;
 import com.google.refine.model.Project;
 
 public class ComputeFacetsCommand extends Command {
-	
+
+    /**
+     * Server-wide cap on the number of facet computations running at the same time.
+     */
+    static final protected Semaphore s_permits = new Semaphore(
+            Integer.getInteger("refine.facets.maxConcurrent", Runtime.getRuntime().availableProcessors()), true);
+
+    /**
+     * Computations in progress, keyed by client and project, so that a newer request
+     * from the same client can cancel the one it supersedes.
+     */
+    static final protected Map<String, CancellationToken> s_pending = new ConcurrentHashMap<>();
+
+    static final protected long PERMIT_POLL_INTERVAL = 100;
+
     /**
      * This command uses POST (probably to allow for larger parameters) but does not actually modify any state
      * so we do not add CSRF protection to it.
@@ -56,12 +76,73 @@ public class ComputeFacetsCommand extends Command {
         try {
             Project project = getProject(request);
             Engine engine = getEngine(request, project);
+            // each facet visits all rows through the filters of all other facets
+            engine.enableEvaluationMemo();
+            
+            CancellationToken token = new CancellationToken(getTimeout(request));
+            engine.setCancellationToken(token);
             
-            engine.computeFacets();
+            String clientId = request.getParameter("clientId");
+            String key = clientId == null ? null : clientId + ";" + project.id;
+            if (key != null) {
+                CancellationToken superseded = s_pending.put(key, token);
+                if (superseded != null) {
+                    superseded.cancel();
+                }
+            }
+            try {
+                if (acquirePermit(token)) {
+                    try {
+                        engine.computeFacets();
+                    } finally {
+                        s_permits.release();
+                    }
+                } else {
+                    // Cancelled before it could start: report all facets as truncated
+                    engine.computeFacets();
+                }
+            } finally {
+                if (key != null) {
+                    s_pending.remove(key, token);
+                }
+            }
             
             respondJSON(response, engine);
         } catch (Exception e) {
             respondException(response, e);
         }
     }
+    
+    /**
+     * Waits for a computation slot, giving up if the token fires in the meantime.
+     */
+    static protected boolean acquirePermit(CancellationToken token) throws InterruptedException {
+        while (!token.isCancelled()) {
+            long wait = Math.min(PERMIT_POLL_INTERVAL, token.getRemainingTime());
+            if (s_permits.tryAcquire(wait, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * The time budget in milliseconds, taken from the "timeout" parameter or else
+     * from the "ui.browsing.facets.timeout" preference. 0 means unlimited.
+     */
+    static protected long getTimeout(HttpServletRequest request) {
+        String timeout = request.getParameter("timeout");
+        if (timeout == null) {
+            Object v = ProjectManager.singleton.getPreferenceStore().get("ui.browsing.facets.timeout");
+            timeout = v == null ? null : v.toString();
+        }
+        if (timeout != null) {
+            try {
+                return Long.parseLong(timeout);
+            } catch (NumberFormatException e) {
+                // ignore
+            }
+        }
+        return 0;
+    }
 }
@@ -55,6 +55,8 @@ public class ExtendDataCommand extends EngineDependentCommand {
         
         String jsonString = request.getParameter("extension");
         DataExtensionConfig extension = DataExtensionConfig.reconstruct(jsonString);
+        int batchSize = getIntegerParameter(request, "batchSize", 0);
+        int concurrency = getIntegerParameter(request, "concurrency", 0);
         
         return new ExtendDataOperation(
             engineConfig, 
@@ -63,7 +65,9 @@ public class ExtendDataCommand extends EngineDependentCommand {
             identifierSpace,
             schemaSpace,
             extension,
-            columnInsertIndex
+            columnInsertIndex,
+            batchSize,
+            concurrency
         );
     }
 
@@ -146,6 +146,8 @@ public class GetRowsCommand extends Command {
             }
             
             Engine engine = getEngine(request, project);
+            // facets sharing an expression only evaluate it once per row
+            engine.enableEvaluationMemo();
             String callback = request.getParameter("callback");
             
             int start = Math.min(project.rows.size(), Math.max(0, getIntegerParameter(request, "start", 0)));
@@ -36,6 +36,7 @@ package com.google.refine.expr;
 import java.io.Serializable;
 import java.time.OffsetDateTime;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
@@ -43,6 +44,22 @@ import java.util.Set;
 
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.refine.expr.functions.Cross;
+import com.google.refine.expr.functions.FacetCount;
+import com.google.refine.grel.Control;
+import com.google.refine.grel.Function;
+import com.google.refine.grel.ast.ControlCallExpr;
+import com.google.refine.grel.ast.FieldAccessorExpr;
+import com.google.refine.grel.ast.FunctionCallExpr;
+import com.google.refine.grel.ast.LiteralExpr;
+import com.google.refine.grel.ast.OperatorCallExpr;
+import com.google.refine.grel.ast.VariableExpr;
+import com.google.refine.grel.controls.Filter;
+import com.google.refine.grel.controls.ForEach;
+import com.google.refine.grel.controls.ForEachIndex;
+import com.google.refine.grel.controls.ForNonBlank;
+import com.google.refine.grel.controls.ForRange;
+import com.google.refine.grel.controls.With;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
@@ -99,6 +116,80 @@ public class ExpressionUtils {
         }
     }
 
+    /**
+     * Conservative check that an expression only reads the cell it is evaluated on,
+     * through the "value" and "cell" variables, so that its results over a column
+     * only change when the cells of that column change. Expressions reading other
+     * columns, the row, the record or other rows (through functions such as cross()
+     * or facetCount()) fail this check, and so do expressions in languages other
+     * than GREL.
+     */
+    static public boolean dependsOnlyOnCell(String expression) {
+        int colon = expression.indexOf(':');
+        if (colon >= 0) {
+            String language = expression.substring(0, colon).toLowerCase();
+            if (!"grel".equals(language) && !"gel".equals(language)
+                    && MetaParser.getLanguagePrefixes().contains(language)) {
+                return false;
+            }
+        }
+        try {
+            return dependsOnlyOnCell(MetaParser.parse(expression), Collections.emptySet());
+        } catch (ParsingException e) {
+            return false;
+        }
+    }
+
+    static private boolean dependsOnlyOnCell(Evaluable eval, Set<String> localVariables) {
+        if (eval instanceof LiteralExpr) {
+            return true;
+        } else if (eval instanceof VariableExpr) {
+            String name = ((VariableExpr) eval).getName();
+            return "value".equals(name) || "cell".equals(name) || localVariables.contains(name);
+        } else if (eval instanceof FieldAccessorExpr) {
+            return dependsOnlyOnCell(((FieldAccessorExpr) eval).getInner(), localVariables);
+        } else if (eval instanceof OperatorCallExpr) {
+            return dependsOnlyOnCell(((OperatorCallExpr) eval).getArgs(), localVariables);
+        } else if (eval instanceof FunctionCallExpr) {
+            Function function = ((FunctionCallExpr) eval).getFunction();
+            return !(function instanceof Cross) && !(function instanceof FacetCount)
+                    && dependsOnlyOnCell(((FunctionCallExpr) eval).getArgs(), localVariables);
+        } else if (eval instanceof ControlCallExpr) {
+            Control control = ((ControlCallExpr) eval).getControl();
+            Evaluable[] args = ((ControlCallExpr) eval).getArgs();
+            // controls such as forEach() bind variables for their other arguments
+            Set<String> variables = new HashSet<>(localVariables);
+            for (int i : getVariableArgs(control)) {
+                if (i < args.length && args[i] instanceof VariableExpr) {
+                    variables.add(((VariableExpr) args[i]).getName());
+                }
+            }
+            return dependsOnlyOnCell(args, variables);
+        }
+        return false;
+    }
+
+    static private boolean dependsOnlyOnCell(Evaluable[] args, Set<String> localVariables) {
+        for (Evaluable arg : args) {
+            if (!dependsOnlyOnCell(arg, localVariables)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static private int[] getVariableArgs(Control control) {
+        if (control instanceof ForEach || control instanceof Filter
+                || control instanceof ForNonBlank || control instanceof With) {
+            return new int[] { 1 };
+        } else if (control instanceof ForEachIndex) {
+            return new int[] { 1, 2 };
+        } else if (control instanceof ForRange) {
+            return new int[] { 3 };
+        }
+        return new int[0];
+    }
+
     static public boolean isError(Object o) {
         return o instanceof EvalError;
     }
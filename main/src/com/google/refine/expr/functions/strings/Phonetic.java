@@ -35,9 +35,9 @@ package com.google.refine.expr.functions.strings;
 
 import java.util.Properties;
 
-import com.google.refine.clustering.binning.ColognePhoneticKeyer;
 import com.google.refine.clustering.binning.DoubleMetaphoneKeyer;
-import com.google.refine.clustering.binning.Metaphone3Keyer;
+import com.google.refine.clustering.binning.Keyer;
+import com.google.refine.clustering.binning.KeyerFactory;
 import com.google.refine.clustering.binning.MetaphoneKeyer;
 import com.google.refine.clustering.binning.SoundexKeyer;
 import com.google.refine.expr.EvalError;
@@ -47,11 +47,12 @@ import com.google.refine.grel.Function;
 public class Phonetic implements Function {
 
     // TODO: We could probably lazily initialize these when needed for efficiency
-    static private Metaphone3Keyer metaphone3 = new Metaphone3Keyer();
-    static private DoubleMetaphoneKeyer metaphone2 = new DoubleMetaphoneKeyer();
-    static private MetaphoneKeyer metaphone = new MetaphoneKeyer();
-    static private SoundexKeyer soundex = new SoundexKeyer();
-    static private ColognePhoneticKeyer cologne = new ColognePhoneticKeyer();
+    // Keys are memoized, sharing them with clustering for the registered keyers
+    static private Keyer metaphone3 = KeyerFactory.memoize(KeyerFactory.get("metaphone3"));
+    static private Keyer metaphone2 = KeyerFactory.memoize(new DoubleMetaphoneKeyer());
+    static private Keyer metaphone = KeyerFactory.memoize(new MetaphoneKeyer());
+    static private Keyer soundex = KeyerFactory.memoize(new SoundexKeyer());
+    static private Keyer cologne = KeyerFactory.memoize(KeyerFactory.get("cologne-phonetic"));
 
     @Override
     public Object call(Properties bindings, Object[] args) {
@@ -73,6 +73,10 @@ public class FieldAccessorExpr implements Evaluable {
         }
     }
 
+    public Evaluable getInner() {
+        return _inner;
+    }
+
     @Override
     public String toString() {
         return _inner.toString() + "." + _fieldName;
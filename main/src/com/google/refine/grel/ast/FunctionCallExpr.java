@@ -72,6 +72,14 @@ public class FunctionCallExpr implements Evaluable {
         }
     }
 
+    public Evaluable[] getArgs() {
+        return _args;
+    }
+
+    public Function getFunction() {
+        return _function;
+    }
+
     @Override
     public String toString() {
         StringBuffer sb = new StringBuffer();
@@ -141,6 +141,10 @@ public class OperatorCallExpr implements Evaluable {
         return null;
     }
 
+    public Evaluable[] getArgs() {
+        return _args;
+    }
+
     @Override
     public String toString() {
         StringBuffer sb = new StringBuffer();
@@ -50,7 +50,6 @@ import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -84,26 +83,26 @@ public class ExcelImporter extends TabularImportingParserBase {
                 ObjectNode fileRecord = fileRecords.get(index);
                 File file = ImportingUtilities.getFile(job, fileRecord);
 
+                if (FileMagic.valueOf(file) == FileMagic.OOXML) {
+                    // list the sheets without loading their cells
+                    try (XlsxWorkbookReader reader = XlsxWorkbookReader.open(file)) {
+                        for (int i = 0; i < reader.getSheetCount(); i++) {
+                            addSheetRecord(sheetRecords, file, i, reader.getSheetName(i), reader.getRowCount(i));
+                        }
+                    }
+                    continue;
+                }
+
                 Workbook wb = null;
                 try {
-                    wb = FileMagic.valueOf(file) == FileMagic.OOXML ? new XSSFWorkbook(file) :
-                                 new HSSFWorkbook(new POIFSFileSystem(file));
+                    wb = new HSSFWorkbook(new POIFSFileSystem(file));
 
                     int sheetCount = wb.getNumberOfSheets();
                     for (int i = 0; i < sheetCount; i++) {
                         Sheet sheet = wb.getSheetAt(i);
                         int rows = sheet.getLastRowNum() - sheet.getFirstRowNum() + 1;
 
-                        ObjectNode sheetRecord = ParsingUtilities.mapper.createObjectNode();
-                        JSONUtilities.safePut(sheetRecord, "name",  file.getName() + "#" + sheet.getSheetName());
-                        JSONUtilities.safePut(sheetRecord, "fileNameAndSheetIndex", file.getName() + "#" + i);
-                        JSONUtilities.safePut(sheetRecord, "rows", rows);
-                        if (rows > 1) {
-                            JSONUtilities.safePut(sheetRecord, "selected", true);
-                        } else {
-                            JSONUtilities.safePut(sheetRecord, "selected", false);
-                        }
-                        JSONUtilities.append(sheetRecords, sheetRecord);
+                        addSheetRecord(sheetRecords, file, i, sheet.getSheetName(), rows);
                     }
                 } finally {
                     if (wb != null) {
@@ -121,6 +120,19 @@ public class ExcelImporter extends TabularImportingParserBase {
         
         return options;
     }
+
+    static private void addSheetRecord(ArrayNode sheetRecords, File file, int sheetIndex, String sheetName, int rows) {
+        ObjectNode sheetRecord = ParsingUtilities.mapper.createObjectNode();
+        JSONUtilities.safePut(sheetRecord, "name",  file.getName() + "#" + sheetName);
+        JSONUtilities.safePut(sheetRecord, "fileNameAndSheetIndex", file.getName() + "#" + sheetIndex);
+        JSONUtilities.safePut(sheetRecord, "rows", rows);
+        if (rows > 1) {
+            JSONUtilities.safePut(sheetRecord, "selected", true);
+        } else {
+            JSONUtilities.safePut(sheetRecord, "selected", false);
+        }
+        JSONUtilities.append(sheetRecords, sheetRecord);
+    }
     
     @Override
     public void parseOneFile(
@@ -134,14 +146,18 @@ public class ExcelImporter extends TabularImportingParserBase {
         List<Exception> exceptions
     ) {
         Workbook wb = null;
+        XlsxWorkbookReader xlsx = null;
         if (!inputStream.markSupported()) {
           inputStream = new BufferedInputStream(inputStream);
         }
         
         try {
-            wb = FileMagic.valueOf(inputStream) == FileMagic.OOXML ?
-                new XSSFWorkbook(inputStream) :
-                new HSSFWorkbook(new POIFSFileSystem(inputStream));
+            if (FileMagic.valueOf(inputStream) == FileMagic.OOXML) {
+                // XLSX sheets are streamed rather than loaded in memory
+                xlsx = XlsxWorkbookReader.open(inputStream);
+            } else {
+                wb = new HSSFWorkbook(new POIFSFileSystem(inputStream));
+            }
         } catch (IOException e) {
             exceptions.add(new ImportException(
                 "Attempted to parse as an Excel file but failed. " +
@@ -165,7 +181,7 @@ public class ExcelImporter extends TabularImportingParserBase {
                     e
                 ));
                 return;
-        } catch (POIXMLException e) {
+        } catch (POIXMLException|InvalidFormatException e) {
             exceptions.add(new ImportException(
                     "Attempted to parse as an Excel file but failed. " +
                     "Invalid XML.",
@@ -174,6 +190,32 @@ public class ExcelImporter extends TabularImportingParserBase {
                 return;
         }
         
+        try {
+            readSheets(project, metadata, job, fileSource, wb, xlsx, limit, options, exceptions);
+        } finally {
+            try {
+                if (xlsx != null) {
+                    xlsx.close();
+                } else {
+                    wb.close();
+                }
+            } catch (IOException e) {
+                logger.warn("Error closing Excel file " + fileSource, e);
+            }
+        }
+    }
+
+    private void readSheets(
+        Project project,
+        ProjectMetadata metadata,
+        ImportingJob job,
+        String fileSource,
+        Workbook wb,
+        XlsxWorkbookReader xlsx,
+        int limit,
+        ObjectNode options,
+        List<Exception> exceptions
+    ) {
         ArrayNode sheets = (ArrayNode) options.get("sheets");
         
         for(int i=0;i<sheets.size();i++)  {
@@ -185,7 +227,26 @@ public class ExcelImporter extends TabularImportingParserBase {
             if (!fileNameAndSheetIndex[0].equals(fileSource))
                 continue;
             
-            final Sheet sheet = wb.getSheetAt(Integer.parseInt(fileNameAndSheetIndex[1]));
+            int sheetIndex = Integer.parseInt(fileNameAndSheetIndex[1]);
+            if (xlsx != null) {
+                try (XlsxWorkbookReader.SheetReader dataReader = xlsx.getSheetReader(sheetIndex)) {
+                    TabularImportingParserBase.readTable(
+                        project,
+                        metadata,
+                        job,
+                        dataReader,
+                        fileSource + "#" + xlsx.getSheetName(sheetIndex),
+                        limit,
+                        options,
+                        exceptions
+                    );
+                } catch (IOException e) {
+                    exceptions.add(e);
+                }
+                continue;
+            }
+
+            final Sheet sheet = wb.getSheetAt(sheetIndex);
             final int lastRow = sheet.getLastRowNum();
             
             TableDataReader dataReader = new TableDataReader() {
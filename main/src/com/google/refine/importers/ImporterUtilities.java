@@ -54,23 +54,104 @@ import com.google.refine.util.TrackingInputStream;
 
 public class ImporterUtilities {
 
+    /**
+     * Converts a string to a long or a double if it is the textual representation
+     * of one, ignoring surrounding whitespace, or returns it unchanged otherwise.
+     * <p>
+     * This is equivalent to trying {@link Long#parseLong(String)} and then
+     * {@link Double#parseDouble(String)} (rejecting infinite values and NaN), but
+     * scans the string once instead, without throwing exceptions for text.
+     */
     static public Serializable parseCellValue(String text) {
-        if (text.length() > 0) {
-            String text2 = text.trim();
-            if (text2.length() > 0) {
-                try {
-                    return Long.parseLong(text2);
-                } catch (NumberFormatException e) {
-                }
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return text;
+        }
+        
+        int i = start;
+        char c = text.charAt(i);
+        boolean negative = c == '-';
+        if (negative || c == '+') {
+            i++;
+        }
+        
+        // accumulated negatively, as in Long.parseLong, to reach Long.MIN_VALUE
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long value = 0;
+        boolean overflow = false;
+        int digitsStart = i;
+        while (i < end && (c = text.charAt(i)) >= '0' && c <= '9') {
+            int digit = c - '0';
+            if (value < limit / 10 || value * 10 < limit + digit) {
+                overflow = true;
+            } else {
+                value = value * 10 - digit;
+            }
+            i++;
+        }
+        boolean mantissa = i > digitsStart;
+        if (i == end && mantissa && !overflow) {
+            return negative ? value : -value;
+        }
+        
+        // the rest of Java's decimal floating point syntax
+        if (i < end && text.charAt(i) == '.') {
+            i++;
+            while (i < end && (c = text.charAt(i)) >= '0' && c <= '9') {
+                i++;
+                mantissa = true;
+            }
+        }
+        if (mantissa && i < end && ((c = text.charAt(i)) == 'e' || c == 'E')) {
+            i++;
+            if (i < end && ((c = text.charAt(i)) == '+' || c == '-')) {
+                i++;
+            }
+            int exponentStart = i;
+            while (i < end && (c = text.charAt(i)) >= '0' && c <= '9') {
+                i++;
+            }
+            mantissa = i > exponentStart;
+        }
+        if (mantissa && i < end && ((c = text.charAt(i)) == 'd' || c == 'D' || c == 'f' || c == 'F')) {
+            i++;
+        }
+        if (mantissa && i == end) {
+            double d = Double.parseDouble(text);
+            if (!Double.isInfinite(d) && !Double.isNaN(d)) {
+                return d;
+            }
+            return text;
+        }
+        
+        // hexadecimal doubles and non-ASCII digits are left to the JDK
+        c = text.charAt(Math.min(i, end - 1));
+        if (c == 'x' || c == 'X' || (c > 127 && Character.isDigit(c))) {
+            return parseCellValueWithJdk(text);
+        }
+        return text;
+    }
     
-                try {
-                    double d = Double.parseDouble(text2);
-                    if (!Double.isInfinite(d) && !Double.isNaN(d)) {
-                        return d;
-                    }
-                } catch (NumberFormatException e) {
-                }
+    static private Serializable parseCellValueWithJdk(String text) {
+        String text2 = text.trim();
+        try {
+            return Long.parseLong(text2);
+        } catch (NumberFormatException e) {
+        }
+
+        try {
+            double d = Double.parseDouble(text2);
+            if (!Double.isInfinite(d) && !Double.isNaN(d)) {
+                return d;
             }
+        } catch (NumberFormatException e) {
         }
         return text;
     }
@@ -0,0 +1,387 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.importers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.refine.importers.TabularImportingParserBase.TableDataReader;
+import com.google.refine.model.Cell;
+import com.google.refine.util.ParsingUtilities;
+
+/**
+ * Reads the sheets of an OpenDocument spreadsheet by streaming its content.xml,
+ * instead of loading the whole document with the ODF toolkit. Only the row being
+ * read is held in memory.
+ * <p>
+ * Sheets can only be read in the order of the document: {@link #nextSheet()} moves
+ * to the following sheet, whose rows are then read with {@link #getSheetReader()}
+ * or counted with {@link #countRows()}.
+ * <p>
+ * Repeated rows and cells are expanded, except at the end of a sheet or row, where
+ * spreadsheet applications commonly store a large number of empty repeated ones.
+ */
+public class OdsSpreadsheetReader implements Closeable {
+
+    static final Logger logger = LoggerFactory.getLogger("open office");
+
+    static final private String OFFICE_NS = "urn:oasis:names:tc:opendocument:xmlns:office:1.0";
+    static final private String TABLE_NS = "urn:oasis:names:tc:opendocument:xmlns:table:1.0";
+    static final private String TEXT_NS = "urn:oasis:names:tc:opendocument:xmlns:text:1.0";
+
+    static final private XMLInputFactory xmlInputFactory = createXMLInputFactory();
+
+    final private InputStream stream;
+    final private XMLStreamReader xml;
+    private String sheetName = null;
+    private int sheetIndex = -1;
+    // whether the end of the current sheet has been read
+    private boolean sheetEnded = true;
+
+    /**
+     * @param contentStream
+     *            the content.xml of the document, closed when this reader is closed
+     */
+    public OdsSpreadsheetReader(InputStream contentStream) throws IOException {
+        stream = contentStream;
+        try {
+            xml = xmlInputFactory.createXMLStreamReader(contentStream);
+        } catch (XMLStreamException e) {
+            contentStream.close();
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Opens a packaged document, reading it up to its content.xml.
+     */
+    static public OdsSpreadsheetReader open(InputStream inputStream) throws IOException {
+        ZipInputStream zip = new ZipInputStream(inputStream);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if ("content.xml".equals(entry.getName())) {
+                return new OdsSpreadsheetReader(zip);
+            }
+        }
+        throw new IOException("No content.xml found in the OpenDocument file");
+    }
+
+    /**
+     * Moves to the next sheet of the document, skipping what is left of the current one.
+     *
+     * @return the name of the sheet, or null if there are no more sheets
+     */
+    public String nextSheet() throws IOException {
+        try {
+            while (!sheetEnded) {
+                readRow();
+            }
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT && isElement(TABLE_NS, "table")) {
+                    sheetName = xml.getAttributeValue(TABLE_NS, "name");
+                    sheetIndex++;
+                    sheetEnded = false;
+                    return sheetName;
+                }
+            }
+        } catch (XMLStreamException | RuntimeException e) {
+            throw new IOException(e);
+        }
+        sheetName = null;
+        return null;
+    }
+
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    /**
+     * @return the index of the current sheet in the document
+     */
+    public int getSheetIndex() {
+        return sheetIndex;
+    }
+
+    /**
+     * Reads the rest of the current sheet, counting its rows up to the last one
+     * with data.
+     */
+    public int countRows() throws IOException {
+        long rows = 0;
+        long blankRows = 0;
+        try {
+            RowContent row;
+            while ((row = readRow()) != null) {
+                if (row.cells.isEmpty()) {
+                    blankRows += row.repeat;
+                } else {
+                    rows += blankRows + row.repeat;
+                    blankRows = 0;
+                }
+            }
+        } catch (XMLStreamException | RuntimeException e) {
+            throw new IOException(e);
+        }
+        return (int) Math.min(rows, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Streams the rows of the current sheet. Like when iterating over a loaded
+     * sheet, blank rows are returned with a single null cell.
+     */
+    public TableDataReader getSheetReader() {
+        return new TableDataReader() {
+
+            RowContent row = null;
+            long rowRepeats = 0;
+            long blankRows = 0;
+            long pendingBlankRows = 0;
+
+            @Override
+            public List<Object> getNextRowOfCells() throws IOException {
+                try {
+                    while (true) {
+                        if (blankRows > 0) {
+                            blankRows--;
+                            List<Object> cells = new ArrayList<>(1);
+                            cells.add(null);
+                            return cells;
+                        } else if (rowRepeats > 0) {
+                            rowRepeats--;
+                            return copyCells(row.cells);
+                        }
+                        row = readRow();
+                        if (row == null) {
+                            // blank rows at the end of the sheet are left out
+                            return null;
+                        } else if (row.cells.isEmpty()) {
+                            pendingBlankRows += row.repeat;
+                        } else {
+                            blankRows = pendingBlankRows;
+                            pendingBlankRows = 0;
+                            rowRepeats = row.repeat;
+                        }
+                    }
+                } catch (XMLStreamException | RuntimeException e) {
+                    throw new IOException(e);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        } finally {
+            stream.close();
+        }
+    }
+
+    static private class RowContent {
+
+        // cells up to the last one with a value, empty for a blank row
+        final List<Cell> cells;
+        final long repeat;
+
+        RowContent(List<Cell> cells, long repeat) {
+            this.cells = cells;
+            this.repeat = repeat;
+        }
+    }
+
+    /**
+     * Reads the next row of the current sheet.
+     *
+     * @return the row, or null at the end of the sheet
+     */
+    private RowContent readRow() throws XMLStreamException {
+        while (!sheetEnded && xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT && isElement(TABLE_NS, "table-row")) {
+                long repeat = getRepeat("number-rows-repeated");
+                return new RowContent(readCells(), repeat);
+            } else if (event == XMLStreamConstants.END_ELEMENT && isElement(TABLE_NS, "table")) {
+                // nested tables are read as part of their cell, so this ends the sheet
+                sheetEnded = true;
+            }
+        }
+        sheetEnded = true;
+        return null;
+    }
+
+    private List<Cell> readCells() throws XMLStreamException {
+        List<Cell> cells = new ArrayList<>();
+        long blankCells = 0;
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.END_ELEMENT && isElement(TABLE_NS, "table-row")) {
+                break;
+            } else if (event == XMLStreamConstants.START_ELEMENT
+                    && (isElement(TABLE_NS, "table-cell") || isElement(TABLE_NS, "covered-table-cell"))) {
+                long repeat = getRepeat("number-columns-repeated");
+                Cell cell = readCell();
+                if (cell == null) {
+                    // blank cells at the end of the row are left out
+                    blankCells += repeat;
+                } else {
+                    for (; blankCells > 0; blankCells--) {
+                        cells.add(null);
+                    }
+                    cells.add(cell);
+                    for (long i = 1; i < repeat; i++) {
+                        cells.add(new Cell(cell.value, null));
+                    }
+                }
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Reads a cell element, converting its value like the ODF toolkit does.
+     */
+    private Cell readCell() throws XMLStreamException {
+        String valueType = xml.getAttributeValue(OFFICE_NS, "value-type");
+        String value = xml.getAttributeValue(OFFICE_NS, "value");
+        String dateValue = xml.getAttributeValue(OFFICE_NS, "date-value");
+        String booleanValue = xml.getAttributeValue(OFFICE_NS, "boolean-value");
+        String text = readText();
+
+        Serializable cellValue = null;
+        // "boolean", "currency", "date", "float", "percentage", "string" or "time"
+        if ("boolean".equals(valueType)) {
+            cellValue = Boolean.parseBoolean(booleanValue);
+        } else if ("float".equals(valueType) || "currency".equals(valueType) || "percentage".equals(valueType)) {
+            cellValue = value == null ? null : Double.parseDouble(value);
+        } else if ("date".equals(valueType)) {
+            cellValue = parseDate(dateValue);
+        } else if ("string".equals(valueType)) {
+            cellValue = text;
+        } else if (valueType == null) {
+            if (!text.isEmpty()) {
+                logger.warn("Null cell type with non-empty value: " + text);
+                cellValue = text;
+            }
+        } else {
+            logger.warn("Unexpected cell type " + valueType);
+            cellValue = text;
+        }
+        return cellValue == null ? null : new Cell(cellValue, null);
+    }
+
+    /**
+     * Reads the text of the current element up to its end, with spaces, tabs and
+     * line breaks expanded.
+     */
+    private String readText() throws XMLStreamException {
+        StringBuilder sb = new StringBuilder();
+        int depth = 1;
+        while (depth > 0 && xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+                if (isElement(TEXT_NS, "s")) {
+                    String count = xml.getAttributeValue(TEXT_NS, "c");
+                    int spaces = count == null || count.isEmpty() ? 1 : Integer.parseInt(count);
+                    for (int i = 0; i < spaces; i++) {
+                        sb.append(' ');
+                    }
+                } else if (isElement(TEXT_NS, "tab")) {
+                    sb.append('\t');
+                } else if (isElement(TEXT_NS, "line-break")) {
+                    sb.append('\n');
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE) {
+                sb.append(xml.getText());
+            }
+        }
+        return sb.toString();
+    }
+
+    static private Serializable parseDate(String dateValue) {
+        if (dateValue == null) {
+            return null;
+        }
+        try {
+            // only the date is kept, as with OdfTableCell.getDateValue()
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTime(new SimpleDateFormat("yyyy-MM-dd").parse(dateValue));
+            return ParsingUtilities.toDate(calendar);
+        } catch (ParseException e) {
+            logger.warn("Invalid date value " + dateValue);
+            return null;
+        }
+    }
+
+    private long getRepeat(String attribute) {
+        String repeat = xml.getAttributeValue(TABLE_NS, attribute);
+        return repeat == null ? 1 : Math.max(1, Long.parseLong(repeat));
+    }
+
+    private boolean isElement(String namespace, String localName) {
+        return localName.equals(xml.getLocalName()) && namespace.equals(xml.getNamespaceURI());
+    }
+
+    static private List<Object> copyCells(List<Cell> cells) {
+        List<Object> copy = new ArrayList<>(cells.size());
+        for (Cell cell : cells) {
+            copy.add(cell == null ? null : new Cell(cell.value, null));
+        }
+        return copy;
+    }
+
+    static private XMLInputFactory createXMLInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
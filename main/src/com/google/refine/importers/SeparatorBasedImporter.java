@@ -33,34 +33,60 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.importers;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.LineNumberReader;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
 
 import org.apache.commons.text.StringEscapeUtils;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.refine.ProjectMetadata;
+import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.importing.ImportingJob;
 import com.google.refine.importing.ImportingUtilities;
+import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
 import com.google.refine.util.JSONUtilities;
 
 import au.com.bytecode.opencsv.CSVParser;
 
 public class SeparatorBasedImporter extends TabularImportingParserBase {
+    /**
+     * Number of threads parsing data lines, unless set by the "parallelism" option.
+     */
+    static final int DEFAULT_PARALLELISM = Integer.getInteger("refine.importers.parallelism",
+            Runtime.getRuntime().availableProcessors());
+    static final int CHUNK_SIZE = 4096;
+    /**
+     * Number of records in the first chunk, so that the first rows are available
+     * quickly. The following chunks double in size up to {@link #CHUNK_SIZE}.
+     */
+    static final int FIRST_CHUNK_SIZE = 256;
+    
     public SeparatorBasedImporter() {
         super(false);
     }
@@ -129,35 +155,239 @@ public class SeparatorBasedImporter extends TabularImportingParserBase {
             quote = quoteCharacter.trim().charAt(0);
         }
         
-        final CSVParser parser = new CSVParser(
-            sep,
-            quote,
+        final String separator = sep;
+        final char quoteChar = quote;
+        final Supplier<CSVParser> parserFactory = () -> new CSVParser(
+            separator,
+            quoteChar,
             (char) 0, // we don't want escape processing
             strictQuotes,
             CSVParser.DEFAULT_IGNORE_LEADING_WHITESPACE,
             !processQuotes);
+        final CSVParser parser = parserFactory.get();
         
         final LineNumberReader lnReader = new LineNumberReader(reader);
         
+        // lines ignored and header lines are always read here, data lines in parallel if enabled
+        int parallelism = JSONUtilities.getInt(options, "parallelism", DEFAULT_PARALLELISM);
+        final int leadingRecords = Math.max(JSONUtilities.getInt(options, "ignoreLines", -1), 0)
+                + Math.max(JSONUtilities.getInt(options, "headerLines", 1), 0)
+                - (columnNames != null ? 1 : 0);
+        // data records needed to reach the row limit, as computed by readTable
+        int rowLimit = JSONUtilities.getInt(options, "limit", -1);
+        if (limit > 0) {
+            rowLimit = rowLimit > 0 ? Math.min(limit, rowLimit) : limit;
+        }
+        final int dataRecords = rowLimit > 0 ?
+                Math.max(JSONUtilities.getInt(options, "skipDataLines", 0), 0) + rowLimit : -1;
+        final ParallelRecordReader parallelReader = parallelism <= 1 ? null : new ParallelRecordReader(
+                lnReader, parserFactory, quoteChar, processQuotes,
+                JSONUtilities.getBoolean(options, "trimStrings", false),
+                JSONUtilities.getBoolean(options, "guessCellValueTypes", false),
+                parallelism, CHUNK_SIZE, dataRecords);
+        
         TableDataReader dataReader = new TableDataReader() {
             boolean usedColumnNames = false;
+            int recordsRead = 0;
             @Override
             public List<Object> getNextRowOfCells() throws IOException {
                 if (columnNames != null && !usedColumnNames) {
                     usedColumnNames = true;
                     return columnNames;
+                } else if (parallelReader != null && recordsRead >= leadingRecords) {
+                    return parallelReader.getNextRowOfCells();
                 } else {
                     String line = lnReader.readLine();
                     if (line == null) {
                         return null;
                     } else {
+                        recordsRead++;
                         return getCells(line, parser, lnReader);
                     }
                 }
             }
         };
         
-        TabularImportingParserBase.readTable(project, job, dataReader, limit, options, exceptions);
+        try {
+            TabularImportingParserBase.readTable(project, job, dataReader, limit, options, exceptions);
+        } finally {
+            if (parallelReader != null) {
+                parallelReader.close();
+            }
+        }
+    }
+    
+    /**
+     * Reads data lines in chunks of whole records, which are parsed and converted
+     * to cells by a pool of threads while the rows of the previous chunks are added
+     * to the project. Records spanning several lines are detected by counting
+     * quotes, so that chunks can be parsed independently.
+     */
+    static protected class ParallelRecordReader implements TableDataReader, Closeable {
+        final protected LineNumberReader _reader;
+        final protected Supplier<CSVParser> _parserFactory;
+        final protected char _quote;
+        final protected boolean _processQuotes;
+        final protected boolean _trimStrings;
+        final protected boolean _guessCellValueTypes;
+        final protected int _parallelism;
+        final protected int _chunkSize;
+        final protected int _maxRecords;
+        
+        final protected Deque<Future<List<List<Object>>>> _chunks = new ArrayDeque<>();
+        protected ExecutorService _executor = null;
+        protected Iterator<List<Object>> _records = Collections.emptyIterator();
+        protected boolean _eof = false;
+        protected int _recordsRead = 0;
+        protected int _nextChunkSize;
+        
+        /**
+         * @param parserFactory
+         *      creates the parser of each chunk, as parsers are not thread-safe
+         * @param chunkSize
+         *      maximum number of records per chunk
+         * @param maxRecords
+         *      number of records needed by the caller, or -1 if all records are.
+         *      Records past this number are only read when requested.
+         */
+        public ParallelRecordReader(
+                LineNumberReader reader,
+                Supplier<CSVParser> parserFactory,
+                char quote,
+                boolean processQuotes,
+                boolean trimStrings,
+                boolean guessCellValueTypes,
+                int parallelism,
+                int chunkSize,
+                int maxRecords) {
+            _reader = reader;
+            _parserFactory = parserFactory;
+            _quote = quote;
+            _processQuotes = processQuotes;
+            _trimStrings = trimStrings;
+            _guessCellValueTypes = guessCellValueTypes;
+            _parallelism = parallelism;
+            _chunkSize = chunkSize;
+            _maxRecords = maxRecords;
+            _nextChunkSize = Math.min(FIRST_CHUNK_SIZE, chunkSize);
+        }
+        
+        @Override
+        public List<Object> getNextRowOfCells() throws IOException {
+            while (!_records.hasNext()) {
+                submitChunks();
+                Future<List<List<Object>>> chunk = _chunks.poll();
+                if (chunk == null) {
+                    return null;
+                }
+                try {
+                    _records = chunk.get().iterator();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Import interrupted");
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+                }
+            }
+            return _records.next();
+        }
+        
+        /**
+         * Keeps two chunks per thread in flight, once the first chunk has been
+         * read on its own. Chunks past the records needed are only read when no
+         * chunk is left, as blank rows may not count towards the row limit. A
+         * file small enough to fit in one chunk is parsed in the calling thread.
+         */
+        protected void submitChunks() throws IOException {
+            int maxChunks = _recordsRead == 0 ? 1 : 2 * _parallelism;
+            while (!_eof && _chunks.size() < maxChunks
+                    && (_chunks.isEmpty() || _maxRecords < 0 || _recordsRead < _maxRecords)) {
+                List<String> lines = readChunk();
+                if (lines.isEmpty()) {
+                    break;
+                }
+                Callable<List<List<Object>>> task = () -> parseChunk(lines);
+                if (_executor == null && _eof && _chunks.isEmpty()) {
+                    FutureTask<List<List<Object>>> future = new FutureTask<>(task);
+                    future.run();
+                    _chunks.add(future);
+                } else {
+                    if (_executor == null) {
+                        _executor = Executors.newFixedThreadPool(_parallelism);
+                    }
+                    _chunks.add(_executor.submit(task));
+                }
+            }
+        }
+        
+        protected List<String> readChunk() throws IOException {
+            int size = _nextChunkSize;
+            if (_maxRecords >= 0 && _recordsRead < _maxRecords) {
+                size = Math.min(size, _maxRecords - _recordsRead);
+            }
+            _nextChunkSize = Math.min(2 * _nextChunkSize, _chunkSize);
+            
+            List<String> lines = new ArrayList<>();
+            int records = 0;
+            boolean inQuotes = false;
+            while (records < size || inQuotes) {
+                String line = _reader.readLine();
+                if (line == null) {
+                    _eof = true;
+                    break;
+                }
+                lines.add(line);
+                if (_processQuotes && countQuotes(line) % 2 == 1) {
+                    // a quoted value goes on or ends on this line
+                    inQuotes = !inQuotes;
+                }
+                if (!inQuotes) {
+                    records++;
+                }
+            }
+            _recordsRead += records;
+            return lines;
+        }
+        
+        protected int countQuotes(String line) {
+            int count = 0;
+            for (int i = 0; i < line.length(); i++) {
+                if (line.charAt(i) == _quote) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        
+        protected List<List<Object>> parseChunk(List<String> lines) throws IOException {
+            CSVParser parser = _parserFactory.get();
+            List<List<Object>> records = new ArrayList<>(lines.size());
+            Iterator<String> it = lines.iterator();
+            while (it.hasNext()) {
+                ArrayList<Object> cells = new ArrayList<Object>();
+                cells.addAll(Arrays.asList(parser.parseLineMulti(it.next())));
+                while (parser.isPending()) {
+                    cells.addAll(Arrays.asList(parser.parseLineMulti(it.hasNext() ? it.next() : null)));
+                }
+                // blank cells are left to readTable
+                for (int c = 0; c < cells.size(); c++) {
+                    Object value = cells.get(c);
+                    if (ExpressionUtils.isNonBlankData(value)) {
+                        cells.set(c, new Cell(
+                                TabularImportingParserBase.toStoredValue((String) value, _trimStrings, _guessCellValueTypes), null));
+                    }
+                }
+                records.add(cells);
+            }
+            return records;
+        }
+        
+        @Override
+        public void close() {
+            if (_executor != null) {
+                _executor.shutdownNow();
+            }
+        }
     }
     
     static protected ArrayList<Object> getCells(String line, CSVParser parser, LineNumberReader lnReader)
@@ -181,12 +181,7 @@ abstract public class TabularImportingParserBase extends ImportingParserBase {
                             } else if (ExpressionUtils.isNonBlankData(value)) {
                                 Serializable storedValue;
                                 if (value instanceof String) {
-                                    if(trimStrings) {
-                                        value = ((String) value).trim();
-                                    }
-                                    storedValue = guessCellValueTypes ?
-                                        ImporterUtilities.parseCellValue((String) value) : (String) value;
-                                    
+                                    storedValue = toStoredValue((String) value, trimStrings, guessCellValueTypes);
                                 } else {
                                     storedValue = ExpressionUtils.wrapStorable(value);
                                 }
@@ -214,4 +209,16 @@ abstract public class TabularImportingParserBase extends ImportingParserBase {
             exceptions.add(e);
         }
     }
+    
+    /**
+     * Converts a non-blank string read by a {@link TableDataReader} to the value
+     * stored in its cell. Readers can do this themselves, for instance to convert
+     * values in parallel, by returning {@link Cell}s for the data rows.
+     */
+    static public Serializable toStoredValue(String value, boolean trimStrings, boolean guessCellValueTypes) {
+        if (trimStrings) {
+            value = value.trim();
+        }
+        return guessCellValueTypes ? ImporterUtilities.parseCellValue(value) : value;
+    }
 }
@@ -37,7 +37,9 @@ import java.io.IOException;
 import java.io.Writer;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -64,6 +66,12 @@ public class Column  {
     
     transient protected Map<String, Object> _precomputes;
     
+    /**
+     * Beyond one changed row in this many, precomputes are recomputed from scratch
+     * rather than updated.
+     */
+    static final protected int MAX_INCREMENTAL_FRACTION = 8;
+    
     @JsonCreator
     public Column(
             @JsonProperty("cellIndex")
@@ -130,6 +138,43 @@ public class Column  {
         }
     }
     
+    /**
+     * Prepares the precomputes of this column for a change of the cells of the given
+     * rows: those which can be updated incrementally subtract these rows, the others
+     * are discarded. Must be followed by {@link #addRowsToPrecomputes(Project, int[])}
+     * once the cells have changed.
+     */
+    public void removeRowsFromPrecomputes(Project project, int[] rowIndices) {
+        if (_precomputes != null) {
+            boolean incremental = rowIndices.length <= project.rows.size() / MAX_INCREMENTAL_FRACTION;
+            Iterator<Entry<String, Object>> it = _precomputes.entrySet().iterator();
+            while (it.hasNext()) {
+                Object precompute = it.next().getValue();
+                if (!incremental || !(precompute instanceof IncrementalPrecompute)
+                        || !((IncrementalPrecompute) precompute).removeRows(project, rowIndices)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Adds the new cells of the given rows to the precomputes kept by
+     * {@link #removeRowsFromPrecomputes(Project, int[])}.
+     */
+    public void addRowsToPrecomputes(Project project, int[] rowIndices) {
+        if (_precomputes != null) {
+            Iterator<Entry<String, Object>> it = _precomputes.entrySet().iterator();
+            while (it.hasNext()) {
+                Object precompute = it.next().getValue();
+                if (!(precompute instanceof IncrementalPrecompute)
+                        || !((IncrementalPrecompute) precompute).addRows(project, rowIndices)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+    
     public Object getPrecompute(String key) {
         if (_precomputes != null) {
             return _precomputes.get(key);
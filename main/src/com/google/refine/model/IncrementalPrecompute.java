@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.model;
+
+/**
+ * Precomputed data stored on a column (see {@link Column#setPrecompute(String, Object)})
+ * which can be kept up to date when a few cells of the column change, instead of
+ * being discarded and recomputed over the whole project.
+ * 
+ * Changes call {@link #removeRows(Project, int[])} while the rows still hold their
+ * old cells, then {@link #addRows(Project, int[])} once the new cells are in place.
+ */
+public interface IncrementalPrecompute {
+
+    /**
+     * Subtracts the current contribution of the given rows.
+     * 
+     * @return false if this precompute cannot be updated and must be discarded
+     */
+    public boolean removeRows(Project project, int[] rowIndices);
+
+    /**
+     * Adds the current contribution of the given rows.
+     * 
+     * @return false if this precompute cannot be updated and must be discarded
+     */
+    public boolean addRows(Project project, int[] rowIndices);
+}
@@ -47,6 +47,8 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonView;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.refine.expr.HasFields;
 import com.google.refine.util.JsonViews;
 import com.google.refine.util.ParsingUtilities;
@@ -63,6 +65,12 @@ public class Recon implements HasFields {
     private static final String WIKIDATA_SCHEMA_SPACE = "http://www.wikidata.org/prop/direct/";
     private static final String WIKIDATA_IDENTIFIER_SPACE = "http://www.wikidata.org/entity/";
     private static final Random idGenerator = new Random();
+    
+    /**
+     * Canonical instances of the strings repeated across recons, such as
+     * service URLs, spaces, judgment actions and candidate types.
+     */
+    private static final Interner<String> s_strings = Interners.newWeakInterner();
 
     static public enum Judgment {
         @JsonProperty("none")
@@ -155,8 +163,16 @@ public class Recon implements HasFields {
     public Recon(long judgmentHistoryEntry, String identifierSpace, String schemaSpace) {
         id = idGenerator.nextLong();
         this.judgmentHistoryEntry = judgmentHistoryEntry;
-        this.identifierSpace = identifierSpace;
-        this.schemaSpace = schemaSpace;
+        this.identifierSpace = intern(identifierSpace);
+        this.schemaSpace = intern(schemaSpace);
+    }
+    
+    /**
+     * @return the canonical instance of a string, so that the many recons of a
+     *      project share the strings they have in common.
+     */
+    static public String intern(String s) {
+        return s == null ? null : s_strings.intern(s);
     }
     
     protected Recon(long id, long judgmentHistoryEntry) {
@@ -407,10 +423,10 @@ public class Recon implements HasFields {
         this.match = match;
         this.features = features != null ? features : new Object[Feature_max];
         this.candidates = candidates != null ? candidates : new ArrayList<>();
-        this.service = service != null ? service : "unknown";
-        this.identifierSpace = identifierSpace;
-        this.schemaSpace = schemaSpace;
-        this.judgmentAction = judgmentAction != null ? judgmentAction : "unknown";
+        this.service = service != null ? intern(service) : "unknown";
+        this.identifierSpace = intern(identifierSpace);
+        this.schemaSpace = intern(schemaSpace);
+        this.judgmentAction = judgmentAction != null ? intern(judgmentAction) : "unknown";
         this.judgmentBatchSize = judgmentBatchSize != null ? judgmentBatchSize : 0;
         this.matchRank = matchRank != null ? matchRank : -1;
     }
@@ -45,6 +45,8 @@ import com.google.refine.expr.HasFields;
 import com.google.refine.util.ParsingUtilities;
 
 public class ReconCandidate implements HasFields {
+    static final private String[] EMPTY_TYPES = new String[0];
+    
     @JsonProperty("id")
     final public String     id;
     @JsonProperty("name")
@@ -66,10 +68,25 @@ public class ReconCandidate implements HasFields {
             double score) {
         this.id = topicID;
         this.name = topicName;
-        this.types = typeIDs == null ? new String[0] : typeIDs;
+        this.types = internTypes(typeIDs);
         this.score = score;
     }
     
+    /**
+     * @return a copy of the given array, with type ids shared between candidates.
+     *      Each candidate gets its own array, since the array is public and mutable.
+     */
+    static protected String[] internTypes(String[] typeIDs) {
+        if (typeIDs == null || typeIDs.length == 0) {
+            return EMPTY_TYPES;
+        }
+        String[] types = new String[typeIDs.length];
+        for (int i = 0; i < typeIDs.length; i++) {
+            types[i] = Recon.intern(typeIDs[i]);
+        }
+        return types;
+    }
+    
     @Override
     public Object getField(String name, Properties bindings) {
         if ("id".equals(name)) {
@@ -133,7 +150,7 @@ public class ReconCandidate implements HasFields {
             typesA = new String[types.size()];
             types.toArray(typesA);
         } else {
-            typesA = new String[0];
+            typesA = EMPTY_TYPES;
         }
         
         return new ReconCandidate(
@@ -35,6 +35,7 @@ package com.google.refine.model;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -77,6 +78,13 @@ public class RecordModel  {
 
     protected List<RowDependency> _rowDependencies;
     protected List<Record> _records;
+    /*
+     * Compact layout of the records: record i spans the rows from
+     * _recordStarts[i] (inclusive) to _recordStarts[i+1] (exclusive),
+     * and _rowToRecord maps each row to the index of its record.
+     */
+    protected int[] _recordStarts;
+    protected int[] _rowToRecord;
 
     public RowDependency getRowDependency(int rowIndex) {
         return _rowDependencies != null && rowIndex >= 0 && rowIndex < _rowDependencies.size() ?
@@ -94,14 +102,37 @@ public class RecordModel  {
     }
 
     public Record getRecordOfRow(int rowIndex) {
-        RowDependency rd = getRowDependency(rowIndex);
-        if (rd != null) {
-            if (rd.recordIndex < 0) {
-                rd = getRowDependency(rd.contextRows.get(0));
-            }
-            return getRecord(rd.recordIndex);
+        return getRecord(getRecordIndexOfRow(rowIndex));
+    }
+
+    /**
+     * @return the index of the record containing the given row, or -1 if there is no such row
+     */
+    public int getRecordIndexOfRow(int rowIndex) {
+        return _rowToRecord != null && rowIndex >= 0 && rowIndex < _rowToRecord.length ?
+                _rowToRecord[rowIndex] : -1;
+    }
+
+    /**
+     * Returns the index of the first row of each record, followed by the
+     * total number of rows, so that record i spans the rows from
+     * {@code starts[i]} to {@code starts[i+1]} (exclusive). The returned
+     * array is shared and must not be modified.
+     */
+    @JsonIgnore
+    public int[] getRecordStarts() {
+        return _recordStarts;
+    }
+
+    /**
+     * Expands a set of record indices to the set of the indices of their rows.
+     */
+    public BitSet expandToRows(BitSet records) {
+        BitSet rows = new BitSet(_rowToRecord.length);
+        for (int r = records.nextSetBit(0); r >= 0 && r < _recordStarts.length - 1; r = records.nextSetBit(r + 1)) {
+            rows.set(_recordStarts[r], _recordStarts[r + 1]);
         }
-        return null;
+        return rows;
     }
     
     @JsonProperty("hasRecords")
@@ -186,6 +217,9 @@ public class RecordModel  {
             }
 
             _records = new ArrayList<Record>(recordIndex);
+            _recordStarts = new int[recordIndex + 1];
+            _rowToRecord = new int[rowCount];
+            _recordStarts[recordIndex] = rowCount;
             if (recordIndex > 0) {
                 recordIndex = 0;
 
@@ -201,6 +235,11 @@ public class RecordModel  {
                 }
 
                 _records.add(new Record(recordRowIndex, rowCount, recordIndex++));
+
+                for (Record record : _records) {
+                    _recordStarts[record.recordIndex] = record.fromRowIndex;
+                    Arrays.fill(_rowToRecord, record.fromRowIndex, record.toRowIndex, record.recordIndex);
+                }
             }
         }
     }
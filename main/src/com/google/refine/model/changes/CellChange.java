@@ -60,19 +60,22 @@ public class CellChange implements Change {
 
     @Override
     public void apply(Project project) {
-        project.rows.get(row).setCell(cellIndex, newCell);
-        
-        Column column = project.columnModel.getColumnByCellIndex(cellIndex);
-        column.clearPrecomputes();
-        ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProjectColumn(project.id, column.getName());
+        setCell(project, newCell);
     }
 
     @Override
     public void revert(Project project) {
-        project.rows.get(row).setCell(cellIndex, oldCell);
-        
+        setCell(project, oldCell);
+    }
+    
+    protected void setCell(Project project, Cell cell) {
         Column column = project.columnModel.getColumnByCellIndex(cellIndex);
-        column.clearPrecomputes();
+        int[] rowIndices = new int[] { row };
+        
+        column.removeRowsFromPrecomputes(project, rowIndices);
+        project.rows.get(row).setCell(cellIndex, cell);
+        column.addRowsToPrecomputes(project, rowIndices);
+        
         ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProjectColumn(project.id, column.getName());
     }
     
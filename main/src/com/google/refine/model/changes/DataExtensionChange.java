@@ -70,7 +70,8 @@ public class DataExtensionChange implements Change {
     final protected List<ReconType>      _columnTypes;
     
     final protected List<Integer>       _rowIndices;
-    final protected List<DataExtension> _dataExtensions;
+    // released once the new rows are computed
+    protected List<DataExtension>       _dataExtensions;
     
     protected long                      _historyEntryID;
     protected int                       _firstNewCellIndex = -1;
@@ -164,7 +165,9 @@ public class DataExtensionChange implements Change {
                 for (int r = 0; r < _oldRows.size(); r++) {
                     Row oldRow = _oldRows.get(r);
                     if (r < rowIndex) {
-                        _newRows.add(oldRow.dup());
+                        // rows which are not extended are shared with the old rows, like
+                        // the ones without data below, rather than copied
+                        _newRows.add(oldRow);
                         continue;
                     }
                     
@@ -205,6 +208,7 @@ public class DataExtensionChange implements Change {
                     dataExtension = index < _rowIndices.size() ? _dataExtensions.get(index) : null;
                     index++;
                 }
+                _dataExtensions = null;
             }
             
             project.rows.clear();
@@ -236,6 +240,7 @@ public class DataExtensionChange implements Change {
                 }
             }
             
+            project.columnModel.clearPrecomputes();
             project.update();
         }
     }
@@ -287,6 +292,7 @@ public class DataExtensionChange implements Change {
                 project.columnModel.columns.remove(_columnInsertIndex);
             }
             
+            project.columnModel.clearPrecomputes();
             project.update();
         }
     }
@@ -36,6 +36,7 @@ package com.google.refine.model.changes;
 import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.Writer;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 
@@ -84,37 +85,40 @@ public class MassCellChange implements Change {
     
     @Override
     public void apply(Project project) {
-        synchronized (project) {
-            List<Row> rows = project.rows;
-            
-            for (CellChange cellChange : _cellChanges) {
-                rows.get(cellChange.row).setCell(cellChange.cellIndex, cellChange.newCell);
-            }
-            
-            if (_commonColumnName != null) {
-                Column column = project.columnModel.getColumnByName(_commonColumnName);
-                column.clearPrecomputes();
-                ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProjectColumn(project.id, _commonColumnName);
-            }
-            
-            if (_updateRowContextDependencies) {
-                project.update();
-            }
-        }
+        setCells(project, true);
     }
 
     @Override
     public void revert(Project project) {
+        setCells(project, false);
+    }
+    
+    protected void setCells(Project project, boolean apply) {
         synchronized (project) {
             List<Row> rows = project.rows;
             
+            /*
+             * Precomputes of the common column are updated for the changed rows only,
+             * unless the change also affects the row context (records), in which case
+             * they are discarded.
+             */
+            Column column = _commonColumnName == null ? null : project.columnModel.getColumnByName(_commonColumnName);
+            int[] rowIndices = null;
+            if (column != null && !_updateRowContextDependencies) {
+                rowIndices = Arrays.stream(_cellChanges).mapToInt(c -> c.row).distinct().toArray();
+                column.removeRowsFromPrecomputes(project, rowIndices);
+            }
+            
             for (CellChange cellChange : _cellChanges) {
-                rows.get(cellChange.row).setCell(cellChange.cellIndex, cellChange.oldCell);
+                rows.get(cellChange.row).setCell(cellChange.cellIndex, apply ? cellChange.newCell : cellChange.oldCell);
             }
             
-            if (_commonColumnName != null) {
-                Column column = project.columnModel.getColumnByName(_commonColumnName);
-                column.clearPrecomputes();
+            if (column != null) {
+                if (rowIndices != null) {
+                    column.addRowsToPrecomputes(project, rowIndices);
+                } else {
+                    column.clearPrecomputes();
+                }
                 ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProjectColumn(project.id, _commonColumnName);
             }
             
@@ -74,6 +74,7 @@ public class MassRowChange implements Change {
             project.rows.clear();
             project.rows.addAll(_oldRows);
             
+            project.columnModel.clearPrecomputes();
             project.update();
         }
     }
@@ -108,7 +108,7 @@ public class ReconChange extends MassCellChange {
             column.setReconConfig(_newReconConfig);
             column.setReconStats(_newReconStats);
             
-            column.clearPrecomputes();
+            // precomputes were updated for the changed cells by MassCellChange
             ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProjectColumn(project.id, _commonColumnName);
         }
     }
@@ -122,7 +122,6 @@ public class ReconChange extends MassCellChange {
             column.setReconConfig(_oldReconConfig);
             column.setReconStats(_oldReconStats);
             
-            column.clearPrecomputes();
             ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProjectColumn(project.id, _commonColumnName);
         }
     }
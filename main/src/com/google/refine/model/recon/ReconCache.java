@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model.recon;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.google.refine.ProjectManager;
+import com.google.refine.io.FileProjectManager;
+import com.google.refine.util.ParsingUtilities;
+
+/**
+ * Cache of the results returned by reconciliation services, shared by all
+ * projects, so that reconciling values which were already sent to the same
+ * service (after an undo, or in another project) does not query it again.
+ * 
+ * Results are keyed by the service URL and the query, which includes the type
+ * and the properties of the reconciliation config. They expire after a fixed
+ * time, and the least recently used ones are dropped beyond a maximum number of
+ * entries. The cache is persisted as a log of JSON lines, compacted when it is
+ * loaded or grows too large.
+ */
+public class ReconCache {
+
+    final static Logger logger = LoggerFactory.getLogger("recon-cache");
+
+    static private ReconCache _default = null;
+
+    protected static class Entry {
+
+        @JsonProperty("key")
+        final String key;
+        @JsonProperty("expires")
+        final long expires;
+        @JsonProperty("result")
+        final ArrayNode result;
+
+        @JsonCreator
+        Entry(
+                @JsonProperty("key") String key,
+                @JsonProperty("expires") long expires,
+                @JsonProperty("result") ArrayNode result) {
+            this.key = key;
+            this.expires = expires;
+            this.result = result;
+        }
+    }
+
+    final protected File _file;
+    final protected long _ttl;
+    final protected int _maxEntries;
+    final protected Map<String, Entry> _entries;
+    protected Writer _log = null;
+    protected int _logLines = 0;
+    protected long _hits = 0;
+    protected long _misses = 0;
+
+    /**
+     * @param file
+     *      the file the cache is persisted to, or null to keep it in memory
+     * @param ttl
+     *      how long results are kept, in ms
+     * @param maxEntries
+     *      the maximum number of results kept
+     */
+    public ReconCache(File file, long ttl, int maxEntries) {
+        _file = file;
+        _ttl = ttl;
+        _maxEntries = maxEntries;
+        _entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > _maxEntries;
+            }
+        };
+        if (_file != null && _file.exists()) {
+            load();
+        }
+    }
+
+    /**
+     * @return the cache stored in the workspace, or null if the workspace is not
+     *      stored on disk.
+     */
+    synchronized static public ReconCache getDefault() {
+        if (_default == null && ProjectManager.singleton instanceof FileProjectManager) {
+            File workspace = ((FileProjectManager) ProjectManager.singleton).getWorkspaceDir();
+            _default = new ReconCache(
+                    new File(workspace, "cache" + File.separator + "recon-results.jsonl"),
+                    Long.getLong("refine.reconCache.ttl", TimeUnit.DAYS.toMillis(1)),
+                    Integer.getInteger("refine.reconCache.maxEntries", 200000));
+        }
+        return _default;
+    }
+
+    /**
+     * @return the results returned by the service for this query, or null if
+     *      they are not cached.
+     */
+    public synchronized ArrayNode get(String service, String query) {
+        String key = getKey(service, query);
+        Entry entry = _entries.get(key);
+        if (entry != null && entry.expires <= System.currentTimeMillis()) {
+            _entries.remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            _misses++;
+            return null;
+        }
+        _hits++;
+        return entry.result;
+    }
+
+    /**
+     * Stores the results returned by the service for some queries.
+     * 
+     * @param results
+     *      the results by query
+     */
+    public synchronized void putAll(String service, Map<String, ArrayNode> results) {
+        long expires = System.currentTimeMillis() + _ttl;
+        for (Map.Entry<String, ArrayNode> result : results.entrySet()) {
+            Entry entry = new Entry(getKey(service, result.getKey()), expires, result.getValue());
+            _entries.put(entry.key, entry);
+            append(entry);
+        }
+        if (_log != null) {
+            try {
+                _log.flush();
+            } catch (IOException e) {
+                logger.warn("Could not write the reconciliation cache", e);
+            }
+        }
+        if (_logLines > 2 * _maxEntries) {
+            compact();
+        }
+    }
+
+    public synchronized void clear() {
+        _entries.clear();
+        compact();
+    }
+
+    public synchronized int size() {
+        return _entries.size();
+    }
+
+    public synchronized long getHits() {
+        return _hits;
+    }
+
+    public synchronized long getMisses() {
+        return _misses;
+    }
+
+    static protected String getKey(String service, String query) {
+        return service + " " + query;
+    }
+
+    protected void load() {
+        long now = System.currentTimeMillis();
+        try (BufferedReader reader = Files.newBufferedReader(_file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                _logLines++;
+                try {
+                    Entry entry = ParsingUtilities.mapper.readValue(line, Entry.class);
+                    if (entry.expires > now) {
+                        _entries.put(entry.key, entry);
+                    } else {
+                        _entries.remove(entry.key);
+                    }
+                } catch (IOException e) {
+                    // an interrupted write: ignore the line
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not read the reconciliation cache", e);
+        }
+        if (_logLines > _entries.size()) {
+            compact();
+        }
+    }
+
+    protected void append(Entry entry) {
+        if (_file == null) {
+            return;
+        }
+        try {
+            if (_log == null) {
+                _file.getParentFile().mkdirs();
+                _log = Files.newBufferedWriter(_file.toPath(), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            _log.write(ParsingUtilities.mapper.writeValueAsString(entry));
+            _log.write('\n');
+            _logLines++;
+        } catch (IOException e) {
+            logger.warn("Could not write the reconciliation cache", e);
+        }
+    }
+
+    /**
+     * Rewrites the log with the live entries only.
+     */
+    protected void compact() {
+        if (_file == null) {
+            return;
+        }
+        try {
+            if (_log != null) {
+                _log.close();
+                _log = null;
+            }
+            _file.getParentFile().mkdirs();
+            File tmp = new File(_file.getParentFile(), _file.getName() + ".tmp");
+            long now = System.currentTimeMillis();
+            _logLines = 0;
+            try (Writer writer = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+                for (Iterator<Entry> it = _entries.values().iterator(); it.hasNext();) {
+                    Entry entry = it.next();
+                    if (entry.expires <= now) {
+                        it.remove();
+                        continue;
+                    }
+                    writer.write(ParsingUtilities.mapper.writeValueAsString(entry));
+                    writer.write('\n');
+                    _logLines++;
+                }
+            }
+            Files.move(tmp.toPath(), _file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not write the reconciliation cache", e);
+        }
+    }
+}
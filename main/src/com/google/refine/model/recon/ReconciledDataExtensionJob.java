@@ -58,6 +58,7 @@ import com.google.refine.expr.functions.ToDate;
 import com.google.refine.model.ReconCandidate;
 import com.google.refine.model.ReconType;
 import com.google.refine.util.HttpClient;
+import com.google.refine.util.HttpResponseCache;
 import com.google.refine.util.JSONUtilities;
 import com.google.refine.util.JsonViews;
 import com.google.refine.util.ParsingUtilities;
@@ -185,10 +186,13 @@ public class ReconciledDataExtensionJob {
 
         ObjectNode o = ParsingUtilities.mapper.readValue(response, ObjectNode.class);
 
-        if(columns.size() == 0) {
-            // Extract the column metadata
-            List<ColumnInfo> newColumns = ParsingUtilities.mapper.convertValue(o.get("meta"), new TypeReference<List<ColumnInfo>>() {});  
-            columns.addAll(newColumns);
+        // batches can be extended concurrently
+        synchronized (columns) {
+            if(columns.size() == 0) {
+                // Extract the column metadata
+                List<ColumnInfo> newColumns = ParsingUtilities.mapper.convertValue(o.get("meta"), new TypeReference<List<ColumnInfo>>() {});  
+                columns.addAll(newColumns);
+            }
         }
 
         Map<String, ReconciledDataExtensionJob.DataExtension> map = new HashMap<String, ReconciledDataExtensionJob.DataExtension>();
@@ -213,12 +217,15 @@ public class ReconciledDataExtensionJob {
     }
 
     static protected String postExtendQuery(String endpoint, String query) throws IOException {
-        return getHttpClient().postNameValue(endpoint, "extend", query);
+        HttpResponseCache cache = HttpResponseCache.forReconciliation();
+        return AdaptiveServiceClient.forService(endpoint).send(
+                () -> getHttpClient().postNameValue(endpoint, "extend", query, cache));
     }
 
-    private static HttpClient getHttpClient() {
+    private static synchronized HttpClient getHttpClient() {
         if (httpClient == null) {
-            httpClient = new HttpClient();
+            // retries are left to the AdaptiveServiceClient
+            httpClient = new HttpClient(0, 200, 0, 0);
         }
         return httpClient;
     }
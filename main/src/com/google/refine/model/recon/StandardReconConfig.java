@@ -36,6 +36,7 @@ package com.google.refine.model.recon;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -127,6 +128,11 @@ public class StandardReconConfig extends ReconConfig {
             return code.hashCode();
         }
 
+        @Override
+        public String getStringKey() {
+            return code;
+        }
+
         @Override
         public String toString() {
             return code;
@@ -150,6 +156,12 @@ public class StandardReconConfig extends ReconConfig {
     final public List<ColumnDetail> columnDetails;
     @JsonProperty("limit")
     final private int limit;
+    /**
+     * Whether to query the service even for results held by the {@link ReconCache}.
+     */
+    @JsonProperty("bypassCache")
+    @JsonInclude(Include.NON_DEFAULT)
+    protected boolean bypassCache = false;
 
     // initialized lazily
     private HttpClient httpClient = null;
@@ -429,16 +441,23 @@ public class StandardReconConfig extends ReconConfig {
         return job;
     }
     
-    private HttpClient getHttpClient() {
+    private synchronized HttpClient getHttpClient() {
         if (httpClient == null) {
-            httpClient = new HttpClient();
+            // retries are left to the AdaptiveServiceClient
+            httpClient = new HttpClient(0, 200, 0, 0);
         }
         return httpClient;
     }
 
+    protected ReconCache getCache() {
+        return ReconCache.getDefault();
+    }
+
     private String postQueries(String url, String queriesString) throws IOException {
+        // results are cached per query by the ReconCache, so responses are not cached by HTTP
         try {
-            return getHttpClient().postNameValue(url, "queries", queriesString);
+            return AdaptiveServiceClient.forService(url).send(
+                    () -> getHttpClient().postNameValue(url, "queries", queriesString, null));
 
         } catch (IOException e) {
             throw new IOException("Failed to batch recon with load:\n" + queriesString, e);
@@ -447,13 +466,30 @@ public class StandardReconConfig extends ReconConfig {
 
     @Override
     public List<Recon> batchRecon(List<ReconJob> jobs, long historyEntryID) {
-        List<Recon> recons = new ArrayList<Recon>(jobs.size());
+        Recon[] recons = new Recon[jobs.size()];
+        
+        // bypassing the cache still refreshes it with the new results
+        ReconCache cache = getCache();
+        List<Integer> queried = new ArrayList<>(jobs.size());
+        for (int i = 0; i < jobs.size(); i++) {
+            StandardReconJob job = (StandardReconJob) jobs.get(i);
+            ArrayNode results = cache == null || bypassCache ? null : cache.get(service, job.code);
+            if (results != null) {
+                recons[i] = createReconServiceResults(job.text, results, historyEntryID);
+                recons[i].service = service;
+            } else {
+                queried.add(i);
+            }
+        }
+        if (queried.isEmpty()) {
+            return new ArrayList<>(Arrays.asList(recons));
+        }
         
         StringWriter stringWriter = new StringWriter();
         
         stringWriter.write("{");
-        for (int i = 0; i < jobs.size(); i++) {
-            StandardReconJob job = (StandardReconJob) jobs.get(i);
+        for (int i = 0; i < queried.size(); i++) {
+            StandardReconJob job = (StandardReconJob) jobs.get(queried.get(i));
             if (i > 0) {
                 stringWriter.write(",");
             }
@@ -470,8 +506,9 @@ public class StandardReconConfig extends ReconConfig {
             if (o == null) { // utility method returns null instead of throwing
                 logger.error("Failed to parse string as JSON: " + responseString);
             } else {
-                for (int i = 0; i < jobs.size(); i++) {
-                    StandardReconJob job = (StandardReconJob) jobs.get(i);
+                Map<String, ArrayNode> newResults = new HashMap<>();
+                for (int i = 0; i < queried.size(); i++) {
+                    StandardReconJob job = (StandardReconJob) jobs.get(queried.get(i));
                     Recon recon = null;
 
                     String text = job.text;
@@ -482,6 +519,7 @@ public class StandardReconConfig extends ReconConfig {
                             ArrayNode results = (ArrayNode) o2.get("result");
 
                             recon = createReconServiceResults(text, results, historyEntryID);
+                            newResults.put(job.code, results);
                         } else {
                             // TODO: better error reporting
                             logger.warn("Service error for text: " + text + "\n  Job code: " + job.code + "\n  Response: " + o2.toString());
@@ -494,18 +532,17 @@ public class StandardReconConfig extends ReconConfig {
                     if (recon != null) {
                         recon.service = service;
                     }
-                    recons.add(recon);
+                    recons[queried.get(i)] = recon;
+                }
+                if (cache != null) {
+                    cache.putAll(service, newResults);
                 }
             }
         } catch (IOException e) {
             logger.error("Failed to batch recon with load:\n" + queriesString, e);
         }
-
-        while (recons.size() < jobs.size()) {
-            recons.add(null);
-        }
         
-        return recons;
+        return new ArrayList<>(Arrays.asList(recons));
     }
 
     @Override
@@ -528,6 +565,9 @@ public class StandardReconConfig extends ReconConfig {
         });
         
         int length = results.size();
+        if (length > 0) {
+            recon.candidates = new ArrayList<ReconCandidate>(length);
+        }
         for (int i = 0; i < length; i++) {
             ReconResult result = results.get(i);
             
@@ -42,6 +42,7 @@ import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.browsing.FilteredRows;
 import com.google.refine.browsing.RowVisitor;
+import com.google.refine.browsing.util.ConjunctiveFilteredRows;
 import com.google.refine.history.Change;
 import com.google.refine.history.HistoryEntry;
 import com.google.refine.model.Column;
@@ -75,7 +76,13 @@ abstract public class EngineDependentMassCellOperation extends EngineDependentOp
         
         FilteredRows filteredRows = engine.getAllFilteredRows();
         try {
-            filteredRows.accept(project, createRowVisitor(project, cellChanges, historyEntryID));
+            RowVisitor visitor = createRowVisitor(project, cellChanges, historyEntryID);
+            List<Integer> candidateRows = getCandidateRows(project, column);
+            if (candidateRows != null && filteredRows instanceof ConjunctiveFilteredRows) {
+                ((ConjunctiveFilteredRows) filteredRows).accept(project, visitor, candidateRows);
+            } else {
+                filteredRows.accept(project, visitor);
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -91,6 +98,18 @@ abstract public class EngineDependentMassCellOperation extends EngineDependentOp
             cellChanges, column.getName(), _updateRowContextDependencies);
     }
     
+    /**
+     * Operations which only change the cells holding some values can restrict the
+     * rows visited in row-based mode, typically with a
+     * {@link com.google.refine.browsing.util.CellValueRowIndex}.
+     * 
+     * @return the indices of the only rows which may be changed, in increasing order,
+     *      or null to visit all rows
+     */
+    protected List<Integer> getCandidateRows(Project project, Column column) {
+        return null;
+    }
+    
     @JsonProperty("columnName")
     protected String getColumnName() {
         return _columnName;
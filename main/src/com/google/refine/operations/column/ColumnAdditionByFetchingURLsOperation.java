@@ -37,15 +37,23 @@ import static com.google.common.base.Strings.isNullOrEmpty;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.message.BasicHeader;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
@@ -72,6 +80,7 @@ import com.google.refine.operations.OnError;
 import com.google.refine.process.LongRunningProcess;
 import com.google.refine.process.Process;
 import com.google.refine.util.HttpClient;
+import com.google.refine.util.HttpResponseCache;
 
 
 public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperation {
@@ -100,11 +109,34 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
     final protected int        _columnInsertIndex;
     final protected int        _delay;
     final protected boolean    _cacheResponses;
+    final protected int        _concurrency;
     final protected List<HttpHeader>  _httpHeadersJson;
     private Header[] httpHeaders = new Header[0];
     private HttpClient _httpClient;
 
 
+    public ColumnAdditionByFetchingURLsOperation(
+        EngineConfig   engineConfig,
+        String         baseColumnName,
+        String         urlExpression,
+        OnError        onError,
+        String         newColumnName,
+        int            columnInsertIndex,
+        int            delay,
+        boolean        cacheResponses,
+        List<HttpHeader>      httpHeadersJson
+    ) {
+        this(engineConfig, baseColumnName, urlExpression, onError, newColumnName,
+                columnInsertIndex, delay, cacheResponses, httpHeadersJson, 0);
+    }
+
+    /**
+     * @param delay
+     *      minimum delay between two requests to the same host, in milliseconds
+     * @param concurrency
+     *      maximum number of requests in flight, 0 or 1 fetching the URLs one
+     *      after the other
+     */
     @JsonCreator
     public ColumnAdditionByFetchingURLsOperation(
         @JsonProperty("engineConfig")
@@ -124,7 +156,9 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
         @JsonProperty("cacheResponses")
         boolean        cacheResponses,
         @JsonProperty("httpHeadersJson")
-        List<HttpHeader>      httpHeadersJson
+        List<HttpHeader>      httpHeadersJson,
+        @JsonProperty("concurrency")
+        int            concurrency
     ) {
         super(engineConfig);
 
@@ -137,6 +171,7 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
 
         _delay = delay;
         _cacheResponses = cacheResponses;
+        _concurrency = concurrency;
         _httpHeadersJson = httpHeadersJson;
 
         List<Header> headers = new ArrayList<Header>();
@@ -148,7 +183,7 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
             }
         }
         httpHeaders = headers.toArray(httpHeaders);
-        _httpClient = new HttpClient(_delay);
+        _httpClient = new HttpClient(_delay, Math.max(_delay, 200), _concurrency);
 
     }
 
@@ -192,6 +227,12 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
         return _cacheResponses;
     }
 
+    @JsonProperty("concurrency")
+    @JsonInclude(Include.NON_DEFAULT)
+    public int getConcurrency() {
+        return _concurrency;
+    }
+
     @Override
     protected String getBriefDescription(Project project) {
         return "Create column " + _newColumnName +
@@ -287,29 +328,18 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
 
             int count = urls.size();
             List<CellAtRow> responseBodies = new ArrayList<CellAtRow>(count);
-            int i = 0;
-            for (CellAtRow urlData : urls) {
-                String urlString = urlData.cell.value.toString();
-
-                Serializable response = null;
-                if (_urlCache != null) {
-                    response = cachedFetch(urlString);
-                } else {
-                    response = fetch(urlString, httpHeaders);
-                }
-
-                if (response != null) {
-                    CellAtRow cellAtRow = new CellAtRow(
-                            urlData.row,
-                            new Cell(response, null));
+            if (_concurrency > 1) {
+                fetchConcurrently(urls, responseBodies);
+            } else {
+                int i = 0;
+                for (CellAtRow urlData : urls) {
+                    addResponse(responseBodies, urlData.row, fetch(urlData));
 
-                    responseBodies.add(cellAtRow);
-                }
-
-                _progress = i++ * 100 / count;
+                    _progress = i++ * 100 / count;
 
-                if (_canceled) {
-                    break;
+                    if (_canceled) {
+                        break;
+                    }
                 }
             }
 
@@ -330,6 +360,56 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
             }
         }
 
+        /**
+         * Fetches up to {@link #_concurrency} URLs at a time, collecting the responses
+         * in row order. Only a bounded window of requests is submitted ahead of the
+         * first pending row, so that memory use does not depend on the number of rows.
+         */
+        void fetchConcurrently(List<CellAtRow> urls, List<CellAtRow> responseBodies) {
+            int count = urls.size();
+            ExecutorService executor = Executors.newFixedThreadPool(_concurrency);
+            Deque<Future<Serializable>> pending = new ArrayDeque<>();
+            int submitted = 0;
+            try {
+                for (int i = 0; i < count && !_canceled; i++) {
+                    while (submitted < count && submitted < i + 4 * _concurrency) {
+                        CellAtRow urlData = urls.get(submitted++);
+                        pending.add(executor.submit(() -> fetch(urlData)));
+                    }
+                    Serializable response;
+                    try {
+                        response = pending.poll().get();
+                    } catch (ExecutionException e) {
+                        response = _onError == OnError.StoreError ? new EvalError(e.getCause().getMessage()) : null;
+                    }
+                    addResponse(responseBodies, urls.get(i).row, response);
+
+                    _progress = i * 100 / count;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                _canceled = true;
+            } finally {
+                // interrupts the requests still waiting for their host
+                executor.shutdownNow();
+            }
+        }
+
+        void addResponse(List<CellAtRow> responseBodies, int row, Serializable response) {
+            if (response != null) {
+                responseBodies.add(new CellAtRow(row, new Cell(response, null)));
+            }
+        }
+
+        Serializable fetch(CellAtRow urlData) {
+            String urlString = urlData.cell.value.toString();
+            if (_urlCache != null) {
+                return cachedFetch(urlString);
+            } else {
+                return fetch(urlString, httpHeaders);
+            }
+        }
+
         Serializable cachedFetch(String urlString) {
             try {
                 return  _urlCache.get(urlString);
@@ -341,7 +421,8 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
         Serializable fetch(String urlString, Header[] headers) {
             try { //HttpClients.createDefault()) {
                 try {
-                    return _httpClient.getAsString(urlString, headers);
+                    return _httpClient.getAsString(urlString, headers,
+                            _cacheResponses ? HttpResponseCache.getDefault() : null);
                 } catch (IOException e) {
                     return _onError == OnError.StoreError ? new EvalError(e) : null;
                 }
@@ -36,12 +36,21 @@ package com.google.refine.operations.recon;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.EngineConfig;
@@ -56,6 +65,7 @@ import com.google.refine.model.ReconType;
 import com.google.refine.model.Row;
 import com.google.refine.model.changes.CellAtRow;
 import com.google.refine.model.changes.DataExtensionChange;
+import com.google.refine.model.recon.AdaptiveServiceClient;
 import com.google.refine.model.recon.ReconciledDataExtensionJob;
 import com.google.refine.model.recon.ReconciledDataExtensionJob.ColumnInfo;
 import com.google.refine.model.recon.ReconciledDataExtensionJob.DataExtension;
@@ -77,8 +87,37 @@ public class ExtendDataOperation extends EngineDependentOperation {
     final protected DataExtensionConfig _extension;
     @JsonProperty("columnInsertIndex")
     final protected int                 _columnInsertIndex;
+    @JsonProperty("batchSize")
+    @JsonInclude(Include.NON_DEFAULT)
+    final protected int                 _batchSize;
+    @JsonProperty("concurrency")
+    @JsonInclude(Include.NON_DEFAULT)
+    final protected int                 _concurrency;
 
-    
+    /**
+     * The number of ids sent in each request when the operation does not specify it.
+     */
+    static final public int DEFAULT_BATCH_SIZE = 10;
+
+    public ExtendDataOperation(
+        EngineConfig        engineConfig,
+        String              baseColumnName,
+        String              endpoint,
+        String              identifierSpace,
+        String              schemaSpace,
+        DataExtensionConfig extension,
+        int                 columnInsertIndex 
+    ) {
+        this(engineConfig, baseColumnName, endpoint, identifierSpace, schemaSpace,
+                extension, columnInsertIndex, 0, 0);
+    }
+
+    /**
+     * @param batchSize
+     *      the number of ids sent in each request, 0 for {@link #DEFAULT_BATCH_SIZE}
+     * @param concurrency
+     *      the number of requests in flight, 0 for the "recon.concurrency" preference
+     */
     @JsonCreator
     public ExtendDataOperation(
         @JsonProperty("engineConfig")
@@ -94,7 +133,11 @@ public class ExtendDataOperation extends EngineDependentOperation {
         @JsonProperty("extension")
         DataExtensionConfig extension,
         @JsonProperty("columnInsertIndex")
-        int                 columnInsertIndex 
+        int                 columnInsertIndex,
+        @JsonProperty("batchSize")
+        int                 batchSize,
+        @JsonProperty("concurrency")
+        int                 concurrency
     ) {
         super(engineConfig);
         
@@ -104,6 +147,8 @@ public class ExtendDataOperation extends EngineDependentOperation {
         _schemaSpace = schemaSpace;
         _extension = extension;
         _columnInsertIndex = columnInsertIndex;
+        _batchSize = batchSize;
+        _concurrency = concurrency;
     }
 
     @Override
@@ -146,6 +191,12 @@ public class ExtendDataOperation extends EngineDependentOperation {
             
             _job = new ReconciledDataExtensionJob(_extension, _endpoint);
         }
+
+        @JsonProperty("serviceHealth")
+        @JsonInclude(Include.NON_NULL)
+        public AdaptiveServiceClient.Health getServiceHealth() {
+            return AdaptiveServiceClient.getHealth(_endpoint);
+        }
         
         @Override
         protected Runnable getRunnable() {
@@ -194,51 +245,63 @@ public class ExtendDataOperation extends EngineDependentOperation {
             }.init(rowIndices));
         }
         
-        protected int extendRows(
-            List<Integer> rowIndices, 
-            List<DataExtension> dataExtensions, 
-            int from, 
-            int limit,
-            Map<String, ReconCandidate> reconCandidateMap
-        ) {
-            Set<String> ids = new HashSet<String>();
+        /**
+         * Fetches the data of each distinct id once, in batches of
+         * {@link ExtendDataOperation#_batchSize} ids, keeping up to
+         * {@link ExtendDataOperation#_concurrency} requests in flight.
+         * 
+         * @return
+         *      the extensions by id. Ids for which the request failed are absent.
+         */
+        protected Map<String, DataExtension> extendIds(List<String> ids) {
+            int batchSize = _batchSize > 0 ? _batchSize : DEFAULT_BATCH_SIZE;
+            int concurrency = _concurrency > 0 ? _concurrency : ReconOperation.getConcurrency();
+            Map<String, DataExtension> extensions = new HashMap<String, DataExtension>();
+            Map<String, ReconCandidate> reconCandidateMap = new ConcurrentHashMap<String, ReconCandidate>();
             
-            int end;
-            for (end = from; end < limit && ids.size() < 10; end++) {
-                int index = rowIndices.get(end);
-                Row row = _project.rows.get(index);
-                Cell cell = row.getCell(_cellIndex);
-                
-                ids.add(cell.recon.match.id);
-            }
-            
-            Map<String, DataExtension> map = null;
+            ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+            CompletionService<Map<String, DataExtension>> completionService = new ExecutorCompletionService<>(executor);
+            int inFlight = 0;
+            int next = 0;
+            int done = 0;
             try {
-                map = _job.extend(ids, reconCandidateMap);
-            } catch (Exception e) {
-                map = new HashMap<String, DataExtension>();
-            }
-            
-            for (int i = from; i < end; i++) {
-                int index = rowIndices.get(i);
-                Row row = _project.rows.get(index);
-                Cell cell = row.getCell(_cellIndex);
-                String guid = cell.recon.match.id;
-                
-                if (map.containsKey(guid)) {
-                    dataExtensions.add(map.get(guid));
-                } else {
-                    dataExtensions.add(null);
+                while (next < ids.size() || inFlight > 0) {
+                    while (!_canceled && inFlight < concurrency && next < ids.size()) {
+                        int end = Math.min(ids.size(), next + batchSize);
+                        Set<String> batch = new HashSet<String>(ids.subList(next, end));
+                        completionService.submit(() -> {
+                            try {
+                                return _job.extend(batch, reconCandidateMap);
+                            } catch (Exception e) {
+                                return new HashMap<String, DataExtension>();
+                            }
+                        });
+                        next = end;
+                        inFlight++;
+                    }
+                    if (_canceled) {
+                        break;
+                    }
+                    
+                    extensions.putAll(completionService.take().get());
+                    inFlight--;
+                    // only the last batch can be smaller
+                    done = Math.min(ids.size(), done + batchSize);
+                    _progress = done * 100 / ids.size();
                 }
+            } catch (InterruptedException e) {
+                _canceled = true;
+            } catch (ExecutionException e) {
+                // the tasks catch their exceptions
+            } finally {
+                executor.shutdownNow();
             }
-            
-            return end;
+            return extensions;
         }
         
         @Override
         public void run() {
             List<Integer> rowIndices = new ArrayList<Integer>();
-            List<DataExtension> dataExtensions = new ArrayList<DataExtension>();
             
             try {
                 populateRowsWithMatches(rowIndices);
@@ -247,21 +310,15 @@ public class ExtendDataOperation extends EngineDependentOperation {
                 e2.printStackTrace();
             }
             
-            int start = 0;
-            Map<String, ReconCandidate> reconCandidateMap = new HashMap<String, ReconCandidate>();
+            Set<String> ids = new LinkedHashSet<String>();
+            for (int index : rowIndices) {
+                ids.add(_project.rows.get(index).getCell(_cellIndex).recon.match.id);
+            }
+            Map<String, DataExtension> extensions = extendIds(new ArrayList<String>(ids));
             
-            while (start < rowIndices.size()) {
-                int end = extendRows(rowIndices, dataExtensions, start, rowIndices.size(), reconCandidateMap);
-                start = end;
-                
-                _progress = end * 100 / rowIndices.size();
-                try {
-                    Thread.sleep(200);
-                } catch (InterruptedException e) {
-                    if (_canceled) {
-                        break;
-                    }
-                }
+            List<DataExtension> dataExtensions = new ArrayList<DataExtension>(rowIndices.size());
+            for (int index : rowIndices) {
+                dataExtensions.add(extensions.get(_project.rows.get(index).getCell(_cellIndex).recon.match.id));
             }
             
             if (!_canceled) {
@@ -39,6 +39,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.browsing.RowVisitor;
+import com.google.refine.browsing.util.CellValueRowIndex;
 import com.google.refine.history.Change;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
@@ -123,6 +124,11 @@ public class ReconClearSimilarCellsOperation extends EngineDependentMassCellOper
         };
     }
     
+    @Override
+    protected List<Integer> getCandidateRows(Project project, Column column) {
+        return CellValueRowIndex.get(project, column).getRows(_similarValue);
+    }
+    
     @Override
     protected Change createChange(Project project, Column column, List<CellChange> cellChanges) {
         return new ReconChange(
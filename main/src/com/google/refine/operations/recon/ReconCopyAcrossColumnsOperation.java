@@ -39,6 +39,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -48,6 +49,8 @@ import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.browsing.FilteredRows;
 import com.google.refine.browsing.RowVisitor;
+import com.google.refine.browsing.util.CellValueRowIndex;
+import com.google.refine.browsing.util.ConjunctiveFilteredRows;
 import com.google.refine.history.HistoryEntry;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
@@ -153,7 +156,7 @@ public class ReconCopyAcrossColumnsOperation extends EngineDependentOperation {
                     }
                 });
                 
-                filteredRows.accept(project, new RowVisitor() {
+                RowVisitor copyVisitor = new RowVisitor() {
                     @Override
                     public void start(Project project) {
                         // nothing to do
@@ -182,7 +185,21 @@ public class ReconCopyAcrossColumnsOperation extends EngineDependentOperation {
                         }
                         return false;
                     }
-                });
+                };
+                
+                if (filteredRows instanceof ConjunctiveFilteredRows) {
+                    // only visit the rows holding the values to copy
+                    Set<Integer> candidateRows = new TreeSet<>();
+                    for (Column column : toColumns) {
+                        CellValueRowIndex index = CellValueRowIndex.get(project, column);
+                        for (Object value : cellValueToRecon.keySet()) {
+                            candidateRows.addAll(index.getRows(value));
+                        }
+                    }
+                    ((ConjunctiveFilteredRows) filteredRows).accept(project, copyVisitor, new ArrayList<>(candidateRows));
+                } else {
+                    filteredRows.accept(project, copyVisitor);
+                }
             } catch (Exception e) {
                 e.printStackTrace();
             }
@@ -43,6 +43,7 @@ import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.browsing.RowVisitor;
+import com.google.refine.browsing.util.CellValueRowIndex;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.history.Change;
 import com.google.refine.model.Cell;
@@ -260,6 +261,11 @@ public class ReconJudgeSimilarCellsOperation extends EngineDependentMassCellOper
     }
     
     
+    @Override
+    protected List<Integer> getCandidateRows(Project project, Column column) {
+        return CellValueRowIndex.get(project, column).getRows(_similarValue);
+    }
+    
     @Override
     protected Change createChange(Project project, Column column, List<CellChange> cellChanges) {
         return new ReconChange(
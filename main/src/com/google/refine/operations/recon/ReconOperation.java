@@ -35,17 +35,25 @@ package com.google.refine.operations.recon;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.refine.ProjectManager;
 import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.browsing.FilteredRows;
@@ -60,6 +68,7 @@ import com.google.refine.model.Recon;
 import com.google.refine.model.Row;
 import com.google.refine.model.changes.CellChange;
 import com.google.refine.model.changes.ReconChange;
+import com.google.refine.model.recon.AdaptiveServiceClient;
 import com.google.refine.model.recon.ReconConfig;
 import com.google.refine.model.recon.ReconJob;
 import com.google.refine.model.recon.StandardReconConfig;
@@ -71,6 +80,11 @@ import com.google.refine.util.ParsingUtilities;
 public class ReconOperation extends EngineDependentOperation {
     final static Logger logger = LoggerFactory.getLogger("recon-operation");
     
+    /**
+     * The latency above which batches are made smaller, in ms.
+     */
+    static final long TARGET_BATCH_LATENCY = Long.getLong("refine.recon.targetBatchLatency", 5000);
+    
     final protected String      _columnName;
     final protected ReconConfig _reconConfig;
     
@@ -131,6 +145,17 @@ public class ReconOperation extends EngineDependentOperation {
         }
     }
     
+    static protected class Batch {
+        final public int index;
+        final public List<JobGroup> groups;
+        public List<CellChange> changes;
+        
+        public Batch(int index, List<JobGroup> groups) {
+            this.index = index;
+            this.groups = groups;
+        }
+    }
+    
     public class ReconProcess extends LongRunningProcess implements Runnable {
         final protected Project      _project;
         final protected EngineConfig _engineConfig;
@@ -190,6 +215,15 @@ public class ReconOperation extends EngineDependentOperation {
             }
             return onDone;
         }
+
+        @JsonProperty("serviceHealth")
+        @JsonInclude(Include.NON_NULL)
+        public AdaptiveServiceClient.Health getServiceHealth() {
+            if (_reconConfig instanceof StandardReconConfig) {
+                return AdaptiveServiceClient.getHealth(((StandardReconConfig) _reconConfig).service);
+            }
+            return null;
+        }
         
         @Override
         protected Runnable getRunnable() {
@@ -242,7 +276,8 @@ public class ReconOperation extends EngineDependentOperation {
                 e2.printStackTrace();
             }
             
-            Map<String, JobGroup> jobKeyToGroup = new HashMap<String, JobGroup>();
+            // grouped in the order of their first cell, so that the change is deterministic
+            Map<String, JobGroup> jobKeyToGroup = new LinkedHashMap<String, JobGroup>();
             
             for (ReconEntry entry : _entries) {
                 ReconJob job = _reconConfig.createJob(
@@ -262,70 +297,11 @@ public class ReconOperation extends EngineDependentOperation {
                 group.entries.add(entry);
             }
             
-            int batchSize = _reconConfig.getBatchSize();
-            int done = 0;
-            
-            List<CellChange> cellChanges = new ArrayList<CellChange>(_entries.size());
             List<JobGroup> groups = new ArrayList<JobGroup>(jobKeyToGroup.values());
+            List<CellChange> cellChanges = reconcileGroups(groups);
             
-            List<ReconJob> jobs = new ArrayList<ReconJob>(batchSize);
-            Map<ReconJob, JobGroup> jobToGroup = new HashMap<ReconJob, ReconOperation.JobGroup>();
-            
-            for (int i = 0; i < groups.size(); /* don't increment here */) {
-                while (jobs.size() < batchSize && i < groups.size()) {
-                    JobGroup group = groups.get(i++);
-                    
-                    jobs.add(group.job);
-                    jobToGroup.put(group.job, group);
-                }
-                
-                List<Recon> recons = _reconConfig.batchRecon(jobs, _historyEntryID);
-                for (int j = jobs.size() - 1; j >= 0; j--) {
-                    ReconJob job = jobs.get(j);
-                    Recon    recon = j < recons.size() ? recons.get(j) : null;
-                    JobGroup group = jobToGroup.get(job);
-                    List<ReconEntry> entries = group.entries;
-
-                    jobToGroup.remove(job);
-                    jobs.remove(j);
-                    done++;
-
-                    if (recon != null) {
-                        recon.judgmentBatchSize = entries.size();
-                    }
-                    
-                    for (ReconEntry entry : entries) {
-                        if (recon == null) {
-                            // TODO add EvalError instead? That is not so convenient
-                            // for users because they would lose the cell contents.
-                            // Better leave the cell unreconciled so they can be reconciled again later.
-                            continue;
-                        }
-                        Cell oldCell = entry.cell;
-                        Cell newCell = new Cell(oldCell.value, recon);
-                        
-                        CellChange cellChange = new CellChange(
-                            entry.rowIndex, 
-                            _cellIndex, 
-                            oldCell, 
-                            newCell
-                        );
-                        cellChanges.add(cellChange);
-                    }
-                }
-                
-                _progress = done * 100 / groups.size();
-                try {
-                    Thread.sleep(50);
-                } catch (InterruptedException e) {
-                    if (_canceled) {
-                        break;
-                    }
-                }
-            }
-            
-            // TODO: Option to keep partial results after cancellation?
-            if (!_canceled) {
+            // partial results are kept after cancellation
+            if (!_canceled || !cellChanges.isEmpty()) {
                 Change reconChange = new ReconChange(
                     cellChanges, 
                     _columnName, 
@@ -342,7 +318,163 @@ public class ReconOperation extends EngineDependentOperation {
                 );
                 
                 _project.history.addEntry(historyEntry);
-                _project.processManager.onDoneProcess(this);
+            }
+            _project.processManager.onDoneProcess(this);
+        }
+        
+        /**
+         * Sends the jobs to the service in batches, keeping up to
+         * {@link ReconOperation#getConcurrency()} batches in flight. A new
+         * batch is only submitted once a previous one has returned, and its
+         * size is adapted to the latency of the previous batches. Batches
+         * which fail are logged and skipped.
+         * 
+         * @return
+         *      the cell changes of the batches which completed, in the order
+         *      of the groups
+         */
+        protected List<CellChange> reconcileGroups(List<JobGroup> groups) {
+            int concurrency = getConcurrency();
+            BatchSizer sizer = new BatchSizer(_reconConfig.getBatchSize(), TARGET_BATCH_LATENCY);
+            List<List<CellChange>> batchChanges = new ArrayList<>();
+            
+            ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+            CompletionService<Batch> completionService = new ExecutorCompletionService<>(executor);
+            int inFlight = 0;
+            int next = 0;
+            int done = 0;
+            try {
+                while (next < groups.size() || inFlight > 0) {
+                    while (!_canceled && inFlight < concurrency && next < groups.size()) {
+                        int end = Math.min(groups.size(), next + sizer.getBatchSize());
+                        Batch batch = new Batch(batchChanges.size(), groups.subList(next, end));
+                        batchChanges.add(null);
+                        completionService.submit(() -> {
+                            long start = System.nanoTime();
+                            try {
+                                batch.changes = reconcileBatch(batch.groups);
+                                sizer.onBatchDone((System.nanoTime() - start) / 1000000);
+                            } catch (RuntimeException e) {
+                                // like values without results, the values of a failed batch are left
+                                // unreconciled and the following batches are still sent
+                                logger.error("Reconciliation batch of " + batch.groups.size() + " values failed", e);
+                            }
+                            return batch;
+                        });
+                        next = end;
+                        inFlight++;
+                    }
+                    if (_canceled) {
+                        break;
+                    }
+                    
+                    Batch batch = completionService.take().get();
+                    inFlight--;
+                    batchChanges.set(batch.index, batch.changes);
+                    done += batch.groups.size();
+                    _progress = done * 100 / groups.size();
+                }
+            } catch (InterruptedException e) {
+                _canceled = true;
+            } catch (ExecutionException e) {
+                logger.error("Reconciliation batch failed", e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+            
+            List<CellChange> cellChanges = new ArrayList<CellChange>(_entries.size());
+            for (List<CellChange> changes : batchChanges) {
+                if (changes != null) {
+                    cellChanges.addAll(changes);
+                }
+            }
+            return cellChanges;
+        }
+        
+        protected List<CellChange> reconcileBatch(List<JobGroup> batch) {
+            List<ReconJob> jobs = new ArrayList<ReconJob>(batch.size());
+            for (JobGroup group : batch) {
+                jobs.add(group.job);
+            }
+            
+            List<Recon> recons = _reconConfig.batchRecon(jobs, _historyEntryID);
+            List<CellChange> cellChanges = new ArrayList<CellChange>();
+            for (int j = 0; j < batch.size(); j++) {
+                Recon recon = j < recons.size() ? recons.get(j) : null;
+                if (recon == null) {
+                    // TODO add EvalError instead? That is not so convenient
+                    // for users because they would lose the cell contents.
+                    // Better leave the cell unreconciled so they can be reconciled again later.
+                    continue;
+                }
+                List<ReconEntry> entries = batch.get(j).entries;
+                recon.judgmentBatchSize = entries.size();
+                
+                for (ReconEntry entry : entries) {
+                    Cell oldCell = entry.cell;
+                    Cell newCell = new Cell(oldCell.value, recon);
+                    
+                    CellChange cellChange = new CellChange(
+                        entry.rowIndex, 
+                        _cellIndex, 
+                        oldCell, 
+                        newCell
+                    );
+                    cellChanges.add(cellChange);
+                }
+            }
+            return cellChanges;
+        }
+    }
+    
+    /**
+     * The number of batches sent concurrently to the reconciliation service,
+     * from the "recon.concurrency" preference. Defaults to one batch at a
+     * time, since public services may not welcome parallel requests.
+     */
+    static protected int getConcurrency() {
+        Object v = ProjectManager.singleton.getPreferenceStore().get("recon.concurrency");
+        if (v != null) {
+            try {
+                int n = v instanceof Number ? ((Number) v).intValue() : Integer.parseInt(v.toString());
+                return Math.max(1, n);
+            } catch (NumberFormatException e) {
+                // ignore
+            }
+        }
+        return 1;
+    }
+    
+    /**
+     * Adapts the number of jobs per batch to the latency of the service:
+     * the size is halved when a batch takes longer than the target latency,
+     * and grows back towards the size requested by the recon config when
+     * batches are well within it.
+     */
+    static protected class BatchSizer {
+        final private int _maxBatchSize;
+        final private long _targetLatency;
+        private int _batchSize;
+        
+        public BatchSizer(int maxBatchSize, long targetLatency) {
+            _maxBatchSize = Math.max(1, maxBatchSize);
+            _targetLatency = targetLatency;
+            _batchSize = _maxBatchSize;
+        }
+        
+        public synchronized int getBatchSize() {
+            return _batchSize;
+        }
+        
+        /**
+         * @param latency
+         *      the time taken by a batch of the current size, in ms
+         */
+        public synchronized void onBatchDone(long latency) {
+            if (latency > _targetLatency) {
+                _batchSize = Math.max(1, _batchSize / 2);
+            } else if (latency < _targetLatency / 2) {
+                _batchSize = Math.min(_maxBatchSize, _batchSize + Math.max(1, _maxBatchSize / 4));
             }
         }
     }
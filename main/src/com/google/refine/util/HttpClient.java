@@ -1,11 +1,13 @@
 package com.google.refine.util;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -20,6 +22,7 @@ import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
 import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.utils.DateUtils;
 import org.apache.hc.core5.http.ClassicHttpResponse;
 import org.apache.hc.core5.http.EntityDetails;
 import org.apache.hc.core5.http.Header;
@@ -45,12 +48,32 @@ import com.google.refine.RefineServlet;
 
 public class HttpClient {
     final static Logger logger = LoggerFactory.getLogger("http-client");
+
+    /**
+     * An error status returned by the server, with the delay it asked for
+     * before trying again, if any.
+     */
+    static public class HttpStatusException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        final public int statusCode;
+        // in ms, or -1 if the response had no Retry-After header
+        final public long retryAfter;
+
+        public HttpStatusException(int statusCode, long retryAfter, String message) {
+            super(message);
+            this.statusCode = statusCode;
+            this.retryAfter = retryAfter;
+        }
+    }
     
     final private RequestConfig defaultRequestConfig;
     private HttpClientBuilder httpClientBuilder;
     private CloseableHttpClient httpClient;
     private int _delay;
     private int _retryInterval; // delay between original request and first retry, in ms
+    private HostRateLimiter _rateLimiter;
     
     public HttpClient() {
         this(0);
@@ -61,10 +84,37 @@ public class HttpClient {
     }
     
     public HttpClient(int delay, int retryInterval) {   
+        this(delay, retryInterval, 0);
+    }
+
+    /**
+     * @param delay
+     *      minimum delay between two requests to the same host, in ms
+     * @param retryInterval
+     *      delay between original request and first retry, in ms
+     * @param maxConnectionsPerHost
+     *      number of connections kept open to each host, to let as many
+     *      requests run concurrently, or 0 for the default
+     */
+    public HttpClient(int delay, int retryInterval, int maxConnectionsPerHost) {
+        this(delay, retryInterval, maxConnectionsPerHost, 3);
+    }
+
+    /**
+     * @param maxRetries
+     *      number of times failed requests are retried, 0 to leave retries to
+     *      the caller
+     */
+    public HttpClient(int delay, int retryInterval, int maxConnectionsPerHost, int maxRetries) {
         _delay = delay;
         _retryInterval = retryInterval;
+        _rateLimiter = new HostRateLimiter(delay);
         // Create a connection manager with a custom socket timeout
         PoolingHttpClientConnectionManager connManager = new PoolingHttpClientConnectionManager();
+        if (maxConnectionsPerHost > connManager.getDefaultMaxPerRoute()) {
+            connManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+            connManager.setMaxTotal(Math.max(connManager.getMaxTotal(), maxConnectionsPerHost));
+        }
         final SocketConfig socketConfig = SocketConfig.custom()
             .setSoTimeout(60, TimeUnit.SECONDS)
             .build();
@@ -80,28 +130,24 @@ public class HttpClient {
                 .setDefaultRequestConfig(defaultRequestConfig)
                 .setConnectionManager(connManager)
                 // Default Apache HC retry is 1x @1 sec (or the value in Retry-Header)
-                .setRetryStrategy(new ExponentialBackoffRetryStrategy(3, TimeValue.ofMilliseconds(_retryInterval)))
+                .setRetryStrategy(new ExponentialBackoffRetryStrategy(maxRetries, TimeValue.ofMilliseconds(_retryInterval)))
 //                .setRedirectStrategy(new LaxRedirectStrategy()) // TODO: No longer needed since default doesn't exclude POST?
 //               .setConnectionBackoffStrategy(ConnectionBackoffStrategy)
                 .addRequestInterceptorFirst(new HttpRequestInterceptor() {
 
-                    private long nextRequestTime = System.currentTimeMillis();
-
                     @Override
                     public void process(
                             final HttpRequest request,
                             final EntityDetails entity,
                             final HttpContext context) throws HttpException, IOException {
 
-                        long delay = nextRequestTime - System.currentTimeMillis();
-                        if (delay > 0) {
-                            try {
-                                Thread.sleep(delay);
-                            } catch (InterruptedException e) {
-                            }
+                        String host = request.getAuthority() == null ? "" : request.getAuthority().toString();
+                        try {
+                            _rateLimiter.acquire(host);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new InterruptedIOException("Interrupted while waiting to request " + host);
                         }
-                        nextRequestTime = System.currentTimeMillis() + _delay;
-
                     }
                 });
 
@@ -151,12 +197,74 @@ public class HttpClient {
         return getResponse(urlString, headers, responseHandler);
     }
 
-    public String getResponse(String urlString, Header[] headers, HttpClientResponseHandler<String> responseHandler) throws IOException {
+    /**
+     * Same as {@link #getAsString(String, Header[])}, going through a response cache
+     * if one is given.
+     */
+    public String getAsString(String urlString, Header[] headers, HttpResponseCache cache) throws IOException {
+        if (cache == null) {
+            return getAsString(urlString, headers);
+        }
+        if (!isValidUrl(urlString)) {
+            return null;
+        }
+        return cache.get("GET", urlString, headers, null, conditionalHeaders -> {
+            HttpGet httpGet = new HttpGet(urlString);
+            if (headers != null && headers.length > 0) {
+                httpGet.setHeaders(headers);
+            }
+            for (Header header : conditionalHeaders) {
+                httpGet.addHeader(header);
+            }
+            httpGet.setConfig(defaultRequestConfig);
+            return httpClient.execute(httpGet, response -> {
+                final int status = response.getCode();
+                if (status == HttpStatus.SC_NOT_MODIFIED) {
+                    return toCacheResponse(response, null);
+                } else if (status >= HttpStatus.SC_SUCCESS && status < HttpStatus.SC_REDIRECTION) {
+                    final HttpEntity entity = response.getEntity();
+                    if (entity == null) {
+                        throw new IOException("No content found in " + urlString);
+                    }
+                    try {
+                        return toCacheResponse(response, EntityUtils.toString(entity));
+                    } catch (final ParseException ex) {
+                        throw new ClientProtocolException(ex);
+                    }
+                } else {
+                    throw new ClientProtocolException(String.format("HTTP error %d : %s for URL %s", status,
+                            response.getReasonPhrase(), urlString));
+                }
+            });
+        });
+    }
+
+    protected static HttpResponseCache.Response toCacheResponse(ClassicHttpResponse response, String body) {
+        return new HttpResponseCache.Response(response.getCode(), body,
+                getHeaderValue(response, "Cache-Control"),
+                getHeaderValue(response, "Expires"),
+                getHeaderValue(response, "ETag"),
+                getHeaderValue(response, "Last-Modified"));
+    }
+
+    private static String getHeaderValue(ClassicHttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return header == null ? null : header.getValue();
+    }
+
+    private static boolean isValidUrl(String urlString) {
         try {
             // Use of URL constructor below is purely to get additional error checking to mimic
             // previous behavior for the tests.
             new URL(urlString).toURI();
+            return true;
         } catch (IllegalArgumentException | MalformedURLException | URISyntaxException e) {
+            return false;
+        }
+    }
+
+    public String getResponse(String urlString, Header[] headers, HttpClientResponseHandler<String> responseHandler) throws IOException {
+        if (!isValidUrl(urlString)) {
             return null;
         }
 
@@ -170,24 +278,66 @@ public class HttpClient {
     }
 
     public String postNameValue(String serviceUrl, String name, String value) throws IOException {
+        return postNameValue(serviceUrl, name, value, new Header[0]).body;
+    }
+
+    /**
+     * Same as {@link #postNameValue(String, String, String)}, going through a
+     * response cache if one is given.
+     */
+    public String postNameValue(String serviceUrl, String name, String value, HttpResponseCache cache) throws IOException {
+        if (cache == null) {
+            return postNameValue(serviceUrl, name, value);
+        }
+        return cache.get("POST", serviceUrl, null, name + "=" + value,
+                conditionalHeaders -> postNameValue(serviceUrl, name, value, conditionalHeaders));
+    }
+
+    private HttpResponseCache.Response postNameValue(String serviceUrl, String name, String value, Header[] extraHeaders)
+            throws IOException {
         HttpPost request = new HttpPost(serviceUrl);
         List<NameValuePair> body = Collections.singletonList(
                 new BasicNameValuePair(name, value));
         request.setEntity(new UrlEncodedFormEntity(body, StandardCharsets.UTF_8));
+        for (Header header : extraHeaders) {
+            request.addHeader(header);
+        }
 
         try (CloseableHttpResponse response = httpClient.execute(request)) {
             String reasonPhrase = response.getReasonPhrase();
             int statusCode = response.getCode();
+            if (statusCode == HttpStatus.SC_NOT_MODIFIED) {
+                return toCacheResponse(response, null);
+            }
             if (statusCode >= 400) { // We should never see 3xx since they get handled automatically
-                throw new IOException(String.format("HTTP error %d : %s for URL %s", statusCode, reasonPhrase,
+                throw new HttpStatusException(statusCode, getRetryAfter(response),
+                        String.format("HTTP error %d : %s for URL %s", statusCode, reasonPhrase,
                         request.getRequestUri()));
             }
 
-            return ParsingUtilities.inputStreamToString(response.getEntity().getContent());
+            return toCacheResponse(response, ParsingUtilities.inputStreamToString(response.getEntity().getContent()));
         }
     }
 
 
+    /**
+     * @return the delay in ms asked for by the Retry-After header of a response,
+     *         given in seconds or as a date, or -1 if there is none
+     */
+    static protected long getRetryAfter(HttpResponse response) {
+        Header header = response.getFirstHeader("Retry-After");
+        if (header == null || header.getValue() == null) {
+            return -1;
+        }
+        String value = header.getValue().trim();
+        try {
+            return Math.max(0, Long.parseLong(value) * 1000);
+        } catch (NumberFormatException e) {
+            Date date = DateUtils.parseDate(value);
+            return date == null ? -1 : Math.max(0, date.getTime() - System.currentTimeMillis());
+        }
+    }
+
     /**
      * Use binary exponential backoff strategy, instead of the default fixed
      * retry interval, if the server doesn't provide a Retry-After time.
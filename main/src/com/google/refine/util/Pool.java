@@ -43,6 +43,7 @@ import java.io.Reader;
 import java.io.Writer;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.ListIterator;
 import java.util.Map;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -116,6 +117,7 @@ public class Pool  {
     
     public void load(Reader reader) throws Exception {
         LineNumberReader reader2 = new LineNumberReader(reader);
+        Map<String, String> loadedStrings = new HashMap<>();
 
         /* String version = */ reader2.readLine();
         
@@ -146,6 +148,7 @@ public class Pool  {
                     if (line != null) {
                         Recon recon = Recon.loadStreaming(line);
                         if (recon != null) {
+                            shareCandidateStrings(recon, loadedStrings);
                             pool(recon);
                         }
                     }
@@ -153,4 +156,32 @@ public class Pool  {
             }
         }
     }
+    
+    /**
+     * Replaces the candidates of a recon, and its match, by candidates holding
+     * the same ids and names as the candidates already loaded, so that each
+     * distinct string is held once in memory. The candidates themselves are
+     * not shared, since their types array is mutable.
+     */
+    static private void shareCandidateStrings(Recon recon, Map<String, String> loadedStrings) {
+        if (recon.candidates != null) {
+            for (ListIterator<ReconCandidate> it = recon.candidates.listIterator(); it.hasNext();) {
+                ReconCandidate candidate = it.next();
+                if (candidate != null) {
+                    it.set(shareStrings(candidate, loadedStrings));
+                }
+            }
+        }
+        if (recon.match != null) {
+            recon.match = shareStrings(recon.match, loadedStrings);
+        }
+    }
+
+    static private ReconCandidate shareStrings(ReconCandidate candidate, Map<String, String> loadedStrings) {
+        return new ReconCandidate(
+                candidate.id == null ? null : loadedStrings.computeIfAbsent(candidate.id, k -> k),
+                candidate.name == null ? null : loadedStrings.computeIfAbsent(candidate.name, k -> k),
+                candidate.types,
+                candidate.score);
+    }
 }
@@ -58,6 +58,12 @@ public class EngineConfigTests {
 
     public static String noFacetProvided = "{\"mode\":\"row-based\"}";
 
+    public static String engineConfigSampledJson = "{"
+            + "    \"mode\":\"row-based\","
+            + "    \"facets\":[],"
+            + "    \"sampleSize\":10000"
+            + "}";
+
     @Test
     public void serializeEngineConfig() {
         EngineConfig ec = EngineConfig.reconstruct(engineConfigJson);
@@ -83,4 +89,11 @@ public class EngineConfigTests {
         Assert.assertEquals(ec.getMode(), Mode.RowBased);
         Assert.assertTrue(ec.getFacetConfigs().isEmpty());
     }
+
+    @Test
+    public void serializeEngineConfigWithSampleSize() {
+        EngineConfig ec = EngineConfig.reconstruct(engineConfigSampledJson);
+        Assert.assertEquals(ec.getSampleSize(), 10000);
+        TestUtils.isSerializedTo(ec, engineConfigSampledJson);
+    }
 }
@@ -28,14 +28,28 @@
 package com.google.refine.browsing;
 
 import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.testng.annotations.Test;
 
+import com.google.refine.RefineTest;
 import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.Engine.Mode;
+import com.google.refine.browsing.facets.ListFacet;
+import com.google.refine.browsing.facets.ListFacet.ListFacetConfig;
+import com.google.refine.browsing.facets.NominalFacetChoice;
 import com.google.refine.model.Project;
+import com.google.refine.model.Row;
 import com.google.refine.util.TestUtils;
 
-public class EngineTests {
+public class EngineTests extends RefineTest {
 
     @Test
     public void serializeEngine() {
@@ -43,4 +57,144 @@ public class EngineTests {
         Engine engine = new Engine(project);
         TestUtils.isSerializedTo(engine, "{\"engine-mode\":\"row-based\",\"facets\":[]}");
     }
+
+    @Test
+    public void testComputeFacetsWithoutCancellation() {
+        Engine engine = createEngineWithListFacet();
+        engine.setCancellationToken(new CancellationToken(0));
+        engine.computeFacets();
+        assertFalse(engine.isTruncated());
+    }
+
+    @Test
+    public void testCancelledComputationIsTruncated() {
+        Engine engine = createEngineWithListFacet();
+        CancellationToken token = new CancellationToken(0);
+        token.cancel();
+        engine.setCancellationToken(token);
+        engine.computeFacets();
+        assertTrue(engine.isTruncated());
+        TestUtils.isSerializedTo(engine, "{\"engine-mode\":\"row-based\",\"truncated\":true,"
+                + "\"facets\":[{\"name\":\"facet A\",\"columnName\":\"Column A\","
+                + "\"expression\":\"value\",\"invert\":false,\"choices\":[]}]}");
+    }
+
+    @Test
+    public void testCancelledRowVisitStopsEarly() {
+        Engine engine = createEngineWithListFacet();
+        CancellationToken token = new CancellationToken(0);
+        engine.setCancellationToken(token);
+        int[] visited = new int[1];
+        engine.getAllRows().accept(engine._project, new RowVisitor() {
+
+            @Override
+            public void start(Project project) {
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                visited[0]++;
+                token.cancel();
+                return false;
+            }
+
+            @Override
+            public void end(Project project) {
+            }
+        });
+        assertEquals(visited[0], 1);
+    }
+
+    @Test
+    public void testSampledListFacet() {
+        StringBuilder sb = new StringBuilder("Column A\n");
+        for (int i = 0; i < 2000; i++) {
+            sb.append(i % 4 == 0 ? "a\n" : "b\n");
+        }
+        Project project = createCSVProject(sb.toString());
+        ListFacetConfig facetConfig = new ListFacetConfig();
+        facetConfig.name = "facet A";
+        facetConfig.columnName = "Column A";
+        facetConfig.expression = "value";
+        Engine engine = new Engine(project);
+        engine.initializeFromConfig(new EngineConfig(Collections.singletonList(facetConfig), Mode.RowBased, 500));
+
+        engine.computeFacets();
+
+        assertTrue(engine.isSampled());
+        ListFacet facet = (ListFacet) engine._facets.get(0);
+        assertTrue(facet.isSampled());
+        for (NominalFacetChoice choice : facet.getChoices()) {
+            int expected = "a".equals(choice.decoratedValue.value) ? 500 : 1500;
+            assertTrue(Math.abs(choice.count - expected) <= choice.errorBound,
+                    choice.count + " is not within " + choice.errorBound + " of " + expected);
+        }
+    }
+
+    @Test
+    public void testSampleSizeLargerThanProject() {
+        Project project = createCSVProject("Column A\na\nb\n");
+        Engine engine = new Engine(project);
+        engine.initializeFromConfig(new EngineConfig(Collections.emptyList(), Mode.RowBased, 500));
+        engine.computeFacets();
+        assertFalse(engine.isSampled());
+    }
+
+    @Test
+    public void testRecordModeFilteredRows() {
+        Project project = createCSVProject("key,val\n"
+                + "a,x\n"
+                + ",y\n"
+                + "b,y\n"
+                + "c,x\n"
+                + ",z\n"
+                + "d,y\n");
+        String json = "{\"mode\":\"record-based\",\"facets\":[{\"type\":\"list\",\"name\":\"val\","
+                + "\"columnName\":\"val\",\"expression\":\"value\",\"omitBlank\":false,\"omitError\":false,"
+                + "\"selection\":[{\"v\":{\"v\":\"x\",\"l\":\"x\"}}],\"selectBlank\":false,"
+                + "\"selectError\":false,\"invert\":%s}]}";
+
+        Engine engine = new Engine(project);
+        engine.initializeFromConfig(EngineConfig.reconstruct(String.format(json, "false")));
+        assertEquals(visitedRows(engine), Arrays.asList(0, 1, 3, 4));
+
+        // inverted list facets require all rows of the record to be rejected
+        engine.initializeFromConfig(EngineConfig.reconstruct(String.format(json, "true")));
+        assertEquals(visitedRows(engine), Arrays.asList(2, 5));
+    }
+
+    protected List<Integer> visitedRows(Engine engine) {
+        List<Integer> visited = new ArrayList<>();
+        engine.getAllFilteredRows().accept(engine._project, new RowVisitor() {
+
+            @Override
+            public void start(Project project) {
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                visited.add(rowIndex);
+                return false;
+            }
+
+            @Override
+            public void end(Project project) {
+            }
+        });
+        return visited;
+    }
+
+    protected Engine createEngineWithListFacet() {
+        Project project = createCSVProject("Column A\n"
+                + "foo\n"
+                + "bar\n"
+                + "foo\n");
+        ListFacetConfig facetConfig = new ListFacetConfig();
+        facetConfig.name = "facet A";
+        facetConfig.columnName = "Column A";
+        facetConfig.expression = "value";
+        Engine engine = new Engine(project);
+        engine.initializeFromConfig(new EngineConfig(Collections.singletonList(facetConfig), Mode.RowBased));
+        return engine;
+    }
 }
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.model.Recon;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.model.changes.ReconChange;
+
+public class CellValueRowIndexTests extends RefineTest {
+
+    @Override
+    @BeforeTest
+    public void init() {
+        logger = LoggerFactory.getLogger(this.getClass());
+    }
+
+    @Test
+    public void testIndex() {
+        Project project = createCSVProject(
+                "a,b\n"
+                        + "foo,1\n"
+                        + "bar,2\n"
+                        + "foo,3\n"
+                        + ",4\n");
+        Column column = project.columnModel.getColumnByName("a");
+        CellValueRowIndex index = CellValueRowIndex.get(project, column);
+
+        assertEquals(index.getRows("foo"), Arrays.asList(0, 2));
+        assertEquals(index.getRows("bar"), Arrays.asList(1));
+        assertEquals(index.getRows("baz"), Collections.emptyList());
+        assertEquals(index.getRows(""), Collections.emptyList());
+        assertEquals(index.size(), 2);
+        assertSame(CellValueRowIndex.get(project, column), index);
+    }
+
+    /**
+     * Precomputes are only updated incrementally when few rows change, hence
+     * the bigger projects below.
+     */
+    @Test
+    public void testUpdatedByCellChanges() {
+        Project project = createCSVProject(
+                "a\n"
+                        + "foo\n"
+                        + "bar\n"
+                        + "foo\n"
+                        + "baz\n"
+                        + "qux\n"
+                        + "quux\n"
+                        + "corge\n"
+                        + "grault\n");
+        Column column = project.columnModel.getColumnByName("a");
+        CellValueRowIndex index = CellValueRowIndex.get(project, column);
+
+        CellChange change = new CellChange(1, column.getCellIndex(), project.rows.get(1).getCell(0), new Cell("foo", null));
+        change.apply(project);
+        assertSame(CellValueRowIndex.get(project, column), index);
+        assertEquals(index.getRows("foo"), Arrays.asList(0, 1, 2));
+        assertEquals(index.getRows("bar"), Collections.emptyList());
+
+        change.revert(project);
+        assertEquals(index.getRows("foo"), Arrays.asList(0, 2));
+        assertEquals(index.getRows("bar"), Arrays.asList(1));
+    }
+
+    @Test
+    public void testKeptByReconChanges() {
+        Project project = createCSVProject(
+                "a\n"
+                        + "foo\n"
+                        + "bar\n"
+                        + "foo\n"
+                        + "baz\n"
+                        + "qux\n"
+                        + "quux\n"
+                        + "corge\n"
+                        + "grault\n");
+        Column column = project.columnModel.getColumnByName("a");
+        CellValueRowIndex index = CellValueRowIndex.get(project, column);
+
+        Cell cell = project.rows.get(0).getCell(0);
+        Recon recon = new Recon(1L, null, null);
+        recon.judgment = Recon.Judgment.New;
+        ReconChange change = new ReconChange(
+                new CellChange(0, column.getCellIndex(), cell, new Cell(cell.value, recon)), "a", null, null);
+        change.apply(project);
+
+        assertSame(CellValueRowIndex.get(project, column), index);
+        assertEquals(index.getRows("foo"), Arrays.asList(0, 2));
+        assertTrue(project.rows.get(0).getCell(0).recon != null);
+    }
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.browsing.util;
+
+import java.util.Properties;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.EngineConfig;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.model.Project;
+import com.google.refine.util.ParsingUtilities;
+import com.google.refine.util.TestUtils;
+
+public class EvaluationMemoTests extends RefineTest {
+
+    private static class CountingEvaluable implements Evaluable {
+
+        int calls = 0;
+
+        @Override
+        public Object evaluate(Properties bindings) {
+            calls++;
+            return bindings.get("value");
+        }
+    }
+
+    @Test
+    public void testEvaluatesOncePerRow() {
+        EvaluationMemo memo = new EvaluationMemo();
+        CountingEvaluable counting = new CountingEvaluable();
+        Evaluable first = memo.memoize("foo", "value", counting);
+        Evaluable second = memo.memoize("foo", "value", new CountingEvaluable());
+        Assert.assertSame(first, second);
+
+        Properties bindings = new Properties();
+        for (int i = 0; i < 3; i++) {
+            bindings.put("rowIndex", i);
+            bindings.put("value", "v" + i);
+            Assert.assertEquals(first.evaluate(bindings), "v" + i);
+            Assert.assertEquals(second.evaluate(bindings), "v" + i);
+        }
+        Assert.assertEquals(counting.calls, 3);
+    }
+
+    @Test
+    public void testDistinctColumnsAreNotShared() {
+        EvaluationMemo memo = new EvaluationMemo();
+        Evaluable first = memo.memoize("foo", "value", new CountingEvaluable());
+        Evaluable second = memo.memoize("bar", "value", new CountingEvaluable());
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(memo.size(), 2);
+    }
+
+    @Test
+    public void testFacetsGiveSameResultsWithMemo() throws Exception {
+        Project project = createCSVProject("number\n"
+                + "1\n"
+                + "2\n"
+                + "2\n"
+                + "abc\n");
+        String engineJson = "{\"mode\":\"row-based\",\"facets\":["
+                + "{\"type\":\"list\",\"name\":\"n\",\"columnName\":\"number\",\"expression\":\"value.toNumber()\","
+                + "\"omitBlank\":false,\"omitError\":false,\"selection\":[],\"selectBlank\":false,\"selectError\":false,\"invert\":false},"
+                + "{\"type\":\"range\",\"name\":\"n\",\"columnName\":\"number\",\"expression\":\"value.toNumber()\","
+                + "\"from\":1,\"to\":2,\"selectNumeric\":true,\"selectNonNumeric\":false,\"selectBlank\":true,\"selectError\":true}"
+                + "]}";
+
+        Engine plain = new Engine(project);
+        plain.initializeFromConfig(EngineConfig.reconstruct(engineJson));
+        plain.computeFacets();
+
+        Engine memoized = new Engine(project);
+        memoized.initializeFromConfig(EngineConfig.reconstruct(engineJson));
+        memoized.enableEvaluationMemo();
+        memoized.computeFacets();
+
+        TestUtils.assertEqualAsJson(
+                ParsingUtilities.mapper.writeValueAsString(plain),
+                ParsingUtilities.mapper.writeValueAsString(memoized));
+    }
+}
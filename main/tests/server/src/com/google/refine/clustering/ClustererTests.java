@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.clustering;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.refine.browsing.Engine;
+import com.google.refine.util.ParsingUtilities;
+import com.google.refine.util.TestUtils;
+
+public class ClustererTests {
+
+    /**
+     * A clusterer only providing its JSON representation, as extensions used to.
+     */
+    static class JsonClusterer extends Clusterer {
+
+        List<List<ClusteredEntry>> _clusters = new ArrayList<>();
+
+        @Override
+        public void computeClusters(Engine engine) {
+            _clusters.add(Arrays.asList(new ClusteredEntry("a", 3), new ClusteredEntry("A", 1), new ClusteredEntry("á", 1)));
+            _clusters.add(Arrays.asList(new ClusteredEntry("b", 2), new ClusteredEntry("B", 1)));
+            _clusters.add(Arrays.asList(new ClusteredEntry(1, 2), new ClusteredEntry(2.5, 1)));
+        }
+
+        @JsonValue
+        public List<List<ClusteredEntry>> getJsonRepresentation() {
+            return _clusters;
+        }
+    }
+
+    @Test
+    public void testSliceClusters() {
+        List<Integer> sorted = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            sorted.add(i);
+        }
+
+        for (int[] page : new int[][] { { 0, 10 }, { 10, 25 }, { 190, 10 }, { 195, 10 }, { 0, 0 }, { 50, -1 }, { 300, 5 },
+                { 10, Integer.MAX_VALUE } }) {
+            int from = Math.min(page[0], sorted.size());
+            int to = page[1] < 0 ? sorted.size() : (int) Math.min(sorted.size(), (long) from + page[1]);
+            assertEquals(Clusterer.sliceClusters(sorted, page[0], page[1]), sorted.subList(from, to));
+        }
+    }
+
+    @Test
+    public void testDefaultPaging() throws Exception {
+        Clusterer clusterer = new JsonClusterer();
+        clusterer.computeClusters(null);
+
+        assertEquals(clusterer.getClusterCount(), 3);
+        List<List<ClusteredEntry>> page = clusterer.getClusters(1, 1).collect(Collectors.toList());
+        TestUtils.isSerializedTo(page, "[[{\"v\":\"b\",\"c\":2},{\"v\":\"B\",\"c\":1}]]");
+        page = clusterer.getClusters(2, -1).collect(Collectors.toList());
+        TestUtils.isSerializedTo(page, "[[{\"v\":1,\"c\":2},{\"v\":2.5,\"c\":1}]]");
+
+        StringWriter writer = new StringWriter();
+        JsonGenerator generator = ParsingUtilities.mapper.getFactory().createGenerator(writer);
+        clusterer.writeClusters(generator, 0, -1);
+        generator.flush();
+        assertTrue(TestUtils.equalAsJson(ParsingUtilities.mapper.writeValueAsString(clusterer), writer.toString()));
+    }
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.clustering;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.EngineConfig;
+import com.google.refine.model.Project;
+import com.google.refine.operations.cell.MassEditOperation;
+import com.google.refine.operations.cell.MassEditOperation.Edit;
+import com.google.refine.util.ParsingUtilities;
+import com.google.refine.util.TestUtils;
+
+public class ClusteringCacheTests extends RefineTest {
+
+    String binningJson = "{\"type\":\"binning\",\"function\":\"fingerprint\",\"column\":\"values\",\"params\":{}}";
+    String knnJson = "{\"type\":\"knn\",\"function\":\"levenshtein\",\"column\":\"values\","
+            + "\"params\":{\"radius\":1,\"blocking-ngram-size\":2}}";
+    String engineJson = "{\"mode\":\"row-based\",\"facets\":[]}";
+    String facetedEngineJson = "{\"mode\":\"row-based\",\"facets\":[{\"type\":\"list\",\"name\":\"values\","
+            + "\"columnName\":\"values\",\"expression\":\"value\",\"omitBlank\":false,\"omitError\":false,"
+            + "\"selection\":[{\"v\":{\"v\":\"a\",\"l\":\"a\"}}],\"selectBlank\":false,"
+            + "\"selectError\":false,\"invert\":true}]}";
+
+    Project project;
+    ClusteringCache cache;
+
+    @BeforeMethod
+    public void setUp() {
+        project = createCSVProject("values\n"
+                + "a\n"
+                + "A\n"
+                + "b\n"
+                + "B \n"
+                + "b\n");
+        cache = new ClusteringCache(4, 4, 1000);
+    }
+
+    protected Clusterer compute(String clustererJson, String engineJson) throws Exception {
+        EngineConfig engineConfig = EngineConfig.reconstruct(engineJson);
+        Engine engine = new Engine(project);
+        engine.initializeFromConfig(engineConfig);
+        ClustererConfig config = ParsingUtilities.mapper.readValue(clustererJson, ClustererConfig.class);
+        return cache.computeClusters(project, engine, engineConfig, config);
+    }
+
+    @Test
+    public void testResultsAreReused() throws Exception {
+        Clusterer binning = compute(binningJson, engineJson);
+        Clusterer knn = compute(knnJson, engineJson);
+        assertSame(compute(binningJson, engineJson), binning);
+        assertSame(compute(knnJson, engineJson), knn);
+
+        Clusterer faceted = compute(binningJson, facetedEngineJson);
+        assertNotSame(faceted, binning);
+        TestUtils.isSerializedTo(faceted, "[[{\"v\":\"b\",\"c\":2},{\"v\":\"B \",\"c\":1}]]");
+    }
+
+    @Test
+    public void testKeysAreKeptAcrossChanges() throws Exception {
+        Clusterer before = compute(binningJson, engineJson);
+        Map<String, String> keys = cache._keyings.values().iterator().next();
+        assertEquals(keys.size(), 4);
+
+        Edit edit = new Edit(Collections.singletonList("A"), false, false, "a");
+        new MassEditOperation(EngineConfig.reconstruct(engineJson), "values", "value",
+                Collections.singletonList(edit)).createProcess(project, new Properties()).performImmediate();
+
+        Clusterer after = compute(binningJson, engineJson);
+        assertNotSame(after, before);
+        TestUtils.isSerializedTo(after, "[[{\"v\":\"b\",\"c\":2},{\"v\":\"B \",\"c\":1}]]");
+        assertSame(cache._keyings.values().iterator().next(), keys);
+        assertEquals(keys.size(), 4);
+    }
+
+    @Test
+    public void testKeyCacheIsBounded() throws Exception {
+        Clusterer expected = compute(binningJson, engineJson);
+        cache = new ClusteringCache(4, 4, 2);
+        Clusterer clusterer = compute(binningJson, engineJson);
+        assertNotSame(clusterer, expected);
+        TestUtils.isSerializedTo(clusterer, ParsingUtilities.mapper.writeValueAsString(expected));
+        Map<String, String> keys = cache._keyings.values().iterator().next();
+        assertEquals(keys.size(), 2);
+        assertEquals(keys.get("a"), "a");
+        assertEquals(keys.get("A"), "a");
+    }
+
+    @Test
+    public void testFlushProject() throws Exception {
+        compute(binningJson, engineJson);
+        cache.flushProject(project.id);
+        assertTrue(cache._results.isEmpty());
+        assertTrue(cache._keyings.isEmpty());
+    }
+}
@@ -30,13 +30,23 @@ package com.google.refine.clustering.binning;
 import static org.testng.Assert.assertEquals;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.testng.annotations.Test;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.google.refine.RefineTest;
 import com.google.refine.browsing.Engine;
+import com.google.refine.clustering.ClusteredEntry;
 import com.google.refine.clustering.binning.BinningClusterer.BinningClustererConfig;
 import com.google.refine.model.Project;
 import com.google.refine.util.ParsingUtilities;
@@ -97,4 +107,74 @@ public class BinningClustererTests extends RefineTest {
         clusterer.computeClusters(new Engine(project));
         assertEquals(clusterer.getJsonRepresentation().size(), 1);
     }
+
+    @Test
+    public void testManyDistinctValues() throws JsonParseException, JsonMappingException, IOException {
+        // enough distinct values to key them in parallel
+        int n = BinningClusterer.PARALLEL_KEYING_THRESHOLD;
+        StringBuilder sb = new StringBuilder("column\n");
+        for (int i = 0; i < n; i++) {
+            sb.append("value ").append(i).append("\n");
+            sb.append("Value ").append(i).append("\n");
+            sb.append("Value ").append(i).append("\n");
+        }
+        Project project = createCSVProject(sb.toString());
+        BinningClustererConfig config = ParsingUtilities.mapper.readValue(configJson, BinningClustererConfig.class);
+        BinningClusterer clusterer = config.apply(project);
+        clusterer.computeClusters(new Engine(project));
+
+        JsonNode clusters = ParsingUtilities.mapper.valueToTree(clusterer);
+        assertEquals(clusters.size(), n);
+        for (JsonNode cluster : clusters) {
+            assertEquals(cluster.size(), 2);
+            assertEquals(cluster.get(0).get("c").asInt(), 2);
+            assertEquals(cluster.get(1).get("c").asInt(), 1);
+            assertEquals(cluster.get(0).get("v").asText(), cluster.get(1).get("v").asText().replace('v', 'V'));
+        }
+    }
+
+    @Test
+    public void testKeyersAreNotSharedBetweenThreadsUnlessThreadSafe() {
+        Map<String,Integer> counts = new LinkedHashMap<>();
+        for (int i = 0; i <= BinningClusterer.PARALLEL_KEYING_THRESHOLD; i++) {
+            counts.put("value " + i, 1);
+        }
+        Set<Thread> threads = Collections.synchronizedSet(new HashSet<>());
+        Keyer keyer = new Keyer() {
+
+            @Override
+            public String key(String string, Object... params) {
+                threads.add(Thread.currentThread());
+                return string;
+            }
+        };
+
+        Map<String,Map<String,Integer>> groups = BinningClusterer.groupByKey(counts, keyer, null);
+        assertEquals(groups.size(), counts.size());
+        assertEquals(threads, Collections.singleton(Thread.currentThread()));
+    }
+
+    @Test
+    public void testPaging() throws JsonParseException, JsonMappingException, IOException {
+        StringBuilder sb = new StringBuilder("column\n");
+        for (int i = 0; i < 50; i++) {
+            for (int j = 0; j <= i % 7; j++) {
+                sb.append("value ").append(i).append(" ").append(j).append("\n");
+                sb.append("Value ").append(i).append(" ").append(j).append("\n");
+            }
+        }
+        Project project = createCSVProject(sb.toString());
+        BinningClustererConfig config = ParsingUtilities.mapper.readValue(configJson, BinningClustererConfig.class);
+        BinningClusterer clusterer = config.apply(project);
+        clusterer.computeClusters(new Engine(project));
+
+        List<List<ClusteredEntry>> all = clusterer.getJsonRepresentation();
+        assertEquals(clusterer.getClusterCount(), all.size());
+        List<List<ClusteredEntry>> pages = new ArrayList<>();
+        for (int start = 0; start < all.size(); start += 12) {
+            pages.addAll(clusterer.getClusters(start, 12).collect(Collectors.toList()));
+        }
+        assertEquals((JsonNode) ParsingUtilities.mapper.valueToTree(pages), ParsingUtilities.mapper.valueToTree(all));
+        assertEquals(clusterer.getClusters(all.size(), 12).count(), 0);
+    }
 }
@@ -31,6 +31,8 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.clustering.binning;
 
+import java.util.Random;
+
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
 import org.testng.annotations.AfterMethod;
@@ -175,4 +177,108 @@ public class KeyerTests extends RefineTest {
         }
     }
 
+    @Test
+    public void testMemoizingKeyer() {
+        int[] calls = new int[1];
+        Keyer counting = new Keyer() {
+
+            @Override
+            public String key(String string, Object... params) {
+                calls[0]++;
+                return string.toLowerCase() + (params == null || params.length == 0 ? "" : params[0]);
+            }
+        };
+        Keyer memoized = new MemoizingKeyer(counting, 2);
+        Assert.assertEquals(memoized.key("A"), "a");
+        Assert.assertEquals(memoized.key("A"), "a");
+        Assert.assertEquals(calls[0], 1);
+        Assert.assertEquals(memoized.key("A", 2), "a2");
+        Assert.assertEquals(memoized.key("A", 2), "a2");
+        Assert.assertEquals(calls[0], 2);
+        // the cache is full, so it gets cleared
+        Assert.assertEquals(memoized.key("B"), "b");
+        Assert.assertEquals(memoized.key("A"), "a");
+        Assert.assertEquals(calls[0], 4);
+    }
+
+    @Test
+    public void testPhoneticKeyersAreMemoized() {
+        Keyer metaphone3 = KeyerFactory.get("metaphone3");
+        Assert.assertTrue(metaphone3 instanceof MemoizingKeyer);
+        Assert.assertSame(KeyerFactory.memoize(metaphone3), metaphone3);
+        Keyer reference = new Metaphone3Keyer();
+        for (String name : new String[] { "Schmidt", "Smith", "Jean-Pierre", "O'Brien", "" }) {
+            Assert.assertEquals(metaphone3.key(name), reference.key(name));
+            Assert.assertEquals(metaphone3.key(name), reference.key(name));
+        }
+    }
+
+    /**
+     * Compares the keys of the single-pass scanner with the ones of the regular
+     * normalization, which subclasses of the keyers always go through.
+     */
+    @Test
+    public void testThreadSafety() {
+        Assert.assertTrue(new FingerprintKeyer().isThreadSafe());
+        Assert.assertTrue(new NGramFingerprintKeyer().isThreadSafe());
+        Assert.assertTrue(KeyerFactory.get("metaphone3").isThreadSafe());
+        // subclasses may override the normalization and have to opt in
+        Assert.assertFalse(new FingerprintKeyer() {
+        }.isThreadSafe());
+        Assert.assertFalse(new MemoizingKeyer(new Keyer() {
+
+            @Override
+            public String key(String string, Object... params) {
+                return string;
+            }
+        }, 10).isThreadSafe());
+    }
+
+    @Test
+    public void testScannerMatchesNormalization() {
+        Assert.assertEquals(FingerprintScanner.fingerprint(" b a, "), "a b");
+        Assert.assertEquals(FingerprintScanner.ngramFingerprint("abab", 2), "abba");
+        Assert.assertNull(FingerprintScanner.fingerprint("\u00E9"));
+
+        Keyer fingerprint = new FingerprintKeyer();
+        Keyer referenceFingerprint = new FingerprintKeyer() {
+        };
+        Keyer ngram = new NGramFingerprintKeyer();
+        Keyer referenceNgram = new NGramFingerprintKeyer() {
+        };
+        String[] fixed = { "", " ", "\t \n", "-", "- a", "a -", " ,b a, ", "^a`b", "I i\u0000J", "a  a b", "\u00A0x",
+                "Z\u007F\u001Fz", "$+<=>|~ $" };
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            String s = i < fixed.length ? fixed[i] : randomString(random, i % 10 == 0);
+            Assert.assertEquals(fingerprint.key(s), referenceFingerprint.key(s),
+                    "Fingerprint for string: " + s + " differs");
+            for (int size = 0; size <= FingerprintScanner.MAX_PACKED_NGRAM_SIZE + 1; size++) {
+                Assert.assertEquals(ngram.key(s, size), referenceNgram.key(s, size),
+                        "N-gram fingerprint of size " + size + " for string: " + s + " differs");
+            }
+        }
+    }
+
+    private static String randomString(Random random, boolean withNonAscii) {
+        int length = random.nextInt(12);
+        if (random.nextInt(20) == 0) {
+            // enough tokens to sort them as strings
+            length = 200;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            int kind = random.nextInt(10);
+            if (kind < 2) {
+                sb.append(' ');
+            } else if (kind < 4) {
+                sb.append((char) ('a' + random.nextInt(4)));
+            } else if (kind == 9 && withNonAscii) {
+                sb.append((char) (0x80 + random.nextInt(0x200)));
+            } else {
+                sb.append((char) random.nextInt(128));
+            }
+        }
+        return sb.toString();
+    }
 }
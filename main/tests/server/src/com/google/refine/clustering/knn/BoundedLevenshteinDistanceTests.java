@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.clustering.knn;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import edu.mit.simile.vicino.distances.LevenshteinDistance;
+
+public class BoundedLevenshteinDistanceTests {
+
+    BoundedLevenshteinDistance distance = new BoundedLevenshteinDistance();
+
+    @Test
+    public void testDistance() {
+        assertEquals(distance.compute("", ""), 0.0);
+        assertEquals(distance.compute("", "abc"), 3.0);
+        assertEquals(distance.compute("kitten", "sitting"), 3.0);
+        assertEquals(distance.compute("Kitten", "kITTEN"), 0.0);
+        assertTrue(distance.isWithin("kitten", "sitting", 3.5));
+        assertFalse(distance.isWithin("kitten", "sitting", 2.99));
+        assertTrue(distance.isWithin("kitten", "sitting", -1));
+        assertFalse(distance.isWithin("kitten", "sitting", Double.NaN));
+    }
+
+    @Test
+    public void testMatchesVicino() {
+        LevenshteinDistance reference = new LevenshteinDistance();
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            String a = randomString(random);
+            String b = random.nextBoolean() ? randomString(random) : mutate(random, a);
+            double expected = reference.d(a, b);
+            assertEquals(distance.compute(a, b), expected, a + " / " + b);
+            for (int radius = 0; radius <= 4; radius++) {
+                assertEquals(distance.isWithin(a, b, radius), expected <= radius,
+                        a + " / " + b + " within " + radius);
+            }
+        }
+    }
+
+    private static String randomString(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int length = random.nextInt(10);
+        for (int i = 0; i < length; i++) {
+            sb.append("abcABC é".charAt(random.nextInt(8)));
+        }
+        return sb.toString();
+    }
+
+    private static String mutate(Random random, String s) {
+        StringBuilder sb = new StringBuilder(s);
+        int edits = random.nextInt(4);
+        for (int i = 0; i < edits; i++) {
+            int position = sb.length() == 0 ? 0 : random.nextInt(sb.length());
+            switch (random.nextInt(3)) {
+            case 0:
+                sb.insert(position, 'x');
+                break;
+            case 1:
+                if (sb.length() > 0) {
+                    sb.deleteCharAt(position);
+                }
+                break;
+            default:
+                if (sb.length() > 0) {
+                    sb.setCharAt(position, 'y');
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
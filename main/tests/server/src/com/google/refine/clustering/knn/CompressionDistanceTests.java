@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.clustering.knn;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.testng.annotations.Test;
+
+import com.colloquial.arithcode.ppm.ArithCodeInputStream;
+import com.colloquial.arithcode.ppm.ArithCodeModel;
+import com.colloquial.arithcode.ppm.ArithCodeOutputStream;
+import com.colloquial.arithcode.ppm.PPMModel;
+
+import edu.mit.simile.vicino.distances.Distance;
+
+public class CompressionDistanceTests {
+
+    List<String> values = Arrays.asList("", "a", "Boston", "boston", "Boston, MA",
+            "Massachusetts Institute of Technology", "Massachusets Institute of Technology",
+            "Zürich", "東京", "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa");
+
+    @Test
+    public void testPPMMatchesVicino() {
+        assertSameDistances(new PPMDistance(), new edu.mit.simile.vicino.distances.PPMDistance(), values);
+    }
+
+    @Test
+    public void testGZipMatchesVicino() {
+        assertSameDistances(new GZipDistance(), new edu.mit.simile.vicino.distances.GZipDistance(), values);
+    }
+
+    @Test
+    public void testBZip2MatchesVicino() {
+        // the bzip2 compressor fails on empty input
+        assertSameDistances(new BZip2Distance(), new edu.mit.simile.vicino.distances.BZip2Distance(),
+                values.subList(1, values.size()));
+    }
+
+    @Test
+    public void testConcurrentUse() {
+        PPMDistance distance = new PPMDistance();
+        double expected = distance.compute("Boston", "boston");
+        assertTrue(IntStream.range(0, 1000).parallel()
+                .allMatch(i -> distance.compute("Boston", "boston") == expected));
+    }
+
+    @Test
+    public void testResettablePPMModelMatchesArithcode() throws IOException {
+        // the model is reset in place, not recreated
+        assertTrue(ResettablePPMModel.RESETTABLE);
+        ResettablePPMModel model = new ResettablePPMModel(PPMDistance.MAX_CONTEXT_LENGTH);
+        Random random = new Random(42);
+        // long and repetitive inputs wrap the context window and rescale the counts
+        for (int length : new int[] { 0, 1, 10, 300, 1000, 20000 }) {
+            for (int alphabet : new int[] { 1, 4, 256 }) {
+                byte[] bytes = new byte[length];
+                for (int i = 0; i < length; i++) {
+                    bytes[i] = (byte) random.nextInt(alphabet);
+                }
+                byte[] expected = encode(new PPMModel(PPMDistance.MAX_CONTEXT_LENGTH), bytes);
+                model.reset();
+                assertEquals(encode(model, bytes), expected);
+
+                model.reset();
+                byte[] decoded = new byte[length];
+                try (InputStream in = new ArithCodeInputStream(new ByteArrayInputStream(expected), model)) {
+                    for (int i = 0; i < length; i++) {
+                        decoded[i] = (byte) in.read();
+                    }
+                    assertEquals(in.read(), -1);
+                }
+                assertEquals(decoded, bytes);
+            }
+        }
+    }
+
+    @Test
+    public void testIsWithin() {
+        GZipDistance distance = new GZipDistance();
+        double d = distance.compute("Boston", "Boston, MA");
+        assertTrue(distance.isWithin("Boston", "Boston, MA", d));
+        assertFalse(distance.isWithin("Boston", "Boston, MA", d - 0.01));
+        assertTrue(distance.isWithin("Boston", "Boston, MA", -1));
+    }
+
+    protected void assertSameDistances(CompressionDistance distance, Distance reference, List<String> values) {
+        for (String a : values) {
+            for (String b : values) {
+                assertEquals(distance.compute(a, b), reference.d(a, b), 1e-9, a + " / " + b);
+            }
+        }
+    }
+
+    protected byte[] encode(ArithCodeModel model, byte[] bytes) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        try (OutputStream out = new ArithCodeOutputStream(encoded, model)) {
+            out.write(bytes);
+        }
+        return encoded.toByteArray();
+    }
+}
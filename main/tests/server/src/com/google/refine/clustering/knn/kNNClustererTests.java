@@ -27,9 +27,15 @@
 
 package com.google.refine.clustering.knn;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
 import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import org.testng.annotations.Test;
 
@@ -37,12 +43,18 @@ import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.google.refine.RefineTest;
 import com.google.refine.browsing.Engine;
+import com.google.refine.clustering.ClusteredEntry;
 import com.google.refine.clustering.knn.kNNClusterer;
 import com.google.refine.clustering.knn.kNNClusterer.kNNClustererConfig;
 import com.google.refine.model.Project;
 import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.TestUtils;
 
+import edu.mit.simile.vicino.clustering.NGramClusterer;
+import edu.mit.simile.vicino.distances.Distance;
+import edu.mit.simile.vicino.distances.LevenshteinDistance;
+import edu.mit.simile.vicino.distances.PPMDistance;
+
 public class kNNClustererTests extends RefineTest {
 
     public static String configJson = "{"
@@ -87,4 +99,131 @@ public class kNNClustererTests extends RefineTest {
 
         assertTrue(clusterer.getJsonRepresentation().isEmpty());
     }
+
+    @Test
+    public void testMatchesVicinoClusterer() throws IOException {
+        Random random = new Random(17);
+        String[] stems = { "Boston", "Cambridge", "Oxford", "Paris", "London" };
+        StringBuilder sb = new StringBuilder("column\n");
+        String[] values = new String[400];
+        for (int i = 0; i < values.length; i++) {
+            StringBuilder value = new StringBuilder(stems[random.nextInt(stems.length)]);
+            for (int e = random.nextInt(3); e > 0; e--) {
+                int position = random.nextInt(value.length());
+                if (random.nextBoolean()) {
+                    value.setCharAt(position, (char) ('a' + random.nextInt(3)));
+                } else {
+                    value.deleteCharAt(position);
+                }
+            }
+            values[i] = value.toString();
+            sb.append(values[i]).append('\n');
+        }
+        Project project = createCSVProject(sb.toString());
+
+        assertSameClusters(project, values, "levenshtein", new LevenshteinDistance(), 1, 2);
+        assertSameClusters(project, values, "levenshtein", new LevenshteinDistance(), 2, 3);
+        assertSameClusters(project, values, "ppm", new PPMDistance(), 3, 2);
+    }
+
+    @Test
+    public void testChainedValues() throws IOException {
+        // aaaa ~ aaab ~ aabb, but aaaa and aabb are two edits apart. The two links
+        // are found in different blocks, so the chain only forms a single cluster
+        // when both blocks are compared by the same thread.
+        String[] values = { "aaaa", "aaab", "aabb", "xyz" };
+        Project project = createCSVProject("column\n" + String.join("\n", values) + "\n");
+
+        assertSameClusters(project, values, "levenshtein", new LevenshteinDistance(), 1, 3);
+    }
+
+    @Test
+    public void serializeMinHashConfig() throws IOException {
+        String json = "{\"type\":\"knn\",\"function\":\"levenshtein\",\"column\":\"values\","
+                + "\"params\":{\"radius\":1,\"blocking-ngram-size\":2,\"blocking\":\"minhash\","
+                + "\"minhash-bands\":10,\"minhash-rows\":3}}";
+        kNNClustererConfig config = ParsingUtilities.mapper.readValue(json, kNNClustererConfig.class);
+        TestUtils.isSerializedTo(config, json);
+    }
+
+    @Test
+    public void testMinHashBlocking() throws IOException {
+        Project project = createCSVProject("column\n"
+                + "Boston\n"
+                + "boston\n"
+                + "Paris\n"
+                + "Paris\n");
+        String json = "{\"type\":\"knn\",\"function\":\"levenshtein\",\"column\":\"column\","
+                + "\"params\":{\"radius\":1,\"blocking-ngram-size\":2,\"blocking\":\"minhash\"}}";
+        kNNClustererConfig config = ParsingUtilities.mapper.readValue(json, kNNClustererConfig.class);
+        kNNClusterer clusterer = config.apply(project);
+        clusterer.computeClusters(new Engine(project));
+        // values with the same n-grams always share all bands
+        TestUtils.isSerializedTo(clusterer, "[[{\"v\":\"Boston\",\"c\":1},{\"v\":\"boston\",\"c\":1}]]");
+    }
+
+    @Test
+    public void testMinHashClustersAreNgramClusterSubsets() throws IOException {
+        Random random = new Random(5);
+        StringBuilder sb = new StringBuilder("column\n");
+        for (int i = 0; i < 300; i++) {
+            StringBuilder value = new StringBuilder("Massachusetts Institute");
+            for (int e = random.nextInt(3); e > 0; e--) {
+                value.setCharAt(random.nextInt(value.length()), (char) ('a' + random.nextInt(26)));
+            }
+            sb.append(value).append('\n');
+        }
+        Project project = createCSVProject(sb.toString());
+        String json = "{\"type\":\"knn\",\"function\":\"levenshtein\",\"column\":\"column\","
+                + "\"params\":{\"radius\":1,\"blocking-ngram-size\":3%s}}";
+
+        kNNClusterer ngram = ParsingUtilities.mapper.readValue(String.format(json, ""), kNNClustererConfig.class)
+                .apply(project);
+        ngram.computeClusters(new Engine(project));
+        kNNClusterer minHash = ParsingUtilities.mapper
+                .readValue(String.format(json, ",\"blocking\":\"minhash\""), kNNClustererConfig.class)
+                .apply(project);
+        minHash.computeClusters(new Engine(project));
+
+        // pairs sharing a band have the same minimal n-gram hash, so they also share an n-gram
+        assertTrue(minHash._clusters.size() > 0);
+        for (Set<Serializable> cluster : minHash._clusters) {
+            assertTrue(ngram._clusters.stream().anyMatch(c -> c.containsAll(cluster)));
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnknownBlocking() throws IOException {
+        Project project = createCSVProject("column\na\n");
+        String json = "{\"type\":\"knn\",\"function\":\"levenshtein\",\"column\":\"column\","
+                + "\"params\":{\"radius\":1,\"blocking-ngram-size\":2,\"blocking\":\"unknown\"}}";
+        kNNClustererConfig config = ParsingUtilities.mapper.readValue(json, kNNClustererConfig.class);
+        config.apply(project).computeClusters(new Engine(project));
+    }
+
+    /**
+     * Compares the clusters with the ones of Vicino's NGramClusterer, which was
+     * used before, with the same tokenizer and distance.
+     */
+    private void assertSameClusters(Project project, String[] values, String function, Distance reference,
+            double radius, int ngramSize) throws IOException {
+        NGramClusterer vicino = new NGramClusterer(reference, ngramSize);
+        for (String value : values) {
+            vicino.populate(value);
+        }
+        List<Set<Serializable>> expectedClusters = vicino.getClusters(radius);
+
+        String json = "{\"type\":\"knn\",\"function\":\"" + function + "\",\"column\":\"column\","
+                + "\"params\":{\"radius\":" + radius + ",\"blocking-ngram-size\":" + ngramSize + "}}";
+        kNNClustererConfig config = ParsingUtilities.mapper.readValue(json, kNNClustererConfig.class);
+        kNNClusterer clusterer = config.apply(project);
+        clusterer.computeClusters(new Engine(project));
+
+        assertEquals(new HashSet<>(clusterer._clusters), new HashSet<>(expectedClusters));
+        assertEquals(clusterer._clusters.size(), expectedClusters.size());
+        List<List<ClusteredEntry>> listed = clusterer.getJsonRepresentation();
+        for (int i = 1; i < listed.size(); i++) {
+            assertTrue(listed.get(i - 1).size() >= listed.get(i).size());
+        }
+    }
 }
@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.commands.browsing;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.refine.ProjectManager;
+import com.google.refine.RefineTest;
+import com.google.refine.model.Project;
+import com.google.refine.util.ParsingUtilities;
+
+public class ComputeFacetsCommandTests extends RefineTest {
+
+    static final String ENGINE_JSON = "{\"mode\":\"row-based\",\"facets\":[{\"type\":\"list\",\"name\":\"values\","
+            + "\"columnName\":\"values\",\"expression\":\"value\",\"omitBlank\":false,\"omitError\":false,"
+            + "\"selection\":[],\"selectBlank\":false,\"selectError\":false,\"invert\":false}]}";
+
+    Project project = null;
+    int drainedPermits = 0;
+
+    @BeforeMethod
+    public void setUp() {
+        project = createCSVProject("values\na\nb\nb\n");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        ComputeFacetsCommand.s_permits.release(drainedPermits);
+        drainedPermits = 0;
+        ProjectManager.singleton.getPreferenceStore().put("ui.browsing.facets.timeout", null);
+    }
+
+    protected HttpServletRequest mockRequest(String clientId, String timeout) {
+        return mockRequest(clientId, timeout, ENGINE_JSON);
+    }
+
+    protected HttpServletRequest mockRequest(String clientId, String timeout, String engineJson) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getParameter("project")).thenReturn(String.valueOf(project.id));
+        when(request.getParameter("engine")).thenReturn(engineJson);
+        when(request.getParameter("clientId")).thenReturn(clientId);
+        when(request.getParameter("timeout")).thenReturn(timeout);
+        return request;
+    }
+
+    protected JsonNode computeFacets(HttpServletRequest request) throws Exception {
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        StringWriter writer = new StringWriter();
+        when(response.getWriter()).thenReturn(new PrintWriter(writer));
+        new ComputeFacetsCommand().doPost(request, response);
+        return ParsingUtilities.mapper.readTree(writer.toString());
+    }
+
+    protected void exhaustPermits() {
+        drainedPermits += ComputeFacetsCommand.s_permits.drainPermits();
+    }
+
+    @Test
+    public void testComputeFacets() throws Exception {
+        JsonNode engine = computeFacets(mockRequest("client", null));
+        assertFalse(engine.path("truncated").asBoolean());
+        assertEquals(engine.get("facets").get(0).get("choices").size(), 2);
+        assertTrue(ComputeFacetsCommand.s_pending.isEmpty());
+    }
+
+    @Test
+    public void testSampledComputeFacets() throws Exception {
+        StringBuilder sb = new StringBuilder("values\n");
+        for (int i = 0; i < 1000; i++) {
+            sb.append(i % 2 == 0 ? "a\n" : "b\n");
+        }
+        project = createCSVProject(sb.toString());
+        String engineJson = ENGINE_JSON.replace("\"mode\":\"row-based\"", "\"mode\":\"row-based\",\"sampleSize\":100");
+
+        JsonNode engine = computeFacets(mockRequest("client", null, engineJson));
+
+        assertTrue(engine.path("sampled").asBoolean());
+        JsonNode facet = engine.get("facets").get(0);
+        assertTrue(facet.path("sampled").asBoolean());
+        JsonNode choices = facet.get("choices");
+        assertEquals(choices.size(), 2);
+        for (JsonNode choice : choices) {
+            // each count is an estimate of 500, within its error bound
+            int count = choice.get("c").asInt();
+            int errorBound = choice.get("e").asInt();
+            assertTrue(errorBound > 0);
+            assertTrue(Math.abs(count - 500) <= errorBound, count + " ± " + errorBound);
+        }
+    }
+
+    @Test
+    public void testSampleSizeAboveRowCount() throws Exception {
+        String engineJson = ENGINE_JSON.replace("\"mode\":\"row-based\"", "\"mode\":\"row-based\",\"sampleSize\":100");
+
+        JsonNode engine = computeFacets(mockRequest("client", null, engineJson));
+
+        // all rows fit in the sample, so the counts are exact
+        assertFalse(engine.path("sampled").asBoolean());
+        JsonNode facet = engine.get("facets").get(0);
+        assertFalse(facet.path("sampled").asBoolean());
+        for (JsonNode choice : facet.get("choices")) {
+            assertTrue(choice.path("e").isMissingNode());
+        }
+    }
+
+    @Test
+    public void testBlockedUntilDeadline() throws Exception {
+        exhaustPermits();
+        long start = System.currentTimeMillis();
+        JsonNode engine = computeFacets(mockRequest(null, "300"));
+
+        assertTrue(System.currentTimeMillis() - start >= 300);
+        // cancelled before getting a permit, so no facet was computed
+        assertTrue(engine.path("truncated").asBoolean());
+        assertEquals(engine.get("facets").get(0).get("choices").size(), 0);
+    }
+
+    @Test
+    public void testSupersededRequestIsCancelled() throws Exception {
+        exhaustPermits();
+        JsonNode[] first = new JsonNode[1];
+        Thread thread = new Thread(() -> {
+            try {
+                first[0] = computeFacets(mockRequest("client", null));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.start();
+        while (!ComputeFacetsCommand.s_pending.containsKey("client;" + project.id)) {
+            Thread.sleep(10);
+        }
+
+        // the first request has no deadline and only stops because this one supersedes it
+        JsonNode second = computeFacets(mockRequest("client", "200"));
+        thread.join(5000);
+
+        assertFalse(thread.isAlive());
+        assertTrue(first[0].path("truncated").asBoolean());
+        assertTrue(second.path("truncated").asBoolean());
+        assertTrue(ComputeFacetsCommand.s_pending.isEmpty());
+    }
+
+    @Test
+    public void testOtherClientsAreNotCancelled() throws Exception {
+        exhaustPermits();
+        Thread thread = new Thread(() -> {
+            try {
+                computeFacets(mockRequest("client", null));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.start();
+        while (!ComputeFacetsCommand.s_pending.containsKey("client;" + project.id)) {
+            Thread.sleep(10);
+        }
+
+        computeFacets(mockRequest("other client", "100"));
+        assertTrue(thread.isAlive());
+
+        // once a permit is available, the first request completes
+        ComputeFacetsCommand.s_permits.release();
+        drainedPermits--;
+        thread.join(5000);
+        assertFalse(thread.isAlive());
+        assertTrue(ComputeFacetsCommand.s_pending.isEmpty());
+    }
+
+    @Test
+    public void testGetTimeout() {
+        assertEquals(ComputeFacetsCommand.getTimeout(mockRequest(null, null)), 0);
+        assertEquals(ComputeFacetsCommand.getTimeout(mockRequest(null, "1500")), 1500);
+        assertEquals(ComputeFacetsCommand.getTimeout(mockRequest(null, "soon")), 0);
+
+        ProjectManager.singleton.getPreferenceStore().put("ui.browsing.facets.timeout", 2000);
+        assertEquals(ComputeFacetsCommand.getTimeout(mockRequest(null, null)), 2000);
+        // the parameter takes precedence over the preference
+        assertEquals(ComputeFacetsCommand.getTimeout(mockRequest(null, "1500")), 1500);
+    }
+}
@@ -69,4 +69,26 @@ public class ExpressionUtilsTests extends RefineTest {
         Assert.assertFalse(ExpressionUtils.sameValue(1, 1.0));
         Assert.assertFalse(ExpressionUtils.sameValue(true, false));
     }
+
+    @Test
+    public void testDependsOnlyOnCell() {
+        Assert.assertTrue(ExpressionUtils.dependsOnlyOnCell("value"));
+        Assert.assertTrue(ExpressionUtils.dependsOnlyOnCell("grel:value.toLowercase()"));
+        Assert.assertTrue(ExpressionUtils.dependsOnlyOnCell("cell.recon.judgment"));
+        Assert.assertTrue(ExpressionUtils.dependsOnlyOnCell("forEach(value.split(','), v, v.trim()).join('|')"));
+        Assert.assertTrue(ExpressionUtils.dependsOnlyOnCell("if(isBlank(value), '(blank)', length(value))"));
+    }
+
+    @Test
+    public void testDependsOnOtherCells() {
+        Assert.assertFalse(ExpressionUtils.dependsOnlyOnCell("cells['B'].value"));
+        Assert.assertFalse(ExpressionUtils.dependsOnlyOnCell("row.cells.B.value"));
+        Assert.assertFalse(ExpressionUtils.dependsOnlyOnCell("row.record.cells"));
+        Assert.assertFalse(ExpressionUtils.dependsOnlyOnCell("rowIndex % 2"));
+        Assert.assertFalse(ExpressionUtils.dependsOnlyOnCell("value + cells.B.value"));
+        Assert.assertFalse(ExpressionUtils.dependsOnlyOnCell("facetCount(value, 'value', 'A')"));
+        Assert.assertFalse(ExpressionUtils.dependsOnlyOnCell("with(cells, c, c.B.value)"));
+        Assert.assertFalse(ExpressionUtils.dependsOnlyOnCell("forEach(value.split(','), v, w)"));
+        Assert.assertFalse(ExpressionUtils.dependsOnlyOnCell("value.("));
+    }
 }
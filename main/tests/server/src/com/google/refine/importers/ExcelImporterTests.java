@@ -48,6 +48,7 @@ import java.time.Month;
 import java.time.OffsetDateTime;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.Cell;
@@ -343,6 +344,65 @@ public class ExcelImporterTests extends ImporterTest {
         verify(options, times(SHEETS)).get("storeBlankCellsAsNulls");
     }
 
+    @Test
+    public void readXlsxLikeLoadedWorkbook() throws Exception {
+        XSSFWorkbook wb = new XSSFWorkbook();
+        CellStyle dateStyle = wb.createCellStyle();
+        dateStyle.setDataFormat(wb.createDataFormat().getFormat("yyyy-MM-dd"));
+        Sheet sheet = wb.createSheet("Sparse");
+        // rows and cells left out of the sheet
+        Row row = sheet.createRow(2);
+        row.createCell(1).setCellValue("text");
+        row.createCell(3).setCellValue(42.5);
+        row.createCell(4).setCellValue(new Date());
+        row.getCell(4).setCellStyle(dateStyle);
+        row.createCell(6).setCellFormula("B3&\"!\"");
+        row = sheet.createRow(5);
+        row.createCell(0).setCellValue(true);
+        row.createCell(2).setCellFormula("D3*2");
+        row.createCell(3).setCellFormula("1/0");
+        row.createCell(4).setBlank();
+        row.createCell(5).setCellValue("");
+        sheet.createRow(7);
+        wb.createSheet("Empty");
+        wb.getCreationHelper().createFormulaEvaluator().evaluateAll();
+
+        File file = File.createTempFile("openrefine-importer-test", ".xlsx");
+        file.deleteOnExit();
+        try (OutputStream outputStream = new FileOutputStream(file)) {
+            wb.write(outputStream);
+        }
+        wb.close();
+
+        try (XSSFWorkbook loaded = new XSSFWorkbook(file);
+                XlsxWorkbookReader reader = XlsxWorkbookReader.open(file)) {
+            Assert.assertEquals(reader.getSheetCount(), 2);
+            for (int s = 0; s < reader.getSheetCount(); s++) {
+                Sheet loadedSheet = loaded.getSheetAt(s);
+                Assert.assertEquals(reader.getSheetName(s), loadedSheet.getSheetName());
+                Assert.assertEquals(reader.getRowCount(s), loadedSheet.getLastRowNum() - loadedSheet.getFirstRowNum() + 1);
+
+                try (XlsxWorkbookReader.SheetReader sheetReader = reader.getSheetReader(s)) {
+                    for (int r = 0; r <= loadedSheet.getLastRowNum(); r++) {
+                        Row loadedRow = loadedSheet.getRow(r);
+                        int cellCount = loadedRow == null ? 0 : Math.max(0, loadedRow.getLastCellNum());
+                        List<Object> cells = sheetReader.getNextRowOfCells();
+                        Assert.assertEquals(cells.size(), cellCount, "row " + r);
+                        for (int c = 0; c < cellCount; c++) {
+                            Cell loadedCell = loadedRow.getCell(c);
+                            com.google.refine.model.Cell expected = loadedCell == null ? null : ExcelImporter.extractCell(loadedCell);
+                            com.google.refine.model.Cell actual = (com.google.refine.model.Cell) cells.get(c);
+                            Assert.assertEquals(actual == null ? null : actual.value, expected == null ? null : expected.value,
+                                    "row " + r + ", column " + c);
+                            Assert.assertEquals(actual == null, expected == null);
+                        }
+                    }
+                    Assert.assertNull(sheetReader.getNextRowOfCells());
+                }
+            }
+        }
+    }
+
     private static File createSpreadsheet(boolean xml) {
 
         final Workbook wb = xml ? new XSSFWorkbook() : new HSSFWorkbook();
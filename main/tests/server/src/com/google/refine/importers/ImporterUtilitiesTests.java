@@ -38,6 +38,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
@@ -68,6 +69,52 @@ public class ImporterUtilitiesTests extends RefineTest {
         Assert.assertEquals(response, END_QUOTES_SHOULD_BE_RETAINED);
     }
 
+    @Test
+    public void parseCellValueLikeJdk() {
+        String[] values = {
+                "0", "-0", "+12", " 42 ", "-9223372036854775808", "9223372036854775807",
+                "9223372036854775808", "-9223372036854775809", "123456789012345678901234567890",
+                "1.5", "-.5", "5.", ".", "-", "+", "1e10", "1E-3", "2.5e+3", "1e", "e5", "1e999",
+                "1d", "2.5F", "1d5", "0x10", "0x1p3", "-0x1.8p1", "NaN", "Infinity", "-Infinity",
+                "12abc", "abc", "1,000", "1_000", "\u0663\u0664", "12\u0663", "\u0663a", "\u00e9t\u00e9",
+                "", "   ", "\t7\n", "1 2", "--1", "+-1", "1.2.3", "0.1e-5d"
+        };
+        for (String value : values) {
+            Assert.assertEquals(ImporterUtilities.parseCellValue(value), parseWithExceptions(value), value);
+        }
+    }
+
+    @Test
+    public void parseCellValueKeepsText() {
+        String text = " not a number ";
+        Assert.assertSame(ImporterUtilities.parseCellValue(text), text);
+        Assert.assertEquals(ImporterUtilities.parseCellValue("-17"), -17L);
+        Assert.assertEquals(ImporterUtilities.parseCellValue("0.25"), 0.25);
+    }
+
+    /**
+     * The former implementation of {@link ImporterUtilities#parseCellValue(String)}.
+     */
+    protected Serializable parseWithExceptions(String text) {
+        if (text.length() > 0) {
+            String text2 = text.trim();
+            if (text2.length() > 0) {
+                try {
+                    return Long.parseLong(text2);
+                } catch (NumberFormatException e) {
+                }
+                try {
+                    double d = Double.parseDouble(text2);
+                    if (!Double.isInfinite(d) && !Double.isNaN(d)) {
+                        return d;
+                    }
+                } catch (NumberFormatException e) {
+                }
+            }
+        }
+        return text;
+    }
+
     @Test
     public void getIntegerOption() {
         Properties options = mock(Properties.class);
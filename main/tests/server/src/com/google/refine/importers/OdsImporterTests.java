@@ -40,11 +40,16 @@ import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
@@ -54,6 +59,7 @@ import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.google.refine.model.Cell;
 import com.google.refine.model.Row;
 import com.google.refine.util.ParsingUtilities;
 
@@ -108,7 +114,8 @@ public class OdsImporterTests extends ImporterTest {
             Assert.fail(e.getMessage());
         }
 
-        assertEquals(project.rows.size(), ROWS);
+        // the sheet has four data rows, and no blank row is added after them
+        assertEquals(project.rows.size(), ROWS - 1);
         Row row = project.rows.get(0);
         assertEquals(row.cells.size(), COLUMNS);
         assertEquals((String) row.getCellValue(1), "2 Days In New York");
@@ -156,4 +163,84 @@ public class OdsImporterTests extends ImporterTest {
             Assert.fail(e.getMessage());
         }
     }
+
+    @Test
+    public void readRepeatedRowsAndCells() throws IOException {
+        ArrayNode sheets = ParsingUtilities.mapper.createArrayNode();
+        sheets.add(ParsingUtilities.mapper
+                .readTree("{name: \"file-source#First\", fileNameAndSheetIndex: \"file-source#0\", rows: 5, selected: true}"));
+        whenGetArrayOption("sheets", options, sheets);
+
+        whenGetIntegerOption("ignoreLines", options, 0);
+        whenGetIntegerOption("headerLines", options, 0);
+        whenGetIntegerOption("skipDataLines", options, 0);
+        whenGetIntegerOption("limit", options, -1);
+        whenGetBooleanOption("storeBlankCellsAsNulls", options, true);
+
+        parseOneFile(SUT, new ByteArrayInputStream(createRepeatedCellsDocument()));
+
+        assertEquals(project.rows.size(), 5);
+        Row row = project.rows.get(0);
+        assertEquals(row.cells.size(), 5);
+        assertEquals((String) row.getCellValue(0), "a  b");
+        assertNull(row.getCell(1));
+        assertNull(row.getCell(2));
+        assertEquals(((Number) row.getCellValue(3)).doubleValue(), 1.5, EPSILON);
+        assertEquals(((Number) row.getCellValue(4)).doubleValue(), 1.5, EPSILON);
+        assertTrue(project.rows.get(1).isEmpty());
+        assertTrue(project.rows.get(2).isEmpty());
+        assertTrue((Boolean) project.rows.get(3).getCellValue(0));
+        assertTrue((Boolean) project.rows.get(4).getCellValue(0));
+    }
+
+    @Test
+    public void countRowsOfSheets() throws IOException {
+        try (OdsSpreadsheetReader reader = OdsSpreadsheetReader.open(new ByteArrayInputStream(createRepeatedCellsDocument()))) {
+            assertEquals(reader.nextSheet(), "First");
+            assertEquals(reader.getSheetIndex(), 0);
+            // trailing blank rows are not counted
+            assertEquals(reader.countRows(), 5);
+            assertEquals(reader.nextSheet(), "Second");
+            assertEquals(reader.getSheetIndex(), 1);
+            List<Object> cells = reader.getSheetReader().getNextRowOfCells();
+            assertEquals(((OffsetDateTime) ((Cell) cells.get(0)).value).toString().substring(0, 10), "2021-04-18");
+            assertNull(reader.getSheetReader().getNextRowOfCells());
+            assertNull(reader.nextSheet());
+        }
+    }
+
+    private static byte[] createRepeatedCellsDocument() throws IOException {
+        String content = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<office:document-content xmlns:office=\"urn:oasis:names:tc:opendocument:xmlns:office:1.0\""
+                + " xmlns:table=\"urn:oasis:names:tc:opendocument:xmlns:table:1.0\""
+                + " xmlns:text=\"urn:oasis:names:tc:opendocument:xmlns:text:1.0\">"
+                + "<office:body><office:spreadsheet>"
+                + "<table:table table:name=\"First\"><table:table-column table:number-columns-repeated=\"3\"/>"
+                + "<table:table-row>"
+                + "<table:table-cell office:value-type=\"string\"><text:p>a<text:s text:c=\"2\"/>b</text:p></table:table-cell>"
+                + "<table:table-cell table:number-columns-repeated=\"2\"/>"
+                + "<table:table-cell office:value-type=\"float\" office:value=\"1.5\" table:number-columns-repeated=\"2\">"
+                + "<text:p>1.5</text:p></table:table-cell>"
+                + "<table:table-cell table:number-columns-repeated=\"16379\"/>"
+                + "</table:table-row>"
+                + "<table:table-row table:number-rows-repeated=\"2\"><table:table-cell table:number-columns-repeated=\"16384\"/></table:table-row>"
+                + "<table:table-row table:number-rows-repeated=\"2\">"
+                + "<table:table-cell office:value-type=\"boolean\" office:boolean-value=\"true\"><text:p>TRUE</text:p></table:table-cell>"
+                + "</table:table-row>"
+                + "<table:table-row table:number-rows-repeated=\"1048571\"><table:table-cell table:number-columns-repeated=\"16384\"/></table:table-row>"
+                + "</table:table>"
+                + "<table:table table:name=\"Second\"><table:table-row>"
+                + "<table:table-cell office:value-type=\"date\" office:date-value=\"2021-04-18T10:00:00\"><text:p>04/18/21</text:p></table:table-cell>"
+                + "</table:table-row></table:table>"
+                + "</office:spreadsheet></office:body></office:document-content>";
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("mimetype"));
+            zip.write("application/vnd.oasis.opendocument.spreadsheet".getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry("content.xml"));
+            zip.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
 }
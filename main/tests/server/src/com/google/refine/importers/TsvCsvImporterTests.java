@@ -33,7 +33,13 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.importers;
 
+import java.io.IOException;
+import java.io.LineNumberReader;
 import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
@@ -45,6 +51,8 @@ import org.testng.annotations.Test;
 
 import com.google.refine.util.ParsingUtilities;
 
+import au.com.bytecode.opencsv.CSVParser;
+
 public class TsvCsvImporterTests extends ImporterTest {
 
     @Override
@@ -632,6 +640,107 @@ public class TsvCsvImporterTests extends ImporterTest {
         Assert.assertEquals((String) project.rows.get(0).cells.get(3).value, "data4");
     }
 
+    @Test(dataProvider = "CSV-TSV-AutoDetermine")
+    public void readInParallel(String sep) {
+        String inputSeparator = sep == null ? "\t" : sep;
+        StringBuilder sb = new StringBuilder("ignored\ncol1" + inputSeparator + "col2" + inputSeparator + "col3\n");
+        for (int i = 0; i < 3 * SeparatorBasedImporter.CHUNK_SIZE; i++) {
+            sb.append(i).append(inputSeparator)
+                    .append(i % 10 == 0 ? "\"multi\nline " + i + "\"" : " value " + i).append(inputSeparator)
+                    .append(i % 7 == 0 ? "" : String.valueOf(i * 0.5)).append('\n');
+            if (i % 1000 == 0) {
+                sb.append('\n');
+            }
+        }
+        String input = sb.toString();
+
+        List<List<Object>> expected = parseWithParallelism(sep, input, 1);
+        tearDown();
+        setUp();
+        List<List<Object>> actual = parseWithParallelism(sep, input, 4);
+
+        Assert.assertEquals(project.columnModel.columns.size(), 3);
+        Assert.assertEquals(actual.size(), 2 * SeparatorBasedImporter.CHUNK_SIZE);
+        // the blank line after the first row is a skipped data line
+        Assert.assertEquals(actual.get(0), Arrays.asList(2L, "value 2", 1.0));
+        Assert.assertEquals(actual.get(5), Arrays.asList(7L, "value 7", null));
+        Assert.assertEquals(actual.get(8), Arrays.asList(10L, "multi\nline 10", 5.0));
+        Assert.assertEquals(actual, expected);
+    }
+
+    protected List<List<Object>> parseWithParallelism(String sep, String input, int parallelism) {
+        prepareOptions(sep, 2 * SeparatorBasedImporter.CHUNK_SIZE, 3, 1, 1, true, false, true);
+        whenGetIntegerOption("parallelism", options, parallelism);
+        try {
+            parseOneFile(SUT, new StringReader(input));
+        } catch (Exception e) {
+            Assert.fail("Exception during file parse", e);
+        }
+        return project.rows.stream()
+                .map(row -> row.cells.stream().map(cell -> cell == null ? null : (Object) cell.value).collect(Collectors.toList()))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void readChunksOfWholeRecords() throws IOException {
+        String input = "a,\"b\nc\"\n\nd,\"e\"\"\nf\ng\"\nh,i\n";
+        SeparatorBasedImporter.ParallelRecordReader reader = new SeparatorBasedImporter.ParallelRecordReader(
+                new LineNumberReader(new StringReader(input)),
+                () -> new CSVParser(",", '"', (char) 0, false, true, false),
+                '"', true, false, false, 2, 1, -1);
+        try {
+            Assert.assertEquals(reader.readChunk(), Arrays.asList("a,\"b", "c\""));
+            Assert.assertEquals(reader.readChunk(), Arrays.asList(""));
+            Assert.assertEquals(reader.readChunk(), Arrays.asList("d,\"e\"\"", "f", "g\""));
+            Assert.assertEquals(reader.readChunk(), Arrays.asList("h,i"));
+            Assert.assertEquals(reader.readChunk(), Collections.emptyList());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void readAheadIsBounded() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 4 * SeparatorBasedImporter.CHUNK_SIZE; i++) {
+            sb.append(i).append(",v\n");
+        }
+        String input = sb.toString();
+
+        // the first rows only wait for a small chunk
+        LineNumberReader lnReader = new LineNumberReader(new StringReader(input));
+        SeparatorBasedImporter.ParallelRecordReader reader = new SeparatorBasedImporter.ParallelRecordReader(
+                lnReader, () -> new CSVParser(",", '"', (char) 0, false, true, false),
+                '"', true, false, false, 4, SeparatorBasedImporter.CHUNK_SIZE, -1);
+        try {
+            Assert.assertNotNull(reader.getNextRowOfCells());
+            Assert.assertEquals(lnReader.getLineNumber(), SeparatorBasedImporter.FIRST_CHUNK_SIZE);
+            int rows = 1;
+            while (reader.getNextRowOfCells() != null) {
+                rows++;
+            }
+            Assert.assertEquals(rows, 4 * SeparatorBasedImporter.CHUNK_SIZE);
+        } finally {
+            reader.close();
+        }
+
+        // records past those needed are only read when requested
+        lnReader = new LineNumberReader(new StringReader(input));
+        reader = new SeparatorBasedImporter.ParallelRecordReader(
+                lnReader, () -> new CSVParser(",", '"', (char) 0, false, true, false),
+                '"', true, false, false, 4, SeparatorBasedImporter.CHUNK_SIZE, 10);
+        try {
+            for (int i = 0; i < 10; i++) {
+                Assert.assertNotNull(reader.getNextRowOfCells());
+            }
+            Assert.assertEquals(lnReader.getLineNumber(), 10);
+            Assert.assertNotNull(reader.getNextRowOfCells());
+            Assert.assertTrue(lnReader.getLineNumber() > 10);
+        } finally {
+            reader.close();
+        }
+    }
+
     // --helpers--
     /**
      * Used for parameterized testing for both SeparatorParser and TsvCsvParser.
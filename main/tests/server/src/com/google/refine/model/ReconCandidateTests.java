@@ -27,6 +27,7 @@
 
 package com.google.refine.model;
 
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.google.refine.util.TestUtils;
@@ -52,4 +53,17 @@ public class ReconCandidateTests {
         ReconCandidate rc = ReconCandidate.loadStreaming(json);
         TestUtils.isSerializedTo(rc, json);
     }
+
+    @Test
+    public void testSharedTypes() {
+        ReconCandidate c1 = new ReconCandidate("Q1", "one", new String[] { "Q5", "Q43229" }, 100);
+        ReconCandidate c2 = new ReconCandidate("Q2", "two", new String[] { new String("Q5"), "Q43229" }, 50);
+        Assert.assertEquals(c1.types, new String[] { "Q5", "Q43229" });
+        // each candidate owns its array, but the type ids are shared
+        Assert.assertNotSame(c1.types, c2.types);
+        Assert.assertSame(c1.types[0], c2.types[0]);
+        c1.types[0] = "Q6";
+        Assert.assertEquals(c2.types[0], "Q5");
+        Assert.assertEquals(new ReconCandidate("Q4", "four", null, 0).types.length, 0);
+    }
 }
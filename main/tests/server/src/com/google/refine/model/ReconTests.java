@@ -120,4 +120,16 @@ public class ReconTests {
         Assert.assertEquals(ids.size(), numberOfSamples);
     }
 
+    @Test
+    public void testSharedStrings() throws Exception {
+        Recon r1 = Recon.loadStreaming(fullJson);
+        Recon r2 = Recon.loadStreaming(fullJson);
+        Assert.assertSame(r1.service, r2.service);
+        Assert.assertSame(r1.identifierSpace, r2.identifierSpace);
+        Assert.assertSame(r1.schemaSpace, r2.schemaSpace);
+        Assert.assertSame(r1.judgmentAction, r2.judgmentAction);
+        Assert.assertSame(r1.candidates.get(0).types[0], r2.candidates.get(0).types[0]);
+        Assert.assertSame(new Recon(1234L, new String("http://some.url/"), null).identifierSpace,
+                new Recon(1234L, new String("http://some.url/"), null).identifierSpace);
+    }
 }
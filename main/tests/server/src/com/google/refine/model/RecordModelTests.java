@@ -27,6 +27,10 @@
 
 package com.google.refine.model;
 
+import static org.testng.Assert.assertEquals;
+
+import java.util.BitSet;
+
 import org.testng.annotations.Test;
 
 import com.google.refine.RefineTest;
@@ -41,4 +45,32 @@ public class RecordModelTests extends RefineTest {
                 + ",second");
         TestUtils.isSerializedTo(proj.recordModel, "{\"hasRecords\":true}");
     }
+
+    @Test
+    public void testRecordLayout() {
+        Project proj = createCSVProject("key,val\n"
+                + "a,1\n"
+                + ",2\n"
+                + ",3\n"
+                + "b,4\n"
+                + "c,5\n"
+                + ",6");
+        RecordModel model = proj.recordModel;
+        assertEquals(model.getRecordCount(), 3);
+        assertEquals(model.getRecordStarts(), new int[] { 0, 3, 4, 6 });
+        int[] expectedRecords = { 0, 0, 0, 1, 2, 2 };
+        for (int r = 0; r < expectedRecords.length; r++) {
+            assertEquals(model.getRecordIndexOfRow(r), expectedRecords[r]);
+            assertEquals(model.getRecordOfRow(r).recordIndex, expectedRecords[r]);
+        }
+        assertEquals(model.getRecordIndexOfRow(6), -1);
+
+        BitSet records = new BitSet();
+        records.set(0);
+        records.set(2);
+        BitSet expectedRows = new BitSet();
+        expectedRows.set(0, 3);
+        expectedRows.set(4, 6);
+        assertEquals(model.expandToRows(records), expectedRows);
+    }
 }
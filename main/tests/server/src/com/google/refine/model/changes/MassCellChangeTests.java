@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.model.changes;
+
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.io.Serializable;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.EngineConfig;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.util.ParsingUtilities;
+import com.google.refine.util.TestUtils;
+
+public class MassCellChangeTests extends RefineTest {
+
+    static final String ENGINE_JSON = "{\"mode\":\"row-based\",\"facets\":["
+            + "{\"type\":\"list\",\"name\":\"n\",\"columnName\":\"n\",\"expression\":\"value\","
+            + "\"omitBlank\":false,\"omitError\":false,\"selection\":[],\"selectBlank\":false,\"selectError\":false,\"invert\":false},"
+            + "{\"type\":\"range\",\"name\":\"n\",\"columnName\":\"n\",\"expression\":\"value.toNumber()\","
+            + "\"selectNumeric\":true,\"selectNonNumeric\":true,\"selectBlank\":true,\"selectError\":true}"
+            + "]}";
+
+    static final String LIST_KEY = "nominal:row-based:value";
+    static final String RANGE_KEY = "numeric-bin:row-based:value.toNumber()";
+
+    Project project;
+    Column column;
+
+    @BeforeMethod
+    public void setUp() {
+        StringBuilder sb = new StringBuilder("n\n");
+        for (int i = 1; i <= 20; i++) {
+            sb.append(i).append('\n');
+        }
+        sb.append("abc\n");
+        project = createCSVProject(sb.toString());
+        column = project.columnModel.getColumnByName("n");
+    }
+
+    @Test
+    public void testPrecomputesUpdatedIncrementally() throws Exception {
+        computeFacets();
+        Object listIndex = column.getPrecompute(LIST_KEY);
+        Object rangeIndex = column.getPrecompute(RANGE_KEY);
+        assertNotNull(listIndex);
+        assertNotNull(rangeIndex);
+
+        MassCellChange change = changeCell(2, "7");
+        change.apply(project);
+
+        assertSame(column.getPrecompute(LIST_KEY), listIndex);
+        assertSame(column.getPrecompute(RANGE_KEY), rangeIndex);
+        assertSameAsFullRecompute();
+        // the full recompute replaced the precomputes
+        listIndex = column.getPrecompute(LIST_KEY);
+        rangeIndex = column.getPrecompute(RANGE_KEY);
+
+        change.revert(project);
+
+        assertSame(column.getPrecompute(LIST_KEY), listIndex);
+        assertSame(column.getPrecompute(RANGE_KEY), rangeIndex);
+        assertSameAsFullRecompute();
+    }
+
+    @Test
+    public void testRangeIndexDiscardedWhenExtremesChange() throws Exception {
+        computeFacets();
+
+        changeCell(19, "100").apply(project);
+
+        assertNull(column.getPrecompute(RANGE_KEY));
+        assertNotNull(column.getPrecompute(LIST_KEY));
+        assertSameAsFullRecompute();
+    }
+
+    @Test
+    public void testPrecomputesDiscardedWhenRowContextChanges() throws Exception {
+        computeFacets();
+
+        new MassCellChange(new CellChange(2, column.getCellIndex(), project.rows.get(2).getCell(column.getCellIndex()),
+                new Cell(7L, null)), "n", true).apply(project);
+
+        assertNull(column.getPrecompute(LIST_KEY));
+        assertNull(column.getPrecompute(RANGE_KEY));
+    }
+
+    protected MassCellChange changeCell(int rowIndex, Serializable newValue) {
+        int cellIndex = column.getCellIndex();
+        Cell oldCell = project.rows.get(rowIndex).getCell(cellIndex);
+        return new MassCellChange(new CellChange(rowIndex, cellIndex, oldCell, new Cell(newValue, null)), "n", false);
+    }
+
+    protected String computeFacets() throws Exception {
+        Engine engine = new Engine(project);
+        engine.initializeFromConfig(EngineConfig.reconstruct(ENGINE_JSON));
+        engine.computeFacets();
+        return ParsingUtilities.mapper.writeValueAsString(engine);
+    }
+
+    protected void assertSameAsFullRecompute() throws Exception {
+        String incremental = computeFacets();
+        column.clearPrecomputes();
+        String full = computeFacets();
+        TestUtils.assertEqualAsJson(full, incremental);
+    }
+}
@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model.recon;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.model.recon.AdaptiveServiceClient.CircuitOpenException;
+import com.google.refine.model.recon.AdaptiveServiceClient.State;
+import com.google.refine.util.HttpClient;
+import com.google.refine.util.HttpResponseCache;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+public class AdaptiveServiceClientTests {
+
+    HttpClient httpClient;
+    MockWebServer server;
+    String url;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        httpClient = new HttpClient(0, 200, 0, 0);
+        server = new MockWebServer();
+        server.start();
+        url = server.url("/reconcile").toString();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    protected String post(AdaptiveServiceClient client) throws IOException {
+        return client.send(() -> httpClient.postNameValue(url, "queries", "{}", (HttpResponseCache) null));
+    }
+
+    @Test
+    public void testRetryAfterFailure() throws IOException {
+        AdaptiveServiceClient client = new AdaptiveServiceClient(url, 5, 60000);
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody("{}"));
+
+        assertEquals(post(client), "{}");
+        assertEquals(server.getRequestCount(), 2);
+        AdaptiveServiceClient.Health health = client.getHealth();
+        assertEquals(health.state, State.CLOSED);
+        assertEquals(health.requests, 2);
+        assertEquals(health.failures, 1);
+        assertEquals(health.retries, 1);
+    }
+
+    @Test
+    public void testRetryBudget() throws IOException {
+        AdaptiveServiceClient client = new AdaptiveServiceClient(url, 100, 60000);
+        client._retryBudget = 1.5;
+        for (int i = 0; i != 10; i++) {
+            server.enqueue(new MockResponse().setResponseCode(500));
+        }
+
+        try {
+            post(client);
+            fail("expected the request to fail");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("500"));
+        }
+        // the budget allowed a single retry instead of the usual three
+        assertEquals(server.getRequestCount(), 2);
+        assertEquals(client.getHealth().retries, 1);
+    }
+
+    @Test
+    public void testCircuitBreaker() throws Exception {
+        AdaptiveServiceClient client = new AdaptiveServiceClient(url, 2, 500);
+        client._retryBudget = 0;
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setResponseCode(500));
+
+        for (int i = 0; i != 2; i++) {
+            try {
+                post(client);
+                fail("expected the request to fail");
+            } catch (CircuitOpenException e) {
+                fail("the circuit should not be open yet");
+            } catch (IOException e) {
+                ;
+            }
+        }
+        assertEquals(client.getHealth().state, State.OPEN);
+
+        // requests fail fast while the circuit is open
+        try {
+            post(client);
+            fail("expected the circuit to be open");
+        } catch (CircuitOpenException e) {
+            ;
+        }
+        assertEquals(server.getRequestCount(), 2);
+        assertEquals(client.getHealth().rejected, 1);
+
+        // a successful trial request closes it again
+        Thread.sleep(600);
+        assertEquals(client.getHealth().state, State.HALF_OPEN);
+        server.enqueue(new MockResponse().setBody("{}"));
+        assertEquals(post(client), "{}");
+        assertEquals(client.getHealth().state, State.CLOSED);
+    }
+
+    @Test
+    public void testFailedTrialReopensCircuit() throws Exception {
+        AdaptiveServiceClient client = new AdaptiveServiceClient(url, 1, 300);
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setResponseCode(500));
+
+        try {
+            post(client);
+            fail("expected the request to fail");
+        } catch (IOException e) {
+            ;
+        }
+        // no retries while the circuit is open
+        assertEquals(server.getRequestCount(), 1);
+        Thread.sleep(400);
+        try {
+            post(client);
+            fail("expected the request to fail");
+        } catch (IOException e) {
+            ;
+        }
+        assertEquals(server.getRequestCount(), 2);
+        assertEquals(client.getHealth().state, State.OPEN);
+    }
+
+    @Test
+    public void testClientErrorsAreNotRetried() throws IOException {
+        AdaptiveServiceClient client = new AdaptiveServiceClient(url, 2, 60000);
+        for (int i = 0; i != 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(400));
+        }
+
+        for (int i = 0; i != 3; i++) {
+            try {
+                post(client);
+                fail("expected the request to fail");
+            } catch (CircuitOpenException e) {
+                fail("client errors should not open the circuit");
+            } catch (IOException e) {
+                assertTrue(e.getMessage().contains("400"));
+            }
+        }
+        assertEquals(server.getRequestCount(), 3);
+        AdaptiveServiceClient.Health health = client.getHealth();
+        assertEquals(health.state, State.CLOSED);
+        assertEquals(health.failures, 0);
+        assertEquals(health.retries, 0);
+    }
+
+    @Test
+    public void testRetryAfterRateLimiting() throws IOException {
+        AdaptiveServiceClient client = new AdaptiveServiceClient(url, 5, 60000);
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "1"));
+        server.enqueue(new MockResponse().setBody("{}"));
+
+        long start = System.currentTimeMillis();
+        assertEquals(post(client), "{}");
+        assertTrue(System.currentTimeMillis() - start >= 1000);
+        assertEquals(server.getRequestCount(), 2);
+        AdaptiveServiceClient.Health health = client.getHealth();
+        assertEquals(health.failures, 0);
+        assertEquals(health.retries, 1);
+    }
+
+    @Test
+    public void testLatencyPercentiles() {
+        AdaptiveServiceClient client = new AdaptiveServiceClient(url);
+        assertEquals(client.getHealth().latencyP50, 0);
+        for (int i = 1; i <= 100; i++) {
+            client.onSuccess(i, false);
+        }
+        assertEquals(client.getHealth().latencyP50, 50);
+        assertEquals(client.getHealth().latencyP95, 95);
+        assertEquals(client.getRetryDelay(0), 100);
+        assertEquals(client.getRetryDelay(2), 400);
+
+        // only the most recent latencies are kept
+        for (int i = 0; i != AdaptiveServiceClient.LATENCY_WINDOW; i++) {
+            client.onSuccess(1000, false);
+        }
+        assertEquals(client.getHealth().latencyP50, 1000);
+        assertEquals(client.getRetryDelay(10), AdaptiveServiceClient.MAX_RETRY_DELAY);
+    }
+}
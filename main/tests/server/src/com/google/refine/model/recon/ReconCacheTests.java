@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model.recon;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.google.refine.util.ParsingUtilities;
+
+public class ReconCacheTests {
+
+    static final String SERVICE = "https://example.com/api";
+
+    File dir;
+    File file;
+    ArrayNode result;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("recon-cache").toFile();
+        file = new File(dir, "recon.jsonl");
+        result = (ArrayNode) ParsingUtilities.mapper.readTree("[{\"id\":\"Q1\",\"name\":\"one\",\"score\":100}]");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testGetAndPut() {
+        ReconCache cache = new ReconCache(null, 60000, 10);
+        assertNull(cache.get(SERVICE, "{\"query\":\"one\"}"));
+        cache.putAll(SERVICE, Collections.singletonMap("{\"query\":\"one\"}", result));
+
+        assertEquals(cache.get(SERVICE, "{\"query\":\"one\"}"), result);
+        assertNull(cache.get("https://example.org/api", "{\"query\":\"one\"}"));
+        assertNull(cache.get(SERVICE, "{\"query\":\"one\",\"type\":\"Q5\"}"));
+        assertEquals(cache.getHits(), 1);
+        assertEquals(cache.getMisses(), 3);
+    }
+
+    @Test
+    public void testExpiry() {
+        ReconCache cache = new ReconCache(null, -1, 10);
+        cache.putAll(SERVICE, Collections.singletonMap("{\"query\":\"one\"}", result));
+        assertNull(cache.get(SERVICE, "{\"query\":\"one\"}"));
+        assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void testEviction() {
+        ReconCache cache = new ReconCache(null, 60000, 2);
+        cache.putAll(SERVICE, Collections.singletonMap("a", result));
+        cache.putAll(SERVICE, Collections.singletonMap("b", result));
+        cache.get(SERVICE, "a");
+        cache.putAll(SERVICE, Collections.singletonMap("c", result));
+
+        assertEquals(cache.size(), 2);
+        assertEquals(cache.get(SERVICE, "a"), result);
+        assertNull(cache.get(SERVICE, "b"));
+    }
+
+    @Test
+    public void testPersistence() throws IOException {
+        ReconCache cache = new ReconCache(file, 60000, 10);
+        cache.putAll(SERVICE, Collections.singletonMap("a", result));
+        cache.putAll(SERVICE, Collections.singletonMap("a", result));
+        cache.putAll(SERVICE, Collections.singletonMap("b", result));
+        assertEquals(Files.readAllLines(file.toPath()).size(), 3);
+
+        ReconCache reloaded = new ReconCache(file, 60000, 10);
+        assertEquals(reloaded.size(), 2);
+        assertEquals(reloaded.get(SERVICE, "a"), result);
+        // the duplicate line was compacted away
+        assertEquals(Files.readAllLines(file.toPath()).size(), 2);
+
+        reloaded.clear();
+        assertEquals(new ReconCache(file, 60000, 10).size(), 0);
+    }
+
+    @Test
+    public void testIgnoresTruncatedLines() throws IOException {
+        ReconCache cache = new ReconCache(file, 60000, 10);
+        cache.putAll(SERVICE, Collections.singletonMap("a", result));
+        Files.write(file.toPath(), "{\"key\":\"trunc".getBytes(), java.nio.file.StandardOpenOption.APPEND);
+
+        ReconCache reloaded = new ReconCache(file, 60000, 10);
+        assertEquals(reloaded.size(), 1);
+        assertEquals(reloaded.get(SERVICE, "a"), result);
+    }
+}
@@ -35,6 +35,7 @@ import static org.testng.Assert.assertTrue;
 import java.io.IOException;
 import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 import org.slf4j.LoggerFactory;
@@ -388,6 +389,67 @@ public class StandardReconConfigTests extends RefineTest {
         }
     }
 
+    @Test
+    public void testCachedRecon() throws Exception {
+        Project project = createCSVProject("title\nmulholland drive\nblue velvet\ndune");
+        String response = "{\"q0\":{\"result\":[{\"id\":\"Q1\",\"name\":\"Mulholland Drive\",\"score\":90,\"match\":true}]},"
+                + "\"q1\":{\"result\":[{\"id\":\"Q2\",\"name\":\"Blue Velvet\",\"score\":80,\"match\":false}]}}";
+        ReconCache cache = new ReconCache(null, 60000, 100);
+
+        try (MockWebServer server = new MockWebServer()) {
+            server.start();
+            server.enqueue(new MockResponse().setBody(response));
+            server.enqueue(new MockResponse().setBody("{\"q0\":{\"result\":[]}}"));
+            server.enqueue(new MockResponse().setBody(response));
+            StandardReconConfig config = new StandardReconConfig(server.url("/api").toString(),
+                    "http://www.wikidata.org/entity/", "http://www.wikidata.org/prop/direct/",
+                    "Q11424", "film", true, new ArrayList<ColumnDetail>()) {
+
+                @Override
+                protected ReconCache getCache() {
+                    return cache;
+                }
+            };
+            List<ReconJob> jobs = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                jobs.add(config.createJob(project, i, project.rows.get(i), "title", project.rows.get(i).getCell(0)));
+            }
+
+            List<Recon> recons = config.batchRecon(jobs.subList(0, 2), 1234L);
+            assertEquals(recons.get(0).match.id, "Q1");
+            assertEquals(cache.size(), 2);
+
+            // only the value which is not cached is sent
+            recons = config.batchRecon(jobs, 5678L);
+            assertEquals(server.getRequestCount(), 2);
+            server.takeRequest();
+            assertTrue(server.takeRequest().getBody().readUtf8().contains("dune"));
+            assertEquals(recons.size(), 3);
+            assertEquals(recons.get(0).match.id, "Q1");
+            assertEquals(recons.get(0).judgmentHistoryEntry, 5678L);
+            assertEquals(recons.get(0).service, server.url("/api").toString());
+            assertNull(recons.get(1).match);
+            assertEquals(recons.get(1).candidates.get(0).id, "Q2");
+            assertNotNull(recons.get(2));
+            assertNull(recons.get(2).candidates);
+
+            config.bypassCache = true;
+            config.batchRecon(jobs.subList(0, 2), 1234L);
+            assertEquals(server.getRequestCount(), 3);
+        }
+    }
+
+    @Test
+    public void serializeBypassCache() throws Exception {
+        String json = "{\"mode\":\"standard-service\",\"service\":\"https://example.com/api\","
+                + "\"identifierSpace\":\"http://www.wikidata.org/entity/\","
+                + "\"schemaSpace\":\"http://www.wikidata.org/prop/direct/\","
+                + "\"autoMatch\":true,\"columnDetails\":[],\"limit\":0,\"bypassCache\":true}";
+        StandardReconConfig config = StandardReconConfig.reconstruct(json);
+        assertTrue(config.bypassCache);
+        TestUtils.isSerializedTo(config, json);
+    }
+
     /**
      * The UI format and the backend format differ for serialization (the UI never deserializes and the backend
      * serialization did not matter). TODO: change the frontend so it uses the same format.
@@ -41,6 +41,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
@@ -66,6 +67,7 @@ import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.TestUtils;
 
 import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
@@ -130,6 +132,15 @@ public class ColumnAdditionByFetchingURLsOperationTests extends RefineTest {
         TestUtils.isSerializedTo(ParsingUtilities.mapper.readValue(json, ColumnAdditionByFetchingURLsOperation.class), json);
     }
 
+    @Test
+    public void serializeConcurrentOperation() throws Exception {
+        String concurrentJson = json.substring(0, json.length() - 1) + ",\"concurrency\":4}";
+        ColumnAdditionByFetchingURLsOperation op = ParsingUtilities.mapper.readValue(concurrentJson,
+                ColumnAdditionByFetchingURLsOperation.class);
+        assertEquals(op.getConcurrency(), 4);
+        TestUtils.isSerializedTo(op, concurrentJson);
+    }
+
     @Test
     public void serializeUrlFetchingProcess() throws Exception {
         AbstractOperation op = ParsingUtilities.mapper.readValue(json, ColumnAdditionByFetchingURLsOperation.class);
@@ -361,4 +372,97 @@ public class ColumnAdditionByFetchingURLsOperationTests extends RefineTest {
         }
     }
 
+    /**
+     * Responses arriving out of order must still be stored in their own rows.
+     */
+    @Test
+    public void testConcurrentFetching() throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            server.setDispatcher(new Dispatcher() {
+
+                @Override
+                public MockResponse dispatch(RecordedRequest request) {
+                    String value = request.getRequestUrl().queryParameter("v");
+                    // later rows answer faster
+                    return new MockResponse().setBody("response " + value)
+                            .setBodyDelay(200 - 4 * Integer.parseInt(value), TimeUnit.MILLISECONDS);
+                }
+            });
+            server.start();
+            HttpUrl url = server.url("/concurrent");
+
+            int rows = 40;
+            for (int i = 0; i < rows; i++) {
+                Row row = new Row(2);
+                row.setCell(0, new Cell(Integer.toString(i), null));
+                project.rows.add(row);
+            }
+
+            EngineDependentOperation op = new ColumnAdditionByFetchingURLsOperation(engine_config,
+                    "fruits",
+                    "\"" + url + "?v=\"+value",
+                    OnError.StoreError,
+                    "response",
+                    1,
+                    0,
+                    false,
+                    null,
+                    8);
+
+            // fetching the URLs one after the other would take about 4 seconds
+            long start = System.currentTimeMillis();
+            runAndWait(op, 3000);
+            long elapsed = System.currentTimeMillis() - start;
+            assertTrue(elapsed < 3000, "Concurrent fetching took " + elapsed + "ms");
+
+            for (int i = 0; i < rows; i++) {
+                assertEquals(project.rows.get(i).getCellValue(1), "response " + i);
+            }
+            assertEquals(server.getRequestCount(), rows);
+        }
+    }
+
+    @Test
+    public void testCancelConcurrentFetching() throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            server.setDispatcher(new Dispatcher() {
+
+                @Override
+                public MockResponse dispatch(RecordedRequest request) {
+                    return new MockResponse().setBody("slow").setBodyDelay(500, TimeUnit.MILLISECONDS);
+                }
+            });
+            server.start();
+            HttpUrl url = server.url("/slow");
+
+            for (int i = 0; i < 100; i++) {
+                Row row = new Row(2);
+                row.setCell(0, new Cell(Integer.toString(i), null));
+                project.rows.add(row);
+            }
+
+            EngineDependentOperation op = new ColumnAdditionByFetchingURLsOperation(engine_config,
+                    "fruits",
+                    "\"" + url + "?v=\"+value",
+                    OnError.StoreError,
+                    "response",
+                    1,
+                    0,
+                    false,
+                    null,
+                    4);
+
+            Process process = op.createProcess(project, options);
+            process.startPerforming(project.getProcessManager());
+            Thread.sleep(700);
+            process.cancel();
+            for (int time = 0; process.isRunning() && time < 3000; time += 100) {
+                Thread.sleep(100);
+            }
+
+            Assert.assertFalse(process.isRunning());
+            Assert.assertNull(project.columnModel.getColumnByName("response"));
+            assertTrue(server.getRequestCount() < 100);
+        }
+    }
 }
@@ -42,6 +42,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -429,6 +430,74 @@ public class ExtendDataOperationTests extends RefineTest {
         }
     }
 
+    @Test
+    public void serializeConcurrentExtendDataOperation() throws Exception {
+        String json = operationJson.substring(0, operationJson.length() - 1) + ",\"batchSize\":50,\"concurrency\":4}";
+        TestUtils.isSerializedTo(ParsingUtilities.mapper.readValue(json, ExtendDataOperation.class), json);
+    }
+
+    /**
+     * Test that each id is fetched once, in batches of the requested size
+     */
+    @Test
+    public void testBatchedConcurrentFetching() throws Exception {
+        DataExtensionConfig extension = DataExtensionConfig
+                .reconstruct("{\"properties\":[{\"id\":\"P297\",\"name\":\"ISO 3166-1 alpha-2 code\"}]}");
+        for (int i = 0; i < 20; i++) {
+            Row row = new Row(2);
+            row.setCell(0, reconciledCell("Country " + i, "Q" + (1000 + i % 10)));
+            project.rows.add(row);
+        }
+        List<String> requestedIds = Collections.synchronizedList(new ArrayList<>());
+
+        try (MockWebServer server = new MockWebServer()) {
+            server.start();
+            server.setDispatcher(new Dispatcher() {
+
+                @Override
+                public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                    String json = URLDecoder.decode(request.getBody().readUtf8().split("=")[1], StandardCharsets.UTF_8);
+                    StringBuilder rows = new StringBuilder();
+                    try {
+                        JsonNode ids = ParsingUtilities.mapper.readTree(json).get("ids");
+                        Assert.assertTrue(ids.size() <= 3);
+                        for (JsonNode id : ids) {
+                            requestedIds.add(id.asText());
+                            rows.append(rows.length() == 0 ? "" : ",")
+                                    .append("\"").append(id.asText()).append("\": {\"P297\": [{\"str\": \"")
+                                    .append(id.asText()).append("\"}]}");
+                        }
+                    } catch (IOException e) {
+                        throw new IllegalArgumentException("HTTP call with invalid JSON payload: " + json);
+                    }
+                    return new MockResponse().setResponseCode(200).setBody("{\"rows\": {" + rows + "},"
+                            + "\"meta\": [{\"name\": \"ISO 3166-1 alpha-2 code\", \"id\": \"P297\"}]}");
+                }
+            });
+
+            EngineDependentOperation op = new ExtendDataOperation(engine_config,
+                    "country",
+                    server.url("/reconcile").url().toString(),
+                    RECON_IDENTIFIER_SPACE,
+                    RECON_SCHEMA_SPACE,
+                    extension,
+                    1,
+                    3,
+                    4);
+            LongRunningProcessStub process = new LongRunningProcessStub(op.createProcess(project, options));
+            process.run();
+
+            Assert.assertEquals(requestedIds.size(), 14);
+            Assert.assertEquals(new HashSet<>(requestedIds).size(), 14);
+            Assert.assertEquals(project.columnModel.columns.size(), 2);
+            Assert.assertEquals(project.rows.size(), 24);
+            Assert.assertEquals(project.rows.get(0).getCellValue(1), "Q794");
+            for (int i = 0; i < 20; i++) {
+                Assert.assertEquals(project.rows.get(4 + i).getCellValue(1), "Q" + (1000 + i % 10));
+            }
+        }
+    }
+
     private void mockHttpCall(String query, String response) throws IOException {
         mockedResponses.put(ParsingUtilities.mapper.readTree(query), response);
     }
@@ -39,17 +39,21 @@ import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
 import com.google.refine.RefineTest;
+import com.google.refine.browsing.Engine.Mode;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.model.AbstractOperation;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
 import com.google.refine.model.Recon;
+import com.google.refine.model.Row;
 import com.google.refine.model.recon.ReconConfig;
 import com.google.refine.model.recon.StandardReconConfig;
 import com.google.refine.operations.OperationRegistry;
+import com.google.refine.operations.row.RowReorderOperation;
 import com.google.refine.operations.recon.ReconJudgeSimilarCellsOperation;
 import com.google.refine.process.Process;
+import com.google.refine.sorting.SortingConfig;
 import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.TestUtils;
 
@@ -121,4 +125,70 @@ public class ReconJudgeSimilarCellsTests extends RefineTest {
         assertEquals("http://my.database/entity/", cell.recon.identifierSpace);
         assertNull(project.rows.get(1).cells.get(0).recon);
     }
+
+    @Test
+    public void testJudgeFilteredRows() throws Exception {
+        Project project = createCSVProject(
+                "A,B\n"
+                        + "foo,bar\n"
+                        + "alpha,beta\n"
+                        + "foo,baz\n"
+                        + "foo,bar\n");
+        EngineConfig engineConfig = EngineConfig.reconstruct("{\"mode\":\"row-based\",\"facets\":["
+                + "{\"type\":\"list\",\"name\":\"B\",\"columnName\":\"B\",\"expression\":\"value\","
+                + "\"omitBlank\":false,\"omitError\":false,\"selection\":[{\"v\":{\"v\":\"bar\",\"l\":\"bar\"}}],"
+                + "\"selectBlank\":false,\"selectError\":false,\"invert\":false}]}");
+
+        AbstractOperation op = new ReconJudgeSimilarCellsOperation(
+                engineConfig, "A", "foo", Recon.Judgment.New, null, true);
+        op.createProcess(project, new Properties()).performImmediate();
+
+        assertEquals(project.rows.get(0).cells.get(0).recon.judgment, Recon.Judgment.New);
+        assertNull(project.rows.get(1).cells.get(0).recon);
+        assertNull(project.rows.get(2).cells.get(0).recon);
+        assertEquals(project.rows.get(3).cells.get(0).recon.judgment, Recon.Judgment.New);
+        assertEquals(project.rows.get(3).cells.get(0).recon.judgmentBatchSize, 2);
+
+        // a second judgment reuses the index of the column
+        op = new ReconJudgeSimilarCellsOperation(
+                engineConfig, "A", "foo", Recon.Judgment.None, null, false);
+        op.createProcess(project, new Properties()).performImmediate();
+
+        assertEquals(project.rows.get(0).cells.get(0).recon.judgment, Recon.Judgment.None);
+        assertEquals(project.rows.get(3).cells.get(0).recon.judgment, Recon.Judgment.None);
+        assertNull(project.rows.get(1).cells.get(0).recon);
+    }
+
+    @Test
+    public void testJudgeAfterReorder() throws Exception {
+        StringBuilder csv = new StringBuilder("A,B\nfoo,3\nalpha,1\nfoo,4\nbeta,2\n");
+        // enough other rows for the judgments to update the index rather than drop it
+        for (int i = 0; i < 16; i++) {
+            csv.append("other" + i + "," + (10 + i) + "\n");
+        }
+        Project project = createCSVProject(csv.toString());
+
+        AbstractOperation op = new ReconJudgeSimilarCellsOperation(
+                ENGINE_CONFIG, "A", "foo", Recon.Judgment.New, null, true);
+        op.createProcess(project, new Properties()).performImmediate();
+
+        // the rows holding "foo" move, so the index of column A must not be reused as is
+        SortingConfig sorting = SortingConfig.reconstruct(
+                "{\"criteria\":[{\"column\":\"B\",\"valueType\":\"number\",\"reverse\":false,\"blankPosition\":2,\"errorPosition\":1}]}");
+        new RowReorderOperation(Mode.RowBased, sorting).createProcess(project, new Properties()).performImmediate();
+        assertEquals(project.rows.get(3).cells.get(0).value, "foo");
+
+        op = new ReconJudgeSimilarCellsOperation(
+                ENGINE_CONFIG, "A", "foo", Recon.Judgment.None, null, false);
+        op.createProcess(project, new Properties()).performImmediate();
+
+        for (Row row : project.rows) {
+            Cell cell = row.cells.get(0);
+            if ("foo".equals(cell.value)) {
+                assertEquals(cell.recon.judgment, Recon.Judgment.None);
+            } else {
+                assertNull(cell.recon);
+            }
+        }
+    }
 }
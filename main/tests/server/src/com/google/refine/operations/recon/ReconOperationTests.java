@@ -30,9 +30,11 @@ package com.google.refine.operations.recon;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.mockito.Mockito;
 import org.mockito.stubbing.OngoingStubbing;
@@ -41,8 +43,10 @@ import org.testng.annotations.BeforeSuite;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.RefineTest;
 import com.google.refine.browsing.EngineConfig;
+import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
 import com.google.refine.model.Recon;
@@ -50,6 +54,7 @@ import com.google.refine.model.recon.ReconConfig;
 import com.google.refine.model.recon.ReconJob;
 import com.google.refine.model.recon.StandardReconConfig;
 import com.google.refine.operations.OperationRegistry;
+import com.google.refine.operations.recon.ReconOperation.BatchSizer;
 import com.google.refine.process.Process;
 import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.TestUtils;
@@ -150,4 +155,153 @@ public class ReconOperationTests extends RefineTest {
         Assert.assertNull(project.rows.get(1).getCell(0).recon);
         Assert.assertNull(project.rows.get(2).getCell(0).recon);
     }
+
+    @Test
+    public void testConcurrentRecon() throws Exception {
+        StringBuilder sb = new StringBuilder("column\n");
+        for (int i = 0; i < 40; i++) {
+            sb.append("value").append(i % 20).append("\n");
+        }
+        Project project = createCSVProject(sb.toString());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        StandardReconConfig reconConfig = mockReconConfig(project, 4, jobs -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Assert.assertTrue(jobs.size() <= 4);
+            Thread.sleep(50);
+            running.decrementAndGet();
+        });
+
+        ProjectManager.singleton.getPreferenceStore().put("recon.concurrency", 3);
+        try {
+            ReconOperation op = new ReconOperation(EngineConfig.reconstruct("{}"), "column", reconConfig);
+            runAndWait(project.getProcessManager(), op.createProcess(project, new Properties()), 5000);
+        } finally {
+            ProjectManager.singleton.getPreferenceStore().put("recon.concurrency", null);
+        }
+
+        Assert.assertTrue(maxRunning.get() > 1);
+        Assert.assertTrue(maxRunning.get() <= 3);
+        Assert.assertEquals(project.history.getLastPastEntries(1).size(), 1);
+        for (int i = 0; i < 20; i++) {
+            Recon recon = project.rows.get(i).getCell(0).recon;
+            Assert.assertNotNull(recon);
+            Assert.assertEquals(recon.judgmentBatchSize, 2);
+            Assert.assertSame(project.rows.get(i + 20).getCell(0).recon, recon);
+        }
+    }
+
+    @Test
+    public void testCancelKeepsPartialResults() throws Exception {
+        Project project = createCSVProject("column\na\nb\nc\nd\ne\nf");
+        AtomicInteger calls = new AtomicInteger();
+        StandardReconConfig reconConfig = mockReconConfig(project, 2, jobs -> {
+            if (calls.incrementAndGet() > 1) {
+                // waits until the batch is interrupted
+                Thread.sleep(10000);
+            }
+        });
+        ReconOperation op = new ReconOperation(EngineConfig.reconstruct("{}"), "column", reconConfig);
+        Process process = op.createProcess(project, new Properties());
+
+        process.startPerforming(project.getProcessManager());
+        for (int i = 0; i < 50 && calls.get() < 2; i++) {
+            Thread.sleep(100);
+        }
+        process.cancel();
+        for (int i = 0; i < 50 && process.isRunning(); i++) {
+            Thread.sleep(100);
+        }
+
+        Assert.assertFalse(process.isRunning());
+        Assert.assertEquals(project.history.getLastPastEntries(1).size(), 1);
+        Assert.assertNotNull(project.rows.get(0).getCell(0).recon);
+        Assert.assertNotNull(project.rows.get(1).getCell(0).recon);
+        for (int i = 2; i < 6; i++) {
+            Assert.assertNull(project.rows.get(i).getCell(0).recon);
+        }
+    }
+
+    @Test
+    public void testFailedBatchIsSkipped() throws Exception {
+        Project project = createCSVProject("column\na\nb\nc\nd\ne\nf");
+        AtomicInteger calls = new AtomicInteger();
+        StandardReconConfig reconConfig = mockReconConfig(project, 2, jobs -> {
+            if (calls.incrementAndGet() == 2) {
+                throw new IllegalStateException("service failure");
+            }
+        });
+        ReconOperation op = new ReconOperation(EngineConfig.reconstruct("{}"), "column", reconConfig);
+        runAndWait(project.getProcessManager(), op.createProcess(project, new Properties()), 5000);
+
+        Assert.assertEquals(calls.get(), 3);
+        Assert.assertEquals(project.history.getLastPastEntries(1).size(), 1);
+        for (int i = 0; i < 6; i++) {
+            if (i == 2 || i == 3) {
+                Assert.assertNull(project.rows.get(i).getCell(0).recon);
+            } else {
+                Assert.assertNotNull(project.rows.get(i).getCell(0).recon);
+            }
+        }
+    }
+
+    @Test
+    public void testBatchSizer() {
+        BatchSizer sizer = new BatchSizer(10, 1000);
+        Assert.assertEquals(sizer.getBatchSize(), 10);
+        sizer.onBatchDone(1500);
+        Assert.assertEquals(sizer.getBatchSize(), 5);
+        sizer.onBatchDone(1500);
+        sizer.onBatchDone(1500);
+        sizer.onBatchDone(1500);
+        sizer.onBatchDone(1500);
+        Assert.assertEquals(sizer.getBatchSize(), 1);
+        sizer.onBatchDone(700);
+        Assert.assertEquals(sizer.getBatchSize(), 1);
+        sizer.onBatchDone(100);
+        Assert.assertEquals(sizer.getBatchSize(), 3);
+        for (int i = 0; i < 4; i++) {
+            sizer.onBatchDone(100);
+        }
+        Assert.assertEquals(sizer.getBatchSize(), 10);
+    }
+
+    interface BatchCallback {
+
+        void call(List<ReconJob> jobs) throws Exception;
+    }
+
+    static class ValueJob extends ReconJob {
+
+        final String value;
+
+        ValueJob(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String getStringKey() {
+            return value;
+        }
+    }
+
+    /**
+     * Mocks a recon config returning one new recon per job, with the given batch size.
+     */
+    private StandardReconConfig mockReconConfig(Project project, int batchSize, BatchCallback callback) {
+        StandardReconConfig reconConfig = mock(StandardReconConfig.class);
+        when(reconConfig.getBatchSize()).thenReturn(batchSize);
+        when(reconConfig.createJob(Mockito.eq(project), Mockito.anyInt(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> new ValueJob((String) invocation.getArgument(4, Cell.class).value));
+        when(reconConfig.batchRecon(Mockito.any(), Mockito.anyLong())).thenAnswer(invocation -> {
+            List<ReconJob> jobs = invocation.getArgument(0);
+            callback.call(jobs);
+            List<Recon> recons = new ArrayList<>();
+            for (int i = 0; i < jobs.size(); i++) {
+                recons.add(new Recon(invocation.getArgument(1), null, null));
+            }
+            return recons;
+        });
+        return reconConfig;
+    }
 }
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.util;
+
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+public class HostRateLimiterTests {
+
+    @Test
+    public void testDelayPerHost() throws InterruptedException {
+        HostRateLimiter limiter = new HostRateLimiter(200);
+        long start = System.nanoTime();
+        limiter.acquire("a.example.org");
+        limiter.acquire("b.example.org");
+        limiter.acquire("c.example.org");
+        long elapsed = (System.nanoTime() - start) / 1000000;
+        assertTrue(elapsed < 150, "Requests to different hosts waited " + elapsed + "ms");
+
+        limiter.acquire("a.example.org");
+        limiter.acquire("a.example.org");
+        elapsed = (System.nanoTime() - start) / 1000000;
+        assertTrue(elapsed >= 400, "Requests to the same host only waited " + elapsed + "ms");
+    }
+
+    @Test
+    public void testNoDelay() throws InterruptedException {
+        HostRateLimiter limiter = new HostRateLimiter(0);
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            limiter.acquire("a.example.org");
+        }
+        assertTrue(System.nanoTime() - start < 100000000L);
+    }
+}
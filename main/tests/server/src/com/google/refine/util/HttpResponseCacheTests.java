@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.message.BasicHeader;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class HttpResponseCacheTests {
+
+    File dir;
+    HttpClient client;
+    MockWebServer server;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("http-cache").toFile();
+        client = new HttpClient();
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        server.shutdown();
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testFreshResponseIsReused() throws IOException {
+        HttpResponseCache cache = new HttpResponseCache(dir, 1024 * 1024);
+        server.enqueue(new MockResponse().setBody("first").setHeader("Cache-Control", "max-age=3600"));
+        String url = server.url("/fresh").toString();
+
+        assertEquals(client.getAsString(url, null, cache), "first");
+        assertEquals(client.getAsString(url, null, cache), "first");
+        assertEquals(server.getRequestCount(), 1);
+        assertEquals(cache.getStats().hits, 1);
+        assertEquals(cache.getStats().misses, 1);
+
+        // entries survive restarts
+        HttpResponseCache reopened = new HttpResponseCache(dir, 1024 * 1024);
+        assertEquals(client.getAsString(url, null, reopened), "first");
+        assertEquals(server.getRequestCount(), 1);
+    }
+
+    @Test
+    public void testNoStore() throws IOException {
+        HttpResponseCache cache = new HttpResponseCache(dir, 1024 * 1024);
+        server.enqueue(new MockResponse().setBody("first").setHeader("Cache-Control", "no-store"));
+        server.enqueue(new MockResponse().setBody("second").setHeader("Cache-Control", "no-store"));
+        String url = server.url("/nostore").toString();
+
+        assertEquals(client.getAsString(url, null, cache), "first");
+        assertEquals(client.getAsString(url, null, cache), "second");
+        assertEquals(cache.getStats().size, 0);
+    }
+
+    @Test
+    public void testRevalidation() throws IOException, InterruptedException {
+        HttpResponseCache cache = new HttpResponseCache(dir, 1024 * 1024);
+        server.enqueue(new MockResponse().setBody("body").setHeader("Cache-Control", "max-age=0")
+                .setHeader("ETag", "\"v1\""));
+        server.enqueue(new MockResponse().setResponseCode(304));
+        String url = server.url("/etag").toString();
+
+        assertEquals(client.getAsString(url, null, cache), "body");
+        assertEquals(client.getAsString(url, null, cache), "body");
+        server.takeRequest();
+        RecordedRequest conditional = server.takeRequest();
+        assertEquals(conditional.getHeader("If-None-Match"), "\"v1\"");
+        assertEquals(cache.getStats().revalidations, 1);
+    }
+
+    @Test
+    public void testHeadersArePartOfTheKey() throws IOException {
+        HttpResponseCache cache = new HttpResponseCache(dir, 1024 * 1024);
+        server.enqueue(new MockResponse().setBody("json"));
+        server.enqueue(new MockResponse().setBody("xml"));
+        String url = server.url("/negotiated").toString();
+
+        assertEquals(client.getAsString(url, new Header[] { new BasicHeader("Accept", "application/json") }, cache),
+                "json");
+        assertEquals(client.getAsString(url, new Header[] { new BasicHeader("Accept", "text/xml") }, cache), "xml");
+        assertEquals(client.getAsString(url, new Header[] { new BasicHeader("Accept", "application/json") }, cache),
+                "json");
+        assertEquals(server.getRequestCount(), 2);
+    }
+
+    @Test
+    public void testPostRequests() throws IOException {
+        HttpResponseCache cache = new HttpResponseCache(dir, 1024 * 1024);
+        server.enqueue(new MockResponse().setBody("a"));
+        server.enqueue(new MockResponse().setBody("b"));
+        String url = server.url("/reconcile").toString();
+
+        assertEquals(client.postNameValue(url, "queries", "{\"q0\":{}}", cache), "a");
+        assertEquals(client.postNameValue(url, "queries", "{\"q1\":{}}", cache), "b");
+        assertEquals(client.postNameValue(url, "queries", "{\"q0\":{}}", cache), "a");
+        assertEquals(server.getRequestCount(), 2);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() throws IOException {
+        HttpResponseCache cache = new HttpResponseCache(dir, 1000);
+        String body = new String(new char[300]).replace('\0', 'x');
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(new MockResponse().setBody(body + i));
+        }
+        String url = server.url("/large").toString();
+
+        client.getAsString(url + "?0", null, cache);
+        client.getAsString(url + "?1", null, cache);
+        // makes entry 0 more recently used than entry 1
+        client.getAsString(url + "?0", null, cache);
+        client.getAsString(url + "?2", null, cache);
+
+        assertTrue(cache.getStats().size <= 1000);
+        assertEquals(cache.getStats().evictions, 1);
+        assertEquals(client.getAsString(url + "?0", null, cache), body + 0);
+        assertEquals(server.getRequestCount(), 3);
+        assertEquals(client.getAsString(url + "?1", null, cache), body + 3);
+    }
+
+    @Test
+    public void testInvalidUrl() throws IOException {
+        assertNull(client.getAsString("not a url", null, new HttpResponseCache(dir, 1000)));
+    }
+}
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineServlet;
+import com.google.refine.model.Recon;
+
+public class PoolTests {
+
+    static final String CANDIDATE = "{\"id\":\"Q1\",\"name\":\"one\",\"score\":100,\"types\":[\"Q5\"]}";
+    static final String OTHER_CANDIDATE = "{\"id\":\"Q2\",\"name\":\"two\",\"score\":50.5,\"types\":[\"Q5\"]}";
+
+    static String reconJson(long id, String match, String candidates) {
+        return "{\"id\":" + id + ",\"judgmentHistoryEntry\":1234,"
+                + "\"service\":\"https://example.com/api\","
+                + "\"identifierSpace\":\"http://www.wikidata.org/entity/\","
+                + "\"schemaSpace\":\"http://www.wikidata.org/prop/direct/\","
+                + "\"j\":\"" + (match == null ? "none" : "matched") + "\","
+                + (match == null ? "" : "\"m\":" + match + ",")
+                + "\"c\":[" + candidates + "],"
+                + "\"f\":[true,true,0,0.5],\"judgmentAction\":\"auto\",\"judgmentBatchSize\":1"
+                + (match == null ? "" : ",\"matchRank\":0") + "}";
+    }
+
+    @Test
+    public void testLoadSharesCandidateStrings() throws Exception {
+        String file = RefineServlet.VERSION + "\n"
+                + "reconCount=2\n"
+                + reconJson(1, CANDIDATE, CANDIDATE + "," + OTHER_CANDIDATE) + "\n"
+                + reconJson(2, null, OTHER_CANDIDATE + "," + CANDIDATE) + "\n";
+        Pool pool = new Pool();
+        pool.load(new StringReader(file));
+
+        Recon r1 = pool.getRecon("1");
+        Recon r2 = pool.getRecon("2");
+        assertSame(r1.match.id, r1.candidates.get(0).id);
+        assertSame(r1.candidates.get(0).id, r2.candidates.get(1).id);
+        assertSame(r1.candidates.get(0).name, r2.candidates.get(1).name);
+        assertSame(r1.candidates.get(1).name, r2.candidates.get(0).name);
+        // candidates are not shared, as their types array is mutable
+        assertNotSame(r1.match, r1.candidates.get(0));
+        assertNotSame(r1.candidates.get(0), r2.candidates.get(1));
+        assertNotSame(r1.candidates.get(0).types, r2.candidates.get(1).types);
+
+        // the file format is unchanged
+        StringWriter writer = new StringWriter();
+        pool.save(writer);
+        String[] lines = writer.toString().split("\n");
+        assertEquals(lines.length, 4);
+        assertEquals(lines[1], "reconCount=2");
+        for (int i = 2; i < 4; i++) {
+            Recon recon = Recon.loadStreaming(lines[i]);
+            TestUtils.assertEqualsAsJson(lines[i], reconJson(recon.id,
+                    recon.id == 1 ? CANDIDATE : null,
+                    recon.id == 1 ? CANDIDATE + "," + OTHER_CANDIDATE : OTHER_CANDIDATE + "," + CANDIDATE));
+        }
+
+        r1.candidates.get(0).types[0] = "Q515";
+        assertEquals(r2.candidates.get(1).types[0], "Q5");
+    }
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.browsing;
+
+/**
+ * Cooperative cancellation signal for facet computations. Row and record
+ * iterators poll it between rows and stop visiting as soon as it fires,
+ * either because its deadline has passed or because {@link #cancel()} was
+ * called, for instance when a newer request from the same client supersedes
+ * this one.
+ */
+public class CancellationToken {
+
+    /**
+     * Absolute deadline in milliseconds since the epoch, or 0 if none.
+     */
+    protected final long _deadline;
+    protected volatile boolean _cancelled = false;
+
+    /**
+     * @param timeout
+     *      time budget in milliseconds, starting now. 0 or less means no deadline.
+     */
+    public CancellationToken(long timeout) {
+        _deadline = timeout > 0 ? System.currentTimeMillis() + timeout : 0;
+    }
+
+    public void cancel() {
+        _cancelled = true;
+    }
+
+    /**
+     * @return true if the computation should stop as soon as possible
+     */
+    public boolean isCancelled() {
+        if (!_cancelled && _deadline > 0 && System.currentTimeMillis() > _deadline) {
+            _cancelled = true;
+        }
+        return _cancelled;
+    }
+
+    /**
+     * @return the number of milliseconds left before the deadline, or
+     *      {@link Long#MAX_VALUE} if this token has no deadline.
+     */
+    public long getRemainingTime() {
+        if (_deadline == 0) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, _deadline - System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,79 @@
+/*
+
+Copyright 2010, Google Inc.
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above
+copyright notice, this list of conditions and the following disclaimer
+in the documentation and/or other materials provided with the
+distribution.
+    * Neither the name of Google Inc. nor the names of its
+contributors may be used to endorse or promote products derived from
+this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,           
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY           
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+*/
+
+package com.google.refine.browsing.filters;
+
+import java.util.BitSet;
+import java.util.List;
+
+import com.google.refine.browsing.RecordFilter;
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.model.Project;
+import com.google.refine.model.Record;
+import com.google.refine.model.Row;
+
+public class AllRowsRecordFilter implements RecordFilter {
+    final protected RowFilter _rowFilter;
+
+    public AllRowsRecordFilter(RowFilter rowFilter) {
+        _rowFilter = rowFilter;
+    }
+
+    @Override
+    public boolean filterRecord(Project project, Record record) {
+        for (int r = record.fromRowIndex; r < record.toRowIndex; r++) {
+            if (!_rowFilter.filterRow(project, r, project.rows.get(r))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void filterRecords(Project project, BitSet records) {
+        int[] starts = project.recordModel.getRecordStarts();
+        List<Row> rows = project.rows;
+        for (int r = records.nextSetBit(0); r >= 0; r = records.nextSetBit(r + 1)) {
+            boolean matches = true;
+            for (int i = starts[r]; i < starts[r + 1]; i++) {
+                if (!_rowFilter.filterRow(project, i, rows.get(i))) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (!matches) {
+                records.clear(r);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.browsing.filters;
+
+import com.google.refine.browsing.RecordFilter;
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.model.Project;
+import com.google.refine.model.Record;
+import com.google.refine.model.Row;
+
+/**
+ * Keeps a deterministic pseudo-random sample of rows (or records), each one
+ * being selected independently with the given probability. The selection only
+ * depends on the row (or record) index, so the same rows are sampled by every
+ * facet and across requests.
+ * 
+ * Counts observed on the sample are turned back into estimates for the whole
+ * project with {@link #scale(int)}, and {@link #errorBound(int)} gives the
+ * half-width of the corresponding 95% confidence interval.
+ */
+public class SamplingRowFilter implements RowFilter, RecordFilter {
+    /**
+     * z-score of a two-sided 95% confidence interval
+     */
+    static final protected double Z_95 = 1.96;
+
+    final protected double _rate;
+    final protected long _threshold;
+
+    /**
+     * @param rate
+     *      the sampling probability, between 0 (exclusive) and 1 (inclusive)
+     */
+    public SamplingRowFilter(double rate) {
+        _rate = rate;
+        _threshold = (long) (rate * (1L << 53));
+    }
+
+    /**
+     * Sampling filter keeping about sampleSize out of totalCount rows,
+     * or null if all rows would be kept anyway.
+     */
+    static public SamplingRowFilter forSampleSize(int sampleSize, int totalCount) {
+        if (sampleSize <= 0 || sampleSize >= totalCount) {
+            return null;
+        }
+        return new SamplingRowFilter((double) sampleSize / totalCount);
+    }
+
+    public double getRate() {
+        return _rate;
+    }
+
+    @Override
+    public boolean filterRow(Project project, int rowIndex, Row row) {
+        return isSampled(rowIndex);
+    }
+
+    @Override
+    public boolean filterRecord(Project project, Record record) {
+        return isSampled(record.recordIndex);
+    }
+
+    protected boolean isSampled(int index) {
+        return (mix(index) >>> 11) < _threshold;
+    }
+
+    /**
+     * Estimated count over the whole project for a count observed on the sample.
+     */
+    public int scale(int sampledCount) {
+        return (int) Math.round(sampledCount / _rate);
+    }
+
+    /**
+     * Half-width of the 95% confidence interval around {@link #scale(int)}.
+     */
+    public int errorBound(int sampledCount) {
+        return (int) Math.ceil(Z_95 * Math.sqrt(sampledCount * (1 - _rate)) / _rate);
+    }
+
+    /**
+     * SplitMix64 step, spreading consecutive indices uniformly over the long range.
+     */
+    static protected long mix(long z) {
+        z += 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
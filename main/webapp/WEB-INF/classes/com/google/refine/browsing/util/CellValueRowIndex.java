@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.browsing.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.IncrementalPrecompute;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+/**
+ * Maps each non-blank value of a column, as a string, to the indices of the rows
+ * holding it, like {@link com.google.refine.LookupCacheManager.ProjectLookup} does
+ * for cross(). It is stored as a precompute of the column, which keeps it up to date
+ * as cells change, so that operations on all the cells of a given value only need
+ * to visit its rows.
+ */
+public class CellValueRowIndex implements IncrementalPrecompute {
+
+    static final String PRECOMPUTE_KEY = "value-rows";
+
+    final protected int _cellIndex;
+    /*
+     * Row indices are kept sorted. The lists are never modified in place, since
+     * readers may hold on to them.
+     */
+    final protected Map<String, List<Integer>> _valueToRowIndices = new HashMap<>();
+
+    protected CellValueRowIndex(Project project, int cellIndex) {
+        _cellIndex = cellIndex;
+        for (int r = 0; r < project.rows.size(); r++) {
+            String value = getValue(project.rows.get(r));
+            if (value != null) {
+                _valueToRowIndices.computeIfAbsent(value, v -> new ArrayList<>()).add(r);
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the given column, building it if needed.
+     */
+    static public CellValueRowIndex get(Project project, Column column) {
+        synchronized (column) {
+            CellValueRowIndex index = (CellValueRowIndex) column.getPrecompute(PRECOMPUTE_KEY);
+            if (index == null || index._cellIndex != column.getCellIndex()) {
+                index = new CellValueRowIndex(project, column.getCellIndex());
+                column.setPrecompute(PRECOMPUTE_KEY, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * @return the indices of the rows holding the value, in increasing order
+     */
+    public synchronized List<Integer> getRows(Object value) {
+        if (!ExpressionUtils.isNonBlankData(value)) {
+            return Collections.emptyList();
+        }
+        List<Integer> rowIndices = _valueToRowIndices.get(value.toString());
+        return rowIndices == null ? Collections.emptyList() : Collections.unmodifiableList(rowIndices);
+    }
+
+    /**
+     * @return the number of distinct values in the column
+     */
+    public synchronized int size() {
+        return _valueToRowIndices.size();
+    }
+
+    @Override
+    public synchronized boolean removeRows(Project project, int[] rowIndices) {
+        for (Entry<String, List<Integer>> entry : groupByValue(project, rowIndices).entrySet()) {
+            List<Integer> current = _valueToRowIndices.get(entry.getKey());
+            if (current == null) {
+                return false;
+            }
+            List<Integer> updated = new ArrayList<>(current);
+            if (!updated.removeAll(new HashSet<>(entry.getValue()))) {
+                return false;
+            }
+            if (updated.isEmpty()) {
+                _valueToRowIndices.remove(entry.getKey());
+            } else {
+                _valueToRowIndices.put(entry.getKey(), updated);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized boolean addRows(Project project, int[] rowIndices) {
+        for (Entry<String, List<Integer>> entry : groupByValue(project, rowIndices).entrySet()) {
+            List<Integer> current = _valueToRowIndices.get(entry.getKey());
+            List<Integer> updated = current == null ? new ArrayList<>() : new ArrayList<>(current);
+            for (int rowIndex : entry.getValue()) {
+                int position = Collections.binarySearch(updated, rowIndex);
+                if (position < 0) {
+                    updated.add(-position - 1, rowIndex);
+                }
+            }
+            _valueToRowIndices.put(entry.getKey(), updated);
+        }
+        return true;
+    }
+
+    protected Map<String, List<Integer>> groupByValue(Project project, int[] rowIndices) {
+        int[] sorted = rowIndices.clone();
+        Arrays.sort(sorted);
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int rowIndex : sorted) {
+            String value = getValue(project.rows.get(rowIndex));
+            if (value != null) {
+                groups.computeIfAbsent(value, v -> new ArrayList<>()).add(rowIndex);
+            }
+        }
+        return groups;
+    }
+
+    protected String getValue(Row row) {
+        Cell cell = row.getCell(_cellIndex);
+        if (cell != null && ExpressionUtils.isNonBlankData(cell.value)) {
+            return cell.value instanceof String ? (String) cell.value : cell.value.toString();
+        }
+        return null;
+    }
+}
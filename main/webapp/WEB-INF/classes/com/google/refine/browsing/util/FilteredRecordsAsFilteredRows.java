@@ -0,0 +1,75 @@
+/*
+
+Copyright 2010, Google Inc.
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above
+copyright notice, this list of conditions and the following disclaimer
+in the documentation and/or other materials provided with the
+distribution.
+    * Neither the name of Google Inc. nor the names of its
+contributors may be used to endorse or promote products derived from
+this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,           
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY           
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+*/
+
+package com.google.refine.browsing.util;
+
+import java.util.BitSet;
+import java.util.List;
+
+import com.google.refine.browsing.FilteredRecords;
+import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+public class FilteredRecordsAsFilteredRows implements FilteredRows {
+    final protected FilteredRecords _filteredRecords;
+    
+    public FilteredRecordsAsFilteredRows(FilteredRecords filteredRecords) {
+        _filteredRecords = filteredRecords;
+    }
+
+    @Override
+    public void accept(Project project, RowVisitor visitor) {
+        if (_filteredRecords instanceof ConjunctiveFilteredRecords) {
+            try {
+                visitor.start(project);
+
+                // visit the rows of the matching records straight from a row bitmap
+                BitSet matching = ((ConjunctiveFilteredRecords) _filteredRecords).computeMatchingRecords(project);
+                BitSet matchingRows = project.recordModel.expandToRows(matching);
+                List<Row> rows = project.rows;
+                for (int r = matchingRows.nextSetBit(0); r >= 0; r = matchingRows.nextSetBit(r + 1)) {
+                    if (visitor.visit(project, r, rows.get(r))) {
+                        return;
+                    }
+                }
+            } finally {
+                visitor.end(project);
+            }
+        } else {
+            _filteredRecords.accept(project, new RowVisitorAsRecordVisitor(visitor));
+        }
+    }
+
+}
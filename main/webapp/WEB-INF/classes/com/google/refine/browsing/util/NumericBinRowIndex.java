@@ -0,0 +1,163 @@
+/*
+
+Copyright 2010, Google Inc.
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above
+copyright notice, this list of conditions and the following disclaimer
+in the documentation and/or other materials provided with the
+distribution.
+    * Neither the name of Google Inc. nor the names of its
+contributors may be used to endorse or promote products derived from
+this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,           
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY           
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+*/
+
+package com.google.refine.browsing.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.model.IncrementalPrecompute;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+public class NumericBinRowIndex extends NumericBinIndex implements IncrementalPrecompute {
+    /*
+     * Used to re-evaluate changed rows, or null if the index
+     * must be discarded when cells change.
+     */
+    final protected RowEvaluable _updateEvaluable;
+    
+    public NumericBinRowIndex(Project project, RowEvaluable rowEvaluable) {
+        this(project, rowEvaluable, null);
+    }
+
+    /**
+     * @param updateEvaluable
+     *      evaluable of the same expression used to keep the index up to date when
+     *      a few cells change. It must only depend on the row it is evaluated on and
+     *      must not cache results. If null, the index is discarded when cells change.
+     */
+    public NumericBinRowIndex(Project project, RowEvaluable rowEvaluable, RowEvaluable updateEvaluable) {
+        
+        super(project, rowEvaluable);
+        _updateEvaluable = updateEvaluable;
+    }
+
+    @Override
+    protected void iterate(
+        Project project, RowEvaluable rowEvaluable, List<Double> allValues) {
+        
+        Properties bindings = ExpressionUtils.createBindings(project);
+        
+        for (int i = 0; i < project.rows.size(); i++) {
+            Row row = project.rows.get(i);
+            
+            preprocessing();
+            
+            processRow(project, rowEvaluable, allValues, i, row, bindings);
+            
+            postprocessing();
+        }
+    }
+
+    @Override
+    public synchronized boolean removeRows(Project project, int[] rowIndices) {
+        return updateRows(project, rowIndices, -1);
+    }
+
+    @Override
+    public synchronized boolean addRows(Project project, int[] rowIndices) {
+        return updateRows(project, rowIndices, 1);
+    }
+    
+    /**
+     * Counts or uncounts the given rows in place. This fails whenever the extreme values
+     * would change, since the bins would then be laid out differently.
+     */
+    protected boolean updateRows(Project project, int[] rowIndices, int sign) {
+        if (_updateEvaluable == null) {
+            return false;
+        }
+        
+        Properties bindings = ExpressionUtils.createBindings(project);
+        // readers may hold on to the current bins
+        int[] bins = _bins.clone();
+        double min = _min;
+        double max = _max;
+        
+        for (int rowIndex : rowIndices) {
+            List<Double> values = new ArrayList<Double>();
+            int totalValueCount = _totalValueCount;
+            
+            preprocessing();
+            
+            processRow(project, _updateEvaluable, values, rowIndex, project.rows.get(rowIndex), bindings);
+            
+            postprocessing(sign);
+            
+            // processRow widens the range and counts values as added
+            _min = min;
+            _max = max;
+            _totalValueCount = totalValueCount + sign * (_totalValueCount - totalValueCount);
+            _numbericValueCount += sign * values.size();
+            
+            for (double d : values) {
+                if (!updateRawBounds(d, sign)) {
+                    return false;
+                }
+                int bin = Math.max((int) Math.floor((d - _min) / _step), 0);
+                if (bin >= bins.length) {
+                    return false;
+                }
+                bins[bin] += sign;
+            }
+        }
+        
+        _bins = bins;
+        return true;
+    }
+    
+    protected boolean updateRawBounds(double d, int sign) {
+        if (sign > 0) {
+            if (d < _rawMin || d > _rawMax) {
+                return false;
+            }
+            if (d == _rawMin) {
+                _rawMinCount++;
+            }
+            if (d == _rawMax) {
+                _rawMaxCount++;
+            }
+        } else {
+            if (d == _rawMin && --_rawMinCount == 0) {
+                return false;
+            }
+            if (d == _rawMax && --_rawMaxCount == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+
+Copyright 2010, Google Inc.
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above
+copyright notice, this list of conditions and the following disclaimer
+in the documentation and/or other materials provided with the
+distribution.
+    * Neither the name of Google Inc. nor the names of its
+contributors may be used to endorse or promote products derived from
+this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,           
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY           
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+*/
+
+package com.google.refine.clustering;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.google.refine.browsing.Engine;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.util.ParsingUtilities;
+
+public abstract class Clusterer  {
+
+    protected Project _project;
+    protected int _colindex;
+
+    public abstract void computeClusters(Engine engine);
+
+    /**
+     * @return the number of clusters found by the last call to
+     *      {@link #computeClusters(Engine)}. Clusterers which do not override
+     *      this serialize all their clusters to count them.
+     */
+    public int getClusterCount() {
+        return getJsonClusters().size();
+    }
+
+    /**
+     * Returns a page of the clusters, largest first. Cluster entries are only
+     * built as the stream is consumed.
+     * 
+     * Clusterers which do not override this are serialized to JSON, as they
+     * used to be returned: an array of clusters, sorted by the clusterer, each
+     * holding entries with a value "v" and a count "c".
+     * 
+     * @param offset
+     *      the number of clusters to skip
+     * @param limit
+     *      the maximum number of clusters to return, or a negative number
+     *      to return all remaining clusters
+     */
+    public Stream<List<ClusteredEntry>> getClusters(int offset, int limit) {
+        Stream<JsonNode> clusters = StreamSupport.stream(getJsonClusters().spliterator(), false)
+                .skip(Math.max(offset, 0));
+        if (limit >= 0) {
+            clusters = clusters.limit(limit);
+        }
+        return clusters.map(cluster -> StreamSupport.stream(cluster.spliterator(), false)
+                .map(entry -> new ClusteredEntry(
+                        (Serializable) ParsingUtilities.mapper.convertValue(entry.get("v"), Object.class),
+                        entry.get("c").asInt()))
+                .collect(Collectors.toList()));
+    }
+
+    private ArrayNode getJsonClusters() {
+        return ParsingUtilities.mapper.valueToTree(this);
+    }
+
+    /**
+     * Writes a page of the clusters as a JSON array, one cluster at a time.
+     */
+    public void writeClusters(JsonGenerator generator, int offset, int limit) throws IOException {
+        generator.writeStartArray();
+        Iterator<List<ClusteredEntry>> clusters = getClusters(offset, limit).iterator();
+        while (clusters.hasNext()) {
+            generator.writeObject(clusters.next());
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Returns a page of clusters which the clusterer sorted once, when
+     * computing them, so that each page is only a slice of that order.
+     */
+    protected static <T> List<T> sliceClusters(List<T> sorted, int offset, int limit) {
+        int n = sorted.size();
+        int from = Math.min(Math.max(offset, 0), n);
+        int to = limit < 0 ? n : (int) Math.min((long) from + limit, n);
+        return sorted.subList(from, to);
+    }
+    
+    protected void initializeFromConfig(Project project, ClustererConfig c) {
+        _project = project;
+
+        String colname = c.getColumnName();
+        for (Column column : project.columnModel.columns) {
+            if (column.getName().equals(colname)) {
+                _colindex = column.getCellIndex();
+            }
+        }
+    }
+}
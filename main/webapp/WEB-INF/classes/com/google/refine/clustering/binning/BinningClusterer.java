@@ -0,0 +1,302 @@
+/*
+
+Copyright 2010, Google Inc.
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above
+copyright notice, this list of conditions and the following disclaimer
+in the documentation and/or other materials provided with the
+distribution.
+    * Neither the name of Google Inc. nor the names of its
+contributors may be used to endorse or promote products derived from
+this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,           
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY           
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+*/
+
+package com.google.refine.clustering.binning;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.clustering.ClusteredEntry;
+import com.google.refine.clustering.Clusterer;
+import com.google.refine.clustering.ClustererConfig;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+public class BinningClusterer extends Clusterer {
+    
+    public static class BinningClustererConfig extends ClustererConfig {
+       
+        @JsonIgnore
+        private String _keyerName;
+        @JsonIgnore
+        private Keyer _keyer;
+        @JsonIgnore
+        private BinningParameters _parameters = null;
+        
+        @JsonIgnore
+        public Keyer getKeyer() {
+            return _keyer;
+        }
+        
+        @JsonProperty("function")
+        public void setKeyer(String keyerName) {
+        	_keyerName = keyerName;
+        	_keyer = KeyerFactory.get(_keyerName.toLowerCase());
+        }
+        
+        @JsonProperty("function")
+        public String getKeyerName() {
+        	return _keyerName;
+        }
+        
+        @JsonProperty("params")
+        @JsonInclude(Include.NON_NULL)
+        public BinningParameters getParameters() {
+            return _parameters;
+        }
+        
+        @JsonProperty("params")
+        public void setParameters(BinningParameters params) {
+        	_parameters = params;
+        }
+
+        @Override
+        public BinningClusterer apply(Project project) {
+            BinningClusterer clusterer = new BinningClusterer();
+            clusterer.initializeFromConfig(project, this);
+            return clusterer;
+        }
+
+        @Override
+        public String getType() {
+            return "binning";
+        }
+        
+    }
+    
+    public static class BinningParameters  {
+        @JsonProperty("ngram-size")
+        @JsonInclude(Include.NON_DEFAULT)
+        public int ngramSize = 0;
+    }
+
+    protected Keyer _keyer;
+    protected BinningParameters _parameters;
+    
+    final static Logger logger = LoggerFactory.getLogger("binning_clusterer");
+    
+    List<Map<String,Integer>> _clusters;
+    
+    protected Map<String,String> _keyCache = null;
+
+    /**
+     * Number of distinct values above which they are keyed in parallel
+     * on the common fork/join pool, if the keyer is thread-safe.
+     */
+    static final int PARALLEL_KEYING_THRESHOLD = 1024;
+
+    /**
+     * Counts the occurrences of each distinct value of the column, remembering
+     * the order in which they are first encountered, so that each distinct
+     * value only needs to be keyed once.
+     */
+    class BinningRowVisitor implements RowVisitor {
+
+        Map<String,Integer> _counts = new LinkedHashMap<String,Integer>();
+        
+        @Override
+        public void start(Project project) {
+            // nothing to do
+        }
+
+        @Override
+        public void end(Project project) {
+            // nothing to do
+        }
+        
+        @Override
+        public boolean visit(Project project, int rowIndex, Row row) {
+            Cell cell = row.getCell(_colindex);
+            if (cell != null && cell.value != null) {
+                Object v = cell.value;
+                String s = (v instanceof String) ? ((String) v) : v.toString();
+                _counts.merge(s, 1, Integer::sum);
+            }
+            return false;
+        }
+        
+        public Map<String,Integer> getCounts() {
+            return _counts;
+        }
+    }
+
+    /**
+     * Groups distinct values by key. Keys are inserted in the order of the
+     * first value producing them, as if the values were keyed row by row.
+     */
+    protected static Map<String,Map<String,Integer>> groupByKey(
+            Map<String,Integer> counts, Keyer keyer, Object[] params) {
+        return groupByKey(counts, keyer, params, null);
+    }
+
+    /**
+     * Same as {@link #groupByKey(Map, Keyer, Object[])}, looking keys up in
+     * the given cache first and storing the missing ones in it.
+     * 
+     * @param keyCache
+     *      a thread-safe map from values to keys, or null
+     */
+    protected static Map<String,Map<String,Integer>> groupByKey(
+            Map<String,Integer> counts, Keyer keyer, Object[] params, Map<String,String> keyCache) {
+        List<String> values = new ArrayList<String>(counts.keySet());
+        String[] keys = new String[values.size()];
+        IntStream indices = IntStream.range(0, keys.length);
+        if (keys.length > PARALLEL_KEYING_THRESHOLD && keyer.isThreadSafe()) {
+            indices = indices.parallel();
+        }
+        if (keyCache == null) {
+            indices.forEach(i -> keys[i] = keyer.key(values.get(i), params));
+        } else {
+            indices.forEach(i -> keys[i] = keyCache.computeIfAbsent(values.get(i), v -> keyer.key(v, params)));
+        }
+
+        Map<String,Map<String,Integer>> map = new HashMap<String,Map<String,Integer>>();
+        for (int i = 0; i < keys.length; i++) {
+            String value = values.get(i);
+            map.computeIfAbsent(keys[i], k -> new TreeMap<String,Integer>())
+                .put(value, counts.get(value));
+        }
+        return map;
+    }
+            
+    public static class SizeComparator implements Comparator<Map<String,Integer>>, Serializable {
+        private static final long serialVersionUID = -1390696157208674054L;
+        @Override
+        public int compare(Map<String,Integer> o1, Map<String,Integer> o2) {
+            int s1 = o1.size();
+            int s2 = o2.size();
+            if (o1 == o2) {
+                int total1 = 0;
+                for (int i : o1.values()) {
+                    total1 += i;
+                }
+                int total2 = 0;
+                for (int i : o2.values()) {
+                    total2 += i;
+                }
+                return total2 - total1;
+            } else {
+                return s2 - s1;
+            }
+        }
+    }
+
+    public static class EntriesComparator implements Comparator<Entry<String,Integer>>, Serializable {
+        private static final long serialVersionUID = 2763378036791777964L;
+        @Override
+        public int compare(Entry<String,Integer> o1, Entry<String,Integer> o2) {
+            return o2.getValue() - o1.getValue();
+        }
+    }
+    
+    public void initializeFromConfig(Project project, BinningClustererConfig config) {
+        super.initializeFromConfig(project, config);
+        _keyer = config.getKeyer();
+        _parameters = config.getParameters();
+    }
+
+    /**
+     * Makes {@link #computeClusters(Engine)} reuse the keys of values already
+     * keyed with the same keyer and parameters. The cache must be thread-safe.
+     */
+    public void setKeyCache(Map<String,String> keyCache) {
+        _keyCache = keyCache;
+    }
+
+    @Override
+    public void computeClusters(Engine engine) {
+        BinningRowVisitor visitor = new BinningRowVisitor();
+        FilteredRows filteredRows = engine.getAllFilteredRows();
+        filteredRows.accept(_project, visitor);
+
+        Object[] params = null;
+        if (_keyer instanceof NGramFingerprintKeyer && _parameters != null) {
+            params = new Object[] { _parameters.ngramSize };
+        }
+        Map<String,Map<String,Integer>> map = groupByKey(visitor.getCounts(), _keyer, params, _keyCache);
+        // sorted once, so that pages of clusters are slices of this list
+        _clusters = map.values().stream()
+                .filter(m -> m.size() > 1)
+                .sorted(new SizeComparator())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public int getClusterCount() {
+        return _clusters.size();
+    }
+
+    @Override
+    public Stream<List<ClusteredEntry>> getClusters(int offset, int limit) {
+        EntriesComparator c = new EntriesComparator();
+        return sliceClusters(_clusters, offset, limit).stream()
+                .map(m -> m.entrySet().stream()
+                        .sorted(c)
+                        .map(e -> new ClusteredEntry(e.getKey(), e.getValue()))
+                        .collect(Collectors.toList()));
+    }
+    
+    protected static Map<String,Object> entryToMap(Entry<String,Integer> entry) {
+        Map<String,Object> map = new HashMap<>();
+        map.put("v", entry.getKey());
+        map.put("c", entry.getValue());
+        return map;
+    }
+    
+    @JsonValue
+    public List<List<ClusteredEntry>> getJsonRepresentation() {
+        return getClusters(0, -1).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.clustering.knn;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.colloquial.arithcode.ppm.ArithCodeModel;
+import com.colloquial.arithcode.ppm.ByteSet;
+import com.colloquial.arithcode.ppm.PPMModel;
+
+/**
+ * Wraps an arithcode {@link PPMModel} so that it can be reset and reused
+ * instead of allocating a new model for each string compressed. PPMModel is
+ * final and has no reset method, so its state is cleared through reflection;
+ * if the fields are not found in this version of arithcode, a new model is
+ * created on each reset instead.
+ * 
+ * Instances are not thread-safe.
+ */
+final class ResettablePPMModel implements ArithCodeModel {
+
+    private static final Logger logger = LoggerFactory.getLogger("resettable_ppm_model");
+
+    private static final Field CONTEXTS;
+    private static final Field CONTEXT_LENGTH;
+    private static final Field CONTEXT_NODE;
+    private static final Field EXCLUDED_BYTES;
+    private static final Field BACKOFF_MODEL;
+    private static final Field BACKOFF_COUNTS;
+    private static final Field BUFFER;
+    private static final Field BUFFER_OFFSET;
+    private static final Field BUFFER_LENGTH;
+    static final boolean RESETTABLE;
+
+    static {
+        Field[] fields = new Field[9];
+        boolean resettable = false;
+        try {
+            fields[0] = accessible(PPMModel.class, "_contexts");
+            fields[1] = accessible(PPMModel.class, "_contextLength");
+            fields[2] = accessible(PPMModel.class, "_contextNode");
+            fields[3] = accessible(PPMModel.class, "_excludedBytes");
+            fields[4] = accessible(PPMModel.class, "_backoffModel");
+            fields[5] = accessible(fields[4].getType(), "_count");
+            fields[6] = accessible(PPMModel.class, "_buffer");
+            fields[7] = accessible(fields[6].getType(), "_offset");
+            fields[8] = accessible(fields[6].getType(), "_length");
+            resettable = true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.warn("Cannot reset PPM models, a new one will be created for each string", e);
+        }
+        CONTEXTS = fields[0];
+        CONTEXT_LENGTH = fields[1];
+        CONTEXT_NODE = fields[2];
+        EXCLUDED_BYTES = fields[3];
+        BACKOFF_MODEL = fields[4];
+        BACKOFF_COUNTS = fields[5];
+        BUFFER = fields[6];
+        BUFFER_OFFSET = fields[7];
+        BUFFER_LENGTH = fields[8];
+        RESETTABLE = resettable;
+    }
+
+    private final int _maxContextLength;
+    private PPMModel _model;
+
+    ResettablePPMModel(int maxContextLength) {
+        _maxContextLength = maxContextLength;
+        _model = new PPMModel(maxContextLength);
+    }
+
+    /**
+     * Forgets everything learnt so far, as if the model had just been created.
+     */
+    void reset() {
+        if (!RESETTABLE) {
+            _model = new PPMModel(_maxContextLength);
+            return;
+        }
+        try {
+            Arrays.fill((Object[]) CONTEXTS.get(_model), null);
+            CONTEXT_LENGTH.setInt(_model, 0);
+            CONTEXT_NODE.set(_model, null);
+            ((ByteSet) EXCLUDED_BYTES.get(_model)).clear();
+            Arrays.fill((int[]) BACKOFF_COUNTS.get(BACKOFF_MODEL.get(_model)), 1);
+            // the bytes left in the buffer are overwritten before being read again
+            Object buffer = BUFFER.get(_model);
+            BUFFER_OFFSET.setInt(buffer, 0);
+            BUFFER_LENGTH.setInt(buffer, 0);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Field accessible(Class<?> type, String name) throws NoSuchFieldException {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        return field;
+    }
+
+    @Override
+    public boolean escaped(int symbol) {
+        return _model.escaped(symbol);
+    }
+
+    @Override
+    public void exclude(int i) {
+        _model.exclude(i);
+    }
+
+    @Override
+    public void interval(int symbol, int[] result) {
+        _model.interval(symbol, result);
+    }
+
+    @Override
+    public int pointToSymbol(int midCount) {
+        return _model.pointToSymbol(midCount);
+    }
+
+    @Override
+    public int totalCount() {
+        return _model.totalCount();
+    }
+
+    @Override
+    public void increment(int i) {
+        _model.increment(i);
+    }
+}
@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (C) 2018, Antonin Delpeuch
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.clustering.knn;
+
+/**
+ * A function that computes a similarity distance between
+ * two strings.
+ * 
+ * This is introduced to provide a clean interface for extensions, independent
+ * of the library currently used (Simile Vicino, unmaintained since 2010 as of
+ * December 2018).
+ */
+public interface SimilarityDistance {
+	/**
+	 * Compute the distance between two strings. This should return 0 when the
+	 * two arguments are equal, and rise as their differences increase.
+	 */
+	public double compute(String a, String b);
+
+	/**
+	 * Tells whether two strings are within a given radius of each other,
+	 * with the distance computed in either order. This is how kNN clustering
+	 * decides to put two strings in the same cluster. A negative radius
+	 * accepts all pairs. Implementations may stop computing the distance as
+	 * soon as it is known to exceed the radius.
+	 */
+	public default boolean isWithin(String a, String b, double radius) {
+		return radius < 0 || compute(a, b) <= radius || compute(b, a) <= radius;
+	}
+}
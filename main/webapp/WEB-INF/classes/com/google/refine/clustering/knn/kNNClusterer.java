@@ -0,0 +1,381 @@
+/*
+
+Copyright 2010, Google Inc.
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above
+copyright notice, this list of conditions and the following disclaimer
+in the documentation and/or other materials provided with the
+distribution.
+    * Neither the name of Google Inc. nor the names of its
+contributors may be used to endorse or promote products derived from
+this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,           
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY           
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+*/
+
+package com.google.refine.clustering.knn;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.clustering.ClusteredEntry;
+import com.google.refine.clustering.Clusterer;
+import com.google.refine.clustering.ClustererConfig;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+import com.wcohen.ss.api.Token;
+
+import edu.mit.simile.vicino.NGramTokenizer;
+import edu.mit.simile.vicino.clustering.VPTreeClusterer;
+import edu.mit.simile.vicino.distances.Distance;
+
+public class kNNClusterer extends Clusterer {
+    
+    public static class kNNClustererConfig extends ClustererConfig {
+        @JsonIgnore
+        private String _distanceStr;
+        @JsonIgnore
+        private SimilarityDistance _distance;
+        @JsonIgnore
+        private kNNClustererConfigParameters _parameters = null;
+        
+        @JsonIgnore
+        public SimilarityDistance getDistance() {
+            return _distance;
+        }
+        
+        @JsonProperty("function")
+        public void setDistance(String distanceStr) {
+        	_distanceStr = distanceStr;
+        	_distance = DistanceFactory.get(_distanceStr.toLowerCase());
+        }
+        
+        @JsonProperty("function")
+        public String getDistanceStr() {
+        	return _distanceStr;
+        }
+        
+        @JsonProperty("params")
+        public kNNClustererConfigParameters getParameters() {
+            return _parameters;
+        }
+        
+        @JsonProperty("params")
+        public void setParameters(kNNClustererConfigParameters params) {
+        	_parameters = params;
+        }
+
+        @Override
+        public kNNClusterer apply(Project project) {
+            kNNClusterer clusterer = new kNNClusterer();
+            clusterer.initializeFromConfig(project, this);
+            return clusterer;
+        }
+
+        @Override
+        public String getType() {
+            return "knn";
+        }
+        
+    }
+    
+    public static class kNNClustererConfigParameters  {
+        public static final double defaultRadius = 1.0d;
+        public static final int defaultBlockingNgramSize = 6;
+        public static final String NGRAM_BLOCKING = "ngram";
+        public static final String MINHASH_BLOCKING = "minhash";
+        public static final int defaultMinHashBands = 20;
+        public static final int defaultMinHashRows = 4;
+        @JsonProperty("radius")
+        public double radius = defaultRadius;
+        @JsonProperty("blocking-ngram-size")
+        public int blockingNgramSize = defaultBlockingNgramSize;
+        /**
+         * How values are grouped before being compared: all values sharing an n-gram
+         * ("ngram", the default) or values with similar MinHash signatures over their
+         * n-grams ("minhash").
+         */
+        @JsonProperty("blocking")
+        @JsonInclude(Include.NON_NULL)
+        public String blocking = null;
+        // 0 stands for the default number of bands and rows
+        @JsonProperty("minhash-bands")
+        @JsonInclude(Include.NON_DEFAULT)
+        public int minHashBands = 0;
+        @JsonProperty("minhash-rows")
+        @JsonInclude(Include.NON_DEFAULT)
+        public int minHashRows = 0;
+    }
+
+    private SimilarityDistance _distance;
+    private kNNClustererConfigParameters _params;
+
+    List<Set<Serializable>> _clusters;
+
+    Map<Serializable, Integer> _counts = new HashMap<Serializable, Integer>();
+
+    final static Logger logger = LoggerFactory.getLogger("kNN_clusterer");
+
+    class VPTreeClusteringRowVisitor implements RowVisitor {
+
+        Distance _distance;
+        kNNClustererConfigParameters _params;
+        VPTreeClusterer _clusterer;
+        
+        public VPTreeClusteringRowVisitor(Distance d, kNNClustererConfigParameters params) {
+            _distance = d;
+            _clusterer = new VPTreeClusterer(_distance);
+            _params = params;
+        }
+        
+        @Override
+        public void start(Project project) {
+            // nothing to do
+        }
+
+        @Override
+        public void end(Project project) {
+            // nothing to do
+        }
+        
+        @Override
+        public boolean visit(Project project, int rowIndex, Row row) {
+            Cell cell = row.getCell(_colindex);
+            if (cell != null && cell.value != null) {
+                Object v = cell.value;
+                String s = (v instanceof String) ? ((String) v) : v.toString();
+                _clusterer.populate(s);
+                count(s);
+            }
+            return false;
+        }
+        
+        public List<Set<Serializable>> getClusters() {
+            return _clusterer.getClusters(_params.radius);
+        }
+    }
+
+    /**
+     * Collects the distinct values of the column, then compares the values
+     * within each block: values sharing an n-gram, or with similar MinHash
+     * signatures. Each distinct value is only tokenized once, chunks of
+     * blocks are compared in parallel and pairs already known to be within
+     * the radius are not compared again.
+     */
+    class BlockingClusteringRowVisitor implements RowVisitor {
+
+        SimilarityDistance _distance;
+        double _radius = 1.0d;
+        int _blockingNgramSize = 6;
+        MinHashBlocker _minHashBlocker = null;
+        Map<String, Integer> _indices = new HashMap<String, Integer>();
+        List<String> _values = new ArrayList<String>();
+        
+        public BlockingClusteringRowVisitor(SimilarityDistance _distance2, kNNClustererConfigParameters params) {
+            _distance = _distance2;
+            _blockingNgramSize = params.blockingNgramSize;
+            _radius = params.radius;
+            if (kNNClustererConfigParameters.MINHASH_BLOCKING.equals(params.blocking)) {
+                _minHashBlocker = new MinHashBlocker(_blockingNgramSize,
+                        params.minHashBands > 0 ? params.minHashBands : kNNClustererConfigParameters.defaultMinHashBands,
+                        params.minHashRows > 0 ? params.minHashRows : kNNClustererConfigParameters.defaultMinHashRows);
+            } else if (params.blocking != null && !kNNClustererConfigParameters.NGRAM_BLOCKING.equals(params.blocking)) {
+                throw new IllegalArgumentException("Unknown blocking strategy: " + params.blocking);
+            }
+        }
+        
+        @Override
+        public void start(Project project) {
+            // nothing to do
+        }
+
+        @Override
+        public void end(Project project) {
+            // nothing to do
+        }
+        
+        @Override
+        public boolean visit(Project project, int rowIndex, Row row) {
+            Cell cell = row.getCell(_colindex);
+            if (cell != null && cell.value != null) {
+                Object v = cell.value;
+                String s = (v instanceof String) ? ((String) v) : v.toString().intern();
+                if (!_indices.containsKey(s)) {
+                    _indices.put(s, _values.size());
+                    _values.add(s);
+                }
+                count(s);
+            }
+            return false;
+        }
+        
+        protected Collection<List<Integer>> getBlocks() {
+            if (_minHashBlocker != null) {
+                return _minHashBlocker.getBlocks(_values);
+            }
+            NGramTokenizer tokenizer = new NGramTokenizer(_blockingNgramSize);
+            Map<String, List<Integer>> blocks = new HashMap<String, List<Integer>>();
+            for (int i = 0; i < _values.size(); i++) {
+                for (Token token : tokenizer.tokenize(_values.get(i))) {
+                    // blocks are added with put() as Vicino does: computeIfAbsent() grows
+                    // the map at other times, which would change the order of the blocks
+                    List<Integer> block = blocks.get(token.getValue());
+                    if (block == null) {
+                        block = new ArrayList<Integer>();
+                        blocks.put(token.getValue(), block);
+                    }
+                    if (block.isEmpty() || block.get(block.size() - 1) != i) {
+                        block.add(i);
+                    }
+                }
+            }
+            return blocks.values();
+        }
+
+        /**
+         * Splits the blocks in as many consecutive chunks as there are processors,
+         * as Vicino's NGramClusterer does, and forms a cluster of each value with
+         * the values it is linked to within the same chunk. This keeps the clusters
+         * it used to return: a chain of values a ~ b ~ c only gives a cluster
+         * {a, b, c} when both links are found in the same chunk. Links found in one
+         * chunk are not computed again in the others.
+         */
+        public List<Set<Serializable>> getClusters() {
+            List<List<Integer>> blocks = new ArrayList<List<Integer>>(getBlocks());
+            int chunks = Runtime.getRuntime().availableProcessors();
+            int chunkSize = blocks.size() / chunks + 1;
+            long n = _values.size();
+            Set<Long> linked = ConcurrentHashMap.newKeySet();
+            Set<Set<Serializable>> clusters = ConcurrentHashMap.newKeySet();
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                Map<Integer, Set<Serializable>> neighbours = new HashMap<Integer, Set<Serializable>>();
+                int end = Math.min(chunkSize * (chunk + 1), blocks.size());
+                for (int i = chunkSize * chunk; i < end; i++) {
+                    List<Integer> block = blocks.get(i);
+                    for (int x = 0; x < block.size(); x++) {
+                        int a = block.get(x);
+                        for (int y = x + 1; y < block.size(); y++) {
+                            int b = block.get(y);
+                            Long pair = a < b ? a * n + b : b * n + a;
+                            if (linked.contains(pair)
+                                    || _distance.isWithin(_values.get(a), _values.get(b), _radius)) {
+                                linked.add(pair);
+                                neighbours.computeIfAbsent(a, k -> new TreeSet<Serializable>(Collections.singleton(_values.get(a))))
+                                        .add(_values.get(b));
+                                neighbours.computeIfAbsent(b, k -> new TreeSet<Serializable>(Collections.singleton(_values.get(b))))
+                                        .add(_values.get(a));
+                            }
+                        }
+                    }
+                }
+                clusters.addAll(neighbours.values());
+            });
+            // clusters are sorted by size when they are listed
+            return new ArrayList<Set<Serializable>>(clusters);
+        }
+    }
+    
+    public void initializeFromConfig(Project project, kNNClustererConfig config) {
+        super.initializeFromConfig(project, config);
+        _distance = config.getDistance();
+        _params = config.getParameters();
+    }
+
+    @Override
+    public void computeClusters(Engine engine) {
+        //VPTreeClusteringRowVisitor visitor = new VPTreeClusteringRowVisitor(_distance,_config);
+        BlockingClusteringRowVisitor visitor = new BlockingClusteringRowVisitor(_distance,_params);
+        FilteredRows filteredRows = engine.getAllFilteredRows();
+        filteredRows.accept(_project, visitor);
+     
+        // sorted once, so that pages of clusters are slices of this list
+        Comparator<Set<Serializable>> bySize = (c1, c2) -> c2.size() - c1.size();
+        _clusters = visitor.getClusters().stream()
+                .filter(m -> m.size() > 1)
+                .sorted(bySize)
+                .collect(Collectors.toList());
+    }
+
+    public static class ValuesComparator implements Comparator<Entry<Serializable,Integer>>, Serializable {
+        private static final long serialVersionUID = 204469656070583155L;
+        @Override
+        public int compare(Entry<Serializable,Integer> o1, Entry<Serializable,Integer> o2) {
+            return o2.getValue() - o1.getValue();
+        }
+    }
+    
+    protected List<ClusteredEntry> getClusteredEntries(Set<Serializable> s) {
+        return s.stream()
+                .map(e -> new ClusteredEntry(e, _counts.get(e)))
+                .sorted(ClusteredEntry.comparator)
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    public int getClusterCount() {
+        return _clusters.size();
+    }
+
+    @Override
+    public Stream<List<ClusteredEntry>> getClusters(int offset, int limit) {
+        return sliceClusters(_clusters, offset, limit).stream()
+                .map(m -> getClusteredEntries(m));
+    }
+
+    @JsonValue
+    public List<List<ClusteredEntry>> getJsonRepresentation() {
+        return getClusters(0, -1).collect(Collectors.toList());
+    }
+    
+    private void count(Serializable s) {
+        if (_counts.containsKey(s)) {
+            _counts.put(s, _counts.get(s) + 1);
+        } else {
+            _counts.put(s, 1);
+        }
+    }
+}
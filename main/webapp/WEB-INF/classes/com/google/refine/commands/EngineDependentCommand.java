@@ -0,0 +1,92 @@
+/*
+
+Copyright 2010, Google Inc.
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above
+copyright notice, this list of conditions and the following disclaimer
+in the documentation and/or other materials provided with the
+distribution.
+    * Neither the name of Google Inc. nor the names of its
+contributors may be used to endorse or promote products derived from
+this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,           
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY           
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+*/
+
+package com.google.refine.commands;
+
+import java.io.IOException;
+import java.util.Properties;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.google.refine.browsing.EngineConfig;
+import com.google.refine.model.AbstractOperation;
+import com.google.refine.model.Project;
+import com.google.refine.process.Process;
+
+/**
+ * Convenient super class for commands that perform abstract operations on
+ * only the filtered rows based on the faceted browsing engine's configuration
+ * on the client side. 
+ * 
+ * The engine's configuration is passed over as a POST body parameter. It is 
+ * retrieved, de-serialized, and used to construct the abstract operation.
+ * The operation is then used to construct a process. The process is then
+ * queued for execution. If the process is not long running and there is no
+ * other queued process, then it gets executed right away, resulting in some
+ * change to the history. Otherwise, it is pending. The client side can
+ * decide how to update its UI depending on whether the process is done or
+ * still pending.
+ * 
+ * Note that there are interactions on the client side that change only 
+ * individual cells or individual rows (such as starring one row or editing 
+ * the text of one cell). These interactions do not depend on the faceted
+ * browsing engine's configuration, and so they don't invoke commands that
+ * subclass this class. See AnnotateOneRowCommand and EditOneCellCommand as
+ * examples. 
+ */
+abstract public class EngineDependentCommand extends Command {
+    @Override
+    public void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+    	if(!hasValidCSRFToken(request)) {
+    		respondCSRFError(response);
+    		return;
+    	}
+        
+        try {
+            Project project = getProject(request);
+            
+            AbstractOperation op = createOperation(project, request, getEngineConfig(request));
+            Process process = op.createProcess(project, new Properties());
+            
+            performProcessAndRespond(request, response, project, process);
+        } catch (Exception e) {
+            respondException(response, e);
+        }
+    }
+    
+    abstract protected AbstractOperation createOperation(
+            Project project, HttpServletRequest request, EngineConfig engineConfig) throws Exception;
+}
@@ -0,0 +1,148 @@
+/*
+
+Copyright 2010, Google Inc.
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above
+copyright notice, this list of conditions and the following disclaimer
+in the documentation and/or other materials provided with the
+distribution.
+    * Neither the name of Google Inc. nor the names of its
+contributors may be used to endorse or promote products derived from
+this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,           
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY           
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+*/
+
+package com.google.refine.commands.browsing;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.browsing.CancellationToken;
+import com.google.refine.browsing.Engine;
+import com.google.refine.commands.Command;
+import com.google.refine.model.Project;
+
+public class ComputeFacetsCommand extends Command {
+
+    /**
+     * Server-wide cap on the number of facet computations running at the same time.
+     */
+    static final protected Semaphore s_permits = new Semaphore(
+            Integer.getInteger("refine.facets.maxConcurrent", Runtime.getRuntime().availableProcessors()), true);
+
+    /**
+     * Computations in progress, keyed by client and project, so that a newer request
+     * from the same client can cancel the one it supersedes.
+     */
+    static final protected Map<String, CancellationToken> s_pending = new ConcurrentHashMap<>();
+
+    static final protected long PERMIT_POLL_INTERVAL = 100;
+
+    /**
+     * This command uses POST (probably to allow for larger parameters) but does not actually modify any state
+     * so we do not add CSRF protection to it.
+     */
+    @Override
+    public void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        
+        try {
+            Project project = getProject(request);
+            Engine engine = getEngine(request, project);
+            // each facet visits all rows through the filters of all other facets
+            engine.enableEvaluationMemo();
+            
+            CancellationToken token = new CancellationToken(getTimeout(request));
+            engine.setCancellationToken(token);
+            
+            String clientId = request.getParameter("clientId");
+            String key = clientId == null ? null : clientId + ";" + project.id;
+            if (key != null) {
+                CancellationToken superseded = s_pending.put(key, token);
+                if (superseded != null) {
+                    superseded.cancel();
+                }
+            }
+            try {
+                if (acquirePermit(token)) {
+                    try {
+                        engine.computeFacets();
+                    } finally {
+                        s_permits.release();
+                    }
+                } else {
+                    // Cancelled before it could start: report all facets as truncated
+                    engine.computeFacets();
+                }
+            } finally {
+                if (key != null) {
+                    s_pending.remove(key, token);
+                }
+            }
+            
+            respondJSON(response, engine);
+        } catch (Exception e) {
+            respondException(response, e);
+        }
+    }
+    
+    /**
+     * Waits for a computation slot, giving up if the token fires in the meantime.
+     */
+    static protected boolean acquirePermit(CancellationToken token) throws InterruptedException {
+        while (!token.isCancelled()) {
+            long wait = Math.min(PERMIT_POLL_INTERVAL, token.getRemainingTime());
+            if (s_permits.tryAcquire(wait, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * The time budget in milliseconds, taken from the "timeout" parameter or else
+     * from the "ui.browsing.facets.timeout" preference. 0 means unlimited.
+     */
+    static protected long getTimeout(HttpServletRequest request) {
+        String timeout = request.getParameter("timeout");
+        if (timeout == null) {
+            Object v = ProjectManager.singleton.getPreferenceStore().get("ui.browsing.facets.timeout");
+            timeout = v == null ? null : v.toString();
+        }
+        if (timeout != null) {
+            try {
+                return Long.parseLong(timeout);
+            } catch (NumberFormatException e) {
+                // ignore
+            }
+        }
+        return 0;
+    }
+}
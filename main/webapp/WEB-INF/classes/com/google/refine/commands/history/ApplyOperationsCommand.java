@@ -0,0 +1,97 @@
+/*
+
+Copyright 2010, Google Inc.
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above
+copyright notice, this list of conditions and the following disclaimer
+in the documentation and/or other materials provided with the
+distribution.
+    * Neither the name of Google Inc. nor the names of its
+contributors may be used to endorse or promote products derived from
+this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,           
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY           
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+*/
+
+package com.google.refine.commands.history;
+
+import java.io.IOException;
+import java.util.Properties;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.refine.commands.Command;
+import com.google.refine.model.AbstractOperation;
+import com.google.refine.model.Project;
+import com.google.refine.operations.UnknownOperation;
+import com.google.refine.process.Process;
+import com.google.refine.util.ParsingUtilities;
+
+public class ApplyOperationsCommand extends Command {
+    
+    @Override
+    public void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+    	if(!hasValidCSRFToken(request)) {
+    		respondCSRFError(response);
+    		return;
+    	}
+        
+        Project project = getProject(request);
+        String jsonString = request.getParameter("operations");
+        try {
+            ArrayNode a = ParsingUtilities.evaluateJsonStringToArrayNode(jsonString);
+            int count = a.size();
+            for (int i = 0; i < count; i++) {
+            	if (a.get(i) instanceof ObjectNode) {
+	                ObjectNode obj = (ObjectNode) a.get(i);
+	                
+	                reconstructOperation(project, obj);
+            	}
+            }
+
+            if (project.processManager.hasPending()) {
+                respond(response, "{ \"code\" : \"pending\" }");
+            } else {
+                respond(response, "{ \"code\" : \"ok\" }");
+            }
+        } catch (IOException e) {
+            respondException(response, e);
+        }
+    }
+    
+    protected void reconstructOperation(Project project, ObjectNode obj) throws IOException {
+        AbstractOperation operation = ParsingUtilities.mapper.convertValue(obj, AbstractOperation.class);
+        if (operation != null && !(operation instanceof UnknownOperation)) {
+            try {
+                Process process = operation.createProcess(project, new Properties());
+                
+                project.processManager.queueProcess(process);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+
+Copyright 2011, Thomas F. Morris
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above
+copyright notice, this list of conditions and the following disclaimer
+in the documentation and/or other materials provided with the
+distribution.
+    * Neither the name of Google Inc. nor the names of its
+contributors may be used to endorse or promote products derived from
+this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,           
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY           
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+*/
+
+package com.google.refine.importers;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.refine.ProjectMetadata;
+import com.google.refine.importing.ImportingJob;
+import com.google.refine.importing.ImportingUtilities;
+import com.google.refine.model.Project;
+import com.google.refine.util.JSONUtilities;
+import com.google.refine.util.ParsingUtilities;
+
+
+public class OdsImporter extends TabularImportingParserBase { 
+    final static Logger logger = LoggerFactory.getLogger("open office");
+
+    public OdsImporter() {
+        super(true);
+    }
+
+    
+    @Override
+    public ObjectNode createParserUIInitializationData(
+            ImportingJob job, List<ObjectNode> fileRecords, String format) {
+        ObjectNode options = super.createParserUIInitializationData(job, fileRecords, format);
+
+        ArrayNode sheetRecords = ParsingUtilities.mapper.createArrayNode();
+        JSONUtilities.safePut(options, "sheetRecords", sheetRecords);
+        try {
+            for (int index = 0;index < fileRecords.size();index++) {
+                ObjectNode fileRecord = fileRecords.get(index);
+                File file = ImportingUtilities.getFile(job, fileRecord);
+                try (ZipFile zipFile = new ZipFile(file)) {
+                    ZipEntry content = zipFile.getEntry("content.xml");
+                    if (content == null) {
+                        throw new IOException("No content.xml found in the OpenDocument file");
+                    }
+                    // the sheets are counted in a single pass over the document
+                    try (OdsSpreadsheetReader reader = new OdsSpreadsheetReader(zipFile.getInputStream(content))) {
+                        String sheetName;
+                        while ((sheetName = reader.nextSheet()) != null) {
+                            int rows = reader.countRows();
+
+                            ObjectNode sheetRecord = ParsingUtilities.mapper.createObjectNode();
+                            JSONUtilities.safePut(sheetRecord, "name",  file.getName() + "#" + sheetName);
+                            JSONUtilities.safePut(sheetRecord, "fileNameAndSheetIndex", file.getName() + "#" + reader.getSheetIndex());
+                            JSONUtilities.safePut(sheetRecord, "rows", rows);
+                            if (rows > 0) {
+                                JSONUtilities.safePut(sheetRecord, "selected", true);
+                            } else {
+                                JSONUtilities.safePut(sheetRecord, "selected", false);
+                            }
+                            JSONUtilities.append(sheetRecords, sheetRecord);
+                        }
+                    }
+                }
+            }
+        } catch (FileNotFoundException e) {
+            logger.info("File not found",e);
+        } catch (IOException e) {
+            logger.info("Error reading ODF spreadsheet",e);
+        }
+        return options;
+    }
+    
+
+    @Override
+    public void parseOneFile(
+            Project project,
+            ProjectMetadata metadata,
+            ImportingJob job,
+            String fileSource,
+            InputStream inputStream,
+            int limit,
+            ObjectNode options,
+            List<Exception> exceptions
+    ) {
+        // the document is streamed, so its sheets are read in document order
+        Set<Integer> sheetIndices = new HashSet<>();
+        ArrayNode sheets = JSONUtilities.getArray(options, "sheets");
+        for(int i=0;i<sheets.size();i++)  {
+            String[] fileNameAndSheetIndex = new String[2];
+            ObjectNode sheetObj = JSONUtilities.getObjectElement(sheets, i);
+            // value is fileName#sheetIndex
+            fileNameAndSheetIndex = sheetObj.get("fileNameAndSheetIndex").asText().split("#");
+        
+            if (!fileNameAndSheetIndex[0].equals(fileSource))
+                continue;
+
+            sheetIndices.add(Integer.parseInt(fileNameAndSheetIndex[1]));
+        }
+
+        try (OdsSpreadsheetReader reader = OdsSpreadsheetReader.open(inputStream)) {
+            int sheetCount = 0;
+            String sheetName;
+            while ((sheetName = reader.nextSheet()) != null) {
+                sheetCount++;
+                if (!sheetIndices.contains(reader.getSheetIndex())) {
+                    continue;
+                }
+
+                TabularImportingParserBase.readTable(
+                        project,
+                        metadata,
+                        job,
+                        reader.getSheetReader(),
+                        fileSource + "#" + sheetName,
+                        limit,
+                        options,
+                        exceptions
+                );
+            }
+
+            if(sheetCount == 0){
+                exceptions.add(
+                        new ImportException(
+                                "Attempted to parse file as Ods file but failed. " +
+                                        "No tables found in Ods file. " +
+                                        "Please validate file format on https://odfvalidator.org/, then try re-uploading the file.",
+                                new NullPointerException()
+                        )
+                );
+            }
+        } catch (IOException e) {
+            exceptions.add(e);
+        }
+    }
+}
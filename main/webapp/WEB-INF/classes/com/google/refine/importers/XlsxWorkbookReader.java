@@ -0,0 +1,405 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.importers;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.poi.ooxml.POIXMLException;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.util.ZipInputStreamZipEntrySource;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.ExcelNumberFormat;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.SAXException;
+
+import com.google.refine.importers.TabularImportingParserBase.TableDataReader;
+import com.google.refine.model.Cell;
+import com.google.refine.util.ParsingUtilities;
+
+/**
+ * Reads the sheets of an XLSX workbook by streaming their XML, instead of
+ * loading the whole workbook like {@link org.apache.poi.xssf.usermodel.XSSFWorkbook}
+ * does. Only the shared strings and the cell styles are held in memory, and
+ * the cells of a sheet are produced one row at a time.
+ * <p>
+ * Cells are converted the same way as {@link ExcelImporter#extractCell}
+ * converts the cells of a loaded workbook.
+ */
+public class XlsxWorkbookReader implements Closeable {
+
+    static final private XMLInputFactory xmlInputFactory = XMLHelper.newXMLInputFactory();
+
+    /**
+     * Workbooks read from a stream are unzipped in memory, except for the entries
+     * above the size given by {@code refine.importers.xlsx.tempFileThreshold}
+     * (such as large sheets) which go to temporary files. This is a global
+     * Apache POI setting, so it is set once at startup by {@link com.google.refine.RefineServlet}.
+     */
+    static public void initialize() {
+        ZipInputStreamZipEntrySource.setThresholdBytesForTempFiles(
+                Integer.getInteger("refine.importers.xlsx.tempFileThreshold", 16 * 1024 * 1024));
+    }
+
+    final private OPCPackage pkg;
+    final private ReadOnlySharedStringsTable sharedStrings;
+    final private StylesTable styles;
+    final private List<String> sheetNames = new ArrayList<>();
+    final private List<PackagePart> sheetParts = new ArrayList<>();
+    // whether each cell style has a date format, by style index
+    final private Map<Integer, Boolean> dateStyles = new HashMap<>();
+
+    /**
+     * Opens a workbook file, reading its entries only when needed.
+     */
+    static public XlsxWorkbookReader open(File file) throws IOException, InvalidFormatException {
+        return open(OPCPackage.open(file, PackageAccess.READ));
+    }
+
+    static public XlsxWorkbookReader open(InputStream inputStream) throws IOException, InvalidFormatException {
+        return open(OPCPackage.open(inputStream));
+    }
+
+    static private XlsxWorkbookReader open(OPCPackage pkg) throws IOException {
+        try {
+            return new XlsxWorkbookReader(pkg);
+        } catch (IOException | RuntimeException e) {
+            pkg.revert();
+            throw e;
+        }
+    }
+
+    /**
+     * @param pkg
+     *            the opened workbook, which is reverted when this reader is closed
+     */
+    protected XlsxWorkbookReader(OPCPackage pkg) throws IOException {
+        this.pkg = pkg;
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            styles = reader.getStylesTable();
+            sharedStrings = new ReadOnlySharedStringsTable(pkg, false);
+
+            XSSFReader.SheetIterator it = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (it.hasNext()) {
+                // the iterator opens the sheet, which we only read later on
+                it.next().close();
+                sheetNames.add(it.getSheetName());
+                sheetParts.add(it.getSheetPart());
+            }
+        } catch (OpenXML4JException | SAXException e) {
+            throw new POIXMLException(e);
+        }
+    }
+
+    public int getSheetCount() {
+        return sheetNames.size();
+    }
+
+    public String getSheetName(int sheetIndex) {
+        return sheetNames.get(sheetIndex);
+    }
+
+    /**
+     * Counts the rows of a sheet, from its first to its last row, without
+     * reading its cells. The dimension recorded in the sheet is used when
+     * available, otherwise the row elements are scanned.
+     */
+    public int getRowCount(int sheetIndex) throws IOException {
+        try (InputStream stream = sheetParts.get(sheetIndex).getInputStream()) {
+            XMLStreamReader xml = xmlInputFactory.createXMLStreamReader(stream);
+            try {
+                int firstRow = -1;
+                int lastRow = -1;
+                while (xml.hasNext()) {
+                    if (xml.next() != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    String name = xml.getLocalName();
+                    if ("dimension".equals(name)) {
+                        String ref = xml.getAttributeValue(null, "ref");
+                        int colon = ref == null ? -1 : ref.indexOf(':');
+                        if (colon > 0) {
+                            return getRowIndex(ref.substring(colon + 1)) - getRowIndex(ref.substring(0, colon)) + 1;
+                        }
+                    } else if ("row".equals(name)) {
+                        String r = xml.getAttributeValue(null, "r");
+                        lastRow = r == null ? lastRow + 1 : Integer.parseInt(r) - 1;
+                        if (firstRow < 0) {
+                            firstRow = lastRow;
+                        }
+                    }
+                }
+                return lastRow - firstRow + 1;
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Streams the rows of a sheet. Missing rows are returned as empty lists
+     * and missing cells as nulls, like when iterating over a loaded sheet.
+     */
+    public SheetReader getSheetReader(int sheetIndex) throws IOException {
+        InputStream stream = sheetParts.get(sheetIndex).getInputStream();
+        try {
+            return new SheetReader(stream, xmlInputFactory.createXMLStreamReader(stream));
+        } catch (XMLStreamException e) {
+            stream.close();
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        // the package is only read, so there are no changes to save
+        pkg.revert();
+    }
+
+    public class SheetReader implements TableDataReader, Closeable {
+
+        final private InputStream stream;
+        final private XMLStreamReader xml;
+        // index of the next row to return
+        private int nextRow = 0;
+        // index of the last row read from the sheet
+        private int lastRow = -1;
+        // cells of the last row read, when it is not returned yet
+        private List<Object> pendingRow = null;
+        private boolean ended = false;
+
+        protected SheetReader(InputStream stream, XMLStreamReader xml) {
+            this.stream = stream;
+            this.xml = xml;
+        }
+
+        @Override
+        public List<Object> getNextRowOfCells() throws IOException {
+            if (pendingRow == null && !ended) {
+                try {
+                    pendingRow = readRow();
+                } catch (XMLStreamException | NumberFormatException e) {
+                    throw new IOException(e);
+                }
+            }
+            if (pendingRow == null) {
+                return null;
+            } else if (nextRow++ < lastRow) {
+                return new ArrayList<>();
+            } else {
+                List<Object> cells = pendingRow;
+                pendingRow = null;
+                return cells;
+            }
+        }
+
+        private List<Object> readRow() throws XMLStreamException {
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT && "row".equals(xml.getLocalName())) {
+                    String r = xml.getAttributeValue(null, "r");
+                    lastRow = r == null ? lastRow + 1 : Integer.parseInt(r) - 1;
+                    return readCells();
+                }
+            }
+            ended = true;
+            return null;
+        }
+
+        private List<Object> readCells() throws XMLStreamException {
+            List<Object> cells = new ArrayList<>();
+            int column = -1;
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.END_ELEMENT && "row".equals(xml.getLocalName())) {
+                    break;
+                } else if (event == XMLStreamConstants.START_ELEMENT && "c".equals(xml.getLocalName())) {
+                    String ref = xml.getAttributeValue(null, "r");
+                    column = ref == null ? column + 1 : getColumnIndex(ref);
+                    String type = xml.getAttributeValue(null, "t");
+                    String style = xml.getAttributeValue(null, "s");
+                    Cell cell = readCell(type, style);
+                    while (cells.size() < column) {
+                        cells.add(null);
+                    }
+                    cells.add(cell);
+                }
+            }
+            return cells;
+        }
+
+        private Cell readCell(String type, String style) throws XMLStreamException {
+            boolean formula = false;
+            String value = null;
+            StringBuilder inlineText = null;
+            int phoneticDepth = 0;
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    String name = xml.getLocalName();
+                    if ("c".equals(name)) {
+                        break;
+                    } else if ("rPh".equals(name)) {
+                        phoneticDepth--;
+                    }
+                } else if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = xml.getLocalName();
+                    if ("v".equals(name)) {
+                        value = xml.getElementText();
+                    } else if ("f".equals(name)) {
+                        formula = true;
+                    } else if ("is".equals(name)) {
+                        inlineText = new StringBuilder();
+                    } else if ("rPh".equals(name)) {
+                        phoneticDepth++;
+                    } else if ("t".equals(name) && inlineText != null && phoneticDepth == 0) {
+                        inlineText.append(xml.getElementText());
+                    }
+                }
+            }
+            return toCell(type, style, formula, value, inlineText);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                xml.close();
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            } finally {
+                stream.close();
+            }
+        }
+    }
+
+    /**
+     * Converts the content of a cell element, following the cell types and
+     * default values that {@link org.apache.poi.xssf.usermodel.XSSFCell} uses.
+     */
+    private Cell toCell(String type, String style, boolean formula, String value, StringBuilder inlineText) {
+        Serializable cellValue;
+        if (type == null || "n".equals(type)) {
+            if (value == null && !formula) {
+                // blank cell
+                return null;
+            }
+            double d = value == null || value.isEmpty() ? 0.0 : Double.parseDouble(value);
+            if (DateUtil.isValidExcelDate(d) && isDateStyle(style)) {
+                cellValue = ParsingUtilities.toDate(DateUtil.getJavaDate(d));
+            } else {
+                cellValue = d;
+            }
+        } else if ("b".equals(type)) {
+            cellValue = "1".equals(value);
+        } else if ("e".equals(type)) {
+            return null;
+        } else {
+            String text;
+            if ("s".equals(type)) {
+                text = value == null ? "" : sharedStrings.getItemAt(Integer.parseInt(value)).getString();
+            } else if ("inlineStr".equals(type) && inlineText != null) {
+                text = inlineText.toString();
+            } else {
+                text = value == null ? "" : value;
+            }
+            cellValue = text.length() > 0 ? text : null;
+        }
+        return new Cell(cellValue, null);
+    }
+
+    private boolean isDateStyle(String style) {
+        if (styles == null) {
+            return false;
+        }
+        int index;
+        if (style != null) {
+            index = Integer.parseInt(style);
+        } else if (styles.getNumCellStyles() > 0) {
+            index = 0;
+        } else {
+            return false;
+        }
+        return dateStyles.computeIfAbsent(index, i -> {
+            XSSFCellStyle cellStyle = styles.getStyleAt(i);
+            ExcelNumberFormat format = cellStyle == null ? null : ExcelNumberFormat.from(cellStyle);
+            return format != null && DateUtil.isADateFormat(format);
+        });
+    }
+
+    /**
+     * @param ref
+     *            a cell reference such as "AB12"
+     * @return the zero-based column index of the reference
+     */
+    static protected int getColumnIndex(String ref) {
+        int column = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char c = ref.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    /**
+     * @param ref
+     *            a cell reference such as "AB12"
+     * @return the zero-based row index of the reference
+     */
+    static protected int getRowIndex(String ref) {
+        int i = 0;
+        while (i < ref.length() && !Character.isDigit(ref.charAt(i))) {
+            i++;
+        }
+        return Integer.parseInt(ref.substring(i)) - 1;
+    }
+}
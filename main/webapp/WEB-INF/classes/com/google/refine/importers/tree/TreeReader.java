@@ -0,0 +1,69 @@
+/*
+
+Copyright 2010, Google Inc.
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above
+copyright notice, this list of conditions and the following disclaimer
+in the documentation and/or other materials provided with the
+distribution.
+    * Neither the name of Google Inc. nor the names of its
+contributors may be used to endorse or promote products derived from
+this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,           
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY           
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+*/
+
+package com.google.refine.importers.tree;
+
+import java.io.Serializable;
+
+/**
+ * Interface for all tree-shaped parsers.
+ * 
+ * This is effectively part of the contract for {@link TreeImportingParserBase}.
+ */
+public interface TreeReader {
+    public enum Token {
+        Ignorable,
+        StartEntity,
+        EndEntity,
+        Value
+        //append additional tokens only if necessary (most should be just mapped to Value or Ignorable)
+    }
+
+    public Token current() throws TreeReaderException; // aka getCurrentToken
+
+    public boolean hasNext() throws TreeReaderException;
+    public Token next() throws TreeReaderException;
+
+    public String getFieldName() throws TreeReaderException;
+    public String getPrefix();
+    
+    @Deprecated
+    public String getFieldValue() throws TreeReaderException;
+    
+    public Serializable getValue() throws TreeReaderException;
+    
+    public int getAttributeCount();
+    public String getAttributeValue(int index);
+    public String getAttributePrefix(int index);
+    public String getAttributeLocalName(int index);
+}
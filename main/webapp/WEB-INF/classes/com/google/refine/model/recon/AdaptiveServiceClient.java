@@ -0,0 +1,327 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model.recon;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.refine.util.HttpClient.HttpStatusException;
+
+/**
+ * Sends the requests made to a reconciliation service, adapting to its health.
+ * 
+ * <ul>
+ * <li>The latencies of the last requests are recorded, and the median one is
+ * used as the base delay before retrying a failed request.</li>
+ * <li>Retries are limited by a budget which grows by {@link #RETRY_RATIO} for
+ * each request, so that a failing service does not get several times the
+ * normal load.</li>
+ * <li>Only connection errors, server errors (5xx) and rate limiting (429) are
+ * retried. A delay asked for with Retry-After is honored, and rate-limited
+ * requests are otherwise retried after at least {@link #RATE_LIMIT_DELAY} ms.
+ * Client errors (4xx) come from the request rather than the service, so they
+ * are neither retried nor counted as failures of the service.</li>
+ * <li>After {@link #FAILURE_THRESHOLD} consecutive failures, the circuit opens:
+ * requests fail immediately for {@link #OPEN_TIME} ms. A single request is
+ * then let through, closing the circuit again if it succeeds.</li>
+ * </ul>
+ * 
+ * There is one client per service URL, so that the operations querying the
+ * same service share its health.
+ */
+public class AdaptiveServiceClient {
+
+    final static Logger logger = LoggerFactory.getLogger("adaptive-service-client");
+
+    static final int FAILURE_THRESHOLD = Integer.getInteger("refine.recon.circuitBreaker.failures", 5);
+    static final long OPEN_TIME = Long.getLong("refine.recon.circuitBreaker.openTime", 30000);
+    static final int MAX_RETRIES = 3;
+    static final double RETRY_RATIO = 0.2;
+    static final double MAX_RETRY_BUDGET = 10;
+    static final int LATENCY_WINDOW = 128;
+    static final long MIN_RETRY_DELAY = 100;
+    static final long MAX_RETRY_DELAY = 10000;
+    static final long RATE_LIMIT_DELAY = 1000;
+    // longer Retry-After delays are not waited for
+    static final long MAX_RETRY_AFTER = 60000;
+
+    static final private Map<String, AdaptiveServiceClient> s_clients = new ConcurrentHashMap<>();
+
+    public enum State {
+        @JsonProperty("closed")
+        CLOSED, @JsonProperty("open")
+        OPEN, @JsonProperty("half-open")
+        HALF_OPEN
+    }
+
+    @FunctionalInterface
+    public interface Request<T> {
+
+        T send() throws IOException;
+    }
+
+    /**
+     * Thrown without contacting the service while the circuit is open.
+     */
+    static public class CircuitOpenException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        public CircuitOpenException(String service) {
+            super("Too many failures from " + service + ", not querying it for now");
+        }
+    }
+
+    /**
+     * A snapshot of the health of a service.
+     */
+    static public class Health {
+
+        @JsonProperty("service")
+        final public String service;
+        @JsonProperty("state")
+        final public State state;
+        @JsonProperty("requests")
+        final public long requests;
+        @JsonProperty("failures")
+        final public long failures;
+        @JsonProperty("retries")
+        final public long retries;
+        @JsonProperty("rejected")
+        final public long rejected;
+        @JsonProperty("latencyP50")
+        final public long latencyP50;
+        @JsonProperty("latencyP95")
+        final public long latencyP95;
+        @JsonProperty("retryBudget")
+        final public double retryBudget;
+
+        protected Health(String service, State state, long requests, long failures, long retries, long rejected,
+                long latencyP50, long latencyP95, double retryBudget) {
+            this.service = service;
+            this.state = state;
+            this.requests = requests;
+            this.failures = failures;
+            this.retries = retries;
+            this.rejected = rejected;
+            this.latencyP50 = latencyP50;
+            this.latencyP95 = latencyP95;
+            this.retryBudget = retryBudget;
+        }
+    }
+
+    final protected String _service;
+    final protected int _failureThreshold;
+    final protected long _openTime;
+    final protected long[] _latencies = new long[LATENCY_WINDOW];
+    protected int _latencyCount = 0;
+    protected State _state = State.CLOSED;
+    protected int _consecutiveFailures = 0;
+    protected long _openUntil = 0;
+    protected boolean _trialInFlight = false;
+    protected double _retryBudget = MAX_RETRY_BUDGET;
+    protected long _requests = 0;
+    protected long _failures = 0;
+    protected long _retries = 0;
+    protected long _rejected = 0;
+
+    protected AdaptiveServiceClient(String service) {
+        this(service, FAILURE_THRESHOLD, OPEN_TIME);
+    }
+
+    protected AdaptiveServiceClient(String service, int failureThreshold, long openTime) {
+        _service = service;
+        _failureThreshold = failureThreshold;
+        _openTime = openTime;
+    }
+
+    static public AdaptiveServiceClient forService(String service) {
+        return s_clients.computeIfAbsent(service, AdaptiveServiceClient::new);
+    }
+
+    /**
+     * @return the health of the service, or null if it has not been queried yet.
+     */
+    static public Health getHealth(String service) {
+        AdaptiveServiceClient client = s_clients.get(service);
+        return client == null ? null : client.getHealth();
+    }
+
+    /**
+     * Sends a request, retrying it within the retry budget.
+     * 
+     * @throws CircuitOpenException
+     *      if the service failed too often recently
+     */
+    public <T> T send(Request<T> request) throws IOException {
+        synchronized (this) {
+            _retryBudget = Math.min(MAX_RETRY_BUDGET, _retryBudget + RETRY_RATIO);
+        }
+        for (int attempt = 0;; attempt++) {
+            boolean trial = acquire();
+            long start = System.nanoTime();
+            try {
+                T result = request.send();
+                onSuccess((System.nanoTime() - start) / 1000000, trial);
+                return result;
+            } catch (InterruptedIOException e) {
+                // the operation was canceled, which says nothing about the service
+                release(trial);
+                throw e;
+            } catch (IOException e) {
+                int status = e instanceof HttpStatusException ? ((HttpStatusException) e).statusCode : -1;
+                if (status >= 400 && status < 500) {
+                    // the service answered, so it is up
+                    onAnswer(trial);
+                } else {
+                    onFailure(trial);
+                }
+                boolean retryable = status < 400 || status >= 500 || status == 429;
+                long retryAfter = e instanceof HttpStatusException ? ((HttpStatusException) e).retryAfter : -1;
+                if (!retryable || retryAfter > MAX_RETRY_AFTER || attempt >= MAX_RETRIES || !withdrawRetry()) {
+                    throw e;
+                }
+                long delay;
+                if (retryAfter >= 0) {
+                    delay = retryAfter;
+                } else if (status == 429) {
+                    delay = Math.max(getRetryDelay(attempt), RATE_LIMIT_DELAY << attempt);
+                } else {
+                    delay = getRetryDelay(attempt);
+                }
+                logger.warn("Retrying request to " + _service + " in " + delay + "ms after: " + e.getMessage());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e2) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting to retry " + _service);
+                }
+            }
+        }
+    }
+
+    public synchronized Health getHealth() {
+        long[] latencies = Arrays.copyOf(_latencies, Math.min(_latencyCount, LATENCY_WINDOW));
+        Arrays.sort(latencies);
+        return new Health(_service, getState(), _requests, _failures, _retries, _rejected,
+                percentile(latencies, 50), percentile(latencies, 95), _retryBudget);
+    }
+
+    protected synchronized State getState() {
+        if (_state == State.OPEN && System.currentTimeMillis() >= _openUntil) {
+            _state = State.HALF_OPEN;
+        }
+        return _state;
+    }
+
+    /**
+     * @return whether the request is the trial of a half-open circuit
+     */
+    protected synchronized boolean acquire() throws CircuitOpenException {
+        State state = getState();
+        if (state == State.OPEN || (state == State.HALF_OPEN && _trialInFlight)) {
+            _rejected++;
+            throw new CircuitOpenException(_service);
+        }
+        _requests++;
+        _trialInFlight = state == State.HALF_OPEN;
+        return _trialInFlight;
+    }
+
+    protected synchronized void release(boolean trial) {
+        if (trial) {
+            _trialInFlight = false;
+        }
+    }
+
+    protected synchronized void onSuccess(long latency, boolean trial) {
+        _latencies[_latencyCount++ % LATENCY_WINDOW] = latency;
+        _consecutiveFailures = 0;
+        _state = State.CLOSED;
+        release(trial);
+    }
+
+    /**
+     * Records an error response which does not come from a failure of the service.
+     */
+    protected synchronized void onAnswer(boolean trial) {
+        _consecutiveFailures = 0;
+        if (trial) {
+            _state = State.CLOSED;
+        }
+        release(trial);
+    }
+
+    protected synchronized void onFailure(boolean trial) {
+        _failures++;
+        _consecutiveFailures++;
+        release(trial);
+        if (trial || _consecutiveFailures >= _failureThreshold) {
+            if (_state != State.OPEN) {
+                logger.warn("Not querying " + _service + " for " + _openTime + "ms after "
+                        + _consecutiveFailures + " consecutive failures");
+            }
+            _state = State.OPEN;
+            _openUntil = System.currentTimeMillis() + _openTime;
+        }
+    }
+
+    protected synchronized boolean withdrawRetry() {
+        if (_retryBudget < 1 || getState() != State.CLOSED) {
+            return false;
+        }
+        _retryBudget--;
+        _retries++;
+        return true;
+    }
+
+    /**
+     * Exponential backoff from the median latency of the service.
+     */
+    protected synchronized long getRetryDelay(int attempt) {
+        long[] latencies = Arrays.copyOf(_latencies, Math.min(_latencyCount, LATENCY_WINDOW));
+        Arrays.sort(latencies);
+        long base = Math.max(MIN_RETRY_DELAY, percentile(latencies, 50));
+        return Math.min(MAX_RETRY_DELAY, base << attempt);
+    }
+
+    static protected long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+}
@@ -0,0 +1,358 @@
+/*
+
+Copyright 2010, Google Inc.
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above
+copyright notice, this list of conditions and the following disclaimer
+in the documentation and/or other materials provided with the
+distribution.
+    * Neither the name of Google Inc. nor the names of its
+contributors may be used to endorse or promote products derived from
+this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,           
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY           
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+*/
+
+package com.google.refine.operations.recon;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.EngineConfig;
+import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.model.ReconCandidate;
+import com.google.refine.model.ReconType;
+import com.google.refine.model.Row;
+import com.google.refine.model.changes.CellAtRow;
+import com.google.refine.model.changes.DataExtensionChange;
+import com.google.refine.model.recon.AdaptiveServiceClient;
+import com.google.refine.model.recon.ReconciledDataExtensionJob;
+import com.google.refine.model.recon.ReconciledDataExtensionJob.ColumnInfo;
+import com.google.refine.model.recon.ReconciledDataExtensionJob.DataExtension;
+import com.google.refine.model.recon.ReconciledDataExtensionJob.DataExtensionConfig;
+import com.google.refine.operations.EngineDependentOperation;
+import com.google.refine.process.LongRunningProcess;
+import com.google.refine.process.Process;
+
+public class ExtendDataOperation extends EngineDependentOperation {
+    @JsonProperty("baseColumnName")
+    final protected String              _baseColumnName;
+    @JsonProperty("endpoint")
+    final protected String              _endpoint;
+    @JsonProperty("identifierSpace")
+    final protected String              _identifierSpace;
+    @JsonProperty("schemaSpace")
+    final protected String              _schemaSpace;
+    @JsonProperty("extension")
+    final protected DataExtensionConfig _extension;
+    @JsonProperty("columnInsertIndex")
+    final protected int                 _columnInsertIndex;
+    @JsonProperty("batchSize")
+    @JsonInclude(Include.NON_DEFAULT)
+    final protected int                 _batchSize;
+    @JsonProperty("concurrency")
+    @JsonInclude(Include.NON_DEFAULT)
+    final protected int                 _concurrency;
+
+    /**
+     * The number of ids sent in each request when the operation does not specify it.
+     */
+    static final public int DEFAULT_BATCH_SIZE = 10;
+
+    public ExtendDataOperation(
+        EngineConfig        engineConfig,
+        String              baseColumnName,
+        String              endpoint,
+        String              identifierSpace,
+        String              schemaSpace,
+        DataExtensionConfig extension,
+        int                 columnInsertIndex 
+    ) {
+        this(engineConfig, baseColumnName, endpoint, identifierSpace, schemaSpace,
+                extension, columnInsertIndex, 0, 0);
+    }
+
+    /**
+     * @param batchSize
+     *      the number of ids sent in each request, 0 for {@link #DEFAULT_BATCH_SIZE}
+     * @param concurrency
+     *      the number of requests in flight, 0 for the "recon.concurrency" preference
+     */
+    @JsonCreator
+    public ExtendDataOperation(
+        @JsonProperty("engineConfig")
+        EngineConfig        engineConfig,
+        @JsonProperty("baseColumnName")
+        String              baseColumnName,
+        @JsonProperty("endpoint")
+        String              endpoint,
+        @JsonProperty("identifierSpace")
+        String              identifierSpace,
+        @JsonProperty("schemaSpace")
+        String              schemaSpace,
+        @JsonProperty("extension")
+        DataExtensionConfig extension,
+        @JsonProperty("columnInsertIndex")
+        int                 columnInsertIndex,
+        @JsonProperty("batchSize")
+        int                 batchSize,
+        @JsonProperty("concurrency")
+        int                 concurrency
+    ) {
+        super(engineConfig);
+        
+        _baseColumnName = baseColumnName;
+        _endpoint = endpoint;
+        _identifierSpace = identifierSpace;
+        _schemaSpace = schemaSpace;
+        _extension = extension;
+        _columnInsertIndex = columnInsertIndex;
+        _batchSize = batchSize;
+        _concurrency = concurrency;
+    }
+
+    @Override
+    protected String getBriefDescription(Project project) {
+        return "Extend data at index " + _columnInsertIndex + 
+            " based on column " + _baseColumnName;
+    }
+
+    protected String createDescription(Column column, List<CellAtRow> cellsAtRows) {
+        return "Extend data at index " + _columnInsertIndex + 
+            " based on column " + column.getName() + 
+            " by filling " + cellsAtRows.size();
+    }
+    
+    @Override
+    public Process createProcess(Project project, Properties options) throws Exception {
+        return new ExtendDataProcess(
+            project, 
+            getEngineConfig(),
+            getBriefDescription(null)
+        );
+    }
+    
+    public class ExtendDataProcess extends LongRunningProcess implements Runnable {
+        final protected Project     _project;
+        final protected EngineConfig  _engineConfig;
+        final protected long        _historyEntryID;
+        protected int               _cellIndex;
+        protected ReconciledDataExtensionJob _job;
+
+        public ExtendDataProcess(
+            Project project, 
+            EngineConfig engineConfig, 
+            String description
+        ) {
+            super(description);
+            _project = project;
+            _engineConfig = engineConfig;
+            _historyEntryID = HistoryEntry.allocateID();
+            
+            _job = new ReconciledDataExtensionJob(_extension, _endpoint);
+        }
+
+        @JsonProperty("serviceHealth")
+        @JsonInclude(Include.NON_NULL)
+        public AdaptiveServiceClient.Health getServiceHealth() {
+            return AdaptiveServiceClient.getHealth(_endpoint);
+        }
+        
+        @Override
+        protected Runnable getRunnable() {
+            return this;
+        }
+        
+        protected void populateRowsWithMatches(List<Integer> rowIndices) throws Exception {
+            Engine engine = new Engine(_project);
+            engine.initializeFromConfig(_engineConfig);
+            
+            Column column = _project.columnModel.getColumnByName(_baseColumnName);
+            if (column == null) {
+                throw new Exception("No column named " + _baseColumnName);
+            }
+            
+            _cellIndex = column.getCellIndex();
+            
+            FilteredRows filteredRows = engine.getAllFilteredRows();
+            filteredRows.accept(_project, new RowVisitor() {
+                List<Integer> _rowIndices;
+                
+                public RowVisitor init(List<Integer> rowIndices) {
+                    _rowIndices = rowIndices;
+                    return this;
+                }
+
+                @Override
+                public void start(Project project) {
+                    // nothing to do
+                }
+
+                @Override
+                public void end(Project project) {
+                    // nothing to do
+                }
+                
+                @Override
+                public boolean visit(Project project, int rowIndex, Row row) {
+                    Cell cell = row.getCell(_cellIndex);
+                    if (cell != null && cell.recon != null && cell.recon.match != null) {
+                        _rowIndices.add(rowIndex);
+                    }
+                    
+                    return false;
+                }
+            }.init(rowIndices));
+        }
+        
+        /**
+         * Fetches the data of each distinct id once, in batches of
+         * {@link ExtendDataOperation#_batchSize} ids, keeping up to
+         * {@link ExtendDataOperation#_concurrency} requests in flight.
+         * 
+         * @return
+         *      the extensions by id. Ids for which the request failed are absent.
+         */
+        protected Map<String, DataExtension> extendIds(List<String> ids) {
+            int batchSize = _batchSize > 0 ? _batchSize : DEFAULT_BATCH_SIZE;
+            int concurrency = _concurrency > 0 ? _concurrency : ReconOperation.getConcurrency();
+            Map<String, DataExtension> extensions = new HashMap<String, DataExtension>();
+            Map<String, ReconCandidate> reconCandidateMap = new ConcurrentHashMap<String, ReconCandidate>();
+            
+            ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+            CompletionService<Map<String, DataExtension>> completionService = new ExecutorCompletionService<>(executor);
+            int inFlight = 0;
+            int next = 0;
+            int done = 0;
+            try {
+                while (next < ids.size() || inFlight > 0) {
+                    while (!_canceled && inFlight < concurrency && next < ids.size()) {
+                        int end = Math.min(ids.size(), next + batchSize);
+                        Set<String> batch = new HashSet<String>(ids.subList(next, end));
+                        completionService.submit(() -> {
+                            try {
+                                return _job.extend(batch, reconCandidateMap);
+                            } catch (Exception e) {
+                                return new HashMap<String, DataExtension>();
+                            }
+                        });
+                        next = end;
+                        inFlight++;
+                    }
+                    if (_canceled) {
+                        break;
+                    }
+                    
+                    extensions.putAll(completionService.take().get());
+                    inFlight--;
+                    // only the last batch can be smaller
+                    done = Math.min(ids.size(), done + batchSize);
+                    _progress = done * 100 / ids.size();
+                }
+            } catch (InterruptedException e) {
+                _canceled = true;
+            } catch (ExecutionException e) {
+                // the tasks catch their exceptions
+            } finally {
+                executor.shutdownNow();
+            }
+            return extensions;
+        }
+        
+        @Override
+        public void run() {
+            List<Integer> rowIndices = new ArrayList<Integer>();
+            
+            try {
+                populateRowsWithMatches(rowIndices);
+            } catch (Exception e2) {
+                // TODO : Not sure what to do here?
+                e2.printStackTrace();
+            }
+            
+            Set<String> ids = new LinkedHashSet<String>();
+            for (int index : rowIndices) {
+                ids.add(_project.rows.get(index).getCell(_cellIndex).recon.match.id);
+            }
+            Map<String, DataExtension> extensions = extendIds(new ArrayList<String>(ids));
+            
+            List<DataExtension> dataExtensions = new ArrayList<DataExtension>(rowIndices.size());
+            for (int index : rowIndices) {
+                dataExtensions.add(extensions.get(_project.rows.get(index).getCell(_cellIndex).recon.match.id));
+            }
+            
+            if (!_canceled) {
+                List<String> columnNames = new ArrayList<String>();
+                for (ColumnInfo info : _job.columns) {
+                    columnNames.add(info.name);
+                }
+                
+                List<ReconType> columnTypes = new ArrayList<ReconType>();
+                for (ColumnInfo info : _job.columns) {
+                    columnTypes.add(info.expectedType);
+                }
+                
+                HistoryEntry historyEntry = new HistoryEntry(
+                    _historyEntryID,
+                    _project, 
+                    _description, 
+                    ExtendDataOperation.this, 
+                    new DataExtensionChange(
+                        _baseColumnName,
+                        _endpoint,
+                        _identifierSpace,
+                        _schemaSpace,
+                        _columnInsertIndex,
+                        columnNames,
+                        columnTypes,
+                        rowIndices,
+                        dataExtensions,
+                        _historyEntryID)
+                );
+                
+                _project.history.addEntry(historyEntry);
+                _project.processManager.onDoneProcess(this);
+            }
+        }
+    }
+}
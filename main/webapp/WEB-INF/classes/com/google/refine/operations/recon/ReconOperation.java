@@ -0,0 +1,481 @@
+/*
+
+Copyright 2010, Google Inc.
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above
+copyright notice, this list of conditions and the following disclaimer
+in the documentation and/or other materials provided with the
+distribution.
+    * Neither the name of Google Inc. nor the names of its
+contributors may be used to endorse or promote products derived from
+this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,           
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY           
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+*/
+
+package com.google.refine.operations.recon;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.refine.ProjectManager;
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.EngineConfig;
+import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.history.Change;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.model.Recon;
+import com.google.refine.model.Row;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.model.changes.ReconChange;
+import com.google.refine.model.recon.AdaptiveServiceClient;
+import com.google.refine.model.recon.ReconConfig;
+import com.google.refine.model.recon.ReconJob;
+import com.google.refine.model.recon.StandardReconConfig;
+import com.google.refine.operations.EngineDependentOperation;
+import com.google.refine.process.LongRunningProcess;
+import com.google.refine.process.Process;
+import com.google.refine.util.ParsingUtilities;
+
+public class ReconOperation extends EngineDependentOperation {
+    final static Logger logger = LoggerFactory.getLogger("recon-operation");
+    
+    /**
+     * The latency above which batches are made smaller, in ms.
+     */
+    static final long TARGET_BATCH_LATENCY = Long.getLong("refine.recon.targetBatchLatency", 5000);
+    
+    final protected String      _columnName;
+    final protected ReconConfig _reconConfig;
+    
+    @JsonCreator
+    public ReconOperation(
+        @JsonProperty("engineConfig")
+        EngineConfig engineConfig, 
+        @JsonProperty("columnName")
+        String columnName, 
+        @JsonProperty("config")
+        ReconConfig reconConfig
+    ) {
+        super(engineConfig);
+        _columnName = columnName;
+        _reconConfig = reconConfig;
+    }
+
+    @Override
+    public Process createProcess(Project project, Properties options) throws Exception {
+        return new ReconProcess(
+            project, 
+            getEngineConfig(),
+            getBriefDescription(null)
+        );
+    }
+    
+    @Override
+    protected String getBriefDescription(Project project) {
+        return _reconConfig.getBriefDescription(project, _columnName);
+    }
+    
+    @JsonProperty("config")
+    public ReconConfig getReconConfig() {
+        return _reconConfig;
+    }
+    
+    @JsonProperty("columnName")
+    public String getColumnName() {
+        return _columnName;
+    }
+
+    static protected class ReconEntry {
+        final public int rowIndex;
+        final public Cell cell;
+        
+        public ReconEntry(int rowIndex, Cell cell) {
+            this.rowIndex = rowIndex;
+            this.cell = cell;
+        }
+    }
+    static protected class JobGroup {
+        final public ReconJob job;
+        final public List<ReconEntry> entries = new ArrayList<ReconEntry>();
+        public int trials = 0;
+        
+        public JobGroup(ReconJob job) {
+            this.job = job;
+        }
+    }
+    
+    static protected class Batch {
+        final public int index;
+        final public List<JobGroup> groups;
+        public List<CellChange> changes;
+        
+        public Batch(int index, List<JobGroup> groups) {
+            this.index = index;
+            this.groups = groups;
+        }
+    }
+    
+    public class ReconProcess extends LongRunningProcess implements Runnable {
+        final protected Project      _project;
+        final protected EngineConfig _engineConfig;
+        final protected long         _historyEntryID;
+        protected List<ReconEntry>   _entries;
+        protected int                _cellIndex;
+        
+        protected final String _addJudgmentFacetJson =
+                "{\n" + 
+                "  \"action\" : \"createFacet\",\n" + 
+                "  \"facetConfig\" : {\n" + 
+                "  \"columnName\" : \"" + _columnName + "\",\n" + 
+                "  \"expression\" : \"forNonBlank(cell.recon.judgment, v, v, if(isNonBlank(value), \\\"(unreconciled)\\\", \\\"(blank)\\\"))\",\n" + 
+                "    \"name\" : \"" + _columnName + ": judgment\"\n" + 
+                "    },\n" + 
+                "    \"facetOptions\" : {\n" + 
+                "      \"scroll\" : false\n" + 
+                "    },\n" + 
+                "    \"facetType\" : \"list\"\n" + 
+                " }";
+        protected final String _addScoreFacetJson = 
+                "{\n" + 
+                "  \"action\" : \"createFacet\",\n" + 
+                "  \"facetConfig\" : {\n" + 
+                "    \"columnName\" : \"" + _columnName + "\",\n" + 
+                "    \"expression\" : \"cell.recon.best.score\",\n" + 
+                "    \"mode\" : \"range\",\n" + 
+                "    \"name\" : \"" + _columnName + ": best candidate's score\"\n" + 
+                "         },\n" + 
+                "         \"facetType\" : \"range\"\n" + 
+                "}";
+        protected JsonNode _addJudgmentFacet, _addScoreFacet;
+        
+        public ReconProcess(
+            Project project, 
+            EngineConfig engineConfig, 
+            String description
+        ) {
+            super(description);
+            _project = project;
+            _engineConfig = engineConfig;
+            _historyEntryID = HistoryEntry.allocateID();
+            try {               
+                _addJudgmentFacet = ParsingUtilities.mapper.readValue(_addJudgmentFacetJson, JsonNode.class);
+                _addScoreFacet = ParsingUtilities.mapper.readValue(_addScoreFacetJson, JsonNode.class);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        
+        @JsonProperty("onDone")
+        public List<JsonNode> onDoneActions() {
+            List<JsonNode> onDone = new ArrayList<>();
+            onDone.add(_addJudgmentFacet);
+            if (_reconConfig instanceof StandardReconConfig) {
+                onDone.add(_addScoreFacet);
+            }
+            return onDone;
+        }
+
+        @JsonProperty("serviceHealth")
+        @JsonInclude(Include.NON_NULL)
+        public AdaptiveServiceClient.Health getServiceHealth() {
+            if (_reconConfig instanceof StandardReconConfig) {
+                return AdaptiveServiceClient.getHealth(((StandardReconConfig) _reconConfig).service);
+            }
+            return null;
+        }
+        
+        @Override
+        protected Runnable getRunnable() {
+            return this;
+        }
+        
+        protected void populateEntries() throws Exception {
+            Engine engine = new Engine(_project);
+            engine.initializeFromConfig(_engineConfig);
+            
+            Column column = _project.columnModel.getColumnByName(_columnName);
+            if (column == null) {
+                throw new Exception("No column named " + _columnName);
+            }
+            
+            _entries = new ArrayList<ReconEntry>(_project.rows.size());
+            _cellIndex = column.getCellIndex();
+            
+            FilteredRows filteredRows = engine.getAllFilteredRows();
+            filteredRows.accept(_project, new RowVisitor() {
+                @Override
+                public void start(Project project) {
+                    // nothing to do
+                }
+
+                @Override
+                public void end(Project project) {
+                    // nothing to do
+                }
+                
+                @Override
+                public boolean visit(Project project, int rowIndex, Row row) {
+                    if (_cellIndex < row.cells.size()) {
+                        Cell cell = row.cells.get(_cellIndex);
+                        if (cell != null && ExpressionUtils.isNonBlankData(cell.value)) {
+                            _entries.add(new ReconEntry(rowIndex, cell));
+                        }
+                    }
+                    return false;
+                }
+            });
+        }
+        
+        @Override
+        public void run() {
+            try {
+                populateEntries();
+            } catch (Exception e2) {
+                // TODO : Not sure what to do here?
+                e2.printStackTrace();
+            }
+            
+            // grouped in the order of their first cell, so that the change is deterministic
+            Map<String, JobGroup> jobKeyToGroup = new LinkedHashMap<String, JobGroup>();
+            
+            for (ReconEntry entry : _entries) {
+                ReconJob job = _reconConfig.createJob(
+                    _project, 
+                    entry.rowIndex, 
+                    _project.rows.get(entry.rowIndex), 
+                    _columnName, 
+                    entry.cell
+                );
+                
+                String key = job.getStringKey();
+                JobGroup group = jobKeyToGroup.get(key);
+                if (group == null) {
+                    group = new JobGroup(job);
+                    jobKeyToGroup.put(key, group);
+                }
+                group.entries.add(entry);
+            }
+            
+            List<JobGroup> groups = new ArrayList<JobGroup>(jobKeyToGroup.values());
+            List<CellChange> cellChanges = reconcileGroups(groups);
+            
+            // partial results are kept after cancellation
+            if (!_canceled || !cellChanges.isEmpty()) {
+                Change reconChange = new ReconChange(
+                    cellChanges, 
+                    _columnName, 
+                    _reconConfig,
+                    null
+                );
+                
+                HistoryEntry historyEntry = new HistoryEntry(
+                    _historyEntryID,
+                    _project, 
+                    _description, 
+                    ReconOperation.this, 
+                    reconChange
+                );
+                
+                _project.history.addEntry(historyEntry);
+            }
+            _project.processManager.onDoneProcess(this);
+        }
+        
+        /**
+         * Sends the jobs to the service in batches, keeping up to
+         * {@link ReconOperation#getConcurrency()} batches in flight. A new
+         * batch is only submitted once a previous one has returned, and its
+         * size is adapted to the latency of the previous batches. Batches
+         * which fail are logged and skipped.
+         * 
+         * @return
+         *      the cell changes of the batches which completed, in the order
+         *      of the groups
+         */
+        protected List<CellChange> reconcileGroups(List<JobGroup> groups) {
+            int concurrency = getConcurrency();
+            BatchSizer sizer = new BatchSizer(_reconConfig.getBatchSize(), TARGET_BATCH_LATENCY);
+            List<List<CellChange>> batchChanges = new ArrayList<>();
+            
+            ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+            CompletionService<Batch> completionService = new ExecutorCompletionService<>(executor);
+            int inFlight = 0;
+            int next = 0;
+            int done = 0;
+            try {
+                while (next < groups.size() || inFlight > 0) {
+                    while (!_canceled && inFlight < concurrency && next < groups.size()) {
+                        int end = Math.min(groups.size(), next + sizer.getBatchSize());
+                        Batch batch = new Batch(batchChanges.size(), groups.subList(next, end));
+                        batchChanges.add(null);
+                        completionService.submit(() -> {
+                            long start = System.nanoTime();
+                            try {
+                                batch.changes = reconcileBatch(batch.groups);
+                                sizer.onBatchDone((System.nanoTime() - start) / 1000000);
+                            } catch (RuntimeException e) {
+                                // like values without results, the values of a failed batch are left
+                                // unreconciled and the following batches are still sent
+                                logger.error("Reconciliation batch of " + batch.groups.size() + " values failed", e);
+                            }
+                            return batch;
+                        });
+                        next = end;
+                        inFlight++;
+                    }
+                    if (_canceled) {
+                        break;
+                    }
+                    
+                    Batch batch = completionService.take().get();
+                    inFlight--;
+                    batchChanges.set(batch.index, batch.changes);
+                    done += batch.groups.size();
+                    _progress = done * 100 / groups.size();
+                }
+            } catch (InterruptedException e) {
+                _canceled = true;
+            } catch (ExecutionException e) {
+                logger.error("Reconciliation batch failed", e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+            
+            List<CellChange> cellChanges = new ArrayList<CellChange>(_entries.size());
+            for (List<CellChange> changes : batchChanges) {
+                if (changes != null) {
+                    cellChanges.addAll(changes);
+                }
+            }
+            return cellChanges;
+        }
+        
+        protected List<CellChange> reconcileBatch(List<JobGroup> batch) {
+            List<ReconJob> jobs = new ArrayList<ReconJob>(batch.size());
+            for (JobGroup group : batch) {
+                jobs.add(group.job);
+            }
+            
+            List<Recon> recons = _reconConfig.batchRecon(jobs, _historyEntryID);
+            List<CellChange> cellChanges = new ArrayList<CellChange>();
+            for (int j = 0; j < batch.size(); j++) {
+                Recon recon = j < recons.size() ? recons.get(j) : null;
+                if (recon == null) {
+                    // TODO add EvalError instead? That is not so convenient
+                    // for users because they would lose the cell contents.
+                    // Better leave the cell unreconciled so they can be reconciled again later.
+                    continue;
+                }
+                List<ReconEntry> entries = batch.get(j).entries;
+                recon.judgmentBatchSize = entries.size();
+                
+                for (ReconEntry entry : entries) {
+                    Cell oldCell = entry.cell;
+                    Cell newCell = new Cell(oldCell.value, recon);
+                    
+                    CellChange cellChange = new CellChange(
+                        entry.rowIndex, 
+                        _cellIndex, 
+                        oldCell, 
+                        newCell
+                    );
+                    cellChanges.add(cellChange);
+                }
+            }
+            return cellChanges;
+        }
+    }
+    
+    /**
+     * The number of batches sent concurrently to the reconciliation service,
+     * from the "recon.concurrency" preference. Defaults to one batch at a
+     * time, since public services may not welcome parallel requests.
+     */
+    static protected int getConcurrency() {
+        Object v = ProjectManager.singleton.getPreferenceStore().get("recon.concurrency");
+        if (v != null) {
+            try {
+                int n = v instanceof Number ? ((Number) v).intValue() : Integer.parseInt(v.toString());
+                return Math.max(1, n);
+            } catch (NumberFormatException e) {
+                // ignore
+            }
+        }
+        return 1;
+    }
+    
+    /**
+     * Adapts the number of jobs per batch to the latency of the service:
+     * the size is halved when a batch takes longer than the target latency,
+     * and grows back towards the size requested by the recon config when
+     * batches are well within it.
+     */
+    static protected class BatchSizer {
+        final private int _maxBatchSize;
+        final private long _targetLatency;
+        private int _batchSize;
+        
+        public BatchSizer(int maxBatchSize, long targetLatency) {
+            _maxBatchSize = Math.max(1, maxBatchSize);
+            _targetLatency = targetLatency;
+            _batchSize = _maxBatchSize;
+        }
+        
+        public synchronized int getBatchSize() {
+            return _batchSize;
+        }
+        
+        /**
+         * @param latency
+         *      the time taken by a batch of the current size, in ms
+         */
+        public synchronized void onBatchDone(long latency) {
+            if (latency > _targetLatency) {
+                _batchSize = Math.max(1, _batchSize / 2);
+            } else if (latency < _targetLatency / 2) {
+                _batchSize = Math.min(_maxBatchSize, _batchSize + Math.max(1, _maxBatchSize / 4));
+            }
+        }
+    }
+}
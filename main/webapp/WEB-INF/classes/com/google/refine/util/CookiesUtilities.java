@@ -0,0 +1,85 @@
+/*
+
+Copyright 2010, Google Inc.
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above
+copyright notice, this list of conditions and the following disclaimer
+in the documentation and/or other materials provided with the
+distribution.
+    * Neither the name of Google Inc. nor the names of its
+contributors may be used to endorse or promote products derived from
+this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,           
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY           
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+*/
+
+package com.google.refine.util;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+public class CookiesUtilities {
+
+    public static final String DOMAIN = "127.0.0.1";
+    public static final String PATH = "/";
+    
+    public static Cookie getCookie(HttpServletRequest request, String name) {
+        if (name == null) {
+            throw new RuntimeException("cookie name cannot be null");
+        }
+        Cookie cookie = null;
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie c : cookies) {
+                if (name.equals(c.getName())) {
+                    cookie = c;
+                }
+            }
+        }
+        return cookie;
+    }
+
+    public static void setCookie(HttpServletRequest request, HttpServletResponse response, String name, String value, int max_age) {
+        Cookie c = new Cookie(name, value);
+        //c.setDomain(getDomain(request));
+        c.setPath(PATH);
+        c.setMaxAge(max_age);
+        response.addCookie(c);            
+    }
+
+    public static void deleteCookie(HttpServletRequest request, HttpServletResponse response, String name) {
+        Cookie c = new Cookie(name, "");
+        //c.setDomain(getDomain(request));
+        c.setPath(PATH);
+        c.setMaxAge(0);
+        response.addCookie(c);            
+    }
+    
+    public static String getDomain(HttpServletRequest request) {
+        String host = request.getHeader("Host");
+        if (host == null) {
+            return DOMAIN;
+        }
+        int index = host.indexOf(':');
+        return (index > -1) ? host.substring(0,index) : host ;
+    }
+}
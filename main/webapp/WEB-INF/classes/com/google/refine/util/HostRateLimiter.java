@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out requests to each host by at least a given delay, while requests
+ * to different hosts do not wait for each other. This is a token bucket of
+ * a single token per host: each request reserves the next free slot of its
+ * host and sleeps until then, outside of any lock.
+ */
+public class HostRateLimiter {
+
+    private final long _intervalNanos;
+    private final Map<String, Long> _nextSlots = new HashMap<>();
+
+    /**
+     * @param delay
+     *      the minimum time between two requests to the same host, in milliseconds
+     */
+    public HostRateLimiter(int delay) {
+        _intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(delay, 0));
+    }
+
+    /**
+     * Blocks until a request can be sent to the given host.
+     */
+    public void acquire(String host) throws InterruptedException {
+        if (_intervalNanos == 0) {
+            return;
+        }
+        long wait;
+        synchronized (_nextSlots) {
+            long now = System.nanoTime();
+            if (_nextSlots.size() > 1024) {
+                // forget the hosts which could be requested right away anyway
+                _nextSlots.values().removeIf(slot -> slot - now <= 0);
+            }
+            Long next = _nextSlots.get(host);
+            long slot = (next == null || next - now < 0) ? now : next;
+            _nextSlots.put(host, slot + _intervalNanos);
+            wait = slot - now;
+        }
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+}
@@ -0,0 +1,395 @@
+/*******************************************************************************
+ * Copyright (C) 2022, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hc.client5.http.utils.DateUtils;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.message.BasicHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.refine.ProjectManager;
+import com.google.refine.io.FileProjectManager;
+
+/**
+ * Disk-backed cache of HTTP response bodies, shared by all projects.
+ * 
+ * Entries are keyed by method, URL, request headers and request body. They are
+ * fresh for the time allowed by the Cache-Control max-age directive or the
+ * Expires header, or for {@link #DEFAULT_TTL} if the response has neither.
+ * Responses marked no-store are not cached. Stale entries with an ETag or a
+ * Last-Modified date are revalidated with a conditional request, reusing the
+ * stored body on a 304 response.
+ * 
+ * The least recently used entries are evicted once the total size of the
+ * stored bodies exceeds the given maximum.
+ */
+public class HttpResponseCache {
+
+    final static Logger logger = LoggerFactory.getLogger("http-response-cache");
+
+    /**
+     * How long responses without caching directives are kept, as the in-memory
+     * cache of URL fetching operations used to.
+     */
+    static final long DEFAULT_TTL = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * Preference enabling the cache for data extension queries. Reconciliation
+     * queries are cached by the {@link com.google.refine.model.recon.ReconCache} instead.
+     */
+    public static final String RECONCILIATION_PREFERENCE = "http.cache.reconciliation";
+
+    static private HttpResponseCache _default = null;
+
+    /**
+     * A response as seen by the cache.
+     */
+    public static class Response {
+
+        final int status;
+        final String body;
+        final String cacheControl;
+        final String expires;
+        final String etag;
+        final String lastModified;
+
+        public Response(int status, String body, String cacheControl, String expires, String etag,
+                String lastModified) {
+            this.status = status;
+            this.body = body;
+            this.cacheControl = cacheControl;
+            this.expires = expires;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /**
+     * Sends the request, with the given additional headers to make it conditional.
+     * Responses other than 2xx and 304 should be reported by exceptions.
+     */
+    @FunctionalInterface
+    public interface Fetcher {
+
+        Response fetch(Header[] conditionalHeaders) throws IOException;
+    }
+
+    protected static class Entry {
+
+        @JsonProperty("url")
+        final String url;
+        @JsonProperty("expires")
+        final long expires;
+        @JsonProperty("etag")
+        final String etag;
+        @JsonProperty("lastModified")
+        final String lastModified;
+        @JsonProperty("body")
+        final String body;
+
+        @JsonCreator
+        Entry(
+                @JsonProperty("url") String url,
+                @JsonProperty("expires") long expires,
+                @JsonProperty("etag") String etag,
+                @JsonProperty("lastModified") String lastModified,
+                @JsonProperty("body") String body) {
+            this.url = url;
+            this.expires = expires;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+    }
+
+    public static class Stats {
+
+        @JsonProperty("hits")
+        public final long hits;
+        @JsonProperty("misses")
+        public final long misses;
+        @JsonProperty("revalidations")
+        public final long revalidations;
+        @JsonProperty("evictions")
+        public final long evictions;
+        @JsonProperty("size")
+        public final long size;
+
+        Stats(long hits, long misses, long revalidations, long evictions, long size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.revalidations = revalidations;
+            this.evictions = evictions;
+            this.size = size;
+        }
+    }
+
+    protected final File _dir;
+    protected final long _maxBytes;
+    // file name to file size, least recently used first
+    protected final LinkedHashMap<String, Long> _index = new LinkedHashMap<>(16, 0.75f, true);
+    protected long _totalBytes = 0;
+
+    protected final AtomicLong _hits = new AtomicLong();
+    protected final AtomicLong _misses = new AtomicLong();
+    protected final AtomicLong _revalidations = new AtomicLong();
+    protected final AtomicLong _evictions = new AtomicLong();
+
+    public HttpResponseCache(File dir, long maxBytes) {
+        _dir = dir;
+        _maxBytes = maxBytes;
+        _dir.mkdirs();
+        File[] files = _dir.listFiles((d, name) -> name.endsWith(".json"));
+        if (files != null) {
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            for (File file : files) {
+                _index.put(file.getName(), file.length());
+                _totalBytes += file.length();
+            }
+        }
+        evict();
+    }
+
+    /**
+     * @return the cache stored in the workspace, or null if the workspace is not
+     *      stored on disk.
+     */
+    synchronized static public HttpResponseCache getDefault() {
+        if (_default == null && ProjectManager.singleton instanceof FileProjectManager) {
+            File workspace = ((FileProjectManager) ProjectManager.singleton).getWorkspaceDir();
+            long maxBytes = Long.getLong("refine.httpCache.maxBytes", 100L * 1024 * 1024);
+            _default = new HttpResponseCache(new File(workspace, "cache" + File.separator + "http"), maxBytes);
+        }
+        return _default;
+    }
+
+    /**
+     * @return the default cache if data extension responses should be cached, null otherwise.
+     */
+    static public HttpResponseCache forReconciliation() {
+        if (ProjectManager.singleton == null) {
+            return null;
+        }
+        Object enabled = ProjectManager.singleton.getPreferenceStore().get(RECONCILIATION_PREFERENCE);
+        if (Boolean.TRUE.equals(enabled) || "true".equals(enabled)) {
+            return getDefault();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the body of the response to a request, from the cache if it holds
+     * a fresh response, or by sending the request otherwise.
+     */
+    public String get(String method, String url, Header[] headers, String body, Fetcher fetcher) throws IOException {
+        String fileName = getFileName(method, url, headers, body);
+        Entry entry = read(fileName);
+        long now = System.currentTimeMillis();
+        if (entry != null && entry.expires > now) {
+            _hits.incrementAndGet();
+            return entry.body;
+        }
+
+        Header[] conditionalHeaders = new Header[0];
+        if (entry != null && entry.etag != null) {
+            conditionalHeaders = new Header[] { new BasicHeader("If-None-Match", entry.etag) };
+        } else if (entry != null && entry.lastModified != null) {
+            conditionalHeaders = new Header[] { new BasicHeader("If-Modified-Since", entry.lastModified) };
+        }
+        Response response = fetcher.fetch(conditionalHeaders);
+        if (response.status == HttpStatus.SC_NOT_MODIFIED && entry != null) {
+            _revalidations.incrementAndGet();
+            write(fileName, new Entry(url, getExpiry(response, now), entry.etag, entry.lastModified, entry.body));
+            return entry.body;
+        }
+        _misses.incrementAndGet();
+        if (response.body != null && !hasDirective(response.cacheControl, "no-store")) {
+            write(fileName, new Entry(url, getExpiry(response, now), response.etag, response.lastModified, response.body));
+        }
+        return response.body;
+    }
+
+    public Stats getStats() {
+        synchronized (_index) {
+            return new Stats(_hits.get(), _misses.get(), _revalidations.get(), _evictions.get(), _totalBytes);
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        synchronized (_index) {
+            for (String fileName : _index.keySet()) {
+                new File(_dir, fileName).delete();
+            }
+            _index.clear();
+            _totalBytes = 0;
+        }
+    }
+
+    static protected long getExpiry(Response response, long now) {
+        String cacheControl = response.cacheControl;
+        if (hasDirective(cacheControl, "no-cache")) {
+            return now;
+        }
+        if (cacheControl != null) {
+            for (String directive : cacheControl.split(",")) {
+                String d = directive.trim().toLowerCase(Locale.ROOT);
+                if (d.startsWith("max-age=")) {
+                    try {
+                        return now + TimeUnit.SECONDS.toMillis(Long.parseLong(d.substring(8).replace("\"", "")));
+                    } catch (NumberFormatException e) {
+                        return now;
+                    }
+                }
+            }
+        }
+        if (response.expires != null) {
+            Date expires = DateUtils.parseDate(response.expires);
+            // invalid dates mean that the response has already expired
+            return expires == null ? now : expires.getTime();
+        }
+        return now + DEFAULT_TTL;
+    }
+
+    static protected boolean hasDirective(String cacheControl, String directive) {
+        if (cacheControl == null) {
+            return false;
+        }
+        for (String d : cacheControl.split(",")) {
+            if (d.trim().equalsIgnoreCase(directive)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static protected String getFileName(String method, String url, Header[] headers, String body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((method + " " + url + "\n").getBytes(StandardCharsets.UTF_8));
+            if (headers != null) {
+                Header[] sorted = headers.clone();
+                Arrays.sort(sorted, Comparator.comparing((Header h) -> h.getName().toLowerCase(Locale.ROOT))
+                        .thenComparing(Header::getValue));
+                for (Header header : sorted) {
+                    digest.update((header.getName().toLowerCase(Locale.ROOT) + ": " + header.getValue() + "\n")
+                            .getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            if (body != null) {
+                digest.update(("\n" + body).getBytes(StandardCharsets.UTF_8));
+            }
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest()) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.append(".json").toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    protected Entry read(String fileName) {
+        synchronized (_index) {
+            if (_index.get(fileName) == null) {
+                return null;
+            }
+        }
+        File file = new File(_dir, fileName);
+        try {
+            Entry entry = ParsingUtilities.mapper.readValue(file, Entry.class);
+            file.setLastModified(System.currentTimeMillis());
+            return entry;
+        } catch (IOException e) {
+            logger.warn("Discarding unreadable cache entry " + file, e);
+            remove(fileName);
+            return null;
+        }
+    }
+
+    protected void write(String fileName, Entry entry) {
+        File file = new File(_dir, fileName);
+        try {
+            File tmp = File.createTempFile("entry", ".tmp", _dir);
+            ParsingUtilities.mapper.writeValue(tmp, entry);
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not store cache entry for " + entry.url, e);
+            return;
+        }
+        synchronized (_index) {
+            Long previous = _index.put(fileName, file.length());
+            _totalBytes += file.length() - (previous == null ? 0 : previous);
+            evict();
+        }
+    }
+
+    protected void remove(String fileName) {
+        synchronized (_index) {
+            Long size = _index.remove(fileName);
+            if (size != null) {
+                _totalBytes -= size;
+                new File(_dir, fileName).delete();
+            }
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> it = _index.entrySet().iterator();
+        while (_totalBytes > _maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            new File(_dir, eldest.getKey()).delete();
+            _totalBytes -= eldest.getValue();
+            it.remove();
+            _evictions.incrementAndGet();
+        }
+    }
+}
@@ -39,11 +39,15 @@ function ClusteringDialog(columnName, expression) {
     this._params = {};
 
     this._facets = [];
+    this._clusters = [];
 
     this._createDialog();
     this._cluster();
 }
 
+// number of clusters requested at once
+ClusteringDialog.pageSize = 1000;
+
 ClusteringDialog.prototype._createDialog = function() {
     var self = this;
     var dialog = $(DOM.loadHTML("core", "scripts/dialogs/clustering-dialog.html"));
@@ -60,6 +64,9 @@ ClusteringDialog.prototype._createDialog = function() {
     this._elmts.or_dialog_ngramSize.html($.i18n('core-dialogs/ngram-size'));
     this._elmts.or_dialog_radius.html($.i18n('core-dialogs/ngram-radius'));
     this._elmts.or_dialog_blockChars.html($.i18n('core-dialogs/block-chars'));
+    this._elmts.or_dialog_blocking.html($.i18n('core-dialogs/blocking'));
+    this._elmts.or_dialog_blockingNgram.text($.i18n('core-dialogs/blocking-ngram'));
+    this._elmts.or_dialog_blockingMinHash.text($.i18n('core-dialogs/blocking-minhash'));
     this._elmts.selectAllButton.html($.i18n('core-buttons/select-all'));
     this._elmts.deselectAllButton.html($.i18n('core-buttons/deselect-all'));
     this._elmts.exportClusterButton.html($.i18n('core-buttons/export-cluster'));
@@ -94,7 +101,7 @@ ClusteringDialog.prototype._createDialog = function() {
 
     var params_changer = function() {
         self._params = {};
-        $(".dialog-body input.param:visible").each(function() {
+        $(".dialog-body .param:visible").each(function() {
             var e = $(this);
             var name = e.attr('name');
             var datatype = e.attr('datatype') || 'string';
@@ -112,6 +119,7 @@ ClusteringDialog.prototype._createDialog = function() {
     this._elmts.ngramSize.change(params_changer);
     this._elmts.radius.change(params_changer);
     this._elmts.ngramBlock.change(params_changer);
+    this._elmts.blocking.change(params_changer);
 
     this._elmts.selectAllButton.click(function() { self._selectAll(); });
     this._elmts.deselectAllButton.click(function() { self._deselectAll(); });
@@ -298,25 +306,27 @@ ClusteringDialog.prototype._renderTable = function(clusters) {
         );
 
     } else {
+        this._elmts.resultSummary.empty();
         container.html(
             '<div style="margin: 2em;"><div style="font-size: 130%; color: #333;">'+$.i18n('core-dialogs/no-cluster-found')+'</div><div style="padding-top: 1em; font-size: 110%; color: #888;">'+$.i18n('core-dialogs/try-another-method')+'</div></div>'
         );
     }
+
+    this._renderMoreLink();
 };
 
 ClusteringDialog.prototype._cluster = function() {
     $(".clustering-dialog-facet").css("display","none");
-    var self = this;
 
-    var container = this._elmts.tableContainer.html(
+    this._elmts.tableContainer.html(
         '<div style="margin: 1em; font-size: 130%; color: #888;">'+$.i18n('core-dialogs/clustering')+'<img src="images/small-spinner.gif"></div>'
     );
 
     this._elmts.resultSummary.empty();
 
-    $.post(
-        "command/core/compute-clusters?" + $.param({ project: theProject.id }),
-        {
+    // pages of a previous request still loading are dropped
+    this._clusterRequest = {
+        params: {
             engine: JSON.stringify(ui.browsingEngine.getJSON()),
             clusterer: JSON.stringify({
                 'type' : this._method,
@@ -325,15 +335,57 @@ ClusteringDialog.prototype._cluster = function() {
                 'params' : this._params
             })
         },
+        total: 0
+    };
+    this._clusters = [];
+    this._fetchClusters(this._clusterRequest);
+};
+
+/*
+ * Fetches the next page of clusters, largest first. Further pages are only
+ * requested when the user asks for them.
+ */
+ClusteringDialog.prototype._fetchClusters = function(request) {
+    var self = this;
+    $.post(
+        "command/core/compute-clusters?" + $.param({ project: theProject.id }),
+        $.extend({ start: this._clusters.length, limit: ClusteringDialog.pageSize }, request.params),
         function(data) {
-            self._updateData(data);
+            if (self._clusterRequest !== request) {
+                return;
+            }
+            if (data.code == "error") {
+                self._elmts.tableContainer.empty();
+                alert(data.message);
+                return;
+            }
+            request.total = data.total;
+            // the facets cover the clusters loaded so far
+            self._updateData(self._clusters.concat(self._createClusters(data.clusters)));
             $(".clustering-dialog-facet").css("display","block");
         },
         "json"
     );
 };
 
-ClusteringDialog.prototype._updateData = function(data) {
+ClusteringDialog.prototype._renderMoreLink = function() {
+    var self = this;
+    var request = this._clusterRequest;
+    if (!request || this._clusters.length >= request.total) {
+        return;
+    }
+    var summary = this._elmts.resultSummary;
+    summary.append('<br/>' + $.i18n('core-dialogs/clusters-partial', this._clusters.length, request.total) + ' ');
+    $('<a href="javascript:{}"></a>')
+        .text($.i18n('core-dialogs/load-more-clusters', Math.min(ClusteringDialog.pageSize, request.total - this._clusters.length)))
+        .on('click', function() {
+            $(this).replaceWith($('<img src="images/small-spinner.gif">'));
+            self._fetchClusters(request);
+        })
+        .appendTo(summary);
+};
+
+ClusteringDialog.prototype._createClusters = function(data) {
     var clusters = [];
     $.each(data, function() {
         var cluster = {
@@ -360,6 +412,10 @@ ClusteringDialog.prototype._updateData = function(data) {
 
         clusters.push(cluster);
     });
+    return clusters;
+};
+
+ClusteringDialog.prototype._updateData = function(clusters) {
     this._clusters = clusters;
 
     this._resetFacets();
@@ -483,13 +539,17 @@ ClusteringDialog.prototype._updateAll = function() {
     this._renderTable(this._getRestrictedClusters());
 };
 
-ClusteringDialog.prototype._resetFacets = function() {
+ClusteringDialog.prototype._removeFacets = function() {
     for (var i = 0; i < this._facets.length; i++) {
         var r = this._facets[i];
         r.facet.dispose();
         r.elmt.remove();
     }
     this._facets = [];
+};
+
+ClusteringDialog.prototype._resetFacets = function() {
+    this._removeFacets();
 
     this._createFacet($.i18n('core-dialogs/choices-in-cluster'), "size");
     this._createFacet($.i18n('core-dialogs/rows-in-cluster'), "rowCount");
@@ -55,13 +55,24 @@ function ExtendReconciledDataPreviewDialog(column, columnIndex, rowIndices, onDo
       self._onDone(self._extension,
                   self._service,
                   self._serviceMetadata.identifierSpace,
-                  self._serviceMetadata.schemaSpace);
+                  self._serviceMetadata.schemaSpace,
+                  self._getBatchSize());
     }
   });
   this._elmts.cancelButton.click(function() {
     DialogSystem.dismissUntil(self._level - 1);
   });
 
+  this._getBatchSize = function() {
+    // services can advertise the number of ids they accept per request
+    var extend = self._serviceMetadata ? self._serviceMetadata.extend : null;
+    var batchSize = extend ? extend.batch_size : null;
+    if (!batchSize && self._serviceMetadata) {
+      batchSize = self._serviceMetadata.batch_size;
+    }
+    return typeof batchSize === "number" && batchSize > 0 ? batchSize : 0;
+  };
+
   var type = (column.reconConfig) && (column.reconConfig.type) ? column.reconConfig.type.id : "";
 
   this._proposePropertiesUrl = null;
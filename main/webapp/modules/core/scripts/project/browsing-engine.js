@@ -102,6 +102,7 @@ BrowsingEngine.prototype._initializeUI = function() {
     '</div>' +
     '<div class="browsing-panel-header" bind="header">' +
     '<div class="browsing-panel-errors" bind="errors"></div>' +
+    '<div class="browsing-panel-truncated" bind="truncated">'+$.i18n('core-project/facets-truncated')+'</div>' +
     '<div class="browsing-panel-indicator" bind="indicator">' +
     '<img src="images/small-spinner.gif" /> '+$.i18n('core-project/refreshing-facet')+'' +
     '</div>' +
@@ -234,6 +235,9 @@ BrowsingEngine.prototype.removeFacet = function(facet) {
   }
 };
 
+// Lets the server cancel a facet computation superseded by a newer one from this page
+BrowsingEngine._clientId = Math.random().toString(36).substring(2);
+
 BrowsingEngine.prototype.update = function(onDone) {
   var self = this;
 
@@ -244,7 +248,7 @@ BrowsingEngine.prototype.update = function(onDone) {
   this._elmts.indicator.css("display", "block");
 
   $.post(
-    "command/core/compute-facets?" + $.param({ project: theProject.id }),
+    "command/core/compute-facets?" + $.param({ project: theProject.id, clientId: BrowsingEngine._clientId }),
     { engine: JSON.stringify(this.getJSON(true)) },
     function(data) {
       if(data.code === "error") {
@@ -266,6 +270,8 @@ BrowsingEngine.prototype.update = function(onDone) {
 
       self._elmts.indicator.css("display", "none");
       self._elmts.errors.css("display", "none");
+      // the server ran out of time and left some facets uncomputed
+      self._elmts.truncated.css("display", data.truncated && self._facets.length > 0 ? "block" : "none");
       if (self._facets.length > 0) {
         self._elmts.header.show();
         self._elmts.controls.css("visibility", "visible");
@@ -95,6 +95,7 @@ ReconStandardServicePanel.prototype._constructUI = function() {
   this._elmts.or_proc_noType.html($.i18n('core-recon/no-type'));
   this._elmts.or_proc_autoMatch.html($.i18n('core-recon/auto-match'));
   this._elmts.or_proc_max_candidates.html($.i18n('core-recon/max-candidates'));
+  this._elmts.or_proc_bypassCache.html($.i18n('core-recon/bypass-cache'));
 
   this._elmts.rawServiceLink.attr("href", this._service.url);
 
@@ -329,7 +330,8 @@ ReconStandardServicePanel.prototype.start = function() {
         type: (type) ? { id: type.id, name: type.name } : null,
         autoMatch: this._elmts.automatchCheck[0].checked,
         columnDetails: columnDetails,
-        limit: parseInt(this._elmts.maxCandidates[0].value) || 0
+        limit: parseInt(this._elmts.maxCandidates[0].value) || 0,
+        bypassCache: this._elmts.bypassCacheCheck[0].checked
       })
     },
     { cellsChanged: true, columnStatsChanged: true }
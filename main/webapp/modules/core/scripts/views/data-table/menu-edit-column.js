@@ -121,6 +121,7 @@ DataTableColumnHeaderUI.extendMenu(function(column, columnHeaderUI, menu) {
     elmts.or_views_setBlank.text($.i18n('core-views/set-blank'));
     elmts.or_views_storeErr.text($.i18n('core-views/store-err'));
     elmts.or_views_cacheResponses.text($.i18n('core-views/cache-responses'));
+    elmts.or_views_concurrency.text($.i18n('core-views/concurrent-requests'));
     elmts.or_views_httpHeaders.text($.i18n('core-views/http-headers'));
     elmts.or_views_httpHeadersShowHide.text($.i18n('core-views/show'));
     elmts.or_views_httpHeadersShowHide.click(function() {
@@ -167,6 +168,7 @@ DataTableColumnHeaderUI.extendMenu(function(column, columnHeaderUI, menu) {
           delay: elmts.throttleDelayInput[0].value,
           onError: $('input[name="dialog-onerror-choice"]:checked')[0].value,
           cacheResponses: $('input[name="dialog-cache-responses"]')[0].checked,
+          concurrency: elmts.concurrencyInput[0].value,
           httpHeaders: JSON.stringify(elmts.setHttpHeadersContainer.find("input").serializeArray())
         },
         null,
@@ -183,7 +185,7 @@ DataTableColumnHeaderUI.extendMenu(function(column, columnHeaderUI, menu) {
       column, 
       columnIndex, 
       o.rowIndices,
-      function(extension, endpoint, identifierSpace, schemaSpace) {
+      function(extension, endpoint, identifierSpace, schemaSpace, batchSize) {
         Refine.postProcess(
             "core",
             "extend-data", 
@@ -192,7 +194,8 @@ DataTableColumnHeaderUI.extendMenu(function(column, columnHeaderUI, menu) {
 	      endpoint: endpoint,
               identifierSpace: identifierSpace,
               schemaSpace: schemaSpace,
-              columnInsertIndex: columnIndex + 1
+              columnInsertIndex: columnIndex + 1,
+              batchSize: batchSize
             },
             {
               extension: JSON.stringify(extension)